@@ -0,0 +1,105 @@
+package org.practice.surveymaster.archive;
+
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBinaryWriter;
+import org.bson.Document;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.DocumentCodec;
+import org.bson.codecs.EncoderContext;
+import org.bson.io.BasicOutputBuffer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * <p>
+ * 归档块编解码
+ * </p>
+ *
+ * <p>
+ * 一个归档块是若干答案文档的原始BSON首尾相接后整体GZIP压缩。
+ * BSON文档自带4字节小端长度前缀，无需额外分隔；读取时边解压边逐个解码，
+ * 任意时刻内存中只有一个文档，大块也不会整体展开。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+public final class ArchiveChunkCodec {
+
+    private static final DocumentCodec CODEC = new DocumentCodec();
+
+    private ArchiveChunkCodec() {
+    }
+
+    /**
+     * 压缩一批文档
+     */
+    public static byte[] pack(List<Document> documents) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            for (Document document : documents) {
+                BasicOutputBuffer buffer = new BasicOutputBuffer();
+                try (BsonBinaryWriter writer = new BsonBinaryWriter(buffer)) {
+                    CODEC.encode(writer, document, EncoderContext.builder().build());
+                }
+                buffer.pipe(gzip);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * 流式解压并逐个回调文档
+     *
+     * @param data     归档块数据
+     * @param consumer 文档回调
+     */
+    public static void unpack(byte[] data, Consumer<Document> consumer) {
+        try (DataInputStream in = new DataInputStream(new GZIPInputStream(new ByteArrayInputStream(data)))) {
+            byte[] lengthBytes = new byte[4];
+            while (readFullyOrEnd(in, lengthBytes)) {
+                int length = ByteBuffer.wrap(lengthBytes).order(ByteOrder.LITTLE_ENDIAN).getInt();
+                byte[] document = new byte[length];
+                System.arraycopy(lengthBytes, 0, document, 0, 4);
+                in.readFully(document, 4, length - 4);
+                try (BsonBinaryReader reader = new BsonBinaryReader(ByteBuffer.wrap(document))) {
+                    consumer.accept(CODEC.decode(reader, DecoderContext.builder().build()));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 读满缓冲区，流在起始位置结束时返回false
+     */
+    private static boolean readFullyOrEnd(InputStream in, byte[] buffer) throws IOException {
+        int read = 0;
+        while (read < buffer.length) {
+            int n = in.read(buffer, read, buffer.length - read);
+            if (n < 0) {
+                if (read == 0) {
+                    return false;
+                }
+                throw new EOFException("归档块数据不完整");
+            }
+            read += n;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,113 @@
+package org.practice.surveymaster.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.practice.surveymaster.config.AnonymousAnswerConfig;
+import org.practice.surveymaster.util.BloomFilter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * 匿名答题设备去重过滤器
+ * </p>
+ *
+ * <p>
+ * 每个问卷在Redis中维护一个位图作为布隆过滤器，设备指纹的k个位置在本地按{@link BloomFilter}的双重哈希计算，
+ * 由Lua脚本逐位SETBIT并根据原值判断是否全部已置位，"判断是否存在"与"加入"在一次往返内原子完成，
+ * 同一设备的并发提交只有一个能通过，无需查询MongoDB。多个实例共享同一位图。
+ * </p>
+ *
+ * <p>
+ * 位图大小由预期设备数与误判率决定，与实际答卷数无关；每次加入时刷新过期时间，问卷停止收集后随TTL回收。
+ * 误判只会让极少数新设备被当作已提交，不会放过重复提交。Redis不可用时放行（fail-open），由限流兜底。
+ * </p>
+ *
+ * <p>
+ * 去重只是尽力而为的提示，不是安全边界：设备标识由客户端提供，可以任意伪造或每次更换，
+ * 更换标识即可绕过去重；真正限制提交量的是按IP的限流，客户端IP只在直连地址属于可信代理时才从代理请求头解析。
+ * 需要严格保证一人一份时应要求登录后答题。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+@Slf4j
+@Component
+public class AnonymousRespondentFilter {
+
+    /**
+     * ARGV[1]为过期时间（毫秒），其余为位置；有任一位原先为0时返回1（新设备），否则返回0
+     */
+    private static final String TEST_AND_SET_SCRIPT =
+            "local added = 0 " +
+            "for i = 2, #ARGV do " +
+            "  if redis.call('SETBIT', KEYS[1], ARGV[i], 1) == 0 then added = 1 end " +
+            "end " +
+            "redis.call('PEXPIRE', KEYS[1], ARGV[1]) " +
+            "return added";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final AnonymousAnswerConfig config;
+    private final DefaultRedisScript<Long> testAndSetScript = new DefaultRedisScript<>(TEST_AND_SET_SCRIPT, Long.class);
+    private final long numBits;
+    private final int numHashes;
+
+    @Autowired
+    public AnonymousRespondentFilter(StringRedisTemplate stringRedisTemplate, AnonymousAnswerConfig config) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.config = config;
+        this.numBits = BloomFilter.optimalNumBits(config.getExpectedRespondents(), config.getFpp());
+        this.numHashes = BloomFilter.optimalNumHashes(config.getExpectedRespondents(), numBits);
+    }
+
+    /**
+     * 记录设备在问卷上的一次提交
+     *
+     * @param surveyId    问卷ID
+     * @param fingerprint 设备指纹
+     * @return true表示首次提交；false表示该设备可能已提交过
+     */
+    public boolean tryAdd(Long surveyId, String fingerprint) {
+        long[] positions = BloomFilter.positions(fingerprint, numBits, numHashes);
+        Object[] args = new Object[positions.length + 1];
+        args[0] = String.valueOf(TimeUnit.DAYS.toMillis(config.getTtlDays()));
+        for (int i = 0; i < positions.length; i++) {
+            args[i + 1] = String.valueOf(positions[i]);
+        }
+        try {
+            Long added = stringRedisTemplate.execute(testAndSetScript,
+                    Collections.singletonList(config.getKeyPrefix() + surveyId), args);
+            return added == null || added != 0L;
+        } catch (DataAccessException e) {
+            log.warn("匿名答题去重过滤器不可用，放行本次提交: 问卷ID={}", surveyId, e);
+            return true;
+        }
+    }
+
+    /**
+     * 设备指纹：优先使用客户端设备标识，缺失时以IP与User-Agent代替，统一摘要为定长字符串
+     *
+     * <p>
+     * 设备标识完全由客户端决定，只用于区分同一出口IP后的不同设备，伪造或更换标识会得到新的指纹；
+     * 缺失时同一IP与User-Agent的设备共用一个指纹，可能把NAT后的不同用户当作同一设备。
+     * </p>
+     *
+     * @param deviceId  客户端设备标识，可为空，不可信
+     * @param clientIp  客户端IP，应由{@link org.practice.surveymaster.util.IpUtil}按可信代理解析
+     * @param userAgent User-Agent，可为空
+     */
+    public String fingerprint(String deviceId, String clientIp, String userAgent) {
+        String source = deviceId != null && !deviceId.isEmpty() && deviceId.length() <= config.getMaxDeviceIdLength()
+                ? "d:" + deviceId
+                : "n:" + clientIp + "|" + (userAgent == null ? "" : userAgent);
+        return DigestUtils.md5DigestAsHex(source.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,197 @@
+package org.practice.surveymaster.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.practice.surveymaster.config.SurveyResultCacheConfig;
+import org.practice.surveymaster.projection.AnswerChange;
+import org.practice.surveymaster.projection.LocalAnswerChangeListener;
+import org.practice.surveymaster.util.LruCache;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * <p>
+ * 问卷结果缓存
+ * </p>
+ *
+ * <p>
+ * 结果页在问卷投放期间被创建者频繁刷新，这里缓存最近一次计算结果并按stale-while-revalidate返回：
+ * 新鲜期内直接返回；超过新鲜期但未超过最长可用期时立即返回旧结果，同时提交一次后台刷新；
+ * 没有可用结果时同步计算。同一个key同时只有一次计算在进行，其余并发请求等待同一个结果（请求合并），
+ * 后台刷新期间的并发请求也不会再触发计算。
+ * </p>
+ *
+ * <p>
+ * 收到答案变更广播后，该问卷的全部结果立即视为过期（按问卷记录最后变化时间，无需遍历key），
+ * 下一次请求即触发刷新；监听顺序排在最后，其他本地视图先应用变更。每个实例都会收到广播，
+ * 广播漏收时依赖新鲜期刷新，可能漏收时清空全部结果。
+ * 计算抛出的异常不缓存，直接抛给本次合并的所有请求；后台刷新失败时继续返回旧结果。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+@Slf4j
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class SurveyResultCache implements LocalAnswerChangeListener, DisposableBean {
+
+    private final SurveyResultCacheConfig config;
+    private final LruCache<String, Entry> entries;
+    private final LruCache<Long, Long> changedAt;
+    private final ConcurrentHashMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor refresher;
+
+    @Autowired
+    public SurveyResultCache(SurveyResultCacheConfig config) {
+        this.config = config;
+        this.entries = new LruCache<>(config.getMaxEntries(), config.getMaxStaleMillis());
+        this.changedAt = new LruCache<>(config.getMaxEntries(), config.getMaxStaleMillis());
+        AtomicInteger sequence = new AtomicInteger();
+        this.refresher = new ThreadPoolExecutor(config.getRefreshThreads(), config.getRefreshThreads(),
+                0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(config.getRefreshQueueCapacity()), runnable -> {
+            Thread thread = new Thread(runnable, "survey-result-refresh-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * 读取问卷结果
+     *
+     * @param surveyId 问卷ID，答案变化时按问卷失效
+     * @param key      结果key，需包含问卷ID以外的全部查询参数
+     * @param loader   计算结果
+     * @return 结果，可能是超过新鲜期但仍在最长可用期内的旧结果
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(Long surveyId, String key, Supplier<T> loader) {
+        if (!config.isEnabled()) {
+            return loader.get();
+        }
+        String cacheKey = surveyId + ":" + key;
+        Entry entry = entries.get(cacheKey);
+        if (entry != null) {
+            if (isStale(surveyId, entry)) {
+                refreshAsync(surveyId, cacheKey, loader, entry.value);
+            }
+            return (T) entry.value;
+        }
+        CompletableFuture<Object> created = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(cacheKey, created);
+        if (existing != null) {
+            return (T) await(existing);
+        }
+        return (T) load(surveyId, cacheKey, loader, created);
+    }
+
+    /**
+     * 标记问卷的全部结果已过期，下次读取时刷新
+     */
+    public void invalidate(Long surveyId) {
+        changedAt.put(surveyId, System.currentTimeMillis());
+    }
+
+    @Override
+    public void onAnswersChanged(List<AnswerChange> changes) {
+        Set<Long> surveyIds = new HashSet<>();
+        for (AnswerChange change : changes) {
+            surveyIds.add(change.getSurveyId());
+        }
+        surveyIds.forEach(this::invalidate);
+    }
+
+    @Override
+    public void onChangesMissed() {
+        entries.clear();
+    }
+
+    @Override
+    public void destroy() {
+        refresher.shutdownNow();
+    }
+
+    private boolean isStale(Long surveyId, Entry entry) {
+        if (System.currentTimeMillis() - entry.computedAt > config.getFreshMillis()) {
+            return true;
+        }
+        Long changed = changedAt.get(surveyId);
+        return changed != null && changed >= entry.computedAt;
+    }
+
+    private void refreshAsync(Long surveyId, String cacheKey, Supplier<?> loader, Object stale) {
+        CompletableFuture<Object> created = new CompletableFuture<>();
+        if (inFlight.putIfAbsent(cacheKey, created) != null) {
+            return;
+        }
+        try {
+            refresher.execute(() -> {
+                try {
+                    load(surveyId, cacheKey, loader, created);
+                } catch (RuntimeException e) {
+                    log.warn("后台刷新问卷结果失败，继续使用旧结果: key={}", cacheKey, e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // 队列已满，跳过本次刷新，期间合并进来的请求拿到旧结果
+            inFlight.remove(cacheKey, created);
+            created.complete(stale);
+        }
+    }
+
+    /**
+     * 计算并写入缓存，完成后唤醒合并到本次计算的请求
+     */
+    private Object load(Long surveyId, String cacheKey, Supplier<?> loader, CompletableFuture<Object> created) {
+        // 以开始计算的时间作为结果时间，计算期间发生的答案变化会使结果立即过期
+        long startedAt = System.currentTimeMillis();
+        try {
+            Object value = loader.get();
+            entries.put(cacheKey, new Entry(value, startedAt));
+            created.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            created.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(cacheKey, created);
+        }
+    }
+
+    private static Object await(CompletableFuture<Object> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static final class Entry {
+
+        private final Object value;
+        private final long computedAt;
+
+        private Entry(Object value, long computedAt) {
+            this.value = value;
+            this.computedAt = computedAt;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package org.practice.surveymaster.cache;
+
+import org.practice.surveymaster.config.AnswerValidationConfig;
+import org.practice.surveymaster.constant.SurveyStatus;
+import org.practice.surveymaster.mapper.SurveyMapper;
+import org.practice.surveymaster.model.Survey;
+import org.practice.surveymaster.util.LruCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * <p>
+ * 问卷状态缓存
+ * </p>
+ *
+ * <p>
+ * 提交答案前判断问卷是否处于已发布状态，结果在本地缓存一小段时间，热门问卷不必每次查库。
+ * 本实例修改问卷状态或删除问卷时立即失效；其他实例的修改最迟在缓存过期后生效，
+ * 即关闭或删除问卷后的短时间内仍可能接收少量提交。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+@Component
+public class SurveyStatusCache {
+
+    private final SurveyMapper surveyMapper;
+    private final LruCache<Long, Boolean> acceptingSurveys;
+
+    @Autowired
+    public SurveyStatusCache(SurveyMapper surveyMapper, AnswerValidationConfig config) {
+        this.surveyMapper = surveyMapper;
+        this.acceptingSurveys = new LruCache<>(config.getSurveyStatusCacheSize(), config.getSurveyStatusTtlMillis());
+    }
+
+    /**
+     * 问卷是否已发布、可以接收答案
+     */
+    public boolean isAccepting(Long surveyId) {
+        Boolean accepting = acceptingSurveys.get(surveyId);
+        if (accepting == null) {
+            Survey survey = surveyMapper.selectById(surveyId);
+            accepting = survey != null && survey.getStatus() == SurveyStatus.PUBLISHED.getCode();
+            acceptingSurveys.put(surveyId, accepting);
+        }
+        return accepting;
+    }
+
+    /**
+     * 问卷状态变更后丢弃缓存
+     */
+    public void invalidate(Long surveyId) {
+        acceptingSurveys.remove(surveyId);
+    }
+}
@@ -0,0 +1,98 @@
+package org.practice.surveymaster.cache;
+
+import org.practice.surveymaster.model.User;
+import org.practice.surveymaster.service.UserService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.annotation.RequestScope;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * <p>
+ * 请求级用户批量加载器
+ * </p>
+ *
+ * <p>
+ * 参照DataLoader的思路：组装响应时先对每个需要的用户ID调用 {@link #load(Long)} 登记并拿到future，
+ * 全部登记完后调用一次 {@link #dispatch()}，所有未命中的ID合并为一次 {@code selectByIds} 查询。
+ * 同一请求内重复加载同一用户只会查询一次。该Bean为请求作用域，只能在Web请求线程中使用，
+ * 后台任务请直接调用 {@link UserService#findByIds(Collection)}。
+ * </p>
+ *
+ * <pre>
+ * CompletableFuture&lt;User&gt; creator = userBatchLoader.load(survey.getUserId());
+ * ...
+ * userBatchLoader.dispatch();
+ * String creatorName = creator.join().getUsername();
+ * </pre>
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+@Component
+@RequestScope
+public class UserBatchLoader {
+
+    private final UserService userService;
+    private final Map<Long, CompletableFuture<User>> futures = new HashMap<>();
+    private final Set<Long> pending = new LinkedHashSet<>();
+
+    @Autowired
+    public UserBatchLoader(UserService userService) {
+        this.userService = userService;
+    }
+
+    /**
+     * 登记需要加载的用户，在 {@link #dispatch()} 之后future才会完成
+     *
+     * @param id 用户ID
+     * @return 用户future，用户不存在时结果为null
+     */
+    public CompletableFuture<User> load(Long id) {
+        return futures.computeIfAbsent(id, key -> {
+            pending.add(key);
+            return new CompletableFuture<>();
+        });
+    }
+
+    /**
+     * 批量加载并立即返回结果
+     *
+     * @param ids 用户ID集合
+     * @return 用户ID到用户的映射，不存在的用户不包含在结果中
+     */
+    public Map<Long, User> loadMany(Collection<Long> ids) {
+        ids.forEach(this::load);
+        dispatch();
+        Map<Long, User> result = new LinkedHashMap<>();
+        for (Long id : ids) {
+            User user = futures.get(id).join();
+            if (user != null) {
+                result.put(id, user);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 将所有已登记但未加载的ID合并为一次批量查询
+     */
+    public void dispatch() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        Set<Long> batch = new LinkedHashSet<>(pending);
+        pending.clear();
+        Map<Long, User> users = userService.findByIds(batch);
+        for (Long id : batch) {
+            futures.get(id).complete(users.get(id));
+        }
+    }
+}
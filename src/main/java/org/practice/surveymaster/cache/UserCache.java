@@ -0,0 +1,98 @@
+package org.practice.surveymaster.cache;
+
+import org.practice.surveymaster.config.UserCacheConfig;
+import org.practice.surveymaster.model.User;
+import org.practice.surveymaster.util.LruCache;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * <p>
+ * 本地用户缓存
+ * </p>
+ *
+ * <p>
+ * 同时按用户ID和用户名索引：ID索引保存用户信息，用户名索引只保存用户名到ID的映射，
+ * 两者共用同一份用户对象。缓存中的用户不包含密码，仅用于令牌刷新和响应数据填充，
+ * 登录校验仍然直接查询数据库。读写都返回副本，调用方修改返回的用户不会影响缓存内容。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/10
+ */
+@Component
+public class UserCache {
+
+    private final LruCache<Long, User> usersById;
+    private final LruCache<String, Long> idsByUsername;
+
+    @Autowired
+    public UserCache(UserCacheConfig userCacheConfig) {
+        this.usersById = new LruCache<>(userCacheConfig.getMaxSize(), userCacheConfig.getTtlMillis());
+        this.idsByUsername = new LruCache<>(userCacheConfig.getMaxSize(), userCacheConfig.getTtlMillis());
+    }
+
+    /**
+     * 根据ID读取缓存用户
+     *
+     * @return 缓存用户的副本，未命中返回null
+     */
+    public User getById(Long id) {
+        return id == null ? null : copyOf(usersById.get(id));
+    }
+
+    /**
+     * 根据用户名读取缓存用户
+     */
+    public User getByUsername(String username) {
+        if (username == null) {
+            return null;
+        }
+        Long id = idsByUsername.get(username);
+        return id == null ? null : copyOf(usersById.get(id));
+    }
+
+    /**
+     * 写入缓存，密码字段会被剔除
+     *
+     * @param user 数据库中的用户
+     * @return 不含密码的用户副本，与缓存中保存的对象相互独立
+     */
+    public User put(User user) {
+        if (user == null || user.getId() == null) {
+            return user;
+        }
+        User cached = new User();
+        BeanUtils.copyProperties(user, cached, "password");
+        usersById.put(cached.getId(), cached);
+        if (cached.getUsername() != null) {
+            idsByUsername.put(cached.getUsername(), cached.getId());
+        }
+        return copyOf(cached);
+    }
+
+    /**
+     * 使缓存失效
+     */
+    public void evict(User user) {
+        if (user == null) {
+            return;
+        }
+        if (user.getId() != null) {
+            usersById.remove(user.getId());
+        }
+        if (user.getUsername() != null) {
+            idsByUsername.remove(user.getUsername());
+        }
+    }
+
+    private static User copyOf(User cached) {
+        if (cached == null) {
+            return null;
+        }
+        User copy = new User();
+        BeanUtils.copyProperties(cached, copy);
+        return copy;
+    }
+}
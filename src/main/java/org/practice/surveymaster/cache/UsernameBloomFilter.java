@@ -0,0 +1,115 @@
+package org.practice.surveymaster.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.practice.surveymaster.config.UsernameBloomFilterConfig;
+import org.practice.surveymaster.mapper.UserMapper;
+import org.practice.surveymaster.model.User;
+import org.practice.surveymaster.util.BloomFilter;
+import org.practice.surveymaster.util.LruCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * <p>
+ * 用户名布隆过滤器
+ * </p>
+ *
+ * <p>
+ * 应用启动后在后台线程中按主键分页扫描用户表完成预热，注册成功后实时追加新用户名。
+ * 布隆过滤器判定"一定不存在"的用户名可以跳过存在性查询直接插入，由唯一索引兜底；
+ * 判定"可能存在"的用户名再由调用方确认。已确认被占用的用户名会记录在一个有界缓存中，
+ * 机器人反复注册同一用户名时无需再访问MySQL。
+ * 预热完成前过滤器视所有用户名为"可能存在"，即退化为原有的先查后插流程。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/11
+ */
+@Slf4j
+@Component
+public class UsernameBloomFilter {
+
+    private final UserMapper userMapper;
+    private final UsernameBloomFilterConfig config;
+    private final BloomFilter bloomFilter;
+    private final LruCache<String, Boolean> takenUsernames;
+    private volatile boolean ready;
+
+    @Autowired
+    public UsernameBloomFilter(UserMapper userMapper, UsernameBloomFilterConfig config) {
+        this.userMapper = userMapper;
+        this.config = config;
+        this.bloomFilter = new BloomFilter(config.getExpectedInsertions(), config.getFpp());
+        this.takenUsernames = new LruCache<>(config.getTakenCacheSize(), 0);
+    }
+
+    /**
+     * 应用就绪后异步预热，不阻塞启动
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void preloadAsync() {
+        if (!config.isEnabled()) {
+            return;
+        }
+        Thread thread = new Thread(this::preload, "username-bloom-preload");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * 按主键分页扫描用户表，避免一次性加载全部用户
+     */
+    void preload() {
+        long start = System.currentTimeMillis();
+        long lastId = 0L;
+        long loaded = 0L;
+        try {
+            while (true) {
+                List<User> users = userMapper.selectUsernamesAfterId(lastId, config.getPreloadBatchSize());
+                for (User user : users) {
+                    bloomFilter.put(user.getUsername());
+                    lastId = user.getId();
+                }
+                loaded += users.size();
+                if (users.size() < config.getPreloadBatchSize()) {
+                    break;
+                }
+            }
+            ready = true;
+            log.info("用户名布隆过滤器预热完成，用户数: {}，耗时: {}ms", loaded, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("用户名布隆过滤器预热失败，注册将回退为查库校验", e);
+        }
+    }
+
+    /**
+     * 用户名是否可能已被占用
+     *
+     * @return false表示一定未被占用，可直接插入
+     */
+    public boolean mightBeTaken(String username) {
+        if (!config.isEnabled() || !ready) {
+            return true;
+        }
+        return bloomFilter.mightContain(username);
+    }
+
+    /**
+     * 用户名是否已确认被占用（仅查本地缓存，不访问数据库）
+     */
+    public boolean isKnownTaken(String username) {
+        return takenUsernames.get(username) != null;
+    }
+
+    /**
+     * 记录一个已被占用的用户名（注册成功或查库确认占用后调用）
+     */
+    public void markTaken(String username) {
+        bloomFilter.put(username);
+        takenUsernames.put(username, Boolean.TRUE);
+    }
+}
@@ -0,0 +1,168 @@
+package org.practice.surveymaster.codec;
+
+import org.practice.surveymaster.constant.QuestionType;
+import org.practice.surveymaster.model.mongo.Answer;
+import org.practice.surveymaster.model.mongo.CompactAnswer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * <p>
+ * 答案编解码器
+ * </p>
+ *
+ * <p>
+ * 在接口使用的{@link Answer.QuestionAnswer}与存储使用的{@link CompactAnswer}之间转换：
+ * 选择题的选项文本换成选项ID，评分与文本按类型放入各自字段；
+ * 无法确定编码方式的值原样放入v，保证任何答案都能无损往返。
+ * 解码时选项按当前文本返回，选项改名后历史答案随之显示新名称；
+ * 选项已被删除时返回固定格式的占位文本，选择题的值对客户端始终是字符串。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+@Component
+public class AnswerCodec {
+
+    /**
+     * 已删除选项的占位文本格式，参数为选项ID
+     */
+    static final String DELETED_OPTION_TEXT = "[已删除选项#%d]";
+
+    private final OptionDictionary optionDictionary;
+
+    @Autowired
+    public AnswerCodec(OptionDictionary optionDictionary) {
+        this.optionDictionary = optionDictionary;
+    }
+
+    /**
+     * 编码答案列表，出现字典中没有的选项时刷新一次字典后重试
+     */
+    public List<CompactAnswer> encode(Long surveyId, List<Answer.QuestionAnswer> answers) {
+        SurveyDictionary dictionary = optionDictionary.get(surveyId);
+        List<CompactAnswer> encoded = encode(answers, dictionary);
+        if (encoded.stream().anyMatch(answer -> answer.getRaw() != null)) {
+            SurveyDictionary refreshed = optionDictionary.refresh(surveyId, dictionary);
+            if (refreshed != dictionary) {
+                encoded = encode(answers, refreshed);
+            }
+        }
+        return encoded;
+    }
+
+    /**
+     * 解码答案列表
+     */
+    public List<Answer.QuestionAnswer> decode(Long surveyId, List<CompactAnswer> answers) {
+        return decode(answers, optionDictionary.get(surveyId));
+    }
+
+    /**
+     * 读取侧适配：紧凑格式解码为answers，旧格式文档保持不变
+     */
+    public Answer adapt(Answer answer) {
+        if (answer != null && answer.getCompactAnswers() != null) {
+            answer.setAnswers(decode(answer.getSurveyId(), answer.getCompactAnswers()));
+            answer.setCompactAnswers(null);
+        }
+        return answer;
+    }
+
+    static List<CompactAnswer> encode(List<Answer.QuestionAnswer> answers, SurveyDictionary dictionary) {
+        List<CompactAnswer> encoded = new ArrayList<>(answers.size());
+        for (Answer.QuestionAnswer answer : answers) {
+            encoded.add(encode(answer, dictionary));
+        }
+        return encoded;
+    }
+
+    static List<Answer.QuestionAnswer> decode(List<CompactAnswer> answers, SurveyDictionary dictionary) {
+        List<Answer.QuestionAnswer> decoded = new ArrayList<>(answers.size());
+        for (CompactAnswer answer : answers) {
+            decoded.add(decode(answer, dictionary));
+        }
+        return decoded;
+    }
+
+    private static CompactAnswer encode(Answer.QuestionAnswer answer, SurveyDictionary dictionary) {
+        CompactAnswer compact = new CompactAnswer();
+        compact.setQuestionId(compactId(answer.getQuestionId()));
+        Object value = answer.getAnswer();
+        QuestionType type = dictionary.typeOf(answer.getQuestionId());
+        if (type == QuestionType.SINGLE_CHOICE && value instanceof String) {
+            Long optionId = dictionary.optionId(answer.getQuestionId(), (String) value);
+            if (optionId != null) {
+                compact.setOption(compactId(optionId));
+                return compact;
+            }
+        } else if (type == QuestionType.MULTIPLE_CHOICE && value instanceof Collection) {
+            List<Number> optionIds = new ArrayList<>();
+            for (Object item : (Collection<?>) value) {
+                Long optionId = item instanceof String ? dictionary.optionId(answer.getQuestionId(), (String) item) : null;
+                if (optionId == null) {
+                    optionIds = null;
+                    break;
+                }
+                optionIds.add(compactId(optionId));
+            }
+            if (optionIds != null) {
+                compact.setOptions(optionIds);
+                return compact;
+            }
+        } else if (type == QuestionType.RATING && (value instanceof Integer || value instanceof Long
+                || value instanceof Double)) {
+            compact.setRating(value instanceof Long ? compactId((Long) value) : (Number) value);
+            return compact;
+        } else if (type == QuestionType.TEXT && value instanceof String) {
+            compact.setText((String) value);
+            return compact;
+        }
+        compact.setRaw(value);
+        return compact;
+    }
+
+    private static Answer.QuestionAnswer decode(CompactAnswer compact, SurveyDictionary dictionary) {
+        Long questionId = compact.getQuestionId() == null ? null : compact.getQuestionId().longValue();
+        Object value;
+        if (compact.getOption() != null) {
+            value = optionText(compact.getOption(), dictionary);
+        } else if (compact.getOptions() != null) {
+            List<String> texts = new ArrayList<>(compact.getOptions().size());
+            for (Number optionId : compact.getOptions()) {
+                texts.add(optionText(optionId, dictionary));
+            }
+            value = texts;
+        } else if (compact.getRating() != null) {
+            value = compact.getRating();
+        } else if (compact.getText() != null) {
+            value = compact.getText();
+        } else {
+            value = compact.getRaw();
+        }
+        return new Answer.QuestionAnswer(questionId, value);
+    }
+
+    /**
+     * 选项已被删除时返回占位文本，同一选项的占位文本固定不变
+     */
+    private static String optionText(Number optionId, SurveyDictionary dictionary) {
+        String text = dictionary.optionText(optionId.longValue());
+        return text != null ? text : String.format(DELETED_OPTION_TEXT, optionId.longValue());
+    }
+
+    /**
+     * int范围内的ID以Integer存储，BSON中占4字节
+     */
+    static Number compactId(Long id) {
+        if (id == null) {
+            return null;
+        }
+        return id >= Integer.MIN_VALUE && id <= Integer.MAX_VALUE ? (Number) id.intValue() : id;
+    }
+}
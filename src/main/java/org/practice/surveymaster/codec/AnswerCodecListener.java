@@ -0,0 +1,56 @@
+package org.practice.surveymaster.codec;
+
+import org.practice.surveymaster.model.mongo.Answer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterConvertEvent;
+import org.springframework.data.mongodb.core.mapping.event.BeforeConvertEvent;
+import org.springframework.data.mongodb.core.mapping.event.BeforeSaveEvent;
+import org.springframework.stereotype.Component;
+
+/**
+ * <p>
+ * 答案编解码监听器
+ * </p>
+ *
+ * <p>
+ * 挂在MongoTemplate的映射事件上，对仓库与模板的读写透明：
+ * 写入前把answers编码为紧凑格式并从文档中去掉answers，读取后再解码回answers。
+ * 不经过映射事件的读取（如Change Stream直接转换的文档）需调用{@link AnswerCodec#adapt}。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+@Component
+public class AnswerCodecListener extends AbstractMongoEventListener<Answer> {
+
+    private static final String LEGACY_FIELD = "answers";
+
+    private final AnswerCodec answerCodec;
+
+    @Autowired
+    public AnswerCodecListener(AnswerCodec answerCodec) {
+        this.answerCodec = answerCodec;
+    }
+
+    @Override
+    public void onBeforeConvert(BeforeConvertEvent<Answer> event) {
+        Answer answer = event.getSource();
+        if (answer.getAnswers() != null) {
+            answer.setCompactAnswers(answerCodec.encode(answer.getSurveyId(), answer.getAnswers()));
+        }
+    }
+
+    @Override
+    public void onBeforeSave(BeforeSaveEvent<Answer> event) {
+        if (event.getDocument() != null && event.getSource().getCompactAnswers() != null) {
+            event.getDocument().remove(LEGACY_FIELD);
+        }
+    }
+
+    @Override
+    public void onAfterConvert(AfterConvertEvent<Answer> event) {
+        answerCodec.adapt(event.getSource());
+    }
+}
@@ -0,0 +1,87 @@
+package org.practice.surveymaster.codec;
+
+import lombok.extern.slf4j.Slf4j;
+import org.practice.surveymaster.config.AnswerCodecConfig;
+import org.practice.surveymaster.model.mongo.Answer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * <p>
+ * 旧格式答案迁移
+ * </p>
+ *
+ * <p>
+ * 按_id递增分批扫描仍带answers字段的旧文档，编码后以一次批量更新写入a并删除answers。
+ * 更新条件带上answers存在，重复执行或多实例同时迁移都不会重复写入；
+ * 扫描到末尾后本进程不再执行，重启后会再确认一次。
+ * 迁移产生的更新事件解码后内容不变，答案统计投影按差异计算不会重复计数。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+@Slf4j
+@Component
+public class AnswerCompactionMigrator {
+
+    private static final String LEGACY_FIELD = "answers";
+
+    private final MongoTemplate mongoTemplate;
+    private final AnswerCodec answerCodec;
+    private final AnswerCodecConfig config;
+
+    private String lastId;
+    private volatile boolean completed;
+    private long migrated;
+
+    @Autowired
+    public AnswerCompactionMigrator(MongoTemplate mongoTemplate, AnswerCodec answerCodec, AnswerCodecConfig config) {
+        this.mongoTemplate = mongoTemplate;
+        this.answerCodec = answerCodec;
+        this.config = config;
+    }
+
+    /**
+     * 迁移一批旧文档
+     *
+     * @return 本批迁移的文档数，全部完成后返回0
+     */
+    public synchronized int migrateBatch() {
+        if (completed) {
+            return 0;
+        }
+        Criteria criteria = Criteria.where(LEGACY_FIELD).exists(true);
+        if (lastId != null) {
+            criteria.and("_id").gt(lastId);
+        }
+        Query query = Query.query(criteria).with(Sort.by(Sort.Direction.ASC, "_id"))
+                .limit(config.getMigrationBatchSize());
+        List<Answer> legacy = mongoTemplate.find(query, Answer.class);
+        if (legacy.isEmpty()) {
+            completed = true;
+            log.info("旧格式答案迁移完成，本次共迁移 {} 条", migrated);
+            return 0;
+        }
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Answer.class);
+        for (Answer answer : legacy) {
+            Update update = new Update()
+                    .set("compactAnswers", answerCodec.encode(answer.getSurveyId(), answer.getAnswers()))
+                    .unset(LEGACY_FIELD);
+            bulk.updateOne(Query.query(Criteria.where("_id").is(answer.getId()).and(LEGACY_FIELD).exists(true)), update);
+        }
+        bulk.execute();
+        lastId = legacy.get(legacy.size() - 1).getId();
+        migrated += legacy.size();
+        return legacy.size();
+    }
+}
@@ -0,0 +1,57 @@
+package org.practice.surveymaster.codec;
+
+import org.practice.surveymaster.config.AnswerCodecConfig;
+import org.practice.surveymaster.mapper.OptionMapper;
+import org.practice.surveymaster.mapper.QuestionMapper;
+import org.practice.surveymaster.util.LruCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * 问卷字典缓存
+ * 按问卷缓存题型与选项，过期后重新加载；编码时遇到字典中没有的选项可要求提前刷新
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+@Component
+public class OptionDictionary {
+
+    private final QuestionMapper questionMapper;
+    private final OptionMapper optionMapper;
+    private final AnswerCodecConfig config;
+    private final LruCache<Long, SurveyDictionary> cache;
+
+    @Autowired
+    public OptionDictionary(QuestionMapper questionMapper, OptionMapper optionMapper, AnswerCodecConfig config) {
+        this.questionMapper = questionMapper;
+        this.optionMapper = optionMapper;
+        this.config = config;
+        this.cache = new LruCache<>(config.getDictionaryCacheSize(), config.getDictionaryTtlMillis());
+    }
+
+    /**
+     * 读取问卷字典
+     */
+    public SurveyDictionary get(Long surveyId) {
+        SurveyDictionary dictionary = cache.get(surveyId);
+        return dictionary != null ? dictionary : load(surveyId);
+    }
+
+    /**
+     * 字典可能已过时（如刚新增了选项）时重新加载，距上次加载不足最小间隔时沿用原字典
+     */
+    public SurveyDictionary refresh(Long surveyId, SurveyDictionary stale) {
+        if (System.currentTimeMillis() - stale.getLoadedAt() < config.getDictionaryMinReloadMillis()) {
+            return stale;
+        }
+        return load(surveyId);
+    }
+
+    private SurveyDictionary load(Long surveyId) {
+        SurveyDictionary dictionary = new SurveyDictionary(questionMapper.selectBySurveyId(surveyId),
+                optionMapper.selectBySurveyId(surveyId), System.currentTimeMillis());
+        cache.put(surveyId, dictionary);
+        return dictionary;
+    }
+}
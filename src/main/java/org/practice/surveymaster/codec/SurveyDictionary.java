@@ -0,0 +1,69 @@
+package org.practice.surveymaster.codec;
+
+import org.practice.surveymaster.constant.QuestionType;
+import org.practice.surveymaster.model.OptionTable;
+import org.practice.surveymaster.model.Question;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>
+ * 问卷的题型与选项字典
+ * </p>
+ *
+ * <p>
+ * 编码时把选项文本换成选项ID，解码时再换回文本。选项ID全局唯一，反查无需问题ID。
+ * 构建后只读，可在多个线程间共享。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+public final class SurveyDictionary {
+
+    private final Map<Long, QuestionType> types = new HashMap<>();
+    private final Map<Long, Map<String, Long>> optionIds = new HashMap<>();
+    private final Map<Long, String> optionTexts = new HashMap<>();
+    private final long loadedAt;
+
+    public SurveyDictionary(List<Question> questions, List<OptionTable> options, long loadedAt) {
+        for (Question question : questions) {
+            types.put(question.getId(), question.getType());
+        }
+        for (OptionTable option : options) {
+            // 同一题出现重复文本时保留第一个选项
+            optionIds.computeIfAbsent(option.getQuestionId(), k -> new HashMap<>())
+                    .putIfAbsent(option.getContent(), option.getId());
+            optionTexts.put(option.getId(), option.getContent());
+        }
+        this.loadedAt = loadedAt;
+    }
+
+    /**
+     * 题型，题目不存在时返回null
+     */
+    public QuestionType typeOf(Long questionId) {
+        return types.get(questionId);
+    }
+
+    /**
+     * 选项文本对应的选项ID，不存在时返回null
+     */
+    public Long optionId(Long questionId, String text) {
+        Map<String, Long> ids = optionIds.get(questionId);
+        return ids == null ? null : ids.get(text);
+    }
+
+    /**
+     * 选项ID对应的文本，不存在时返回null
+     */
+    public String optionText(Long optionId) {
+        return optionTexts.get(optionId);
+    }
+
+    public long getLoadedAt() {
+        return loadedAt;
+    }
+}
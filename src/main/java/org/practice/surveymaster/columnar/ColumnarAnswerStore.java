@@ -0,0 +1,315 @@
+package org.practice.surveymaster.columnar;
+
+import lombok.extern.slf4j.Slf4j;
+import org.practice.surveymaster.codec.OptionDictionary;
+import org.practice.surveymaster.codec.SurveyDictionary;
+import org.practice.surveymaster.config.AnswerColumnarConfig;
+import org.practice.surveymaster.projection.AnswerChange;
+import org.practice.surveymaster.projection.LocalAnswerChangeListener;
+import org.practice.surveymaster.service.AnswerService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * <p>
+ * 列式答案存储管理器
+ * </p>
+ *
+ * <p>
+ * 每个问卷一个 {@link SurveyColumnStore}，首次查询时通过 {@link AnswerService#exportAnswers} 从热数据与归档全量构建，
+ * 之后由答案变更广播增量维护；尚未构建的问卷忽略变更，等首次查询时再构建。
+ * 应用变更或构建失败时删除该问卷的列文件，下次查询重新构建。
+ * </p>
+ *
+ * <p>
+ * 列文件属于本实例，多实例部署时各自维护：每个实例都订阅答案变更广播，不依赖本实例是否运行投影。
+ * 停机期间或订阅建立前的变更无法补收，订阅建立时删除全部列文件，之后按需重建。
+ * 打开的存储数量超过上限时关闭最久未使用且空闲的存储，文件保留在磁盘上。
+ * 变更通知先于{@link org.practice.surveymaster.cache.SurveyResultCache}处理，保证结果缓存失效后重新计算时读到的是新数据。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ColumnarAnswerStore implements LocalAnswerChangeListener {
+
+    private final AnswerService answerService;
+    private final OptionDictionary optionDictionary;
+    private final AnswerColumnarConfig config;
+    private final LinkedHashMap<Long, Handle> stores = new LinkedHashMap<>(16, 0.75f, true);
+
+    @Autowired
+    public ColumnarAnswerStore(AnswerService answerService, OptionDictionary optionDictionary,
+                               AnswerColumnarConfig config) {
+        this.answerService = answerService;
+        this.optionDictionary = optionDictionary;
+        this.config = config;
+    }
+
+    /**
+     * 在问卷的列式存储上执行查询，尚未构建时先全量构建
+     *
+     * @param surveyId 问卷ID
+     * @param query    查询逻辑，执行期间独占该问卷的存储
+     * @return 查询结果
+     */
+    public <T> T query(Long surveyId, Function<SurveyColumnStore, T> query) {
+        return withStore(surveyId, true, query);
+    }
+
+    @Override
+    public void onAnswersChanged(List<AnswerChange> changes) {
+        Map<Long, List<AnswerChange>> bySurvey = new LinkedHashMap<>();
+        for (AnswerChange change : changes) {
+            bySurvey.computeIfAbsent(change.getSurveyId(), k -> new ArrayList<>()).add(change);
+        }
+        for (Map.Entry<Long, List<AnswerChange>> entry : bySurvey.entrySet()) {
+            try {
+                withStore(entry.getKey(), false, store -> {
+                    SurveyDictionary dictionary = optionDictionary.get(entry.getKey());
+                    for (AnswerChange change : entry.getValue()) {
+                        if (change.isRemoved()) {
+                            store.remove(change.getAnswerId());
+                        } else {
+                            store.upsert(change.getAnswerId(), change.getAnswer().getAnswers(), dictionary::typeOf);
+                        }
+                    }
+                    return null;
+                });
+            } catch (Exception e) {
+                log.warn("列式存储应用答案变更失败，将在下次查询时重建: 问卷ID={}", entry.getKey(), e);
+            }
+        }
+    }
+
+    @Override
+    public void onChangesMissed() {
+        List<Long> surveyIds = new ArrayList<>();
+        Path root = Paths.get(config.getDataDir());
+        if (Files.isDirectory(root)) {
+            try (Stream<Path> dirs = Files.list(root)) {
+                dirs.forEach(dir -> {
+                    try {
+                        surveyIds.add(Long.valueOf(dir.getFileName().toString()));
+                    } catch (NumberFormatException ignored) {
+                        // 非问卷目录不处理
+                    }
+                });
+            } catch (IOException e) {
+                throw new ColumnarStoreException("读取列文件目录失败: " + root, e);
+            }
+        }
+        synchronized (stores) {
+            surveyIds.addAll(stores.keySet());
+        }
+        surveyIds.forEach(this::drop);
+        log.info("列式存储可能漏收答案变更，已删除 {} 个问卷的列文件", surveyIds.size());
+    }
+
+    /**
+     * 删除问卷的列式存储
+     */
+    public void drop(Long surveyId) {
+        Handle handle;
+        synchronized (stores) {
+            handle = stores.get(surveyId);
+        }
+        if (handle == null) {
+            synchronized (stores) {
+                deleteFiles(surveyId);
+            }
+            return;
+        }
+        handle.lock.lock();
+        try {
+            discard(surveyId, handle);
+        } finally {
+            handle.lock.unlock();
+        }
+    }
+
+    /**
+     * 停机时把所有打开的存储刷盘并关闭
+     */
+    @PreDestroy
+    public void closeAll() {
+        synchronized (stores) {
+            for (Handle handle : stores.values()) {
+                handle.lock.lock();
+                try {
+                    if (!handle.store.isClosed()) {
+                        handle.store.force();
+                        handle.store.close();
+                    }
+                } catch (Exception e) {
+                    log.warn("关闭列式存储失败", e);
+                } finally {
+                    handle.lock.unlock();
+                }
+            }
+            stores.clear();
+        }
+    }
+
+    private <T> T withStore(Long surveyId, boolean build, Function<SurveyColumnStore, T> action) {
+        while (true) {
+            Handle handle = acquire(surveyId, build);
+            if (handle == null) {
+                return null;
+            }
+            handle.lock.lock();
+            try {
+                // 等锁期间被淘汰或丢弃，重新获取
+                if (handle.store.isClosed()) {
+                    continue;
+                }
+                if (!handle.store.isBuilt()) {
+                    if (!build) {
+                        return null;
+                    }
+                    build(surveyId, handle.store);
+                }
+                return action.apply(handle.store);
+            } catch (RuntimeException e) {
+                discard(surveyId, handle);
+                throw e;
+            } finally {
+                handle.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * 获取问卷的存储，未打开时打开；create为false时只打开已构建完成的存储
+     */
+    private Handle acquire(Long surveyId, boolean create) {
+        synchronized (stores) {
+            Handle handle = stores.get(surveyId);
+            if (handle != null && !handle.store.isClosed()) {
+                return handle;
+            }
+            Path dir = dirOf(surveyId);
+            boolean built = Files.exists(dir.resolve(SurveyColumnStore.BUILT_MARKER));
+            if (!built && !create) {
+                return null;
+            }
+            // 未构建完成的目录中可能残留上次失败的数据，清空后重新构建
+            if (!built) {
+                deleteFiles(surveyId);
+            }
+            try {
+                handle = new Handle(new SurveyColumnStore(dir));
+            } catch (IOException e) {
+                throw new ColumnarStoreException("打开列式存储失败: " + dir, e);
+            }
+            stores.put(surveyId, handle);
+            evictIdle(surveyId);
+            return handle;
+        }
+    }
+
+    /**
+     * 打开的存储超过上限时，从最久未使用的开始关闭空闲存储，正在使用的跳过
+     */
+    private void evictIdle(Long keep) {
+        Iterator<Map.Entry<Long, Handle>> iterator = stores.entrySet().iterator();
+        while (stores.size() > config.getMaxOpenStores() && iterator.hasNext()) {
+            Map.Entry<Long, Handle> entry = iterator.next();
+            if (entry.getKey().equals(keep) || !entry.getValue().lock.tryLock()) {
+                continue;
+            }
+            try {
+                entry.getValue().store.close();
+            } catch (IOException e) {
+                log.warn("关闭列式存储失败: 问卷ID={}", entry.getKey(), e);
+            } finally {
+                entry.getValue().lock.unlock();
+            }
+            iterator.remove();
+        }
+    }
+
+    private void build(Long surveyId, SurveyColumnStore store) {
+        long start = System.currentTimeMillis();
+        SurveyDictionary dictionary = optionDictionary.get(surveyId);
+        long[] count = new long[1];
+        answerService.exportAnswers(surveyId, answer -> {
+            store.upsert(answer.getId(), answer.getAnswers(), dictionary::typeOf);
+            count[0]++;
+        });
+        try {
+            store.markBuilt();
+        } catch (IOException e) {
+            throw new ColumnarStoreException("写入构建标记失败", e);
+        }
+        log.info("列式存储构建完成: 问卷ID={}, 答案数={}, 耗时={}ms", surveyId, count[0],
+                System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 关闭并删除存储，调用方需持有该存储的锁
+     */
+    private void discard(Long surveyId, Handle handle) {
+        synchronized (stores) {
+            try {
+                handle.store.close();
+            } catch (IOException e) {
+                log.warn("关闭列式存储失败: 问卷ID={}", surveyId, e);
+            }
+            deleteFiles(surveyId);
+            stores.remove(surveyId, handle);
+        }
+    }
+
+    private void deleteFiles(Long surveyId) {
+        Path dir = dirOf(surveyId);
+        if (!Files.exists(dir)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.delete(path);
+                } catch (IOException e) {
+                    throw new ColumnarStoreException("删除列文件失败: " + path, e);
+                }
+            });
+        } catch (IOException e) {
+            throw new ColumnarStoreException("删除列文件失败: " + dir, e);
+        }
+    }
+
+    private Path dirOf(Long surveyId) {
+        return Paths.get(config.getDataDir(), String.valueOf(surveyId));
+    }
+
+    private static final class Handle {
+
+        private final SurveyColumnStore store;
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private Handle(SurveyColumnStore store) {
+            this.store = store;
+        }
+    }
+}
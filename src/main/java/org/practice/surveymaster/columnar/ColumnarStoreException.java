@@ -0,0 +1,14 @@
+package org.practice.surveymaster.columnar;
+
+/**
+ * 列式存储文件读写异常
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+public class ColumnarStoreException extends RuntimeException {
+
+    public ColumnarStoreException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,84 @@
+package org.practice.surveymaster.columnar;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * <p>
+ * 内存映射的定长列
+ * </p>
+ *
+ * <p>
+ * 每行占width字节（int列4字节，long列8字节），按行号直接寻址；文件容量不足时按倍数扩展后重新映射。
+ * 新扩展的区域由操作系统以0填充，0即"无值"。写入直接落在页缓存中，进程崩溃不丢失，由操作系统异步刷盘。
+ * 非线程安全，由所属的{@link SurveyColumnStore}加锁。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+final class MappedColumn implements Closeable {
+
+    private static final int MIN_ROWS = 1024;
+
+    private final FileChannel channel;
+    private final int width;
+    private MappedByteBuffer buffer;
+    private int capacity;
+
+    MappedColumn(Path file, int width) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        this.width = width;
+        map((int) Math.max(MIN_ROWS, channel.size() / width));
+    }
+
+    int getInt(int row) {
+        return row < capacity ? buffer.getInt(row << 2) : 0;
+    }
+
+    void setInt(int row, int value) {
+        ensureCapacity(row);
+        buffer.putInt(row << 2, value);
+    }
+
+    long getLong(int row) {
+        return row < capacity ? buffer.getLong(row << 3) : 0L;
+    }
+
+    void setLong(int row, long value) {
+        ensureCapacity(row);
+        buffer.putLong(row << 3, value);
+    }
+
+    /**
+     * 把脏页写回磁盘
+     */
+    void force() {
+        buffer.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void ensureCapacity(int row) {
+        if (row >= capacity) {
+            try {
+                map(Math.max(capacity * 2, row + 1));
+            } catch (IOException e) {
+                throw new ColumnarStoreException("扩展列文件失败", e);
+            }
+        }
+    }
+
+    private void map(int rows) throws IOException {
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) rows * width);
+        capacity = rows;
+    }
+}
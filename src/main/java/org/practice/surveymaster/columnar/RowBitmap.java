@@ -0,0 +1,410 @@
+package org.practice.surveymaster.columnar;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * <p>
+ * 行号压缩位图
+ * </p>
+ *
+ * <p>
+ * 采用Roaring布局：行号高16位作为分桶键，每桶存低16位。桶内元素不超过4096个时用有序char数组，
+ * 超过后转为1024个long的定长位图，稀疏与稠密的选项都只占与答卷数成比例的空间。
+ * 交集、并集按桶键归并，同为位图的桶逐字运算，交集基数无需生成中间结果。
+ * </p>
+ *
+ * <p>
+ * 修改方法仅对包内开放，查询方拿到的位图只读。非线程安全，由所属的{@link SurveyColumnStore}加锁。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+public final class RowBitmap {
+
+    private char[] keys = new char[4];
+    private Container[] containers = new Container[4];
+    private int size;
+
+    /**
+     * 加入一行，返回是否新加入
+     */
+    boolean add(int row) {
+        char key = (char) (row >>> 16);
+        int index = indexOf(key);
+        if (index < 0) {
+            index = -index - 1;
+            insertAt(index, key, new Container());
+        }
+        return containers[index].add((char) row);
+    }
+
+    /**
+     * 移除一行，返回是否存在
+     */
+    boolean remove(int row) {
+        int index = indexOf((char) (row >>> 16));
+        if (index < 0) {
+            return false;
+        }
+        Container container = containers[index];
+        boolean removed = container.remove((char) row);
+        if (container.cardinality == 0) {
+            removeAt(index);
+        }
+        return removed;
+    }
+
+    public boolean contains(int row) {
+        int index = indexOf((char) (row >>> 16));
+        return index >= 0 && containers[index].contains((char) row);
+    }
+
+    public long cardinality() {
+        long cardinality = 0;
+        for (int i = 0; i < size; i++) {
+            cardinality += containers[i].cardinality;
+        }
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * 交集，返回新位图
+     */
+    public RowBitmap and(RowBitmap other) {
+        RowBitmap result = new RowBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                Container container = containers[i].and(other.containers[j]);
+                if (container.cardinality > 0) {
+                    result.insertAt(result.size, keys[i], container);
+                }
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 交集的基数，不生成中间位图
+     */
+    public long andCardinality(RowBitmap other) {
+        long cardinality = 0;
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                cardinality += containers[i].andCardinality(other.containers[j]);
+                i++;
+                j++;
+            }
+        }
+        return cardinality;
+    }
+
+    /**
+     * 并集，返回新位图
+     */
+    public RowBitmap or(RowBitmap other) {
+        RowBitmap result = new RowBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < size || j < other.size) {
+            if (j >= other.size || (i < size && keys[i] < other.keys[j])) {
+                result.insertAt(result.size, keys[i], containers[i].copy());
+                i++;
+            } else if (i >= size || keys[i] > other.keys[j]) {
+                result.insertAt(result.size, other.keys[j], other.containers[j].copy());
+                j++;
+            } else {
+                result.insertAt(result.size, keys[i], containers[i].or(other.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    void write(DataOutput out) throws IOException {
+        out.writeInt(size);
+        for (int i = 0; i < size; i++) {
+            out.writeChar(keys[i]);
+            containers[i].write(out);
+        }
+    }
+
+    static RowBitmap read(DataInput in) throws IOException {
+        RowBitmap bitmap = new RowBitmap();
+        int size = in.readInt();
+        for (int i = 0; i < size; i++) {
+            char key = in.readChar();
+            bitmap.insertAt(i, key, Container.read(in));
+        }
+        return bitmap;
+    }
+
+    private int indexOf(char key) {
+        return Arrays.binarySearch(keys, 0, size, key);
+    }
+
+    private void insertAt(int index, char key, Container container) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            containers = Arrays.copyOf(containers, size * 2);
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(containers, index, containers, index + 1, size - index);
+        keys[index] = key;
+        containers[index] = container;
+        size++;
+    }
+
+    private void removeAt(int index) {
+        System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+        System.arraycopy(containers, index + 1, containers, index, size - index - 1);
+        containers[--size] = null;
+    }
+
+    /**
+     * 单个分桶，words非空时为位图形式，否则为有序数组形式
+     */
+    private static final class Container {
+
+        private static final int ARRAY_MAX = 4096;
+        private static final int WORDS = 1024;
+
+        private char[] array;
+        private long[] words;
+        private int cardinality;
+
+        private Container() {
+            this.array = new char[4];
+        }
+
+        private static Container ofArray(char[] array, int cardinality) {
+            Container container = new Container();
+            container.array = array;
+            container.cardinality = cardinality;
+            return container;
+        }
+
+        private static Container ofWords(long[] words) {
+            int cardinality = 0;
+            for (long word : words) {
+                cardinality += Long.bitCount(word);
+            }
+            Container container = new Container();
+            container.cardinality = cardinality;
+            if (cardinality > ARRAY_MAX) {
+                container.array = null;
+                container.words = words;
+                return container;
+            }
+            container.array = new char[Math.max(cardinality, 4)];
+            int n = 0;
+            for (int w = 0; w < WORDS; w++) {
+                long word = words[w];
+                while (word != 0L) {
+                    container.array[n++] = (char) ((w << 6) + Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            return container;
+        }
+
+        private boolean add(char low) {
+            if (words != null) {
+                long bit = 1L << low;
+                if ((words[low >>> 6] & bit) != 0L) {
+                    return false;
+                }
+                words[low >>> 6] |= bit;
+                cardinality++;
+                return true;
+            }
+            int index = Arrays.binarySearch(array, 0, cardinality, low);
+            if (index >= 0) {
+                return false;
+            }
+            if (cardinality == ARRAY_MAX) {
+                toWords();
+                return add(low);
+            }
+            index = -index - 1;
+            if (cardinality == array.length) {
+                array = Arrays.copyOf(array, Math.min(cardinality * 2, ARRAY_MAX));
+            }
+            System.arraycopy(array, index, array, index + 1, cardinality - index);
+            array[index] = low;
+            cardinality++;
+            return true;
+        }
+
+        private boolean remove(char low) {
+            if (words != null) {
+                long bit = 1L << low;
+                if ((words[low >>> 6] & bit) == 0L) {
+                    return false;
+                }
+                words[low >>> 6] &= ~bit;
+                cardinality--;
+                if (cardinality <= ARRAY_MAX) {
+                    Container converted = ofWords(words);
+                    array = converted.array;
+                    words = null;
+                }
+                return true;
+            }
+            int index = Arrays.binarySearch(array, 0, cardinality, low);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(array, index + 1, array, index, cardinality - index - 1);
+            cardinality--;
+            return true;
+        }
+
+        private boolean contains(char low) {
+            if (words != null) {
+                return (words[low >>> 6] & 1L << low) != 0L;
+            }
+            return Arrays.binarySearch(array, 0, cardinality, low) >= 0;
+        }
+
+        private Container and(Container other) {
+            if (words != null && other.words != null) {
+                long[] result = new long[WORDS];
+                for (int w = 0; w < WORDS; w++) {
+                    result[w] = words[w] & other.words[w];
+                }
+                return ofWords(result);
+            }
+            Container small = words == null ? this : other;
+            Container large = small == this ? other : this;
+            char[] result = new char[Math.max(small.cardinality, 4)];
+            int n = 0;
+            for (int i = 0; i < small.cardinality; i++) {
+                if (large.contains(small.array[i])) {
+                    result[n++] = small.array[i];
+                }
+            }
+            return ofArray(result, n);
+        }
+
+        private int andCardinality(Container other) {
+            if (words != null && other.words != null) {
+                int cardinality = 0;
+                for (int w = 0; w < WORDS; w++) {
+                    cardinality += Long.bitCount(words[w] & other.words[w]);
+                }
+                return cardinality;
+            }
+            Container small = words == null ? this : other;
+            Container large = small == this ? other : this;
+            int cardinality = 0;
+            for (int i = 0; i < small.cardinality; i++) {
+                if (large.contains(small.array[i])) {
+                    cardinality++;
+                }
+            }
+            return cardinality;
+        }
+
+        private Container or(Container other) {
+            if (words == null && other.words == null && cardinality + other.cardinality <= ARRAY_MAX) {
+                char[] result = new char[Math.max(cardinality + other.cardinality, 4)];
+                int i = 0;
+                int j = 0;
+                int n = 0;
+                while (i < cardinality || j < other.cardinality) {
+                    if (j >= other.cardinality || (i < cardinality && array[i] < other.array[j])) {
+                        result[n++] = array[i++];
+                    } else if (i >= cardinality || array[i] > other.array[j]) {
+                        result[n++] = other.array[j++];
+                    } else {
+                        result[n++] = array[i++];
+                        j++;
+                    }
+                }
+                return ofArray(result, n);
+            }
+            long[] result = new long[WORDS];
+            copyInto(result);
+            other.copyInto(result);
+            return ofWords(result);
+        }
+
+        private Container copy() {
+            if (words != null) {
+                return ofWords(words.clone());
+            }
+            return ofArray(Arrays.copyOf(array, Math.max(cardinality, 4)), cardinality);
+        }
+
+        private void copyInto(long[] target) {
+            if (words != null) {
+                for (int w = 0; w < WORDS; w++) {
+                    target[w] |= words[w];
+                }
+                return;
+            }
+            for (int i = 0; i < cardinality; i++) {
+                target[array[i] >>> 6] |= 1L << array[i];
+            }
+        }
+
+        private void toWords() {
+            long[] result = new long[WORDS];
+            copyInto(result);
+            words = result;
+            array = null;
+        }
+
+        private void write(DataOutput out) throws IOException {
+            out.writeInt(cardinality);
+            if (words != null) {
+                for (long word : words) {
+                    out.writeLong(word);
+                }
+                return;
+            }
+            for (int i = 0; i < cardinality; i++) {
+                out.writeChar(array[i]);
+            }
+        }
+
+        private static Container read(DataInput in) throws IOException {
+            int cardinality = in.readInt();
+            if (cardinality > ARRAY_MAX) {
+                long[] words = new long[WORDS];
+                for (int w = 0; w < WORDS; w++) {
+                    words[w] = in.readLong();
+                }
+                return ofWords(words);
+            }
+            char[] array = new char[Math.max(cardinality, 4)];
+            for (int i = 0; i < cardinality; i++) {
+                array[i] = in.readChar();
+            }
+            return ofArray(array, cardinality);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package org.practice.surveymaster.columnar;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>
+ * 只追加的字符串字典
+ * </p>
+ *
+ * <p>
+ * 把字符串映射为从1开始的连续编码（0保留为"无值"），列中只存编码。
+ * 文件中每项为4字节长度加UTF-8内容，新值追加写入；加载时忽略崩溃留下的不完整尾项。
+ * 非线程安全，由所属的{@link SurveyColumnStore}加锁。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+final class StringDictionary implements Closeable {
+
+    private final List<String> values = new ArrayList<>();
+    private final Map<String, Integer> codes = new HashMap<>();
+    private final DataOutputStream out;
+
+    StringDictionary(Path file) throws IOException {
+        if (Files.exists(file)) {
+            long valid = load(file);
+            if (valid < Files.size(file)) {
+                // 截掉不完整的尾项，之后的追加从有效位置开始
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                    channel.truncate(valid);
+                }
+            }
+        }
+        this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)));
+    }
+
+    /**
+     * 查询编码，不存在时返回0
+     */
+    int codeOf(String value) {
+        Integer code = codes.get(value);
+        return code == null ? 0 : code;
+    }
+
+    /**
+     * 查询编码，不存在时追加
+     */
+    int encode(String value) {
+        Integer code = codes.get(value);
+        if (code != null) {
+            return code;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        try {
+            out.writeInt(bytes.length);
+            out.write(bytes);
+            out.flush();
+        } catch (IOException e) {
+            throw new ColumnarStoreException("写入字典失败", e);
+        }
+        values.add(value);
+        codes.put(value, values.size());
+        return values.size();
+    }
+
+    /**
+     * 编码对应的字符串
+     */
+    String valueOf(int code) {
+        return values.get(code - 1);
+    }
+
+    /**
+     * 已编码的字符串数，即最大编码
+     */
+    int size() {
+        return values.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private long load(Path file) throws IOException {
+        long valid = 0;
+        try (InputStream stream = Files.newInputStream(file);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(stream))) {
+            while (true) {
+                int length;
+                byte[] bytes;
+                try {
+                    length = in.readInt();
+                    bytes = new byte[length];
+                    in.readFully(bytes);
+                } catch (EOFException e) {
+                    break;
+                }
+                String value = new String(bytes, StandardCharsets.UTF_8);
+                values.add(value);
+                codes.put(value, values.size());
+                valid += 4 + length;
+            }
+        }
+        return valid;
+    }
+}
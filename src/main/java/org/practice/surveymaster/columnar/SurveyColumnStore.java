@@ -0,0 +1,561 @@
+package org.practice.surveymaster.columnar;
+
+import org.practice.surveymaster.constant.QuestionType;
+import org.practice.surveymaster.model.mongo.Answer;
+import org.practice.surveymaster.projection.AnswerDiff;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * <p>
+ * 单个问卷的列式答案存储
+ * </p>
+ *
+ * <p>
+ * 每份答案占一行，行号由答案ID字典（rows.dict）分配，live.bits按64行一个long记录行是否有效，
+ * 删除只清除有效位。每道题一列（q{题目ID}.{题型}.col），值统一经字典编码：
+ * 单选、评分、文本题每行存一个int编码，多选题每行存一个long位图（第n位表示编码n+1被选中）。
+ * 所有文件均为内存映射，写入即对查询可见。
+ * </p>
+ *
+ * <p>
+ * 每个(题目, 答案值)另有一个有效行的{@link RowBitmap}，交叉分析只需位图求交与计数。
+ * 位图常驻内存，刷盘时整体写入bitmaps.idx，刷盘后的首次修改即删除该文件；
+ * 打开时文件缺失、损坏或与列不一致则从列数据重建，进程崩溃不会留下过期的位图。
+ * </p>
+ *
+ * <p>
+ * 查询以行位图表示结果集：筛选按64行一个字逐字与运算，分布统计只遍历位图中为1的位。
+ * 多选题位图最多容纳64个不同选项，超出部分不参与多选列的筛选与统计。
+ * 所有方法加锁，同一问卷的读写串行执行。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+public final class SurveyColumnStore implements Closeable {
+
+    /**
+     * 全量构建完成标记文件，不存在时需要重建
+     */
+    static final String BUILT_MARKER = "BUILT";
+
+    private static final String COLUMN_SUFFIX = ".col";
+    private static final String INDEX_FILE = "bitmaps.idx";
+
+    private final Path dir;
+    private final StringDictionary rowIds;
+    private final MappedColumn live;
+    private final Map<Long, Column> columns = new HashMap<>();
+    private boolean indexSaved;
+    private volatile boolean closed;
+
+    public SurveyColumnStore(Path dir) throws IOException {
+        this.dir = Files.createDirectories(dir);
+        this.rowIds = new StringDictionary(dir.resolve("rows.dict"));
+        this.live = new MappedColumn(dir.resolve("live.bits"), 8);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "q*" + COLUMN_SUFFIX)) {
+            for (Path file : files) {
+                String[] parts = file.getFileName().toString().split("\\.");
+                Long questionId = Long.valueOf(parts[0].substring(1));
+                columns.put(questionId, new Column(dir, questionId, QuestionType.valueOf(parts[1])));
+            }
+        }
+        loadIndex();
+    }
+
+    /**
+     * 是否已完成全量构建
+     */
+    public synchronized boolean isBuilt() {
+        return Files.exists(dir.resolve(BUILT_MARKER));
+    }
+
+    /**
+     * 标记全量构建完成，之前先把数据刷盘
+     */
+    public synchronized void markBuilt() throws IOException {
+        force();
+        if (!Files.exists(dir.resolve(BUILT_MARKER))) {
+            Files.createFile(dir.resolve(BUILT_MARKER));
+        }
+    }
+
+    /**
+     * 写入或覆盖一份答案
+     *
+     * @param answerId 答案ID
+     * @param answers  问题答案列表
+     * @param typeOf   题型查询，返回null的题目不入列
+     */
+    public synchronized void upsert(String answerId, List<Answer.QuestionAnswer> answers,
+                                    Function<Long, QuestionType> typeOf) {
+        checkOpen();
+        invalidateSavedIndex();
+        int row = rowIds.encode(answerId) - 1;
+        for (Column column : columns.values()) {
+            column.clear(row);
+        }
+        Set<Long> questionIds = new HashSet<>();
+        if (answers != null) {
+            for (Answer.QuestionAnswer answer : answers) {
+                if (answer != null && answer.getQuestionId() != null) {
+                    questionIds.add(answer.getQuestionId());
+                }
+            }
+        }
+        for (Map.Entry<Long, Set<String>> entry : AnswerDiff.selections(answers, questionIds).entrySet()) {
+            QuestionType type = typeOf.apply(entry.getKey());
+            if (type != null) {
+                column(entry.getKey(), type).set(row, entry.getValue());
+            }
+        }
+        int word = row >>> 6;
+        live.setLong(word, live.getLong(word) | 1L << row);
+    }
+
+    /**
+     * 删除一份答案，不存在时忽略
+     */
+    public synchronized void remove(String answerId) {
+        checkOpen();
+        int code = rowIds.codeOf(answerId);
+        if (code == 0) {
+            return;
+        }
+        invalidateSavedIndex();
+        int row = code - 1;
+        for (Column column : columns.values()) {
+            column.clear(row);
+        }
+        int word = row >>> 6;
+        live.setLong(word, live.getLong(word) & ~(1L << row));
+    }
+
+    /**
+     * 全部有效行的位图
+     */
+    public synchronized long[] liveRows() {
+        checkOpen();
+        long[] mask = new long[(rowIds.size() + 63) >>> 6];
+        for (int word = 0; word < mask.length; word++) {
+            mask[word] = live.getLong(word);
+        }
+        return mask;
+    }
+
+    /**
+     * 在位图中只保留某题答案命中任一给定值的行
+     *
+     * @param mask       行位图，原地修改
+     * @param questionId 问题ID
+     * @param values     可接受的答案值
+     */
+    public synchronized void retain(long[] mask, Long questionId, Collection<String> values) {
+        checkOpen();
+        Column column = columns.get(questionId);
+        if (column == null) {
+            Arrays.fill(mask, 0L);
+            return;
+        }
+        column.retain(mask, values);
+    }
+
+    /**
+     * 统计位图中的行在某题上的答案分布
+     *
+     * @param questionId 问题ID
+     * @param mask       行位图
+     * @return 答案值 → 行数，按值首次出现的顺序排列
+     */
+    public synchronized Map<String, Long> distribution(Long questionId, long[] mask) {
+        checkOpen();
+        Column column = columns.get(questionId);
+        return column == null ? new LinkedHashMap<>() : column.distribution(mask);
+    }
+
+    /**
+     * 某题答案命中任一给定值的有效行
+     *
+     * @param questionId 问题ID
+     * @param values     可接受的答案值
+     * @return 新位图，可自由使用
+     */
+    public synchronized RowBitmap rowsMatching(Long questionId, Collection<String> values) {
+        checkOpen();
+        RowBitmap result = new RowBitmap();
+        Column column = columns.get(questionId);
+        if (column == null) {
+            return result;
+        }
+        for (String value : values) {
+            int code = column.dictionary.codeOf(value);
+            if (code > 0 && code <= column.bitmaps.size()) {
+                result = result.or(column.bitmaps.get(code - 1));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 某题每个答案值对应的有效行位图
+     *
+     * @param questionId 问题ID
+     * @return 答案值 → 行位图，按值首次出现的顺序排列；位图为存储内部对象，只能在持有该存储期间读取
+     */
+    public synchronized Map<String, RowBitmap> valueBitmaps(Long questionId) {
+        checkOpen();
+        Map<String, RowBitmap> result = new LinkedHashMap<>();
+        Column column = columns.get(questionId);
+        if (column == null) {
+            return result;
+        }
+        for (int code = 1; code <= column.bitmaps.size(); code++) {
+            RowBitmap bitmap = column.bitmaps.get(code - 1);
+            if (!bitmap.isEmpty()) {
+                result.put(column.dictionary.valueOf(code), bitmap);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 位图中为1的行数
+     */
+    public static long count(long[] mask) {
+        long count = 0;
+        for (long word : mask) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * 把所有列的脏页写回磁盘
+     */
+    public synchronized void force() {
+        checkOpen();
+        live.force();
+        for (Column column : columns.values()) {
+            column.values.force();
+        }
+        saveIndex();
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        try {
+            saveIndex();
+        } finally {
+            closed = true;
+            rowIds.close();
+            live.close();
+            for (Column column : columns.values()) {
+                column.close();
+            }
+        }
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("列式存储已关闭: " + dir);
+        }
+    }
+
+    /**
+     * 加载位图索引，不可用时从列数据重建
+     */
+    private void loadIndex() throws IOException {
+        Path file = dir.resolve(INDEX_FILE);
+        if (Files.exists(file)) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+                if (readIndex(in)) {
+                    indexSaved = true;
+                    return;
+                }
+            } catch (IOException e) {
+                // 文件损坏，按缺失处理
+            }
+            for (Column column : columns.values()) {
+                column.bitmaps.clear();
+            }
+        }
+        int rows = rowIds.size();
+        for (int row = 0; row < rows; row++) {
+            if ((live.getLong(row >>> 6) & 1L << row) != 0L) {
+                for (Column column : columns.values()) {
+                    column.index(row);
+                }
+            }
+        }
+    }
+
+    private boolean readIndex(DataInput in) throws IOException {
+        if (in.readInt() != rowIds.size() || in.readInt() != columns.size()) {
+            return false;
+        }
+        for (int i = 0; i < columns.size(); i++) {
+            Column column = columns.get(in.readLong());
+            String type = in.readUTF();
+            if (column == null || !column.type.name().equals(type) || !column.bitmaps.isEmpty()) {
+                return false;
+            }
+            int codes = in.readInt();
+            for (int code = 1; code <= codes; code++) {
+                column.bitmaps.add(RowBitmap.read(in));
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 位图有修改且尚未写入时整体写入索引文件，先写临时文件再原子替换
+     */
+    private void saveIndex() {
+        if (indexSaved) {
+            return;
+        }
+        Path file = dir.resolve(INDEX_FILE);
+        Path temp = dir.resolve(INDEX_FILE + ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(rowIds.size());
+                out.writeInt(columns.size());
+                for (Map.Entry<Long, Column> entry : columns.entrySet()) {
+                    out.writeLong(entry.getKey());
+                    out.writeUTF(entry.getValue().type.name());
+                    out.writeInt(entry.getValue().bitmaps.size());
+                    for (RowBitmap bitmap : entry.getValue().bitmaps) {
+                        bitmap.write(out);
+                    }
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new ColumnarStoreException("写入位图索引失败", e);
+        }
+        indexSaved = true;
+    }
+
+    /**
+     * 修改前删除已写入的索引文件，保证磁盘上不存在与列不一致的位图
+     */
+    private void invalidateSavedIndex() {
+        if (!indexSaved) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(dir.resolve(INDEX_FILE));
+        } catch (IOException e) {
+            throw new ColumnarStoreException("删除位图索引失败", e);
+        }
+        indexSaved = false;
+    }
+
+    /**
+     * 获取题目的列，题型变化时丢弃旧列重新建立
+     */
+    private Column column(Long questionId, QuestionType type) {
+        Column column = columns.get(questionId);
+        if (column != null && column.type == type) {
+            return column;
+        }
+        try {
+            if (column != null) {
+                column.close();
+                Files.deleteIfExists(column.valuesFile);
+                Files.deleteIfExists(column.dictionaryFile);
+            }
+            column = new Column(dir, questionId, type);
+        } catch (IOException e) {
+            throw new ColumnarStoreException("创建列文件失败", e);
+        }
+        columns.put(questionId, column);
+        return column;
+    }
+
+    private static final class Column implements Closeable {
+
+        private final QuestionType type;
+        private final Path valuesFile;
+        private final Path dictionaryFile;
+        private final MappedColumn values;
+        private final StringDictionary dictionary;
+        private final List<RowBitmap> bitmaps = new ArrayList<>();
+
+        private Column(Path dir, Long questionId, QuestionType type) throws IOException {
+            this.type = type;
+            String name = "q" + questionId + "." + type.name();
+            this.valuesFile = dir.resolve(name + COLUMN_SUFFIX);
+            this.dictionaryFile = dir.resolve(name + ".dict");
+            this.values = new MappedColumn(valuesFile, multiple() ? 8 : 4);
+            this.dictionary = new StringDictionary(dictionaryFile);
+        }
+
+        private boolean multiple() {
+            return type == QuestionType.MULTIPLE_CHOICE;
+        }
+
+        private RowBitmap bitmap(int code) {
+            while (bitmaps.size() < code) {
+                bitmaps.add(new RowBitmap());
+            }
+            return bitmaps.get(code - 1);
+        }
+
+        /**
+         * 把行按当前值加入位图，仅用于重建索引
+         */
+        private void index(int row) {
+            if (multiple()) {
+                long selected = values.getLong(row);
+                while (selected != 0L) {
+                    bitmap(Long.numberOfTrailingZeros(selected) + 1).add(row);
+                    selected &= selected - 1;
+                }
+            } else if (values.getInt(row) != 0) {
+                bitmap(values.getInt(row)).add(row);
+            }
+        }
+
+        private void clear(int row) {
+            if (multiple()) {
+                long selected = values.getLong(row);
+                if (selected != 0L) {
+                    values.setLong(row, 0L);
+                }
+                while (selected != 0L) {
+                    bitmap(Long.numberOfTrailingZeros(selected) + 1).remove(row);
+                    selected &= selected - 1;
+                }
+            } else {
+                int code = values.getInt(row);
+                if (code != 0) {
+                    values.setInt(row, 0);
+                    bitmap(code).remove(row);
+                }
+            }
+        }
+
+        private void set(int row, Set<String> selected) {
+            if (multiple()) {
+                long bits = 0L;
+                for (String value : selected) {
+                    int code = dictionary.encode(value);
+                    if (code <= Long.SIZE) {
+                        bits |= 1L << (code - 1);
+                        bitmap(code).add(row);
+                    }
+                }
+                values.setLong(row, bits);
+            } else {
+                int code = dictionary.encode(selected.iterator().next());
+                values.setInt(row, code);
+                bitmap(code).add(row);
+            }
+        }
+
+        private void retain(long[] mask, Collection<String> accepted) {
+            if (multiple()) {
+                long acceptBits = 0L;
+                for (String value : accepted) {
+                    int code = dictionary.codeOf(value);
+                    if (code > 0 && code <= Long.SIZE) {
+                        acceptBits |= 1L << (code - 1);
+                    }
+                }
+                for (int word = 0; word < mask.length; word++) {
+                    long bits = mask[word];
+                    long kept = 0L;
+                    while (bits != 0L) {
+                        int bit = Long.numberOfTrailingZeros(bits);
+                        if ((values.getLong((word << 6) + bit) & acceptBits) != 0L) {
+                            kept |= 1L << bit;
+                        }
+                        bits &= bits - 1;
+                    }
+                    mask[word] = kept;
+                }
+                return;
+            }
+            boolean[] acceptCodes = new boolean[dictionary.size() + 1];
+            for (String value : accepted) {
+                acceptCodes[dictionary.codeOf(value)] = true;
+            }
+            // 编码0表示该行未作答，永不命中
+            acceptCodes[0] = false;
+            for (int word = 0; word < mask.length; word++) {
+                long bits = mask[word];
+                long kept = 0L;
+                while (bits != 0L) {
+                    int bit = Long.numberOfTrailingZeros(bits);
+                    if (acceptCodes[values.getInt((word << 6) + bit)]) {
+                        kept |= 1L << bit;
+                    }
+                    bits &= bits - 1;
+                }
+                mask[word] = kept;
+            }
+        }
+
+        private Map<String, Long> distribution(long[] mask) {
+            long[] counts = new long[dictionary.size() + 1];
+            for (int word = 0; word < mask.length; word++) {
+                long bits = mask[word];
+                while (bits != 0L) {
+                    int row = (word << 6) + Long.numberOfTrailingZeros(bits);
+                    if (multiple()) {
+                        long selected = values.getLong(row);
+                        while (selected != 0L) {
+                            counts[Long.numberOfTrailingZeros(selected) + 1]++;
+                            selected &= selected - 1;
+                        }
+                    } else {
+                        counts[values.getInt(row)]++;
+                    }
+                    bits &= bits - 1;
+                }
+            }
+            Map<String, Long> result = new LinkedHashMap<>();
+            for (int code = 1; code < counts.length; code++) {
+                if (counts[code] > 0) {
+                    result.put(dictionary.valueOf(code), counts[code]);
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public void close() throws IOException {
+            values.close();
+            dictionary.close();
+        }
+    }
+}
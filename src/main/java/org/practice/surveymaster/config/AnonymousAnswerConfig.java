@@ -0,0 +1,55 @@
+package org.practice.surveymaster.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 匿名答题配置类
+ * 配置公开问卷匿名提交时的设备去重过滤器
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+@Setter
+@Getter
+@Configuration
+@ConfigurationProperties(prefix = "answer.anonymous")
+public class AnonymousAnswerConfig {
+
+    /**
+     * 是否开放匿名提交
+     */
+    private boolean enabled = true;
+
+    /**
+     * 去重过滤器的Redis key前缀，每个问卷一个位图
+     */
+    private String keyPrefix = "anon:bloom:";
+
+    /**
+     * 单个问卷预期的匿名答题设备数，决定位图大小，超出后误判率逐渐升高
+     */
+    private long expectedRespondents = 200000L;
+
+    /**
+     * 期望误判率，即新设备被误判为已提交的概率
+     */
+    private double fpp = 0.001;
+
+    /**
+     * 位图在最后一次提交后的保留天数
+     */
+    private int ttlDays = 180;
+
+    /**
+     * 客户端设备标识请求头，缺失时以IP与User-Agent代替；由客户端提供、可伪造，只作为去重提示
+     */
+    private String deviceIdHeader = "X-Device-Id";
+
+    /**
+     * 设备标识最大长度，超出时视为缺失
+     */
+    private int maxDeviceIdLength = 128;
+}
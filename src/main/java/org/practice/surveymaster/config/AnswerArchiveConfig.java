@@ -0,0 +1,50 @@
+package org.practice.surveymaster.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 答案归档配置类
+ * 配置冷数据的判定条件、归档块大小与调度节奏
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+@Setter
+@Getter
+@Configuration
+@ConfigurationProperties(prefix = "answer.archive")
+public class AnswerArchiveConfig {
+
+    /**
+     * 是否启用归档
+     */
+    private boolean enabled = true;
+
+    /**
+     * 发布超过该天数的问卷视为冷数据，已关闭的问卷不受此限制
+     */
+    private int archiveAfterDays = 180;
+
+    /**
+     * 只归档提交时间早于该分钟数的答案，保证答案统计投影已处理过这些答案
+     */
+    private int settleMinutes = 10;
+
+    /**
+     * 每个归档块收纳的答案数
+     */
+    private int chunkSize = 1000;
+
+    /**
+     * 单次调度最多处理的问卷数
+     */
+    private int surveysPerRun = 5;
+
+    /**
+     * 归档任务调度间隔（毫秒）
+     */
+    private long intervalMillis = 60000L;
+}
@@ -0,0 +1,50 @@
+package org.practice.surveymaster.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 答案紧凑存储配置类
+ * 配置问卷字典缓存与旧格式答案的迁移节奏
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+@Setter
+@Getter
+@Configuration
+@ConfigurationProperties(prefix = "answer.codec")
+public class AnswerCodecConfig {
+
+    /**
+     * 缓存的问卷字典数量上限
+     */
+    private int dictionaryCacheSize = 1000;
+
+    /**
+     * 问卷字典存活时间（毫秒）
+     */
+    private long dictionaryTtlMillis = 60000L;
+
+    /**
+     * 遇到未知选项时重新加载字典的最小间隔（毫秒）
+     */
+    private long dictionaryMinReloadMillis = 5000L;
+
+    /**
+     * 是否启用旧格式答案迁移
+     */
+    private boolean migrationEnabled = true;
+
+    /**
+     * 迁移任务调度间隔（毫秒）
+     */
+    private long migrationIntervalMillis = 1000L;
+
+    /**
+     * 每批迁移的文档数
+     */
+    private int migrationBatchSize = 500;
+}
@@ -0,0 +1,30 @@
+package org.practice.surveymaster.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 列式答案存储配置类
+ * 配置列文件目录与同时打开的问卷存储数量
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+@Setter
+@Getter
+@Configuration
+@ConfigurationProperties(prefix = "answer.columnar")
+public class AnswerColumnarConfig {
+
+    /**
+     * 列文件根目录，每个问卷一个子目录
+     */
+    private String dataDir = "data/columnar";
+
+    /**
+     * 同时打开的问卷存储数，超出时关闭最久未使用的存储
+     */
+    private int maxOpenStores = 128;
+}
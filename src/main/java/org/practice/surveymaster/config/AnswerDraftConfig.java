@@ -0,0 +1,45 @@
+package org.practice.surveymaster.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 答案草稿配置类
+ * 配置自动保存的防抖窗口与刷写节奏
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+@Setter
+@Getter
+@Configuration
+@ConfigurationProperties(prefix = "answer.draft")
+public class AnswerDraftConfig {
+
+    /**
+     * 是否在内存中合并保存请求；缓冲只在本实例可见，多实例部署且请求未按用户粘滞到同一实例时应关闭
+     */
+    private boolean bufferEnabled = true;
+
+    /**
+     * 防抖窗口（毫秒），同一会话在窗口内的连续保存合并为一次写入
+     */
+    private long debounceMillis = 2000L;
+
+    /**
+     * 最长延迟（毫秒），持续输入时也至少每隔这么久写入一次
+     */
+    private long maxDelayMillis = 10000L;
+
+    /**
+     * 刷写任务调度间隔（毫秒）
+     */
+    private long flushIntervalMillis = 500L;
+
+    /**
+     * 内存中最多缓冲的会话数，超出后新保存直接写入MongoDB
+     */
+    private int maxPendingSessions = 10000;
+}
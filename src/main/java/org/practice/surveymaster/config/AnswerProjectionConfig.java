@@ -0,0 +1,65 @@
+package org.practice.surveymaster.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 答案投影配置类
+ * 配置基于MongoDB Change Stream的答案统计投影：批量大小、等待时间、重试间隔、投影租约、变更广播频道及统计key前缀
+ *
+ * @author ljn
+ * @since 2025/10/18
+ */
+@Setter
+@Getter
+@Configuration
+@ConfigurationProperties(prefix = "answer.projection")
+public class AnswerProjectionConfig {
+
+    /**
+     * 是否启用投影（需要MongoDB副本集，单节点副本集即可）
+     */
+    private boolean enabled = true;
+
+    /**
+     * 投影名称，作为恢复令牌的存储ID
+     */
+    private String name = "answer-stats";
+
+    /**
+     * 单批处理的最大变更事件数
+     */
+    private int batchSize = 500;
+
+    /**
+     * 游标等待新事件的最长时间（毫秒）
+     */
+    private long maxAwaitMillis = 1000L;
+
+    /**
+     * 出错后的重试间隔（毫秒）
+     */
+    private long retryBackoffMillis = 5000L;
+
+    /**
+     * 投影租约的Redis key，同一时刻只有持有租约的实例运行投影
+     */
+    private String leaseKey = "projection:lease:answer-stats";
+
+    /**
+     * 投影租约时长（毫秒），持有方每隔三分之一租约续期一次，崩溃后最多经过一个租约时长由其他实例接管
+     */
+    private long leaseMillis = 30000L;
+
+    /**
+     * 答案变更广播的Redis频道，投影处理后的变更经此通知每个实例的本地视图
+     */
+    private String broadcastChannel = "answer:changes";
+
+    /**
+     * 统计数据的Redis key前缀
+     */
+    private String statsKeyPrefix = "stats:";
+}
@@ -0,0 +1,60 @@
+package org.practice.surveymaster.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 答案校验配置类
+ * 配置校验器缓存、各题型的取值约束，以及提交前检查问卷状态的本地缓存
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+@Setter
+@Getter
+@Configuration
+@ConfigurationProperties(prefix = "answer.validation")
+public class AnswerValidationConfig {
+
+    /**
+     * 缓存的问卷校验器数量上限
+     */
+    private int cacheSize = 1000;
+
+    /**
+     * 校验器存活时间（毫秒），其他实例修改题目后本实例最迟在此时间后生效
+     */
+    private long ttlMillis = 300000L;
+
+    /**
+     * 校验失败时重新编译校验器的最小间隔（毫秒）
+     */
+    private long minReloadMillis = 5000L;
+
+    /**
+     * 评分下限（含）
+     */
+    private double ratingMin = 0;
+
+    /**
+     * 评分上限（含）
+     */
+    private double ratingMax = 10;
+
+    /**
+     * 文本题答案的最大长度
+     */
+    private int textMaxLength = 5000;
+
+    /**
+     * 问卷是否已发布的本地缓存时间（毫秒），其他实例关闭问卷后最迟在此时间后停止接收答案
+     */
+    private long surveyStatusTtlMillis = 10000L;
+
+    /**
+     * 问卷状态本地缓存的最大条目数
+     */
+    private int surveyStatusCacheSize = 10000;
+}
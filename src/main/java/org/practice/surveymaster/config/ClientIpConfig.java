@@ -0,0 +1,29 @@
+package org.practice.surveymaster.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 客户端IP解析配置类
+ * 配置可信反向代理，只有来自可信代理的请求才读取X-Forwarded-For / X-Real-IP
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+@Setter
+@Getter
+@Configuration
+@ConfigurationProperties(prefix = "client-ip")
+public class ClientIpConfig {
+
+    /**
+     * 可信代理地址，支持单个IP与CIDR网段（如10.0.0.0/8），只能填写IP字面量
+     */
+    private List<String> trustedProxies = new ArrayList<>(Arrays.asList("127.0.0.1", "::1"));
+}
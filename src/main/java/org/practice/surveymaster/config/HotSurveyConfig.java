@@ -0,0 +1,45 @@
+package org.practice.surveymaster.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 热门问卷配置类
+ * 配置热度排行ZSET、时间衰减半衰期及本地快照刷新参数
+ *
+ * @author ljn
+ * @since 2025/10/14
+ */
+@Setter
+@Getter
+@Configuration
+@ConfigurationProperties(prefix = "survey.hot")
+public class HotSurveyConfig {
+
+    /**
+     * 热度排行ZSET的key
+     */
+    private String key = "survey:hot";
+
+    /**
+     * 热度半衰期（小时），每经过一个半衰期，历史答题贡献的热度减半
+     */
+    private double halfLifeHours = 24;
+
+    /**
+     * 热门列表返回的问卷数量
+     */
+    private int topN = 10;
+
+    /**
+     * 本地快照刷新间隔（毫秒）
+     */
+    private long refreshIntervalMillis = 5000L;
+
+    /**
+     * ZSET最多保留的问卷数量，超出后淘汰热度最低的问卷
+     */
+    private int maxSize = 10000;
+}
@@ -0,0 +1,50 @@
+package org.practice.surveymaster.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 幂等键配置类
+ * 配置幂等结果的保留时间、执行租约以及重复请求的等待参数
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+@Setter
+@Getter
+@Configuration
+@ConfigurationProperties(prefix = "idempotency")
+public class IdempotencyConfig {
+
+    /**
+     * Redis key前缀
+     */
+    private String keyPrefix = "idem:";
+
+    /**
+     * 幂等键的最大长度，超出时拒绝请求
+     */
+    private int maxKeyLength = 128;
+
+    /**
+     * 执行结果保留时间（秒），期间相同幂等键的请求直接返回该结果
+     */
+    private long resultTtlSeconds = 86400L;
+
+    /**
+     * 执行租约（毫秒），执行方崩溃后租约到期，幂等键可被重新执行
+     */
+    private long leaseMillis = 30000L;
+
+    /**
+     * 重复请求等待首个请求完成的最长时间（毫秒）
+     */
+    private long waitTimeoutMillis = 10000L;
+
+    /**
+     * 首个请求在其他实例执行时，重复请求轮询结果的间隔（毫秒）
+     */
+    private long pollIntervalMillis = 50L;
+}
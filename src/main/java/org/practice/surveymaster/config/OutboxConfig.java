@@ -0,0 +1,60 @@
+package org.practice.surveymaster.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 发件箱配置类
+ * 配置发件箱投递的目标交换机、批量大小、发布确认超时及投递锁参数
+ *
+ * @author ljn
+ * @since 2025/10/17
+ */
+@Setter
+@Getter
+@Configuration
+@ConfigurationProperties(prefix = "outbox")
+public class OutboxConfig {
+
+    /**
+     * 事件投递的Topic交换机，路由键为 聚合类型.事件类型（如 SURVEY.SURVEY_CHANGED）
+     */
+    private String exchange = "survey.events";
+
+    /**
+     * 投递任务调度间隔（毫秒）
+     */
+    private long pollIntervalMillis = 1000L;
+
+    /**
+     * 单批读取并投递的事件数
+     */
+    private int batchSize = 200;
+
+    /**
+     * 单次调度最多投递的批次数
+     */
+    private int maxBatchesPerRun = 10;
+
+    /**
+     * 等待Broker发布确认的超时时间（毫秒）
+     */
+    private long confirmTimeoutMillis = 5000L;
+
+    /**
+     * 投递锁的Redis key，同一时刻只有一个实例投递，保证按ID顺序发布
+     */
+    private String lockKey = "outbox:relay:lock";
+
+    /**
+     * 投递锁租约（毫秒），每批投递前续期，需大于单批的最长耗时（发布确认超时）
+     */
+    private long lockLeaseMillis = 30000L;
+
+    /**
+     * 提交宽限期（毫秒），只投递写入时间早于该时长的事件，需大于写入事件的业务事务的最长耗时
+     */
+    private long commitGraceMillis = 5000L;
+}
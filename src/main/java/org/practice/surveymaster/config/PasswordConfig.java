@@ -0,0 +1,50 @@
+package org.practice.surveymaster.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 密码哈希配置类
+ * 配置密码哈希算法、算法参数以及哈希专用线程池的容量限制
+ *
+ * @author ljn
+ * @since 2025/10/12
+ */
+@Setter
+@Getter
+@Configuration
+@ConfigurationProperties(prefix = "password")
+public class PasswordConfig {
+
+    /**
+     * 新密码使用的哈希算法：pbkdf2 / bcrypt
+     */
+    private String algorithm = "pbkdf2";
+
+    /**
+     * PBKDF2迭代次数
+     */
+    private int pbkdf2Iterations = 310000;
+
+    /**
+     * BCrypt强度（log2轮数）
+     */
+    private int bcryptStrength = 10;
+
+    /**
+     * 哈希线程池线程数，小于等于0时取CPU核数
+     */
+    private int poolSize = 0;
+
+    /**
+     * 哈希线程池等待队列容量，队列满时直接拒绝
+     */
+    private int queueCapacity = 64;
+
+    /**
+     * 单个IP同时在执行或排队的哈希任务上限
+     */
+    private int perIpMaxConcurrent = 4;
+}
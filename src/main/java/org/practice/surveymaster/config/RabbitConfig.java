@@ -0,0 +1,64 @@
+package org.practice.surveymaster.config;
+
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.QueueBuilder;
+import org.springframework.amqp.core.TopicExchange;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * RabbitMQ配置类
+ * 声明发件箱事件交换机、搜索索引队列，以及批量消费的监听容器工厂
+ *
+ * @author ljn
+ * @since 2025/10/17
+ */
+@Configuration
+public class RabbitConfig {
+
+    /**
+     * 发件箱事件交换机
+     */
+    @Bean
+    public TopicExchange outboxExchange(OutboxConfig outboxConfig) {
+        return new TopicExchange(outboxConfig.getExchange(), true, false);
+    }
+
+    /**
+     * 搜索索引队列（持久化，服务停机期间的事件保留在队列中）
+     */
+    @Bean
+    public Queue surveySearchQueue(SurveySearchConfig surveySearchConfig) {
+        return QueueBuilder.durable(surveySearchConfig.getQueue()).build();
+    }
+
+    /**
+     * 搜索索引队列订阅所有问卷事件
+     */
+    @Bean
+    public Binding surveySearchBinding(Queue surveySearchQueue, TopicExchange outboxExchange) {
+        return BindingBuilder.bind(surveySearchQueue).to(outboxExchange).with("SURVEY.#");
+    }
+
+    /**
+     * 批量消费的监听容器工厂，攒够一批或等待超时后一次性交给监听方法，便于下游批量写入
+     */
+    @Bean
+    public SimpleRabbitListenerContainerFactory batchListenerContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer, ConnectionFactory connectionFactory,
+            SurveySearchConfig surveySearchConfig) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(surveySearchConfig.getBatchSize());
+        factory.setPrefetchCount(surveySearchConfig.getBatchSize());
+        factory.setReceiveTimeout(1000L);
+        return factory;
+    }
+}
@@ -0,0 +1,116 @@
+package org.practice.surveymaster.config;
+
+import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 限流配置类
+ * 按路由配置限流策略，以及登录失败次数保护
+ *
+ * @author ljn
+ * @since 2025/10/13
+ */
+@Setter
+@Getter
+@Configuration
+@ConfigurationProperties(prefix = "rate-limit")
+public class RateLimitConfig {
+
+    /**
+     * 是否启用限流
+     */
+    private boolean enabled = true;
+
+    /**
+     * Redis key前缀
+     */
+    private String keyPrefix = "rate:";
+
+    /**
+     * 本地令牌桶的最大数量，超出后淘汰最久未使用的桶
+     */
+    private int localMaxBuckets = 100000;
+
+    /**
+     * 路由限流策略，按配置顺序匹配，同一请求可命中多条策略
+     */
+    private List<Policy> policies = new ArrayList<>();
+
+    /**
+     * 登录失败保护
+     */
+    private LoginFailure loginFailure = new LoginFailure();
+
+    /**
+     * 单条路由限流策略
+     */
+    @Data
+    public static class Policy {
+        /**
+         * 策略名称，作为限流key的一部分
+         */
+        private String name;
+
+        /**
+         * 路径匹配模式（Ant风格）
+         */
+        private String path;
+
+        /**
+         * HTTP方法，为空表示匹配所有方法
+         */
+        private String method;
+
+        /**
+         * 限流维度：ip / user / path（按路径变量，如问卷ID）
+         */
+        private String key = "ip";
+
+        /**
+         * 滑动窗口内允许的最大请求数（Redis分布式限流）
+         */
+        private int limit = 60;
+
+        /**
+         * 滑动窗口长度（秒）
+         */
+        private int windowSeconds = 60;
+
+        /**
+         * 本地令牌桶容量，小于等于0表示不启用本地预过滤
+         */
+        private int localCapacity = 0;
+
+        /**
+         * 本地令牌桶每秒补充的令牌数
+         */
+        private double localRefillPerSecond = 1;
+    }
+
+    /**
+     * 登录失败保护配置
+     */
+    @Data
+    public static class LoginFailure {
+        /**
+         * 窗口内同一用户名+IP允许的最大失败次数，达到后暂时禁止该IP登录该用户名
+         */
+        private int maxFailures = 5;
+
+        /**
+         * 窗口内同一用户名允许的最大失败总次数，达到后暂时锁定该账号，应远高于 {@link #maxFailures}
+         */
+        private int accountMaxFailures = 50;
+
+        /**
+         * 失败次数统计窗口（秒）
+         */
+        private int windowSeconds = 900;
+    }
+}
@@ -0,0 +1,56 @@
+package org.practice.surveymaster.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 统计全量重算配置类
+ * 配置重算的并行度、分区大小与默认限速
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+@Setter
+@Getter
+@Configuration
+@ConfigurationProperties(prefix = "answer.recompute")
+public class StatsRecomputeConfig {
+
+    /**
+     * ForkJoinPool并行度，即同时打开的游标数上限，0表示使用CPU核数
+     */
+    private int parallelism = 0;
+
+    /**
+     * 每个_id区间的答案数
+     */
+    private int partitionSize = 50000;
+
+    /**
+     * 默认限速（每秒读取的答案数），0表示不限速；发起重算时可单独指定
+     */
+    private int docsPerSecond = 20000;
+
+    /**
+     * 每读取多少条答案更新一次进度并申请限速令牌
+     */
+    private int batchSize = 500;
+
+    /**
+     * 重算登记的租约时间（毫秒），重算进程崩溃后登记随租约过期，由投影接手暂缓的答案
+     */
+    private long fenceLeaseMillis = 60000L;
+
+    /**
+     * 登记后开始扫描前的等待时间（毫秒），应大于投影处理一批事件的耗时
+     */
+    private long fenceSettleMillis = 2000L;
+
+    /**
+     * 词云重建时记录提交时间在登记前这段时间内被扫描的答案（毫秒），
+     * 用于判断暂缓的新增答案是否已计入重建结果，应大于投影的最大延迟
+     */
+    private long recentMarginMillis = 300000L;
+}
@@ -0,0 +1,40 @@
+package org.practice.surveymaster.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 提交数时间序列配置类
+ * 配置各粒度桶的保留时长与单次查询的点数上限
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+@Setter
+@Getter
+@Configuration
+@ConfigurationProperties(prefix = "answer.rollup")
+public class SubmissionRollupConfig {
+
+    /**
+     * 分钟桶保留小时数，过期后只能按小时或天查询
+     */
+    private int minuteRetentionHours = 48;
+
+    /**
+     * 小时桶保留天数，过期后只能按天查询
+     */
+    private int hourRetentionDays = 92;
+
+    /**
+     * 天桶保留天数，0表示永久保留
+     */
+    private int dayRetentionDays = 1096;
+
+    /**
+     * 单次查询最多返回的时间点数
+     */
+    private int maxPoints = 1500;
+}
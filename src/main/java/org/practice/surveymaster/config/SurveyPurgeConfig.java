@@ -0,0 +1,50 @@
+package org.practice.surveymaster.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 问卷清理配置类
+ * 配置问卷删除后后台分批清理关联数据的批量大小与节流参数
+ *
+ * @author ljn
+ * @since 2025/10/9
+ */
+@Setter
+@Getter
+@Configuration
+@ConfigurationProperties(prefix = "survey.purge")
+public class SurveyPurgeConfig {
+
+    /**
+     * 清理任务调度间隔（毫秒）
+     */
+    private long pollIntervalMillis = 5000L;
+
+    /**
+     * 单批删除的最大行数/文档数
+     */
+    private int chunkSize = 500;
+
+    /**
+     * 每批删除之间的停顿时间（毫秒），用于节流，避免清理任务挤占线上流量
+     */
+    private long chunkPauseMillis = 200L;
+
+    /**
+     * 单次调度中每个任务最多执行的批次数，执行完后让出，下个周期继续
+     */
+    private int maxChunksPerRun = 20;
+
+    /**
+     * 单次调度最多处理的任务数
+     */
+    private int maxTasksPerRun = 5;
+
+    /**
+     * 任务租约时长（毫秒），租约过期后其他实例可接管，实现重启后断点续删
+     */
+    private long leaseMillis = 60000L;
+}
@@ -0,0 +1,50 @@
+package org.practice.surveymaster.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 问卷结果缓存配置类
+ * 配置结果的新鲜期、最长可用期、容量与后台刷新线程
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+@Setter
+@Getter
+@Configuration
+@ConfigurationProperties(prefix = "survey.result-cache")
+public class SurveyResultCacheConfig {
+
+    /**
+     * 是否启用，关闭后每次请求都直接计算
+     */
+    private boolean enabled = true;
+
+    /**
+     * 新鲜期（毫秒），超过后仍返回旧结果，同时在后台重新计算
+     */
+    private long freshMillis = 5000L;
+
+    /**
+     * 最长可用期（毫秒），超过后不再返回旧结果，请求同步等待计算
+     */
+    private long maxStaleMillis = 600000L;
+
+    /**
+     * 最多缓存的结果数
+     */
+    private int maxEntries = 5000;
+
+    /**
+     * 后台刷新线程数
+     */
+    private int refreshThreads = 2;
+
+    /**
+     * 后台刷新队列容量，队列满时跳过本次刷新，继续返回旧结果
+     */
+    private int refreshQueueCapacity = 1000;
+}
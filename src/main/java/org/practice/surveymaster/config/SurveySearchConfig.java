@@ -0,0 +1,60 @@
+package org.practice.surveymaster.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 问卷搜索配置类
+ * 配置搜索引擎类型、索引名称及异步索引的批量参数
+ *
+ * @author ljn
+ * @since 2025/10/15
+ */
+@Setter
+@Getter
+@Configuration
+@ConfigurationProperties(prefix = "survey.search")
+public class SurveySearchConfig {
+
+    /**
+     * 搜索引擎：elasticsearch / embedded（进程内倒排索引，适用于未部署Elasticsearch的环境）
+     */
+    private String engine = "elasticsearch";
+
+    /**
+     * Elasticsearch索引名称
+     */
+    private String indexName = "survey";
+
+    /**
+     * 索引同步消费的队列名称；embedded引擎多实例部署时每个实例需配置不同的队列名，各自接收全部事件
+     */
+    private String queue = "survey.search.index";
+
+    /**
+     * 单批消费的事件数量
+     */
+    private int batchSize = 200;
+
+    /**
+     * 单页最大返回条数
+     */
+    private int maxPageSize = 50;
+
+    /**
+     * 内置索引的快照文件路径
+     */
+    private String snapshotPath = "data/survey-search.snapshot";
+
+    /**
+     * 内置索引的快照间隔（毫秒），仅在索引有变更时写入
+     */
+    private long snapshotIntervalMillis = 60000L;
+
+    /**
+     * 内置索引无快照时从数据库重建的分页大小
+     */
+    private int rebuildBatchSize = 500;
+}
@@ -0,0 +1,40 @@
+package org.practice.surveymaster.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 文本题分析配置类
+ * 配置热词候选数量、单份答案的词数上限以及全量重建的并行度
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+@Setter
+@Getter
+@Configuration
+@ConfigurationProperties(prefix = "answer.text")
+public class TextAnalyticsConfig {
+
+    /**
+     * 每道文本题保留的热词候选数，词云最多展示这么多词
+     */
+    private int topCandidates = 200;
+
+    /**
+     * 单份答案单道题最多计入的词数，超出部分忽略
+     */
+    private int maxTermsPerAnswer = 100;
+
+    /**
+     * 全量重建的分词线程数，0表示使用CPU核数
+     */
+    private int rebuildThreads = 0;
+
+    /**
+     * 全量重建时每个分块的答案数
+     */
+    private int rebuildChunkSize = 2000;
+}
@@ -0,0 +1,35 @@
+package org.practice.surveymaster.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 去重答题人统计配置类
+ * 配置HyperLogLog日桶的保留时长、查询范围上限以及精确统计的阈值
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+@Setter
+@Getter
+@Configuration
+@ConfigurationProperties(prefix = "answer.unique")
+public class UniqueRespondentConfig {
+
+    /**
+     * 答卷数不超过该值的问卷直接在MongoDB上精确去重，不使用HyperLogLog估算
+     */
+    private long exactThreshold = 2000L;
+
+    /**
+     * 日桶保留天数
+     */
+    private int bucketTtlDays = 400;
+
+    /**
+     * 单次查询最多合并的天数
+     */
+    private int maxRangeDays = 366;
+}
@@ -0,0 +1,30 @@
+package org.practice.surveymaster.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 用户缓存配置类
+ * 配置本地用户缓存的容量与过期时间
+ *
+ * @author ljn
+ * @since 2025/10/10
+ */
+@Setter
+@Getter
+@Configuration
+@ConfigurationProperties(prefix = "user.cache")
+public class UserCacheConfig {
+
+    /**
+     * 最大缓存用户数
+     */
+    private int maxSize = 10000;
+
+    /**
+     * 缓存过期时间（毫秒）- 默认10分钟
+     */
+    private long ttlMillis = 600000L;
+}
@@ -0,0 +1,45 @@
+package org.practice.surveymaster.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 用户名布隆过滤器配置类
+ * 配置注册时用于快速判断用户名是否可能已被占用的布隆过滤器
+ *
+ * @author ljn
+ * @since 2025/10/11
+ */
+@Setter
+@Getter
+@Configuration
+@ConfigurationProperties(prefix = "user.bloom")
+public class UsernameBloomFilterConfig {
+
+    /**
+     * 是否启用用户名布隆过滤器
+     */
+    private boolean enabled = true;
+
+    /**
+     * 预期用户数，超出后误判率会逐渐升高
+     */
+    private long expectedInsertions = 1000000L;
+
+    /**
+     * 期望误判率
+     */
+    private double fpp = 0.01;
+
+    /**
+     * 启动预热时每批从用户表读取的行数
+     */
+    private int preloadBatchSize = 5000;
+
+    /**
+     * 已确认被占用的用户名缓存容量，用于拦截对同一用户名的重复注册
+     */
+    private int takenCacheSize = 10000;
+}
@@ -1,6 +1,7 @@
 package org.practice.surveymaster.config;
 
 import org.practice.surveymaster.interceptor.JwtInterceptor;
+import org.practice.surveymaster.interceptor.RateLimitInterceptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
@@ -17,10 +18,12 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 public class WebMvcConfig implements WebMvcConfigurer {
 
     private final JwtInterceptor jwtInterceptor;
+    private final RateLimitInterceptor rateLimitInterceptor;
 
     @Autowired
-    public WebMvcConfig(JwtInterceptor jwtInterceptor) {
+    public WebMvcConfig(JwtInterceptor jwtInterceptor, RateLimitInterceptor rateLimitInterceptor) {
         this.jwtInterceptor = jwtInterceptor;
+        this.rateLimitInterceptor = rateLimitInterceptor;
     }
 
     @Override
@@ -34,5 +37,8 @@ public class WebMvcConfig implements WebMvcConfigurer {
                         "/api/health/**",                     // 排除健康检查接口
                         "/api/public/**"                      // 排除公共接口
                 );
+        // 限流拦截器在JWT拦截器之后执行，以便按用户维度限流时能取到当前用户ID
+        registry.addInterceptor(rateLimitInterceptor)
+                .addPathPatterns("/api/**");
     }
 }
\ No newline at end of file
@@ -0,0 +1,69 @@
+package org.practice.surveymaster.constant;
+
+/**
+ * 问卷状态枚举
+ * 与survey表中status字段的取值一一对应
+ *
+ * @author ljn
+ * @since 2025/10/9
+ */
+public enum SurveyStatus {
+    /**
+     * 草稿
+     */
+    DRAFT(0, "草稿"),
+
+    /**
+     * 已发布
+     */
+    PUBLISHED(1, "已发布"),
+
+    /**
+     * 已关闭
+     */
+    CLOSED(2, "已关闭"),
+
+    /**
+     * 已删除（逻辑删除，关联数据由后台任务分批清理）
+     */
+    DELETED(3, "已删除");
+
+    /**
+     * 状态代码（存储到数据库）
+     */
+    private final int code;
+
+    /**
+     * 状态描述（用于显示）
+     */
+    private final String description;
+
+    SurveyStatus(int code, String description) {
+        this.code = code;
+        this.description = description;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * 根据代码获取枚举值
+     *
+     * @param code 状态代码
+     * @return 对应的枚举值
+     * @throws IllegalArgumentException 如果代码不存在
+     */
+    public static SurveyStatus fromCode(int code) {
+        for (SurveyStatus status : values()) {
+            if (status.code == code) {
+                return status;
+            }
+        }
+        throw new IllegalArgumentException("未知的问卷状态代码: " + code);
+    }
+}
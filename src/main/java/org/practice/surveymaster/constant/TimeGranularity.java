@@ -0,0 +1,58 @@
+package org.practice.surveymaster.constant;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * 时间粒度枚举
+ * 定义时间序列统计支持的聚合粒度
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+public enum TimeGranularity {
+    /**
+     * 分钟
+     */
+    MINUTE(ChronoUnit.MINUTES, "分钟"),
+
+    /**
+     * 小时
+     */
+    HOUR(ChronoUnit.HOURS, "小时"),
+
+    /**
+     * 天
+     */
+    DAY(ChronoUnit.DAYS, "天");
+
+    /**
+     * 时间单位
+     */
+    private final ChronoUnit unit;
+
+    /**
+     * 粒度描述（用于显示）
+     */
+    private final String description;
+
+    TimeGranularity(ChronoUnit unit, String description) {
+        this.unit = unit;
+        this.description = description;
+    }
+
+    public ChronoUnit getUnit() {
+        return unit;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * 时间所在桶的起始时间
+     */
+    public LocalDateTime truncate(LocalDateTime time) {
+        return time.truncatedTo(unit);
+    }
+}
@@ -1,20 +1,42 @@
 package org.practice.surveymaster.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.practice.surveymaster.annotation.LogBusiness;
 import org.practice.surveymaster.constant.ErrorCode;
+import org.practice.surveymaster.constant.TimeGranularity;
 import org.practice.surveymaster.dto.AnswerQueryDTO;
+import org.practice.surveymaster.dto.DistributionQueryDTO;
+import org.practice.surveymaster.dto.SaveDraftDTO;
 import org.practice.surveymaster.dto.SubmitAnswerDTO;
 import org.practice.surveymaster.dto.UpdateAnswerDTO;
+import org.practice.surveymaster.idempotency.IdempotencyGuard;
 import org.practice.surveymaster.model.mongo.Answer;
+import org.practice.surveymaster.model.mongo.AnswerDraft;
+import org.practice.surveymaster.service.AnswerAnalyticsService;
+import org.practice.surveymaster.service.AnswerDraftService;
 import org.practice.surveymaster.service.AnswerService;
+import org.practice.surveymaster.service.AnswerStatsService;
 import org.practice.surveymaster.vo.ApiResponse;
+import org.practice.surveymaster.vo.QuestionDistribution;
+import org.practice.surveymaster.vo.RatingStats;
+import org.practice.surveymaster.vo.SubmissionSeries;
+import org.practice.surveymaster.vo.SurveyAnswerStats;
+import org.practice.surveymaster.vo.UniqueRespondents;
+import org.practice.surveymaster.vo.WordCloud;
 import org.springframework.data.domain.Page;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -39,19 +61,76 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class AnswerController {
 
+    /**
+     * 幂等键请求头
+     */
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
     private final AnswerService answerService;
+    private final AnswerStatsService answerStatsService;
+    private final AnswerAnalyticsService answerAnalyticsService;
+    private final AnswerDraftService answerDraftService;
+    private final ObjectMapper objectMapper;
+    private final IdempotencyGuard idempotencyGuard;
 
     /**
      * 提交问卷答案
+     * 携带Idempotency-Key时，相同幂等键的重试直接返回首次提交的结果，并发的重复请求等待首次提交完成
      *
      * @param submitAnswerDTO 提交答案DTO
+     * @param idempotencyKey 客户端生成的幂等键，可选
      * @return API响应结果
      */
     @PostMapping("/submit")
     @LogBusiness("提交问卷答案")
-    public ApiResponse<Answer> submitAnswer(@Valid @RequestBody SubmitAnswerDTO submitAnswerDTO) {
+    public ApiResponse<Answer> submitAnswer(@Valid @RequestBody SubmitAnswerDTO submitAnswerDTO,
+                                            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
         log.info("接收提交答案请求: 问卷ID={}, 用户ID={}", submitAnswerDTO.getSurveyId(), submitAnswerDTO.getUserId());
-        Answer answer = answerService.submitAnswer(submitAnswerDTO);
+        Answer answer = idempotencyKey == null || idempotencyKey.isEmpty()
+                ? answerService.submitAnswer(submitAnswerDTO)
+                : idempotencyGuard.execute("answer-submit:" + submitAnswerDTO.getUserId(), idempotencyKey,
+                        submitAnswerDTO, Answer.class, () -> answerService.submitAnswer(submitAnswerDTO));
+        return ApiResponse.success("答案提交成功", answer);
+    }
+
+    /**
+     * 自动保存答案草稿，只需上传改动的题目
+     *
+     * @param saveDraftDTO 保存草稿DTO
+     * @return API响应结果
+     */
+    @PatchMapping("/draft")
+    public ApiResponse<Void> saveDraft(@Valid @RequestBody SaveDraftDTO saveDraftDTO) {
+        answerDraftService.saveDraft(saveDraftDTO);
+        return ApiResponse.success("草稿已保存", null);
+    }
+
+    /**
+     * 查询答案草稿
+     *
+     * @param surveyId 问卷ID
+     * @param userId 用户ID
+     * @return API响应结果
+     */
+    @GetMapping("/draft/survey/{surveyId}/user/{userId}")
+    @LogBusiness("查询答案草稿")
+    public ApiResponse<AnswerDraft> getDraft(@PathVariable Long surveyId, @PathVariable Long userId) {
+        Optional<AnswerDraft> draft = answerDraftService.getDraft(surveyId, userId);
+        return draft.map(value -> ApiResponse.success("查询成功", value)).orElseGet(() -> ApiResponse.error(ErrorCode.ANSWER_DRAFT_NOT_FOUND));
+    }
+
+    /**
+     * 将草稿提交为正式答案
+     *
+     * @param surveyId 问卷ID
+     * @param userId 用户ID
+     * @return API响应结果
+     */
+    @PostMapping("/draft/survey/{surveyId}/user/{userId}/submit")
+    @LogBusiness("提交答案草稿")
+    public ApiResponse<Answer> submitDraft(@PathVariable Long surveyId, @PathVariable Long userId) {
+        log.info("接收提交草稿请求: 问卷ID={}, 用户ID={}", surveyId, userId);
+        Answer answer = answerDraftService.submitDraft(surveyId, userId);
         return ApiResponse.success("答案提交成功", answer);
     }
 
@@ -231,6 +310,132 @@ public class AnswerController {
         return ApiResponse.success("查询成功", count);
     }
 
+    /**
+     * 查询问卷答题统计（读取实时投影，不扫描答案集合）
+     *
+     * @param surveyId 问卷ID
+     * @return API响应结果
+     */
+    @GetMapping("/stats/survey/{surveyId}")
+    @LogBusiness("查询问卷答题统计")
+    public ApiResponse<SurveyAnswerStats> getSurveyStats(@PathVariable Long surveyId) {
+        return ApiResponse.success("查询成功", answerStatsService.getSurveyStats(surveyId));
+    }
+
+    /**
+     * 查询问卷在日期范围内的去重答题人数
+     *
+     * @param surveyId 问卷ID
+     * @param from     起始日期（含）
+     * @param to       结束日期（含）
+     * @return API响应结果
+     */
+    @GetMapping("/stats/survey/{surveyId}/unique")
+    @LogBusiness("查询问卷去重答题人数")
+    public ApiResponse<UniqueRespondents> getSurveyUniqueRespondents(
+            @PathVariable Long surveyId,
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate from,
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate to) {
+        return ApiResponse.success("查询成功", answerStatsService.getSurveyUniqueRespondents(surveyId, from, to));
+    }
+
+    /**
+     * 查询问卷创建者名下所有问卷在日期范围内的去重答题人数
+     *
+     * @param ownerId 问卷创建者ID
+     * @param from    起始日期（含）
+     * @param to      结束日期（含）
+     * @return API响应结果
+     */
+    @GetMapping("/stats/owner/{ownerId}/unique")
+    @LogBusiness("查询创建者去重答题人数")
+    public ApiResponse<UniqueRespondents> getOwnerUniqueRespondents(
+            @PathVariable Long ownerId,
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate from,
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate to) {
+        return ApiResponse.success("查询成功", answerStatsService.getOwnerUniqueRespondents(ownerId, from, to));
+    }
+
+    /**
+     * 查询评分题统计（读取评分草图，不扫描答案集合），可限定提交日期范围
+     *
+     * @param surveyId   问卷ID
+     * @param questionId 评分题ID
+     * @param from       起始日期（含）
+     * @param to         结束日期（含）
+     * @return API响应结果
+     */
+    @GetMapping("/stats/survey/{surveyId}/question/{questionId}/rating")
+    @LogBusiness("查询评分题统计")
+    public ApiResponse<RatingStats> getRatingStats(
+            @PathVariable Long surveyId, @PathVariable Long questionId,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate to) {
+        return ApiResponse.success("查询成功", answerStatsService.getRatingStats(surveyId, questionId, from, to));
+    }
+
+    /**
+     * 查询问卷提交数时间序列（读取预聚合的时间桶，不扫描答案集合）
+     *
+     * @param surveyId    问卷ID
+     * @param granularity 时间粒度：MINUTE、HOUR、DAY
+     * @param from        起始时间（含）
+     * @param to          结束时间（含）
+     * @return API响应结果
+     */
+    @GetMapping("/stats/survey/{surveyId}/submissions")
+    @LogBusiness("查询提交数时间序列")
+    public ApiResponse<SubmissionSeries> getSubmissionSeries(
+            @PathVariable Long surveyId,
+            @RequestParam(defaultValue = "HOUR") TimeGranularity granularity,
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime from,
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime to) {
+        return ApiResponse.success("查询成功",
+                answerStatsService.getSubmissionSeries(surveyId, granularity, from, to));
+    }
+
+    /**
+     * 查询某题的答案分布，可按其他题目的答案筛选答卷（基于列式答案存储）
+     *
+     * @param surveyId   问卷ID
+     * @param questionId 问题ID
+     * @param query      筛选条件
+     * @return API响应结果
+     */
+    @PostMapping("/analytics/survey/{surveyId}/question/{questionId}/distribution")
+    @LogBusiness("查询答案分布")
+    public ApiResponse<QuestionDistribution> getDistribution(@PathVariable Long surveyId, @PathVariable Long questionId,
+                                                             @Valid @RequestBody DistributionQueryDTO query) {
+        return ApiResponse.success("查询成功", answerAnalyticsService.getDistribution(surveyId, questionId, query));
+    }
+
+    /**
+     * 查询文本题词云（读取热词草图，不扫描答案集合）
+     *
+     * @param surveyId   问卷ID
+     * @param questionId 文本题ID
+     * @param limit      最多返回的词数
+     * @return API响应结果
+     */
+    @GetMapping("/analytics/survey/{surveyId}/question/{questionId}/word-cloud")
+    @LogBusiness("查询文本题词云")
+    public ApiResponse<WordCloud> getWordCloud(@PathVariable Long surveyId, @PathVariable Long questionId,
+                                               @RequestParam(defaultValue = "50") int limit) {
+        return ApiResponse.success("查询成功", answerAnalyticsService.getWordCloud(surveyId, questionId, limit));
+    }
+
+    /**
+     * 查询用户答卷数（读取实时投影，不扫描答案集合）
+     *
+     * @param userId 用户ID
+     * @return API响应结果
+     */
+    @GetMapping("/stats/user/{userId}")
+    @LogBusiness("查询用户答卷数")
+    public ApiResponse<Long> getUserAnswerCount(@PathVariable Long userId) {
+        return ApiResponse.success("查询成功", answerStatsService.getUserAnswerCount(userId));
+    }
+
     /**
      * 检查用户是否已回答问卷
      *
@@ -246,6 +451,30 @@ public class AnswerController {
         return ApiResponse.success("查询成功", hasAnswered);
     }
 
+    /**
+     * 导出问卷的全部答案（含归档），以NDJSON格式边读边写
+     *
+     * @param surveyId 问卷ID
+     * @return 答案流，每行一个答案
+     */
+    @GetMapping("/survey/{surveyId}/export")
+    @LogBusiness("导出问卷答案")
+    public ResponseEntity<StreamingResponseBody> exportAnswers(@PathVariable Long surveyId) {
+        log.info("导出问卷答案: 问卷ID={}", surveyId);
+        StreamingResponseBody body = out -> answerService.exportAnswers(surveyId, answer -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(answer));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=survey-" + surveyId + "-answers.ndjson")
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
+
     /**
      * 查询包含特定问题的答案
      *
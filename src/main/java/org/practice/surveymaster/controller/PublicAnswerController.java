@@ -0,0 +1,67 @@
+package org.practice.surveymaster.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.practice.surveymaster.annotation.LogBusiness;
+import org.practice.surveymaster.cache.AnonymousRespondentFilter;
+import org.practice.surveymaster.config.AnonymousAnswerConfig;
+import org.practice.surveymaster.dto.PublicSubmitAnswerDTO;
+import org.practice.surveymaster.model.mongo.Answer;
+import org.practice.surveymaster.service.PublicAnswerService;
+import org.practice.surveymaster.util.IpUtil;
+import org.practice.surveymaster.vo.ApiResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.validation.Valid;
+
+/**
+ * <p>
+ * 公开问卷匿名答题控制器
+ * </p>
+ *
+ * <p>
+ * 位于/api/public下，不经过JWT校验。按问卷与IP的限流策略在application.yml的rate-limit中配置，
+ * 设备去重以请求头中的设备标识为准，缺失时以IP与User-Agent代替；设备标识由客户端提供、可伪造，
+ * 去重只是尽力而为，按IP的限流才是提交量的上限，IP只从可信代理的请求头中解析。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/public/answer")
+@RequiredArgsConstructor
+public class PublicAnswerController {
+
+    private final PublicAnswerService publicAnswerService;
+    private final AnonymousRespondentFilter anonymousRespondentFilter;
+    private final AnonymousAnswerConfig anonymousAnswerConfig;
+    private final IpUtil ipUtil;
+
+    /**
+     * 匿名提交问卷答案
+     *
+     * @param surveyId 问卷ID
+     * @param dto 答案
+     * @param request HTTP请求
+     * @return API响应结果
+     */
+    @PostMapping("/survey/{surveyId}/submit")
+    @LogBusiness("匿名提交问卷答案")
+    public ApiResponse<Answer> submitAnonymous(@PathVariable Long surveyId,
+                                               @Valid @RequestBody PublicSubmitAnswerDTO dto,
+                                               HttpServletRequest request) {
+        String fingerprint = anonymousRespondentFilter.fingerprint(
+                request.getHeader(anonymousAnswerConfig.getDeviceIdHeader()), ipUtil.getClientIp(request),
+                request.getHeader(HttpHeaders.USER_AGENT));
+        Answer answer = publicAnswerService.submitAnonymous(surveyId, dto, fingerprint);
+        return ApiResponse.success("答案提交成功", answer);
+    }
+}
@@ -2,9 +2,16 @@ package org.practice.surveymaster.controller;
 
 import org.practice.surveymaster.annotation.LogBusiness;
 import org.practice.surveymaster.dto.CreateSurvey;
+import org.practice.surveymaster.dto.CrosstabQueryDTO;
 import org.practice.surveymaster.dto.UpdateSurveyStatus;
+import org.practice.surveymaster.model.SurveyPurgeTask;
+import org.practice.surveymaster.service.AnswerAnalyticsService;
+import org.practice.surveymaster.service.StatsRecomputeService;
 import org.practice.surveymaster.service.SurveyService;
 import org.practice.surveymaster.vo.ApiResponse;
+import org.practice.surveymaster.vo.Crosstab;
+import org.practice.surveymaster.vo.RecomputeProgress;
+import org.practice.surveymaster.vo.SurveySearchResult;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
@@ -24,10 +31,15 @@ import javax.validation.Valid;
 public class SurveyController {
     
     private final SurveyService surveyService;
+    private final AnswerAnalyticsService answerAnalyticsService;
+    private final StatsRecomputeService statsRecomputeService;
     
     @Autowired
-    public SurveyController(SurveyService surveyService) {
+    public SurveyController(SurveyService surveyService, AnswerAnalyticsService answerAnalyticsService,
+                            StatsRecomputeService statsRecomputeService) {
         this.surveyService = surveyService;
+        this.answerAnalyticsService = answerAnalyticsService;
+        this.statsRecomputeService = statsRecomputeService;
     }
     
     /**
@@ -65,6 +77,32 @@ public class SurveyController {
     }
 
 
+    /**
+     * 查询热门问卷列表
+     *
+     * @return 按热度降序排列的已发布问卷，附带创建者用户名
+     */
+    @GetMapping("/hot")
+    @LogBusiness("查询热门问卷")
+    public ApiResponse<Object> queryHotSurveyList() {
+        return ApiResponse.success(surveyService.QueryHotSurveyList());
+    }
+
+    /**
+     * 搜索已发布的问卷
+     *
+     * @param keyword 关键字，匹配标题、描述及问题内容
+     * @param page 页码，从1开始
+     * @param size 每页条数
+     * @return 分页搜索结果（含高亮片段）
+     */
+    @GetMapping("/search")
+    @LogBusiness("搜索问卷")
+    public ApiResponse<SurveySearchResult> searchSurvey(@RequestParam String keyword,
+                                                        @RequestParam(defaultValue = "1") int page,
+                                                        @RequestParam(defaultValue = "10") int size) {
+        return ApiResponse.success(surveyService.SearchSurveyPage(keyword, page, size));
+    }
 
     /**
      * 更新问卷状态
@@ -89,4 +127,125 @@ public class SurveyController {
         return ApiResponse.success();
     }
 
+    /**
+     * 删除问卷
+     * 问卷立即标记为已删除，关联的选项、问题和答案由后台任务分批清理
+     *
+     * @param id 问卷ID
+     * @param request HTTP请求对象，用于获取当前用户信息
+     * @return 删除结果
+     */
+    @DeleteMapping("/{id}")
+    @LogBusiness("删除问卷")
+    public ApiResponse<Void> deleteSurvey(@PathVariable Long id, HttpServletRequest request) {
+        // 从JWT拦截器中获取当前用户ID
+        Long currentUserId = (Long) request.getAttribute("currentUserId");
+
+        surveyService.DeleteSurvey(id, currentUserId);
+
+        return ApiResponse.success();
+    }
+
+    /**
+     * 查询问卷删除进度
+     *
+     * @param id 问卷ID
+     * @param request HTTP请求对象，用于获取当前用户信息
+     * @return 清理任务进度
+     */
+    @GetMapping("/{id}/deletion")
+    @LogBusiness("查询问卷删除进度")
+    public ApiResponse<SurveyPurgeTask> queryDeletionStatus(@PathVariable Long id, HttpServletRequest request) {
+        // 从JWT拦截器中获取当前用户ID
+        Long currentUserId = (Long) request.getAttribute("currentUserId");
+
+        return ApiResponse.success(surveyService.QueryDeletionStatus(id, currentUserId));
+    }
+
+    /**
+     * 两道题目的交叉分析，可附加筛选条件
+     *
+     * @param id 问卷ID
+     * @param query 行列题目与筛选条件
+     * @param request HTTP请求对象，用于获取当前用户信息
+     * @return 交叉分析结果
+     */
+    @PostMapping("/{id}/crosstab")
+    @LogBusiness("问卷交叉分析")
+    public ApiResponse<Crosstab> crosstab(@PathVariable Long id, @Valid @RequestBody CrosstabQueryDTO query,
+                                          HttpServletRequest request) {
+        // 从JWT拦截器中获取当前用户ID
+        Long currentUserId = (Long) request.getAttribute("currentUserId");
+
+        return ApiResponse.success(answerAnalyticsService.getCrosstab(id, currentUserId, query));
+    }
+
+    /**
+     * 从原始答案重建问卷所有文本题的词云，用于答案大量修改或删除之后
+     *
+     * @param id 问卷ID
+     * @param request HTTP请求对象，用于获取当前用户信息
+     * @return 扫描的答案数
+     */
+    @PostMapping("/{id}/word-cloud/rebuild")
+    @LogBusiness("重建问卷词云")
+    public ApiResponse<Long> rebuildWordCloud(@PathVariable Long id, HttpServletRequest request) {
+        // 从JWT拦截器中获取当前用户ID
+        Long currentUserId = (Long) request.getAttribute("currentUserId");
+
+        return ApiResponse.success(answerAnalyticsService.rebuildWordCloud(id, currentUserId));
+    }
+
+    /**
+     * 从原始答案重算问卷统计，异步执行
+     *
+     * @param id 问卷ID
+     * @param docsPerSecond 限速（每秒读取的答案数），不传使用默认值，0表示不限速
+     * @param request HTTP请求对象，用于获取当前用户信息
+     * @return 初始进度
+     */
+    @PostMapping("/{id}/stats/recompute")
+    @LogBusiness("重算问卷统计")
+    public ApiResponse<RecomputeProgress> recomputeStats(@PathVariable Long id,
+                                                         @RequestParam(required = false) Integer docsPerSecond,
+                                                         HttpServletRequest request) {
+        // 从JWT拦截器中获取当前用户ID
+        Long currentUserId = (Long) request.getAttribute("currentUserId");
+
+        return ApiResponse.success(statsRecomputeService.startRecompute(id, currentUserId, docsPerSecond));
+    }
+
+    /**
+     * 查询问卷统计重算进度
+     *
+     * @param id 问卷ID
+     * @param request HTTP请求对象，用于获取当前用户信息
+     * @return 重算进度
+     */
+    @GetMapping("/{id}/stats/recompute")
+    @LogBusiness("查询统计重算进度")
+    public ApiResponse<RecomputeProgress> getRecomputeProgress(@PathVariable Long id, HttpServletRequest request) {
+        // 从JWT拦截器中获取当前用户ID
+        Long currentUserId = (Long) request.getAttribute("currentUserId");
+
+        return ApiResponse.success(statsRecomputeService.getRecomputeProgress(id, currentUserId));
+    }
+
+    /**
+     * 调整运行中重算的限速
+     *
+     * @param id 问卷ID
+     * @param docsPerSecond 每秒读取的答案数，0表示不限速
+     * @param request HTTP请求对象，用于获取当前用户信息
+     * @return 当前进度
+     */
+    @PutMapping("/{id}/stats/recompute/throttle")
+    @LogBusiness("调整统计重算限速")
+    public ApiResponse<RecomputeProgress> throttleRecompute(@PathVariable Long id, @RequestParam int docsPerSecond,
+                                                            HttpServletRequest request) {
+        // 从JWT拦截器中获取当前用户ID
+        Long currentUserId = (Long) request.getAttribute("currentUserId");
+
+        return ApiResponse.success(statsRecomputeService.throttleRecompute(id, currentUserId, docsPerSecond));
+    }
 }
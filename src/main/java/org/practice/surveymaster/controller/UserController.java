@@ -4,12 +4,15 @@ import org.practice.surveymaster.annotation.LogBusiness;
 import org.practice.surveymaster.dto.UserLogin;
 import org.practice.surveymaster.dto.UserRegister;
 import org.practice.surveymaster.service.UserService;
+import org.practice.surveymaster.util.IpUtil;
 import org.practice.surveymaster.vo.ApiResponse;
 import org.practice.surveymaster.vo.LoginResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * <p>
@@ -29,24 +32,36 @@ import javax.validation.Valid;
 public class UserController {
 
     private final UserService userService;
+    private final IpUtil ipUtil;
 
     @Autowired
-    public UserController(UserService userService) {
+    public UserController(UserService userService, IpUtil ipUtil) {
         this.userService = userService;
+        this.ipUtil = ipUtil;
     }
 
+    /**
+     * 用户登录
+     * 返回CompletableFuture以异步请求方式处理，密码校验期间不占用Tomcat请求线程
+     */
     @PostMapping("/login")
     @LogBusiness("用户登录")
-    public ApiResponse<LoginResponse> login(@Valid @RequestBody UserLogin userLogin) {
-        LoginResponse loginResponse = userService.login(userLogin.getUsername(), userLogin.getPassword());
-        return ApiResponse.success("登录成功", loginResponse);
+    public CompletableFuture<ApiResponse<LoginResponse>> login(@Valid @RequestBody UserLogin userLogin,
+                                                               HttpServletRequest request) {
+        return userService.login(userLogin.getUsername(), userLogin.getPassword(), ipUtil.getClientIp(request))
+                .thenApply(loginResponse -> ApiResponse.success("登录成功", loginResponse));
     }
 
+    /**
+     * 用户注册
+     * 返回CompletableFuture以异步请求方式处理，密码哈希期间不占用Tomcat请求线程
+     */
     @PostMapping("/register")
     @LogBusiness("用户注册")
-    public ApiResponse<String> register(@Valid @RequestBody UserRegister userRegister) {
-        userService.register(userRegister);
-        return ApiResponse.success("注册成功");
+    public CompletableFuture<ApiResponse<String>> register(@Valid @RequestBody UserRegister userRegister,
+                                                           HttpServletRequest request) {
+        return userService.register(userRegister, ipUtil.getClientIp(request))
+                .thenApply(ignored -> ApiResponse.success("注册成功"));
     }
     
     @PostMapping("/refresh-token")
@@ -0,0 +1,47 @@
+package org.practice.surveymaster.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotNull;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ * 交叉分析的请求DTO
+ * </p>
+ *
+ * <p>
+ * 以行题目的每个答案值为行、列题目的每个答案值为列统计答卷数，
+ * 例如"第3题选A的人在第7题上怎么选"。筛选条件语义与 {@link DistributionQueryDTO} 相同。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CrosstabQueryDTO {
+
+    /**
+     * 行题目ID
+     */
+    @NotNull(message = "行题目ID不能为空")
+    private Long rowQuestionId;
+
+    /**
+     * 列题目ID
+     */
+    @NotNull(message = "列题目ID不能为空")
+    private Long columnQuestionId;
+
+    /**
+     * 筛选条件，为空时统计全部答卷
+     */
+    @Valid
+    private List<DistributionQueryDTO.Filter> filters = new ArrayList<>();
+}
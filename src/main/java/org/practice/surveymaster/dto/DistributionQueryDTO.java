@@ -0,0 +1,53 @@
+package org.practice.surveymaster.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ * 答案分布查询的请求DTO
+ * </p>
+ *
+ * <p>
+ * 筛选条件之间为"且"，同一条件内的多个值为"或"；例如只统计选了"男"且年龄段为"18-25"或"26-35"的答卷。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DistributionQueryDTO {
+
+    /**
+     * 筛选条件，为空时统计全部答卷
+     */
+    @Valid
+    private List<Filter> filters = new ArrayList<>();
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Filter {
+
+        /**
+         * 问题ID
+         */
+        @NotNull(message = "问题ID不能为空")
+        private Long questionId;
+
+        /**
+         * 可接受的答案值，命中任一即可
+         */
+        @NotEmpty(message = "筛选值不能为空")
+        private List<String> values;
+    }
+}
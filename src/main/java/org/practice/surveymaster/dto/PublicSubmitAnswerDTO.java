@@ -0,0 +1,36 @@
+package org.practice.surveymaster.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+/**
+ * <p>
+ * 匿名提交问卷答案的请求DTO
+ * </p>
+ *
+ * <p>
+ * 公开问卷的答题人无需登录，问卷ID由路径给出，不携带用户ID。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PublicSubmitAnswerDTO {
+
+    /**
+     * 答案列表
+     */
+    @NotNull(message = "答案列表不能为空")
+    @Size(min = 1, message = "至少需要回答一个问题")
+    @Valid
+    private List<SubmitAnswerDTO.QuestionAnswerDTO> answers;
+}
@@ -0,0 +1,48 @@
+package org.practice.surveymaster.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+/**
+ * <p>
+ * 保存答案草稿的请求DTO
+ * </p>
+ *
+ * <p>
+ * 只携带本次改动的题目，前端自动保存时不必上传整份答卷。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SaveDraftDTO {
+
+    /**
+     * 问卷ID
+     */
+    @NotNull(message = "问卷ID不能为空")
+    private Long surveyId;
+
+    /**
+     * 用户ID
+     */
+    @NotNull(message = "用户ID不能为空")
+    private Long userId;
+
+    /**
+     * 改动的题目答案
+     */
+    @NotNull(message = "答案列表不能为空")
+    @Size(min = 1, message = "至少需要保存一个问题")
+    @Valid
+    private List<SubmitAnswerDTO.QuestionAnswerDTO> answers;
+}
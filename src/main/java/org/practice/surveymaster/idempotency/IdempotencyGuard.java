@@ -0,0 +1,232 @@
+package org.practice.surveymaster.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.practice.surveymaster.config.IdempotencyConfig;
+import org.practice.surveymaster.constant.ErrorCode;
+import org.practice.surveymaster.exception.BusinessException;
+import org.practice.surveymaster.util.AssertUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * <p>
+ * 基于客户端幂等键的请求去重
+ * </p>
+ *
+ * <p>
+ * 每个幂等键对应一个Redis字符串：首个请求以SET NX写入"执行中"标记并带租约，执行成功后原子地替换为结果JSON，
+ * 结果保留一段时间后随TTL过期，键的数量与保留时间内的请求数成正比，不会无限增长。
+ * 重试请求读到结果直接返回；读到"执行中"时等待首个请求完成，同实例的请求挂在本地Future上即时唤醒，
+ * 其他实例的请求按间隔轮询。首个请求失败时删除标记，等待方重新竞争执行；执行方崩溃时标记随租约过期。
+ * </p>
+ *
+ * <p>
+ * 标记与结果都带有请求体的摘要，同一幂等键携带不同请求体时拒绝，避免客户端误用幂等键拿到其他请求的结果。
+ * Redis不可用时直接执行（fail-open），退化为没有幂等键时的行为。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+@Slf4j
+@Component
+public class IdempotencyGuard {
+
+    static final char PENDING = 'P';
+    static final char DONE = 'D';
+
+    /**
+     * 仍持有执行标记时写入结果，返回是否写入
+     */
+    private static final String COMPLETE_SCRIPT =
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then " +
+            "  redis.call('SET', KEYS[1], ARGV[2], 'PX', ARGV[3]) " +
+            "  return 1 " +
+            "end " +
+            "return 0";
+
+    /**
+     * 仍持有执行标记时删除，返回是否删除
+     */
+    private static final String RELEASE_SCRIPT =
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) end return 0";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ObjectMapper objectMapper;
+    private final IdempotencyConfig config;
+    private final DefaultRedisScript<Long> completeScript = new DefaultRedisScript<>(COMPLETE_SCRIPT, Long.class);
+    private final DefaultRedisScript<Long> releaseScript = new DefaultRedisScript<>(RELEASE_SCRIPT, Long.class);
+    private final ConcurrentHashMap<String, CompletableFuture<Void>> inFlight = new ConcurrentHashMap<>();
+
+    @Autowired
+    public IdempotencyGuard(StringRedisTemplate stringRedisTemplate, ObjectMapper objectMapper,
+                            IdempotencyConfig config) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.objectMapper = objectMapper;
+        this.config = config;
+    }
+
+    /**
+     * 按幂等键执行，相同幂等键的请求只执行一次
+     *
+     * @param scope      幂等键的作用域，如接口名与用户ID，不同作用域的同名幂等键互不影响
+     * @param key        客户端提供的幂等键
+     * @param request    请求体，用于校验同一幂等键的请求是否一致
+     * @param resultType 结果类型
+     * @param action     实际执行的业务逻辑
+     * @return 本次或首次执行的结果
+     */
+    public <T> T execute(String scope, String key, Object request, Class<T> resultType, Supplier<T> action) {
+        AssertUtil.isTrue(key.length() <= config.getMaxKeyLength(), ErrorCode.BAD_REQUEST, "幂等键过长");
+        String redisKey = config.getKeyPrefix() + scope + ":" + key;
+        String fingerprint = fingerprint(request);
+        long deadline = System.currentTimeMillis() + config.getWaitTimeoutMillis();
+        while (true) {
+            String marker = encode(PENDING, fingerprint, UUID.randomUUID().toString());
+            boolean acquired;
+            String stored = null;
+            try {
+                acquired = Boolean.TRUE.equals(stringRedisTemplate.opsForValue().setIfAbsent(redisKey, marker,
+                        Duration.ofMillis(config.getLeaseMillis())));
+                if (!acquired) {
+                    stored = stringRedisTemplate.opsForValue().get(redisKey);
+                }
+            } catch (DataAccessException e) {
+                log.warn("幂等键存储不可用，直接执行: key={}", redisKey, e);
+                return action.get();
+            }
+            // 执行业务逻辑不能放在上面的try中：业务抛出的DataAccessException（如MongoDB写入失败）会被误当作Redis故障而重复执行
+            if (acquired) {
+                return executeAsOwner(redisKey, marker, fingerprint, action);
+            }
+
+            if (stored != null) {
+                AssertUtil.isTrue(fingerprintOf(stored).equals(fingerprint), ErrorCode.BAD_REQUEST,
+                        "幂等键已用于其他请求");
+                if (stored.charAt(0) == DONE) {
+                    return read(bodyOf(stored), resultType);
+                }
+            }
+            long remaining = deadline - System.currentTimeMillis();
+            AssertUtil.state(remaining > 0, ErrorCode.TOO_MANY_REQUESTS, "相同请求正在处理中，请稍后重试");
+            await(redisKey, Math.min(remaining, stored == null ? 0 : config.getLeaseMillis()));
+        }
+    }
+
+    private <T> T executeAsOwner(String redisKey, String marker, String fingerprint, Supplier<T> action) {
+        CompletableFuture<Void> finished = new CompletableFuture<>();
+        inFlight.put(redisKey, finished);
+        try {
+            T result;
+            try {
+                result = action.get();
+            } catch (RuntimeException e) {
+                release(redisKey, marker);
+                throw e;
+            }
+            complete(redisKey, marker, fingerprint, result);
+            return result;
+        } finally {
+            inFlight.remove(redisKey, finished);
+            finished.complete(null);
+        }
+    }
+
+    /**
+     * 执行失败后删除执行标记，Redis出错时只记录日志，标记随租约过期
+     */
+    private void release(String redisKey, String marker) {
+        try {
+            stringRedisTemplate.execute(releaseScript, Collections.singletonList(redisKey), marker);
+        } catch (DataAccessException e) {
+            log.warn("删除幂等执行标记失败，等待租约过期: key={}", redisKey, e);
+        }
+    }
+
+    /**
+     * 保存执行结果；业务已执行成功，保存失败只记录日志，不影响本次返回
+     */
+    private void complete(String redisKey, String marker, String fingerprint, Object result) {
+        try {
+            Long stored = stringRedisTemplate.execute(completeScript, Collections.singletonList(redisKey), marker,
+                    encode(DONE, fingerprint, write(result)),
+                    String.valueOf(TimeUnit.SECONDS.toMillis(config.getResultTtlSeconds())));
+            if (stored == null || stored == 0L) {
+                log.warn("执行耗时超过幂等租约，结果未保存: key={}", redisKey);
+            }
+        } catch (DataAccessException e) {
+            log.warn("保存幂等结果失败，重试将等待租约过期后重新执行: key={}", redisKey, e);
+        }
+    }
+
+    /**
+     * 等待首个请求完成：同实例执行时等待其Future，否则等待一个轮询间隔
+     */
+    private void await(String redisKey, long maxWaitMillis) {
+        CompletableFuture<Void> finished = inFlight.get(redisKey);
+        try {
+            if (finished != null) {
+                finished.get(maxWaitMillis, TimeUnit.MILLISECONDS);
+            } else if (maxWaitMillis > 0) {
+                Thread.sleep(Math.min(maxWaitMillis, config.getPollIntervalMillis()));
+            }
+        } catch (TimeoutException | ExecutionException e) {
+            // 超时后回到循环重新读取，由截止时间判断是否放弃
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException(ErrorCode.TOO_MANY_REQUESTS, "相同请求正在处理中，请稍后重试");
+        }
+    }
+
+    private String fingerprint(Object request) {
+        return DigestUtils.md5DigestAsHex(write(request).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String write(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new BusinessException(ErrorCode.INTERNAL_SERVER_ERROR, e);
+        }
+    }
+
+    private <T> T read(String json, Class<T> type) {
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (JsonProcessingException e) {
+            throw new BusinessException(ErrorCode.INTERNAL_SERVER_ERROR, e);
+        }
+    }
+
+    /**
+     * 存储格式：状态(1位) + ":" + 请求摘要(32位十六进制) + ":" + 执行标识或结果JSON
+     */
+    static String encode(char state, String fingerprint, String body) {
+        return state + ":" + fingerprint + ":" + body;
+    }
+
+    static String fingerprintOf(String stored) {
+        return stored.substring(2, 34);
+    }
+
+    static String bodyOf(String stored) {
+        return stored.substring(35);
+    }
+}
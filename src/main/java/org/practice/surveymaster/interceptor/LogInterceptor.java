@@ -1,8 +1,10 @@
 package org.practice.surveymaster.interceptor;
 
+import org.practice.surveymaster.util.IpUtil;
 import org.practice.surveymaster.util.LogUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.springframework.web.servlet.HandlerInterceptor;
 import org.springframework.web.servlet.ModelAndView;
@@ -24,6 +26,13 @@ public class LogInterceptor implements HandlerInterceptor {
     private static final String START_TIME_ATTR = "requestStartTime";
     private static final ThreadLocal<Map<String, Object>> requestContext = ThreadLocal.withInitial(ConcurrentHashMap::new);
 
+    private final IpUtil ipUtil;
+
+    @Autowired
+    public LogInterceptor(IpUtil ipUtil) {
+        this.ipUtil = ipUtil;
+    }
+
     /**
      * 请求开始处理前
      */
@@ -39,7 +48,7 @@ public class LogInterceptor implements HandlerInterceptor {
         Map<String, Object> context = requestContext.get();
         context.put("uri", request.getRequestURI());
         context.put("method", request.getMethod());
-        context.put("ip", getClientIpAddress(request));
+        context.put("ip", ipUtil.getClientIp(request));
         context.put("userAgent", request.getHeader("User-Agent"));
         context.put("params", request.getParameterMap());
         
@@ -74,7 +83,7 @@ public class LogInterceptor implements HandlerInterceptor {
             // 获取请求信息
             String uri = request.getRequestURI();
             String method = request.getMethod();
-            String ip = getClientIpAddress(request);
+            String ip = ipUtil.getClientIp(request);
             Map<String, String[]> params = request.getParameterMap();
             
             // 构建结果信息
@@ -109,21 +118,4 @@ public class LogInterceptor implements HandlerInterceptor {
         // 不记录静态资源和404错误
         return status != 404 || (ex != null);
     }
-
-    /**
-     * 获取客户端真实IP地址
-     */
-    private String getClientIpAddress(HttpServletRequest request) {
-        String xForwardedFor = request.getHeader("X-Forwarded-For");
-        if (xForwardedFor != null && !xForwardedFor.isEmpty()) {
-            return xForwardedFor.split(",")[0].trim();
-        }
-        
-        String xRealIp = request.getHeader("X-Real-IP");
-        if (xRealIp != null && !xRealIp.isEmpty()) {
-            return xRealIp;
-        }
-        
-        return request.getRemoteAddr();
-    }
 }
\ No newline at end of file
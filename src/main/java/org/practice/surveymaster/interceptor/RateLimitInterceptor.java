@@ -0,0 +1,142 @@
+package org.practice.surveymaster.interceptor;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.practice.surveymaster.config.RateLimitConfig;
+import org.practice.surveymaster.constant.ErrorCode;
+import org.practice.surveymaster.ratelimit.SlidingWindowRateLimiter;
+import org.practice.surveymaster.ratelimit.TokenBucket;
+import org.practice.surveymaster.util.IpUtil;
+import org.practice.surveymaster.util.LruCache;
+import org.practice.surveymaster.vo.ApiResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.StringUtils;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * 限流拦截器
+ * 按配置的路由策略进行限流：先经过本地令牌桶预过滤，再由Redis滑动窗口做分布式精确限流。
+ * 返回CompletableFuture的接口（如登录、注册）完成后会以ASYNC方式再次分派，再次分派不重复计数
+ *
+ * @author ljn
+ * @since 2025/10/13
+ */
+@Slf4j
+@Component
+public class RateLimitInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String KEY_IP = "ip";
+    private static final String KEY_USER = "user";
+    private static final String KEY_PATH = "path";
+
+    private final RateLimitConfig rateLimitConfig;
+    private final SlidingWindowRateLimiter rateLimiter;
+    private final ObjectMapper objectMapper;
+    private final IpUtil ipUtil;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final LruCache<String, TokenBucket> localBuckets;
+
+    @Autowired
+    public RateLimitInterceptor(RateLimitConfig rateLimitConfig, SlidingWindowRateLimiter rateLimiter,
+                                ObjectMapper objectMapper, IpUtil ipUtil) {
+        this.rateLimitConfig = rateLimitConfig;
+        this.rateLimiter = rateLimiter;
+        this.objectMapper = objectMapper;
+        this.ipUtil = ipUtil;
+        this.localBuckets = new LruCache<>(rateLimitConfig.getLocalMaxBuckets(), 0);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        if (!rateLimitConfig.isEnabled() || request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (RateLimitConfig.Policy policy : rateLimitConfig.getPolicies()) {
+            if (!matches(policy, request.getMethod(), path)) {
+                continue;
+            }
+            String subject = resolveSubject(policy, request, path);
+            if (subject == null) {
+                continue;
+            }
+            String key = rateLimitConfig.getKeyPrefix() + policy.getName() + ":" + subject;
+
+            // 1. 本地令牌桶预过滤，突发洪峰直接在本机拒绝，不访问Redis
+            if (policy.getLocalCapacity() > 0 && !getLocalBucket(key, policy).tryAcquire()) {
+                return handleTooManyRequests(response, policy, 1);
+            }
+
+            // 2. Redis滑动窗口分布式限流
+            long retryAfterMillis = rateLimiter.tryAcquire(key, policy.getLimit(), policy.getWindowSeconds() * 1000L);
+            if (retryAfterMillis > 0) {
+                return handleTooManyRequests(response, policy, (retryAfterMillis + 999) / 1000);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 判断请求是否命中策略
+     */
+    private boolean matches(RateLimitConfig.Policy policy, String method, String path) {
+        if (StringUtils.hasText(policy.getMethod()) && !policy.getMethod().equalsIgnoreCase(method)) {
+            return false;
+        }
+        return pathMatcher.match(policy.getPath(), path);
+    }
+
+    /**
+     * 解析限流维度对应的标识，无法解析时返回null（跳过该策略）
+     */
+    private String resolveSubject(RateLimitConfig.Policy policy, HttpServletRequest request, String path) {
+        if (KEY_USER.equalsIgnoreCase(policy.getKey())) {
+            // 用户维度依赖JWT拦截器写入的当前用户ID
+            Object userId = request.getAttribute("currentUserId");
+            return userId == null ? null : userId.toString();
+        }
+        if (KEY_PATH.equalsIgnoreCase(policy.getKey())) {
+            // 路径变量维度，如按{surveyId}限制单个问卷的总提交速率
+            Map<String, String> variables = pathMatcher.extractUriTemplateVariables(policy.getPath(), path);
+            return variables.isEmpty() ? null : String.join(":", variables.values());
+        }
+        return ipUtil.getClientIp(request);
+    }
+
+    /**
+     * 获取或创建本地令牌桶
+     */
+    private TokenBucket getLocalBucket(String key, RateLimitConfig.Policy policy) {
+        synchronized (localBuckets) {
+            TokenBucket bucket = localBuckets.get(key);
+            if (bucket == null) {
+                bucket = new TokenBucket(policy.getLocalCapacity(), policy.getLocalRefillPerSecond());
+                localBuckets.put(key, bucket);
+            }
+            return bucket;
+        }
+    }
+
+    /**
+     * 处理超出限流的请求
+     */
+    private boolean handleTooManyRequests(HttpServletResponse response, RateLimitConfig.Policy policy,
+                                          long retryAfterSeconds) throws IOException {
+        log.warn("请求触发限流，策略: {}", policy.getName());
+        response.setStatus(ErrorCode.TOO_MANY_REQUESTS.getHttpStatus());
+        response.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+        response.setContentType("application/json;charset=UTF-8");
+
+        ApiResponse<Object> apiResponse = ApiResponse.error(ErrorCode.TOO_MANY_REQUESTS);
+        response.getWriter().write(objectMapper.writeValueAsString(apiResponse));
+        return false;
+    }
+}
@@ -0,0 +1,36 @@
+package org.practice.surveymaster.job;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.practice.surveymaster.config.AnswerArchiveConfig;
+import org.practice.surveymaster.service.AnswerArchiveService;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 答案归档任务
+ * 周期性把已关闭或发布已久的问卷的答案迁入归档
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AnswerArchiveJob {
+
+    private final AnswerArchiveService answerArchiveService;
+    private final AnswerArchiveConfig config;
+
+    @Scheduled(fixedDelayString = "${answer.archive.interval-millis:60000}")
+    public void run() {
+        if (!config.isEnabled()) {
+            return;
+        }
+        try {
+            answerArchiveService.archiveDue();
+        } catch (Exception e) {
+            log.warn("归档问卷答案失败: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package org.practice.surveymaster.job;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.practice.surveymaster.codec.AnswerCompactionMigrator;
+import org.practice.surveymaster.config.AnswerCodecConfig;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 旧格式答案迁移任务
+ * 每个周期迁移一批，分摊到后台执行，不影响线上读写
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AnswerCompactionJob {
+
+    private final AnswerCompactionMigrator answerCompactionMigrator;
+    private final AnswerCodecConfig config;
+
+    @Scheduled(fixedDelayString = "${answer.codec.migration-interval-millis:1000}")
+    public void run() {
+        if (!config.isMigrationEnabled()) {
+            return;
+        }
+        try {
+            answerCompactionMigrator.migrateBatch();
+        } catch (Exception e) {
+            log.warn("迁移旧格式答案失败: {}", e.getMessage());
+        }
+    }
+}
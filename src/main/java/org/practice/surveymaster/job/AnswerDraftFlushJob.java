@@ -0,0 +1,31 @@
+package org.practice.surveymaster.job;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.practice.surveymaster.service.AnswerDraftService;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 答案草稿刷写任务
+ * 周期性把超过防抖窗口的自动保存写入MongoDB
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AnswerDraftFlushJob {
+
+    private final AnswerDraftService answerDraftService;
+
+    @Scheduled(fixedDelayString = "${answer.draft.flush-interval-millis:500}")
+    public void run() {
+        try {
+            answerDraftService.flushDue();
+        } catch (Exception e) {
+            log.warn("写入答案草稿失败: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package org.practice.surveymaster.job;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.practice.surveymaster.service.HotSurveyService;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 热门问卷快照刷新任务
+ * 周期性从热度排行中重建本地Top-N快照，刷新失败时保留上一份快照继续提供服务
+ *
+ * @author ljn
+ * @since 2025/10/14
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class HotSurveyJob {
+
+    private final HotSurveyService hotSurveyService;
+
+    @Scheduled(fixedDelayString = "${survey.hot.refresh-interval-millis:5000}")
+    public void run() {
+        try {
+            hotSurveyService.refreshSnapshot();
+        } catch (Exception e) {
+            log.warn("刷新热门问卷快照失败: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package org.practice.surveymaster.job;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.practice.surveymaster.service.OutboxService;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 发件箱投递任务
+ * 周期性将发件箱中的事件发布到RabbitMQ，发布失败的事件保留在发件箱中，下个周期重试
+ *
+ * @author ljn
+ * @since 2025/10/17
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OutboxRelayJob {
+
+    private final OutboxService outboxService;
+
+    @Scheduled(fixedDelayString = "${outbox.poll-interval-millis:1000}")
+    public void run() {
+        try {
+            int relayed = outboxService.relayPending();
+            if (relayed > 0) {
+                log.debug("本轮投递发件箱事件 {} 条", relayed);
+            }
+        } catch (Exception e) {
+            log.warn("投递发件箱事件失败: {}", e.getMessage());
+        }
+    }
+}
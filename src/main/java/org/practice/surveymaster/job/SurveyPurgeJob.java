@@ -0,0 +1,30 @@
+package org.practice.surveymaster.job;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.practice.surveymaster.service.SurveyPurgeService;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 问卷清理定时任务
+ * 周期性推进已删除问卷的关联数据清理，未完成的任务在下个周期（或重启后）继续
+ *
+ * @author ljn
+ * @since 2025/10/9
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SurveyPurgeJob {
+
+    private final SurveyPurgeService surveyPurgeService;
+
+    @Scheduled(fixedDelayString = "${survey.purge.poll-interval-millis:5000}")
+    public void run() {
+        int processed = surveyPurgeService.purgePendingTasks();
+        if (processed > 0) {
+            log.debug("本轮推进问卷清理任务 {} 个", processed);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package org.practice.surveymaster.mapper;
 
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
 import org.practice.surveymaster.model.OptionTable;
 
 import java.util.List;
@@ -39,6 +40,14 @@ public interface OptionMapper {
      */
     List<OptionTable> selectByQuestionId(Long questionId);
     
+    /**
+     * 根据问卷ID查询所有问题的选项
+     *
+     * @param surveyId 问卷ID
+     * @return 选项列表
+     */
+    List<OptionTable> selectBySurveyId(@Param("surveyId") Long surveyId);
+
     /**
      * 批量插入选项
      * 
@@ -70,4 +79,13 @@ public interface OptionMapper {
      * @return 影响的行数
      */
     int deleteByQuestionId(Long questionId);
+
+    /**
+     * 分批删除问卷下所有问题的选项，用于问卷删除后的后台清理
+     * 
+     * @param surveyId 问卷ID
+     * @param limit 单批最大删除行数
+     * @return 影响的行数
+     */
+    int deleteBySurveyIdLimit(@Param("surveyId") Long surveyId, @Param("limit") int limit);
 }
\ No newline at end of file
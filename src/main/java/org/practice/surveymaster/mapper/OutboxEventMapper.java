@@ -0,0 +1,45 @@
+package org.practice.surveymaster.mapper;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.practice.surveymaster.model.OutboxEvent;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 发件箱事件数据访问层
+ * 提供事件写入、按序批量读取与批量删除操作
+ *
+ * @author ljn
+ * @since 2025/10/15
+ */
+@Mapper
+public interface OutboxEventMapper {
+
+    /**
+     * 写入事件
+     *
+     * @param event 事件
+     * @return 影响行数
+     */
+    int insert(OutboxEvent event);
+
+    /**
+     * 按ID升序读取一批写入早于指定时间的事件
+     *
+     * @param limit  最大返回条数
+     * @param before 写入时间上限（不含）
+     * @return 事件列表
+     */
+    List<OutboxEvent> selectBatch(@Param("limit") int limit, @Param("before") LocalDateTime before);
+
+    /**
+     * 批量删除已处理的事件
+     *
+     * @param ids 事件ID
+     * @return 影响行数
+     */
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+}
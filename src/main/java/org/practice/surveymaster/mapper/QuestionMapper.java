@@ -4,6 +4,7 @@ import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import org.practice.surveymaster.model.Question;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -40,6 +41,14 @@ public interface QuestionMapper {
      * @return 问题列表
      */
     List<Question> selectBySurveyId(@Param("surveyId") Long surveyId);
+
+    /**
+     * 根据多个问卷ID批量查询问题
+     * 
+     * @param surveyIds 问卷ID集合
+     * @return 问题列表
+     */
+    List<Question> selectBySurveyIds(@Param("surveyIds") Collection<Long> surveyIds);
     
     /**
      * 更新问题
@@ -65,6 +74,15 @@ public interface QuestionMapper {
      */
     int deleteBySurveyId(@Param("surveyId") Long surveyId);
 
+    /**
+     * 分批删除问卷下的问题，用于问卷删除后的后台清理
+     * 
+     * @param surveyId 问卷ID
+     * @param limit 单批最大删除行数
+     * @return 影响行数
+     */
+    int deleteBySurveyIdLimit(@Param("surveyId") Long surveyId, @Param("limit") int limit);
+
     /**
      * 根据问卷ID查询所有问题ID
      * @param surveyId 问卷ID
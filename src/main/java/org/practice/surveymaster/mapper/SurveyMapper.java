@@ -4,6 +4,8 @@ import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import org.practice.surveymaster.model.Survey;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -25,6 +27,14 @@ public interface SurveyMapper {
     int insert(Survey survey);
     // 查询问卷
     Survey selectById(@Param("id") long id);
+    // 批量查询问卷
+    List<Survey> selectByIds(@Param("ids") Collection<Long> ids);
+    // 按主键分页查询已发布问卷（用于重建搜索索引）
+    List<Survey> selectPublishedAfterId(@Param("lastId") long lastId, @Param("limit") int limit);
+    // 查询待归档答案的问卷（已关闭或发布时间早于createdBefore）
+    List<Survey> selectArchiveCandidates(@Param("createdBefore") LocalDateTime createdBefore, @Param("limit") int limit);
+    // 标记问卷答案已归档
+    int markArchived(@Param("id") long id, @Param("archivedAt") LocalDateTime archivedAt);
     // 查询用户的所有问卷
     List<Survey> selectByUserId(@Param("userId") long userId);
     // 更新问卷
@@ -33,4 +43,6 @@ public interface SurveyMapper {
     int deleteById(@Param("id") long id);
     // 更新问卷状态
     int updateStatus(@Param("id") long id, @Param("status") int status, @Param("userId") long userId);
+    // 标记问卷为已删除（逻辑删除）
+    int markDeleted(@Param("id") long id, @Param("userId") long userId);
 }
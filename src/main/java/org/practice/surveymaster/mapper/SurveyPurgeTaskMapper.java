@@ -0,0 +1,71 @@
+package org.practice.surveymaster.mapper;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.practice.surveymaster.model.SurveyPurgeTask;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 问卷清理任务数据访问层
+ * 提供清理任务的持久化、租约抢占及进度更新操作
+ *
+ * @author ljn
+ * @since 2025/10/9
+ */
+@Mapper
+public interface SurveyPurgeTaskMapper {
+
+    /**
+     * 插入清理任务
+     *
+     * @param task 清理任务
+     * @return 影响行数
+     */
+    int insert(SurveyPurgeTask task);
+
+    /**
+     * 根据问卷ID查询清理任务
+     *
+     * @param surveyId 问卷ID
+     * @return 清理任务
+     */
+    SurveyPurgeTask selectBySurveyId(@Param("surveyId") Long surveyId);
+
+    /**
+     * 查询未完成且租约已过期的任务
+     *
+     * @param now   当前时间
+     * @param limit 最大返回条数
+     * @return 待执行的任务列表
+     */
+    List<SurveyPurgeTask> selectRunnable(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    /**
+     * 抢占任务租约，仅当租约已过期时成功
+     *
+     * @param id          任务ID
+     * @param now         当前时间
+     * @param lockedUntil 新的租约到期时间
+     * @return 影响行数，1表示抢占成功
+     */
+    int tryLock(@Param("id") Long id, @Param("now") LocalDateTime now, @Param("lockedUntil") LocalDateTime lockedUntil);
+
+    /**
+     * 保存清理进度（阶段与各类计数）
+     *
+     * @param task 清理任务
+     * @return 影响行数
+     */
+    int updateProgress(SurveyPurgeTask task);
+
+    /**
+     * 记录执行错误并释放租约
+     *
+     * @param id        任务ID
+     * @param lastError 错误信息
+     * @return 影响行数
+     */
+    int updateError(@Param("id") Long id, @Param("lastError") String lastError);
+}
@@ -4,6 +4,7 @@ import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import org.practice.surveymaster.model.User;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -22,10 +23,14 @@ import java.util.List;
 @Mapper
 public interface UserMapper {
     User selectById(@Param("id") Long id);
+
+    List<User> selectByIds(@Param("ids") Collection<Long> ids);
     
     int insert(User user);
 
     List<User> selectAll();
+
+    List<User> selectUsernamesAfterId(@Param("lastId") Long lastId, @Param("limit") int limit);
     
     User selectByUsername(@Param("username") String username);
     
@@ -33,5 +38,5 @@ public interface UserMapper {
     
     boolean existsByEmail(@Param("email") String email);
 
-    User selectByUsernameAndPassword(@Param("username") String username, @Param("password") String password);
+    int updatePassword(@Param("id") Long id, @Param("password") String password);
 }
\ No newline at end of file
@@ -0,0 +1,66 @@
+package org.practice.surveymaster.model;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 发件箱事件实体类
+ * 对应数据库中outbox_event表，与业务数据在同一事务中写入，由投递任务按序发布到RabbitMQ
+ *
+ * @author ljn
+ * @since 2025/10/15
+ */
+
+/**
+ * CREATE TABLE outbox_event (
+ *     id BIGINT PRIMARY KEY AUTO_INCREMENT,
+ *     aggregate_type VARCHAR(32) NOT NULL, -- SURVEY
+ *     aggregate_id BIGINT NOT NULL,
+ *     event_type VARCHAR(64) NOT NULL,     -- SURVEY_CHANGED
+ *     payload VARCHAR(2000),
+ *     created_at TIMESTAMP(3) DEFAULT CURRENT_TIMESTAMP(3)
+ * );
+ */
+@Data
+public class OutboxEvent {
+    /**
+     * 聚合类型
+     */
+    public static final String AGGREGATE_SURVEY = "SURVEY";
+
+    /**
+     * 事件类型：问卷或其问题发生变更
+     */
+    public static final String SURVEY_CHANGED = "SURVEY_CHANGED";
+
+    /**
+     * 事件ID，自增，反映写入顺序
+     */
+    private Long id;
+
+    /**
+     * 聚合类型
+     */
+    private String aggregateType;
+
+    /**
+     * 聚合ID（如问卷ID）
+     */
+    private Long aggregateId;
+
+    /**
+     * 事件类型
+     */
+    private String eventType;
+
+    /**
+     * 事件内容（JSON），可为空
+     */
+    private String payload;
+
+    /**
+     * 创建时间
+     */
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,95 @@
+package org.practice.surveymaster.model;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 问卷清理任务实体类
+ * 对应数据库中survey_purge_task表，记录问卷删除后关联数据的分批清理进度
+ *
+ * @author ljn
+ * @since 2025/10/9
+ */
+
+/**
+ * CREATE TABLE survey_purge_task (
+ *     id BIGINT PRIMARY KEY AUTO_INCREMENT,
+ *     survey_id BIGINT NOT NULL UNIQUE,
+ *     user_id BIGINT NOT NULL,
+ *     stage VARCHAR(20) NOT NULL, -- OPTION,QUESTION,ANSWER,SURVEY,DONE
+ *     purged_options BIGINT DEFAULT 0,
+ *     purged_questions BIGINT DEFAULT 0,
+ *     purged_answers BIGINT DEFAULT 0,
+ *     locked_until TIMESTAMP NULL,
+ *     last_error VARCHAR(500),
+ *     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+ *     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+ * );
+ */
+@Data
+public class SurveyPurgeTask {
+    /**
+     * 清理阶段：依次清理选项、问题、答案，最后删除问卷本身
+     */
+    public static final String STAGE_OPTION = "OPTION";
+    public static final String STAGE_QUESTION = "QUESTION";
+    public static final String STAGE_ANSWER = "ANSWER";
+    public static final String STAGE_SURVEY = "SURVEY";
+    public static final String STAGE_DONE = "DONE";
+
+    /**
+     * 任务ID
+     */
+    private Long id;
+
+    /**
+     * 被删除的问卷ID
+     */
+    private Long surveyId;
+
+    /**
+     * 发起删除的用户ID
+     */
+    private Long userId;
+
+    /**
+     * 当前所处的清理阶段
+     */
+    private String stage;
+
+    /**
+     * 已清理的选项数量
+     */
+    private Long purgedOptions;
+
+    /**
+     * 已清理的问题数量
+     */
+    private Long purgedQuestions;
+
+    /**
+     * 已清理的答案数量
+     */
+    private Long purgedAnswers;
+
+    /**
+     * 任务租约到期时间，多实例部署时用于防止同一任务被并发执行
+     */
+    private LocalDateTime lockedUntil;
+
+    /**
+     * 最近一次执行失败的错误信息
+     */
+    private String lastError;
+
+    /**
+     * 创建时间
+     */
+    private LocalDateTime createdAt;
+
+    /**
+     * 最后更新时间
+     */
+    private LocalDateTime updatedAt;
+}
@@ -1,10 +1,12 @@
 package org.practice.surveymaster.model.mongo;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -20,6 +22,12 @@ import java.util.List;
  * 每个答案包含问题ID和对应的回答内容，支持单选、多选和文本等多种题型。
  * </p>
  *
+ * <p>
+ * 答案列表以{@link CompactAnswer}的紧凑格式存储在字段a中，读写时由
+ * {@link org.practice.surveymaster.codec.AnswerCodecListener}与answers互相转换，接口返回的结构不变；
+ * 尚未迁移的旧文档仍以answers字段存储。
+ * </p>
+ *
  * @author ljn
  * @since 2025/9/25 下午2:16
  */
@@ -54,6 +62,13 @@ public class Answer {
      * 答案列表，包含该用户对问卷中所有问题的回答
      */
     private List<QuestionAnswer> answers;
+
+    /**
+     * 紧凑格式的答案列表，仅用于存储
+     */
+    @JsonIgnore
+    @Field("a")
+    private List<CompactAnswer> compactAnswers;
     
     /**
      * 单个问题的答案实体
@@ -0,0 +1,77 @@
+package org.practice.surveymaster.model.mongo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * <p>
+ * 答案归档块实体类
+ * </p>
+ *
+ * <p>
+ * 对应MongoDB中的answer_archive集合。每块按_id顺序收纳同一问卷的一段答案，
+ * 答案原始BSON整体GZIP压缩后存入data；块上的提交时间范围用于按时间裁剪，
+ * 用户ID列表用于判断某用户是否已作答，均无需解压。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Document(collection = "answer_archive")
+public class AnswerArchiveChunk {
+
+    /**
+     * 块ID：{surveyId}:{seq}
+     */
+    @Id
+    private String id;
+
+    /**
+     * 问卷ID
+     */
+    private Long surveyId;
+
+    /**
+     * 块序号，同一问卷内从0递增，与答案的时间顺序一致
+     */
+    private int seq;
+
+    /**
+     * 块内答案数
+     */
+    private int count;
+
+    /**
+     * 块内最早提交时间
+     */
+    private LocalDateTime firstSubmittedAt;
+
+    /**
+     * 块内最晚提交时间
+     */
+    private LocalDateTime lastSubmittedAt;
+
+    /**
+     * 块内答案的用户ID
+     */
+    private List<Long> userIds;
+
+    /**
+     * GZIP压缩的答案BSON
+     */
+    private byte[] data;
+
+    /**
+     * 归档时间
+     */
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,66 @@
+package org.practice.surveymaster.model.mongo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * <p>
+ * 答案草稿实体类
+ * </p>
+ *
+ * <p>
+ * 对应MongoDB中的answer_draft集合，保存用户尚未提交的作答进度。
+ * 草稿与正式答案分集合存放，不会被答案统计投影计入；
+ * ID由问卷ID与用户ID拼接，同一用户对同一问卷只有一份草稿。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Document(collection = "answer_draft")
+public class AnswerDraft {
+
+    /**
+     * 草稿ID：{surveyId}:{userId}
+     */
+    @Id
+    private String id;
+
+    /**
+     * 问卷ID
+     */
+    private Long surveyId;
+
+    /**
+     * 用户ID
+     */
+    private Long userId;
+
+    /**
+     * 已作答的题目
+     */
+    private List<Answer.QuestionAnswer> answers;
+
+    /**
+     * 创建时间
+     */
+    private LocalDateTime createdAt;
+
+    /**
+     * 最后保存时间
+     */
+    private LocalDateTime updatedAt;
+
+    public static String idOf(Long surveyId, Long userId) {
+        return surveyId + ":" + userId;
+    }
+}
@@ -0,0 +1,64 @@
+package org.practice.surveymaster.model.mongo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>
+ * 答案投影台账实体类
+ * </p>
+ *
+ * <p>
+ * 对应MongoDB中的answer_projection集合，记录每份答案当前已计入统计的内容。
+ * Change Stream的删除事件只携带文档ID、更新事件只携带新文档，
+ * 撤销旧值所需的信息都从台账中读取；台账同时使重复投递的事件变为空操作。
+ * 答案转入归档时台账标记为已归档并保留，归档引起的删除事件不撤销统计，归档被删除时再据此撤销。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/18
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Document(collection = "answer_projection")
+public class AnswerProjection {
+
+    /**
+     * 答案ID
+     */
+    @Id
+    private String id;
+
+    /**
+     * 问卷ID
+     */
+    private Long surveyId;
+
+    /**
+     * 用户ID
+     */
+    private Long userId;
+
+    /**
+     * 已计入选项统计的选择：问题ID → 选中选项
+     */
+    private Map<String, List<String>> selections;
+
+    /**
+     * 已计入统计时的提交时间，决定评分计入哪个日桶
+     */
+    private LocalDateTime submittedAt;
+
+    /**
+     * 答案是否已转入归档
+     */
+    private boolean archived;
+}
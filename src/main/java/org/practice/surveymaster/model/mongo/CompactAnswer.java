@@ -0,0 +1,63 @@
+package org.practice.surveymaster.model.mongo;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.util.List;
+
+/**
+ * <p>
+ * 单题答案的紧凑存储格式
+ * </p>
+ *
+ * <p>
+ * 字段名缩短为单个字母，以哪个字段有值区分题型（类型化联合），其余字段不写入文档：
+ * o 单选题的选项ID，m 多选题的选项ID列表，r 评分题的分数，x 文本题的内容，
+ * v 无法编码的原始值（如选项已不存在、题目已删除）。
+ * ID在int范围内时以32位整数存储，比64位整数再少4个字节。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+@Data
+@NoArgsConstructor
+public class CompactAnswer {
+
+    /**
+     * 问题ID
+     */
+    @Field("q")
+    private Number questionId;
+
+    /**
+     * 单选题选项ID
+     */
+    @Field("o")
+    private Number option;
+
+    /**
+     * 多选题选项ID列表
+     */
+    @Field("m")
+    private List<Number> options;
+
+    /**
+     * 评分题分数
+     */
+    @Field("r")
+    private Number rating;
+
+    /**
+     * 文本题内容
+     */
+    @Field("x")
+    private String text;
+
+    /**
+     * 无法编码时保留的原始值
+     */
+    @Field("v")
+    private Object raw;
+}
@@ -0,0 +1,45 @@
+package org.practice.surveymaster.model.mongo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * <p>
+ * 投影检查点实体类
+ * </p>
+ *
+ * <p>
+ * 对应MongoDB中的projection_checkpoint集合，保存每个投影最后处理的Change Stream恢复令牌，
+ * 服务重启后从该令牌之后继续消费。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/18
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Document(collection = "projection_checkpoint")
+public class ProjectionCheckpoint {
+
+    /**
+     * 投影名称
+     */
+    @Id
+    private String id;
+
+    /**
+     * 恢复令牌（JSON）
+     */
+    private String resumeToken;
+
+    /**
+     * 更新时间
+     */
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,36 @@
+package org.practice.surveymaster.projection;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.practice.surveymaster.model.mongo.Answer;
+
+/**
+ * 一份答案的有效变更
+ * 由答案统计投影按台账去重后产生：answer非空表示新增或修改后的完整答案，为空表示答案已被删除
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+@Getter
+@AllArgsConstructor
+public class AnswerChange {
+
+    /**
+     * 答案ID
+     */
+    private final String answerId;
+
+    /**
+     * 问卷ID
+     */
+    private final Long surveyId;
+
+    /**
+     * 变更后的答案，删除时为空
+     */
+    private final Answer answer;
+
+    public boolean isRemoved() {
+        return answer == null;
+    }
+}
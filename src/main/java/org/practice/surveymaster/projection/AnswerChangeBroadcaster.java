@@ -0,0 +1,178 @@
+package org.practice.surveymaster.projection;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.practice.surveymaster.config.AnswerProjectionConfig;
+import org.practice.surveymaster.model.mongo.Answer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>
+ * 答案变更广播
+ * </p>
+ *
+ * <p>
+ * 答案统计投影只在持有租约的实例上运行，但本地缓存、本地列文件等视图每个实例都有一份。
+ * 投影每批处理完成后（以及撤销归档答案时）把有效变更的答案ID、问卷ID和是否删除发布到Redis频道，
+ * 每个实例订阅该频道，按ID批量读取变更后的答案，再按发生顺序通知 {@link LocalAnswerChangeListener}。
+ * 消息中不携带答案内容，读取时答案已被删除或转入归档的跳过，由随后的删除消息处理。
+ * </p>
+ *
+ * <p>
+ * Redis发布订阅不保证送达：发布失败只记录日志，订阅断开期间的消息不会补发。
+ * 订阅建立时通知本地监听器可能漏收了变更，由其丢弃本地视图后重新构建；断线期间的漏收依赖各视图自身的过期机制兜底。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+@Slf4j
+@Component
+public class AnswerChangeBroadcaster implements MessageListener {
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final MongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper;
+    private final ObjectProvider<LocalAnswerChangeListener> listeners;
+    private final AnswerProjectionConfig config;
+
+    @Autowired
+    public AnswerChangeBroadcaster(StringRedisTemplate stringRedisTemplate,
+                                   RedisMessageListenerContainer listenerContainer, MongoTemplate mongoTemplate,
+                                   ObjectMapper objectMapper, ObjectProvider<LocalAnswerChangeListener> listeners,
+                                   AnswerProjectionConfig config) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.mongoTemplate = mongoTemplate;
+        this.objectMapper = objectMapper;
+        this.listeners = listeners;
+        this.config = config;
+    }
+
+    /**
+     * 应用就绪后订阅广播频道，启动前的变更均未收到，先通知本地监听器
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void subscribe() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(config.getBroadcastChannel()));
+        listeners.orderedStream().forEach(listener -> {
+            try {
+                listener.onChangesMissed();
+            } catch (Exception e) {
+                log.warn("重置本地答案视图失败: {}", listener.getClass().getSimpleName(), e);
+            }
+        });
+    }
+
+    /**
+     * 发布一批答案变更，失败时只记录日志
+     *
+     * @param changes 按发生顺序排列的变更
+     */
+    public void publish(List<AnswerChange> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        List<Notice> notices = new ArrayList<>(changes.size());
+        for (AnswerChange change : changes) {
+            notices.add(new Notice(change.getAnswerId(), change.getSurveyId(), change.isRemoved()));
+        }
+        try {
+            stringRedisTemplate.convertAndSend(config.getBroadcastChannel(), objectMapper.writeValueAsString(notices));
+        } catch (Exception e) {
+            log.warn("发布答案变更广播失败，其他实例的本地视图将依赖过期机制更新: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            List<Notice> notices = objectMapper.readValue(message.getBody(), new TypeReference<List<Notice>>() {
+            });
+            dispatch(resolve(notices));
+        } catch (IOException e) {
+            log.warn("解析答案变更广播失败: {}", e.getMessage());
+        } catch (Exception e) {
+            log.warn("处理答案变更广播失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 按ID批量读取未删除的答案，还原为按发生顺序排列的变更
+     */
+    private List<AnswerChange> resolve(List<Notice> notices) {
+        List<String> ids = new ArrayList<>();
+        for (Notice notice : notices) {
+            if (!notice.isRemoved()) {
+                ids.add(notice.getAnswerId());
+            }
+        }
+        Map<String, Answer> answers = new HashMap<>();
+        if (!ids.isEmpty()) {
+            for (Answer answer : mongoTemplate.find(Query.query(Criteria.where("_id").in(ids)), Answer.class)) {
+                answers.put(answer.getId(), answer);
+            }
+        }
+        List<AnswerChange> changes = new ArrayList<>(notices.size());
+        for (Notice notice : notices) {
+            if (notice.isRemoved()) {
+                changes.add(new AnswerChange(notice.getAnswerId(), notice.getSurveyId(), null));
+            } else if (answers.containsKey(notice.getAnswerId())) {
+                changes.add(new AnswerChange(notice.getAnswerId(), notice.getSurveyId(),
+                        answers.get(notice.getAnswerId())));
+            }
+        }
+        return changes;
+    }
+
+    private void dispatch(List<AnswerChange> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        listeners.orderedStream().forEach(listener -> {
+            try {
+                listener.onAnswersChanged(changes);
+            } catch (Exception e) {
+                log.warn("本地答案视图应用变更失败: {}", listener.getClass().getSimpleName(), e);
+            }
+        });
+    }
+
+    /**
+     * 广播消息中的一条变更
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    static class Notice {
+
+        private String answerId;
+
+        private Long surveyId;
+
+        private boolean removed;
+    }
+}
@@ -0,0 +1,22 @@
+package org.practice.surveymaster.projection;
+
+import java.util.List;
+
+/**
+ * 答案变更监听器
+ * 答案统计投影在每批事件处理完成后按发生顺序回调；转入归档引起的删除不会通知，
+ * 归档被删除时才通知删除。投影只在持有租约的实例上运行，因此只适用于写入共享存储的派生视图，
+ * 每个实例各自维护的视图应实现 {@link LocalAnswerChangeListener}。实现方应自行处理异常，不影响统计投影推进
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+public interface AnswerChangeListener {
+
+    /**
+     * 处理一批答案变更
+     *
+     * @param changes 按发生顺序排列的变更
+     */
+    void onAnswersChanged(List<AnswerChange> changes);
+}
@@ -0,0 +1,282 @@
+package org.practice.surveymaster.projection;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.practice.surveymaster.config.AnswerProjectionConfig;
+import org.practice.surveymaster.model.mongo.Answer;
+import org.practice.surveymaster.model.mongo.ProjectionCheckpoint;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * 答案Change Stream投影器
+ * </p>
+ *
+ * <p>
+ * 在独立线程中订阅answer集合的Change Stream（更新事件查询最新全文），攒批后交给 {@link AnswerStatsProjection}，
+ * 每批处理成功后把最后一个事件的恢复令牌写入projection_checkpoint，重启后从该位置继续，
+ * 统计更新完全脱离HTTP提交链路。处理失败时不保存令牌，按间隔重试同一批事件。
+ * 恢复令牌已超出oplog保留范围或集合被删除（invalidate）时，只能从当前时刻重新开始，
+ * 此时会记录错误日志，需要对统计执行一次全量重算。
+ * </p>
+ *
+ * <p>
+ * 每个实例都会启动订阅线程，但只有抢到Redis租约的实例打开游标，其余实例按重试间隔继续抢占。
+ * 持有方每隔三分之一租约续期，续期失败（租约已过期被接管或Redis不可用）时立即关闭游标、丢弃未提交的事件，
+ * 接管方从检查点继续；持有方崩溃时最多经过一个租约时长由其他实例接管。
+ * 续期与处理之间仍有短暂重叠的可能，重叠期间的重复事件由台账去重。
+ * </p>
+ *
+ * <p>
+ * Change Stream要求MongoDB以副本集方式运行，本地单节点副本集即可：
+ * {@code mongod --replSet rs0} 启动后执行 {@code rs.initiate()}。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/18
+ */
+@Slf4j
+@Component
+public class AnswerChangeStreamProjector {
+
+    /**
+     * ChangeStreamHistoryLost：恢复令牌对应的oplog已被覆盖
+     */
+    private static final int HISTORY_LOST = 286;
+
+    /**
+     * 仍持有租约时续期，返回是否续期
+     */
+    private static final String RENEW_LEASE_SCRIPT =
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('PEXPIRE', KEYS[1], ARGV[2]) end return 0";
+
+    /**
+     * 仍持有租约时释放，返回是否释放
+     */
+    private static final String RELEASE_LEASE_SCRIPT =
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) end return 0";
+
+    private final MongoTemplate mongoTemplate;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final AnswerStatsProjection answerStatsProjection;
+    private final AnswerProjectionConfig config;
+    private final DefaultRedisScript<Long> renewLeaseScript = new DefaultRedisScript<>(RENEW_LEASE_SCRIPT, Long.class);
+    private final DefaultRedisScript<Long> releaseLeaseScript = new DefaultRedisScript<>(RELEASE_LEASE_SCRIPT, Long.class);
+    private final String leaseToken = UUID.randomUUID().toString();
+
+    private volatile boolean running;
+    private volatile MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor;
+    private long leaseRenewedAt;
+
+    @Autowired
+    public AnswerChangeStreamProjector(MongoTemplate mongoTemplate, StringRedisTemplate stringRedisTemplate,
+                                       AnswerStatsProjection answerStatsProjection, AnswerProjectionConfig config) {
+        this.mongoTemplate = mongoTemplate;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.answerStatsProjection = answerStatsProjection;
+        this.config = config;
+    }
+
+    /**
+     * 应用就绪后启动订阅线程
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!config.isEnabled()) {
+            return;
+        }
+        running = true;
+        Thread thread = new Thread(this::runLoop, "answer-change-stream");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        MongoChangeStreamCursor<ChangeStreamDocument<Document>> current = cursor;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (Exception ignored) {
+                // 关闭过程中的异常无需处理
+            }
+        }
+    }
+
+    private void runLoop() {
+        log.info("答案统计投影已启动: {}", config.getName());
+        while (running) {
+            if (!acquireLease()) {
+                sleepBackoff();
+                continue;
+            }
+            log.info("已获得答案统计投影租约: {}", config.getName());
+            try {
+                watch();
+            } catch (MongoCommandException e) {
+                if (e.getErrorCode() == HISTORY_LOST) {
+                    log.error("恢复令牌已失效，答案统计投影将从当前时刻重新开始，需执行统计全量重算", e);
+                    saveResumeToken(null);
+                } else {
+                    log.warn("答案统计投影出错，{}ms后重试: {}", config.getRetryBackoffMillis(), e.getMessage());
+                    sleepBackoff();
+                }
+            } catch (Exception e) {
+                if (running) {
+                    log.warn("答案统计投影出错，{}ms后重试: {}", config.getRetryBackoffMillis(), e.getMessage());
+                    sleepBackoff();
+                }
+            } finally {
+                releaseLease();
+            }
+        }
+    }
+
+    /**
+     * 打开游标并持续消费，直到出错、集合失效或服务停止
+     */
+    private void watch() {
+        ChangeStreamIterable<Document> stream = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Answer.class))
+                .watch(Collections.singletonList(Aggregates.match(Filters.in("operationType",
+                        Arrays.asList("insert", "update", "replace", "delete")))))
+                .fullDocument(FullDocument.UPDATE_LOOKUP)
+                .batchSize(config.getBatchSize())
+                .maxAwaitTime(config.getMaxAwaitMillis(), TimeUnit.MILLISECONDS);
+        BsonDocument resumeToken = loadResumeToken();
+        if (resumeToken != null) {
+            stream = stream.resumeAfter(resumeToken);
+        }
+
+        try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> current = stream.cursor()) {
+            cursor = current;
+            List<ChangeStreamDocument<Document>> batch = new ArrayList<>(config.getBatchSize());
+            while (running) {
+                if (!renewLeaseIfDue()) {
+                    log.warn("答案统计投影租约已失效，停止投影并放弃未提交的 {} 个事件", batch.size());
+                    return;
+                }
+                ChangeStreamDocument<Document> event = current.tryNext();
+                if (event != null && event.getOperationType() == OperationType.INVALIDATE) {
+                    flush(batch);
+                    log.error("answer集合已失效，答案统计投影将从当前时刻重新开始，需执行统计全量重算");
+                    saveResumeToken(null);
+                    return;
+                }
+                if (event != null) {
+                    batch.add(event);
+                    if (batch.size() < config.getBatchSize()) {
+                        continue;
+                    }
+                }
+                // 攒满一批，或暂无新事件时处理已攒的事件
+                flush(batch);
+            }
+        } finally {
+            cursor = null;
+        }
+    }
+
+    private void flush(List<ChangeStreamDocument<Document>> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        answerStatsProjection.apply(batch);
+        saveResumeToken(batch.get(batch.size() - 1).getResumeToken());
+        batch.clear();
+    }
+
+    /**
+     * 抢占投影租约，Redis不可用时视为未抢到
+     */
+    private boolean acquireLease() {
+        try {
+            if (Boolean.TRUE.equals(stringRedisTemplate.opsForValue().setIfAbsent(config.getLeaseKey(), leaseToken,
+                    Duration.ofMillis(config.getLeaseMillis())))) {
+                leaseRenewedAt = System.currentTimeMillis();
+                return true;
+            }
+        } catch (Exception e) {
+            log.warn("抢占答案统计投影租约失败: {}", e.getMessage());
+        }
+        return false;
+    }
+
+    /**
+     * 距上次续期超过三分之一租约时续期，返回是否仍持有租约
+     */
+    private boolean renewLeaseIfDue() {
+        long now = System.currentTimeMillis();
+        if (now - leaseRenewedAt < config.getLeaseMillis() / 3) {
+            return true;
+        }
+        try {
+            Long renewed = stringRedisTemplate.execute(renewLeaseScript,
+                    Collections.singletonList(config.getLeaseKey()), leaseToken,
+                    String.valueOf(config.getLeaseMillis()));
+            if (renewed != null && renewed != 0L) {
+                leaseRenewedAt = now;
+                return true;
+            }
+        } catch (Exception e) {
+            log.warn("续期答案统计投影租约失败: {}", e.getMessage());
+        }
+        return false;
+    }
+
+    private void releaseLease() {
+        try {
+            stringRedisTemplate.execute(releaseLeaseScript, Collections.singletonList(config.getLeaseKey()),
+                    leaseToken);
+        } catch (Exception e) {
+            log.warn("释放答案统计投影租约失败，等待租约过期: {}", e.getMessage());
+        }
+    }
+
+    private BsonDocument loadResumeToken() {
+        ProjectionCheckpoint checkpoint = mongoTemplate.findById(config.getName(), ProjectionCheckpoint.class);
+        if (checkpoint == null || checkpoint.getResumeToken() == null) {
+            return null;
+        }
+        return BsonDocument.parse(checkpoint.getResumeToken());
+    }
+
+    private void saveResumeToken(BsonDocument resumeToken) {
+        mongoTemplate.save(new ProjectionCheckpoint(config.getName(),
+                resumeToken == null ? null : resumeToken.toJson(), LocalDateTime.now()));
+    }
+
+    private void sleepBackoff() {
+        try {
+            Thread.sleep(config.getRetryBackoffMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package org.practice.surveymaster.projection;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * <p>
+ * 答案选项增量
+ * </p>
+ *
+ * <p>
+ * 一次答案变更对选项计数的紧凑描述：问题ID → (选项值 → ±1)。
+ * 只包含实际发生变化的选项，未改动的题目不出现，更新整份答案时也只产生少量增量。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+public final class AnswerDelta {
+
+    private final Map<Long, Map<String, Integer>> changes = new HashMap<>();
+
+    void add(Long questionId, String option, int delta) {
+        changes.computeIfAbsent(questionId, k -> new HashMap<>()).merge(option, delta, Integer::sum);
+    }
+
+    /**
+     * 问题ID → (选项值 → 增量)
+     */
+    public Map<Long, Map<String, Integer>> getChanges() {
+        return Collections.unmodifiableMap(changes);
+    }
+
+    /**
+     * 是否没有任何变化
+     */
+    public boolean isEmpty() {
+        return changes.isEmpty();
+    }
+}
@@ -0,0 +1,135 @@
+package org.practice.surveymaster.projection;
+
+import org.practice.surveymaster.model.mongo.Answer;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <p>
+ * 答案差异计算
+ * </p>
+ *
+ * <p>
+ * 先把答案列表归一化为"问题ID → 选中选项集合"（只统计可计数的题目：单选、多选、评分），
+ * 再对新旧两份选择求差：旧有新无的选项-1，新有旧无的选项+1，两边都有的不变。
+ * 数值统一按十进制字符串表示，避免5、5L、5.0被当作不同选项。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+public final class AnswerDiff {
+
+    private AnswerDiff() {
+    }
+
+    /**
+     * 提取可计数题目的选中选项
+     *
+     * @param answers             答案列表
+     * @param countableQuestionIds 可计数的问题ID
+     * @return 问题ID → 选中选项集合
+     */
+    public static Map<Long, Set<String>> selections(List<Answer.QuestionAnswer> answers,
+                                                    Set<Long> countableQuestionIds) {
+        Map<Long, Set<String>> selections = new HashMap<>();
+        if (answers == null) {
+            return selections;
+        }
+        for (Answer.QuestionAnswer answer : answers) {
+            if (answer == null || answer.getQuestionId() == null
+                    || !countableQuestionIds.contains(answer.getQuestionId())) {
+                continue;
+            }
+            Set<String> options = new LinkedHashSet<>();
+            Object value = answer.getAnswer();
+            if (value instanceof Collection) {
+                for (Object item : (Collection<?>) value) {
+                    addOption(options, item);
+                }
+            } else {
+                addOption(options, value);
+            }
+            if (!options.isEmpty()) {
+                selections.computeIfAbsent(answer.getQuestionId(), k -> new LinkedHashSet<>()).addAll(options);
+            }
+        }
+        return selections;
+    }
+
+    /**
+     * 计算从旧选择到新选择的增量
+     *
+     * @param before 旧选择，新增答案时为空
+     * @param after  新选择，删除答案时为空
+     * @return 增量
+     */
+    public static AnswerDelta diff(Map<Long, Set<String>> before, Map<Long, Set<String>> after) {
+        AnswerDelta delta = new AnswerDelta();
+        Set<Long> questionIds = new HashSet<>(before.keySet());
+        questionIds.addAll(after.keySet());
+        for (Long questionId : questionIds) {
+            Set<String> oldOptions = before.getOrDefault(questionId, Collections.emptySet());
+            Set<String> newOptions = after.getOrDefault(questionId, Collections.emptySet());
+            for (String option : oldOptions) {
+                if (!newOptions.contains(option)) {
+                    delta.add(questionId, option, -1);
+                }
+            }
+            for (String option : newOptions) {
+                if (!oldOptions.contains(option)) {
+                    delta.add(questionId, option, 1);
+                }
+            }
+        }
+        return delta;
+    }
+
+    /**
+     * 转为台账存储格式（MongoDB文档的key必须为字符串）
+     */
+    public static Map<String, List<String>> toLedger(Map<Long, Set<String>> selections) {
+        Map<String, List<String>> ledger = new HashMap<>();
+        for (Map.Entry<Long, Set<String>> entry : selections.entrySet()) {
+            ledger.put(entry.getKey().toString(), new ArrayList<>(entry.getValue()));
+        }
+        return ledger;
+    }
+
+    /**
+     * 从台账存储格式还原
+     */
+    public static Map<Long, Set<String>> fromLedger(Map<String, List<String>> ledger) {
+        Map<Long, Set<String>> selections = new HashMap<>();
+        if (ledger == null) {
+            return selections;
+        }
+        for (Map.Entry<String, List<String>> entry : ledger.entrySet()) {
+            selections.put(Long.valueOf(entry.getKey()), new LinkedHashSet<>(entry.getValue()));
+        }
+        return selections;
+    }
+
+    private static void addOption(Set<String> options, Object value) {
+        if (value == null) {
+            return;
+        }
+        if (value instanceof Number) {
+            options.add(new BigDecimal(value.toString()).stripTrailingZeros().toPlainString());
+        } else {
+            String option = value.toString();
+            if (!option.isEmpty()) {
+                options.add(option);
+            }
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package org.practice.surveymaster.projection;
+
+import org.practice.surveymaster.constant.TimeGranularity;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * 答案统计的Redis key约定
+ * 问卷与用户的统计均为Hash结构，字段answers为答卷数；
+ * 每个可计数题目另有一个Hash，字段为选项值、值为选择人数；
+ * 评分题再按全量和自然日各维护一个{@link RatingSketch}；
+ * 文本题维护一个词频{@link TermSketch}（字段answers为计入的答卷数）和一个热词有序集合；
+ * 去重答题人按问卷和问卷创建者各维护一个自然日的HyperLogLog；
+ * 提交数按分钟、小时、天三种粒度各维护一组时间序列Hash
+ *
+ * @author ljn
+ * @since 2025/10/18
+ */
+public final class AnswerStatsKeys {
+
+    /**
+     * 答卷数字段
+     */
+    public static final String FIELD_ANSWERS = "answers";
+
+    private static final DateTimeFormatter HOUR_FORMAT = DateTimeFormatter.ofPattern("yyyyMMddHH");
+    private static final DateTimeFormatter MONTH_FORMAT = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private AnswerStatsKeys() {
+    }
+
+    /**
+     * 问卷统计key：{prefix}survey:{surveyId}
+     */
+    public static String survey(String prefix, Long surveyId) {
+        return prefix + "survey:" + surveyId;
+    }
+
+    /**
+     * 匹配问卷全部派生统计key（题目、评分、热词、去重人数、时间序列）的模式，不含问卷统计key本身
+     */
+    public static String surveyPattern(String prefix, Long surveyId) {
+        return survey(prefix, surveyId) + ":*";
+    }
+
+    /**
+     * 题目选项统计key：{prefix}survey:{surveyId}:q:{questionId}
+     */
+    public static String question(String prefix, Long surveyId, Long questionId) {
+        return survey(prefix, surveyId) + ":q:" + questionId;
+    }
+
+    /**
+     * 评分草图key：{prefix}survey:{surveyId}:q:{questionId}:rating
+     */
+    public static String rating(String prefix, Long surveyId, Long questionId) {
+        return question(prefix, surveyId, questionId) + ":rating";
+    }
+
+    /**
+     * 评分日草图key：{prefix}survey:{surveyId}:q:{questionId}:rating:{yyyyMMdd}
+     */
+    public static String rating(String prefix, Long surveyId, Long questionId, LocalDate day) {
+        return rating(prefix, surveyId, questionId) + ":" + day.format(DateTimeFormatter.BASIC_ISO_DATE);
+    }
+
+    /**
+     * 文本题词频草图key：{prefix}survey:{surveyId}:q:{questionId}:terms
+     */
+    public static String terms(String prefix, Long surveyId, Long questionId) {
+        return question(prefix, surveyId, questionId) + ":terms";
+    }
+
+    /**
+     * 文本题热词有序集合key：{prefix}survey:{surveyId}:q:{questionId}:terms:top，分值为草图估计的答卷数
+     */
+    public static String topTerms(String prefix, Long surveyId, Long questionId) {
+        return terms(prefix, surveyId, questionId) + ":top";
+    }
+
+    /**
+     * 问卷日去重答题人HyperLogLog key：{prefix}survey:{surveyId}:uv:{yyyyMMdd}
+     */
+    public static String surveyUnique(String prefix, Long surveyId, LocalDate day) {
+        return survey(prefix, surveyId) + ":uv:" + day.format(DateTimeFormatter.BASIC_ISO_DATE);
+    }
+
+    /**
+     * 问卷创建者名下所有问卷的日去重答题人HyperLogLog key：{prefix}owner:{ownerId}:uv:{yyyyMMdd}
+     */
+    public static String ownerUnique(String prefix, Long ownerId, LocalDate day) {
+        return prefix + "owner:" + ownerId + ":uv:" + day.format(DateTimeFormatter.BASIC_ISO_DATE);
+    }
+
+    /**
+     * 提交数时间序列key：{prefix}survey:{surveyId}:ts:{m|h|d}:{分组时间}
+     * 分钟桶按小时（yyyyMMddHH）、小时桶按天（yyyyMMdd）、天桶按月（yyyyMM）分组存入同一个Hash
+     */
+    public static String submissions(String prefix, Long surveyId, TimeGranularity granularity, LocalDateTime time) {
+        switch (granularity) {
+            case MINUTE:
+                return survey(prefix, surveyId) + ":ts:m:" + time.format(HOUR_FORMAT);
+            case HOUR:
+                return survey(prefix, surveyId) + ":ts:h:" + time.format(DateTimeFormatter.BASIC_ISO_DATE);
+            default:
+                return survey(prefix, surveyId) + ":ts:d:" + time.format(MONTH_FORMAT);
+        }
+    }
+
+    /**
+     * 用户统计key：{prefix}user:{userId}
+     */
+    public static String user(String prefix, Long userId) {
+        return prefix + "user:" + userId;
+    }
+}
@@ -0,0 +1,564 @@
+package org.practice.surveymaster.projection;
+
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.practice.surveymaster.codec.AnswerCodec;
+import org.practice.surveymaster.codec.OptionDictionary;
+import org.practice.surveymaster.codec.SurveyDictionary;
+import org.practice.surveymaster.config.AnswerProjectionConfig;
+import org.practice.surveymaster.constant.QuestionType;
+import org.practice.surveymaster.model.mongo.Answer;
+import org.practice.surveymaster.model.mongo.AnswerProjection;
+import org.practice.surveymaster.service.HotSurveyService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * <p>
+ * 答案统计投影
+ * </p>
+ *
+ * <p>
+ * 将一批答案变更事件折算为统计增量：问卷答卷数、用户答卷数、各题选项人数、评分题的{@link RatingSketch}、
+ * 提交数时间序列（{@link SubmissionRollup}）、文本题热词（{@link TextTermProjection}）以及问卷热度。
+ * 先按批读取台账（{@link AnswerProjection}）得到每份答案已计入的旧值，新增计+1、删除按台账撤销、
+ * 更新在问卷/用户/提交日期变化时迁移计数，选项则按{@link AnswerDiff}求出的±1增量调整；
+ * 同一批内对同一key的增量先合并，再通过一次Redis管道写入，
+ * 最后批量更新台账。重复投递的事件与台账一致，不会重复计数。
+ * 台账去重后的有效变更再通知给{@link AnswerChangeListener}维护共享的派生视图，
+ * 并经{@link AnswerChangeBroadcaster}广播给每个实例的本地视图。
+ * 若在写入Redis后、更新台账前崩溃，该批事件重放时会重复计入，属于至少一次语义下的已知窗口，
+ * 可通过全量重算修正。
+ * </p>
+ *
+ * <p>
+ * 正在全量重算的问卷（见{@link RecomputeFence}）的事件不计入，只记下答案ID，
+ * 重算写入结果后通过{@link #reproject}按答案当前文档与台账的差异补上。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/18
+ */
+@Slf4j
+@Component
+public class AnswerStatsProjection {
+
+    /**
+     * 清理问卷统计时每批查找和删除的key数
+     */
+    private static final int PURGE_BATCH_SIZE = 500;
+
+    private final MongoTemplate mongoTemplate;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final HotSurveyService hotSurveyService;
+    private final CountableQuestionResolver countableQuestionResolver;
+    private final AnswerCodec answerCodec;
+    private final OptionDictionary optionDictionary;
+    private final SubmissionRollup submissionRollup;
+    private final TextTermProjection textTermProjection;
+    private final ObjectProvider<AnswerChangeListener> listeners;
+    private final AnswerChangeBroadcaster answerChangeBroadcaster;
+    private final RecomputeFence recomputeFence;
+    private final AnswerProjectionConfig config;
+
+    @Autowired
+    public AnswerStatsProjection(MongoTemplate mongoTemplate, StringRedisTemplate stringRedisTemplate,
+                                 HotSurveyService hotSurveyService,
+                                 CountableQuestionResolver countableQuestionResolver, AnswerCodec answerCodec,
+                                 OptionDictionary optionDictionary, SubmissionRollup submissionRollup,
+                                 TextTermProjection textTermProjection,
+                                 ObjectProvider<AnswerChangeListener> listeners,
+                                 AnswerChangeBroadcaster answerChangeBroadcaster, RecomputeFence recomputeFence,
+                                 AnswerProjectionConfig config) {
+        this.mongoTemplate = mongoTemplate;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.hotSurveyService = hotSurveyService;
+        this.countableQuestionResolver = countableQuestionResolver;
+        this.answerCodec = answerCodec;
+        this.optionDictionary = optionDictionary;
+        this.submissionRollup = submissionRollup;
+        this.textTermProjection = textTermProjection;
+        this.listeners = listeners;
+        this.answerChangeBroadcaster = answerChangeBroadcaster;
+        this.recomputeFence = recomputeFence;
+        this.config = config;
+    }
+
+    /**
+     * 应用一批变更事件
+     *
+     * @param events 按发生顺序排列的变更事件
+     */
+    public void apply(List<ChangeStreamDocument<Document>> events) {
+        // 0. 先接手已过期登记暂缓的答案，之后读取的台账已包含其结果
+        Map<Long, Long> fences = recomputeFence.fences();
+        takeOverExpired(fences);
+
+        // 1. 批量读取台账
+        Set<String> ids = new HashSet<>();
+        for (ChangeStreamDocument<Document> event : events) {
+            ids.add(documentId(event));
+        }
+        Map<String, AnswerProjection> ledger = loadLedger(ids);
+
+        // 2. 解码为答案变更
+        List<Change> changes = new ArrayList<>(events.size());
+        for (ChangeStreamDocument<Document> event : events) {
+            String id = documentId(event);
+            switch (event.getOperationType()) {
+                case INSERT:
+                case REPLACE:
+                case UPDATE:
+                    if (event.getFullDocument() == null) {
+                        // 文档在查询全文前已被删除，由随后的删除事件处理
+                        continue;
+                    }
+                    // Change Stream的文档不经过映射事件，需手动解码紧凑格式
+                    Answer answer = answerCodec.adapt(
+                            mongoTemplate.getConverter().read(Answer.class, event.getFullDocument()));
+                    changes.add(new Change(id, answer, event.getOperationType() == OperationType.INSERT));
+                    break;
+                case DELETE:
+                    changes.add(new Change(id, null, false));
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        // 3. 正在全量重算的问卷暂缓投影，由重算完成后重新投影
+        project(deferFenced(changes, ledger, fences), ledger, Collections.emptySet(), false);
+    }
+
+    /**
+     * 按答案的当前文档重新投影被暂缓的答案，与台账的差异计入统计
+     *
+     * @param deferred     答案ID → 暂缓期间是否有新增，新增的答案补记时间序列、热词与热度
+     * @param rebuilt      全量重算扫描时重写过台账的答案；不为空时，其余答案的台账视为不存在（未被扫描计入），
+     *                     为空表示台账未被重写，按原台账计算差异
+     * @param termsCounted 已由词云重建计入热词的答案，不再重复记录热词
+     */
+    public void reproject(Map<String, Boolean> deferred, Set<String> rebuilt, Set<String> termsCounted) {
+        if (deferred.isEmpty()) {
+            return;
+        }
+        Map<String, AnswerProjection> ledger = loadLedger(deferred.keySet());
+        Map<String, Answer> current = new HashMap<>();
+        for (Answer answer : mongoTemplate.find(Query.query(Criteria.where("_id").in(deferred.keySet())),
+                Answer.class)) {
+            current.put(answer.getId(), answer);
+        }
+        List<String> stale = new ArrayList<>();
+        if (rebuilt != null) {
+            for (AnswerProjection projection : new ArrayList<>(ledger.values())) {
+                if (!projection.isArchived() && !rebuilt.contains(projection.getId())) {
+                    ledger.remove(projection.getId());
+                    if (!current.containsKey(projection.getId())) {
+                        stale.add(projection.getId());
+                    }
+                }
+            }
+        }
+        if (!stale.isEmpty()) {
+            // 扫描前已删除的答案未被计入重算结果，只清理台账，不再撤销
+            mongoTemplate.remove(Query.query(Criteria.where("_id").in(stale)), AnswerProjection.class);
+        }
+        List<Change> changes = new ArrayList<>(deferred.size());
+        for (Map.Entry<String, Boolean> entry : deferred.entrySet()) {
+            changes.add(new Change(entry.getKey(), current.get(entry.getKey()), entry.getValue()));
+        }
+        project(changes, ledger, termsCounted, true);
+    }
+
+    private Map<String, AnswerProjection> loadLedger(Collection<String> ids) {
+        Map<String, AnswerProjection> ledger = new HashMap<>();
+        for (AnswerProjection projection : mongoTemplate.find(
+                Query.query(Criteria.where("_id").in(ids)), AnswerProjection.class)) {
+            ledger.put(projection.getId(), projection);
+        }
+        return ledger;
+    }
+
+    /**
+     * 重算进程崩溃后登记随租约过期，由投影取出暂缓的答案重新投影
+     */
+    private void takeOverExpired(Map<Long, Long> fences) {
+        long now = System.currentTimeMillis();
+        for (Map.Entry<Long, Long> fence : fences.entrySet()) {
+            if (fence.getValue() <= now) {
+                log.warn("问卷 {} 的重算登记已过期，接手暂缓的答案", fence.getKey());
+                reproject(recomputeFence.takeExpired(fence.getKey()), null, Collections.emptySet());
+            }
+        }
+    }
+
+    /**
+     * 过滤掉正在重算的问卷的变更并记入暂缓
+     */
+    private List<Change> deferFenced(List<Change> changes, Map<String, AnswerProjection> ledger,
+                                     Map<Long, Long> fences) {
+        if (fences.isEmpty()) {
+            return changes;
+        }
+        long now = System.currentTimeMillis();
+        Map<Long, Map<String, Boolean>> fenced = new HashMap<>();
+        for (Change change : changes) {
+            AnswerProjection old = ledger.get(change.id);
+            Long surveyId = change.answer != null ? change.answer.getSurveyId()
+                    : old != null ? old.getSurveyId() : null;
+            Long deadline = surveyId == null ? null : fences.get(surveyId);
+            if (deadline != null && deadline > now) {
+                fenced.computeIfAbsent(surveyId, k -> new LinkedHashMap<>())
+                        .merge(change.id, change.inserted, Boolean::logicalOr);
+            }
+        }
+        if (fenced.isEmpty()) {
+            return changes;
+        }
+        Set<String> deferred = new HashSet<>();
+        for (Map.Entry<Long, Map<String, Boolean>> survey : fenced.entrySet()) {
+            if (recomputeFence.defer(survey.getKey(), survey.getValue())) {
+                deferred.addAll(survey.getValue().keySet());
+            }
+        }
+        List<Change> remaining = new ArrayList<>(changes.size());
+        for (Change change : changes) {
+            if (!deferred.contains(change.id)) {
+                remaining.add(change);
+            }
+        }
+        return remaining;
+    }
+
+    /**
+     * 按台账折算一批答案变更
+     *
+     * @param changes      按发生顺序排列的变更
+     * @param ledger       变更涉及答案的台账，折算过程中更新
+     * @param termsCounted 不再记录热词的答案
+     * @param replay       是否为暂缓答案的重新投影：新增标记来自暂缓期间的事件，台账已存在时也补记新增
+     */
+    private void project(List<Change> changes, Map<String, AnswerProjection> ledger, Set<String> termsCounted,
+                         boolean replay) {
+        Map<String, Map<String, Long>> deltas = new LinkedHashMap<>();
+        Map<String, AnswerProjection> upserts = new HashMap<>();
+        Set<String> removals = new HashSet<>();
+        List<Answer> inserted = new ArrayList<>();
+        List<AnswerChange> notices = new ArrayList<>();
+        for (Change change : changes) {
+            String id = change.id;
+            AnswerProjection old = ledger.get(id);
+            Answer answer = change.answer;
+            if (answer != null) {
+                Map<Long, Set<String>> selections = AnswerDiff.selections(answer.getAnswers(),
+                        countableQuestionResolver.countableQuestionIds(answer.getSurveyId()));
+                AnswerProjection current = new AnswerProjection(id, answer.getSurveyId(), answer.getUserId(),
+                        AnswerDiff.toLedger(selections), answer.getSubmittedAt(), old != null && old.isArchived());
+                if (old == null) {
+                    count(deltas, current, 1);
+                    options(deltas, current, AnswerDiff.diff(Collections.emptyMap(), selections));
+                } else if (!sameOwner(old, current) || !sameDay(old, current)) {
+                    count(deltas, old, -1);
+                    options(deltas, old,
+                            AnswerDiff.diff(AnswerDiff.fromLedger(old.getSelections()), Collections.emptyMap()));
+                    count(deltas, current, 1);
+                    options(deltas, current, AnswerDiff.diff(Collections.emptyMap(), selections));
+                } else {
+                    // 同一答卷的修改只调整变化的选项
+                    options(deltas, current,
+                            AnswerDiff.diff(AnswerDiff.fromLedger(old.getSelections()), selections));
+                }
+                if (old == null || replay && change.inserted) {
+                    inserted.add(answer);
+                }
+                ledger.put(id, current);
+                upserts.put(id, current);
+                removals.remove(id);
+                notices.add(new AnswerChange(id, answer.getSurveyId(), answer));
+            } else if (old != null && !old.isArchived()) {
+                // 转入归档引起的删除不撤销统计，台账保留到归档被删除时
+                count(deltas, old, -1);
+                options(deltas, old,
+                        AnswerDiff.diff(AnswerDiff.fromLedger(old.getSelections()), Collections.emptyMap()));
+                ledger.remove(id);
+                upserts.remove(id);
+                removals.add(id);
+                notices.add(new AnswerChange(id, old.getSurveyId(), null));
+            }
+        }
+
+        // 3. 一次管道写入全部计数增量
+        writeDeltas(deltas);
+        submissionRollup.record(inserted);
+        if (termsCounted.isEmpty()) {
+            textTermProjection.record(inserted);
+        } else {
+            List<Answer> uncounted = new ArrayList<>(inserted.size());
+            for (Answer answer : inserted) {
+                if (!termsCounted.contains(answer.getId())) {
+                    uncounted.add(answer);
+                }
+            }
+            textTermProjection.record(uncounted);
+        }
+        for (Answer answer : inserted) {
+            if (answer.getSubmittedAt() != null) {
+                hotSurveyService.recordAnswer(answer.getSurveyId(), answer.getSubmittedAt());
+            }
+        }
+
+        // 4. 批量更新台账
+        if (!upserts.isEmpty() || !removals.isEmpty()) {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, AnswerProjection.class);
+            for (AnswerProjection projection : upserts.values()) {
+                // 只写投影维护的字段：归档标记由归档事务写入，整篇替换会用读取时的旧值覆盖并发设置的标记
+                bulk.upsert(Query.query(Criteria.where("_id").is(projection.getId())), new Update()
+                        .set("surveyId", projection.getSurveyId())
+                        .set("userId", projection.getUserId())
+                        .set("selections", projection.getSelections())
+                        .set("submittedAt", projection.getSubmittedAt())
+                        .setOnInsert("archived", false));
+            }
+            if (!removals.isEmpty()) {
+                bulk.remove(Query.query(Criteria.where("_id").in(removals)));
+            }
+            bulk.execute();
+        }
+
+        // 5. 通知其他基于答案的派生视图
+        notifyListeners(notices);
+    }
+
+    /**
+     * 读取并删除已归档答案的台账，与删除归档块在同一个事务中调用；
+     * 事务提交后再以返回值调用{@link #retract}撤销统计，事务回滚时统计不受影响
+     *
+     * @param operations 绑定事务会话的操作
+     * @param criteria   台账筛选条件（如按问卷ID或答案ID）
+     * @return 被删除的台账
+     */
+    public List<AnswerProjection> takeArchived(MongoOperations operations, Criteria criteria) {
+        Query query = Query.query(new Criteria().andOperator(criteria, Criteria.where("archived").is(true)));
+        List<AnswerProjection> projections = operations.find(query, AnswerProjection.class);
+        if (!projections.isEmpty()) {
+            List<String> ids = new ArrayList<>(projections.size());
+            for (AnswerProjection projection : projections) {
+                ids.add(projection.getId());
+            }
+            operations.remove(Query.query(Criteria.where("_id").in(ids)), AnswerProjection.class);
+        }
+        return projections;
+    }
+
+    /**
+     * 撤销已删除台账对应答案的统计并通知监听器
+     *
+     * @param projections {@link #takeArchived}返回的台账
+     */
+    public void retract(List<AnswerProjection> projections) {
+        if (projections.isEmpty()) {
+            return;
+        }
+        Map<String, Map<String, Long>> deltas = new LinkedHashMap<>();
+        List<AnswerChange> changes = new ArrayList<>(projections.size());
+        for (AnswerProjection projection : projections) {
+            changes.add(new AnswerChange(projection.getId(), projection.getSurveyId(), null));
+            count(deltas, projection, -1);
+            options(deltas, projection,
+                    AnswerDiff.diff(AnswerDiff.fromLedger(projection.getSelections()), Collections.emptyMap()));
+        }
+        writeDeltas(deltas);
+        notifyListeners(changes);
+    }
+
+    /**
+     * 删除问卷的全部台账与统计key，问卷清理在答案与归档删除后调用
+     *
+     * <p>
+     * 先删除台账，答案删除事件延迟到达时找不到台账，不会再写入增量重新生成统计key；
+     * 派生统计key通过SCAN分批查找删除，不阻塞Redis。
+     * </p>
+     *
+     * @param surveyId 问卷ID
+     * @return 删除的统计key数
+     */
+    public long purge(Long surveyId) {
+        mongoTemplate.remove(Query.query(Criteria.where("surveyId").is(surveyId)), AnswerProjection.class);
+        String prefix = config.getStatsKeyPrefix();
+        List<String> keys = new ArrayList<>(PURGE_BATCH_SIZE);
+        keys.add(AnswerStatsKeys.survey(prefix, surveyId));
+        long deleted = 0;
+        ScanOptions options = ScanOptions.scanOptions()
+                .match(AnswerStatsKeys.surveyPattern(prefix, surveyId)).count(PURGE_BATCH_SIZE).build();
+        try (Cursor<byte[]> cursor = stringRedisTemplate.executeWithStickyConnection(
+                connection -> connection.scan(options))) {
+            while (cursor != null && cursor.hasNext()) {
+                keys.add(new String(cursor.next(), StandardCharsets.UTF_8));
+                if (keys.size() >= PURGE_BATCH_SIZE) {
+                    deleted += deleteKeys(keys);
+                }
+            }
+        }
+        return deleted + deleteKeys(keys);
+    }
+
+    private long deleteKeys(List<String> keys) {
+        if (keys.isEmpty()) {
+            return 0;
+        }
+        Long deleted = stringRedisTemplate.delete(keys);
+        keys.clear();
+        return deleted == null ? 0 : deleted;
+    }
+
+    private void notifyListeners(List<AnswerChange> changes) {
+        if (!changes.isEmpty()) {
+            listeners.orderedStream().forEach(listener -> listener.onAnswersChanged(changes));
+            answerChangeBroadcaster.publish(changes);
+        }
+    }
+
+    private void count(Map<String, Map<String, Long>> deltas, AnswerProjection projection, long delta) {
+        String prefix = config.getStatsKeyPrefix();
+        if (projection.getSurveyId() != null) {
+            addDelta(deltas, AnswerStatsKeys.survey(prefix, projection.getSurveyId()), AnswerStatsKeys.FIELD_ANSWERS, delta);
+        }
+        if (projection.getUserId() != null) {
+            addDelta(deltas, AnswerStatsKeys.user(prefix, projection.getUserId()), AnswerStatsKeys.FIELD_ANSWERS, delta);
+        }
+    }
+
+    private void options(Map<String, Map<String, Long>> deltas, AnswerProjection projection, AnswerDelta delta) {
+        Long surveyId = projection.getSurveyId();
+        if (surveyId == null || delta.isEmpty()) {
+            return;
+        }
+        String prefix = config.getStatsKeyPrefix();
+        SurveyDictionary dictionary = optionDictionary.get(surveyId);
+        for (Map.Entry<Long, Map<String, Integer>> question : delta.getChanges().entrySet()) {
+            String key = AnswerStatsKeys.question(prefix, surveyId, question.getKey());
+            for (Map.Entry<String, Integer> option : question.getValue().entrySet()) {
+                addDelta(deltas, key, option.getKey(), option.getValue());
+            }
+            if (dictionary.typeOf(question.getKey()) == QuestionType.RATING) {
+                ratings(deltas, projection, question.getKey(), question.getValue());
+            }
+        }
+    }
+
+    /**
+     * 评分变化同时计入全量草图与提交当日的草图
+     */
+    private void ratings(Map<String, Map<String, Long>> deltas, AnswerProjection projection, Long questionId,
+                         Map<String, Integer> changes) {
+        String prefix = config.getStatsKeyPrefix();
+        String total = AnswerStatsKeys.rating(prefix, projection.getSurveyId(), questionId);
+        String day = projection.getSubmittedAt() == null ? null
+                : AnswerStatsKeys.rating(prefix, projection.getSurveyId(), questionId,
+                projection.getSubmittedAt().toLocalDate());
+        for (Map.Entry<String, Integer> change : changes.entrySet()) {
+            BigDecimal value;
+            try {
+                value = new BigDecimal(change.getKey());
+            } catch (NumberFormatException e) {
+                // 非数值的评分不计入草图
+                continue;
+            }
+            for (Map.Entry<String, Long> field : RatingSketch.fieldsOf(value).entrySet()) {
+                addDelta(deltas, total, field.getKey(), field.getValue() * change.getValue());
+                if (day != null) {
+                    addDelta(deltas, day, field.getKey(), field.getValue() * change.getValue());
+                }
+            }
+        }
+    }
+
+    private void addDelta(Map<String, Map<String, Long>> deltas, String key, String field, long delta) {
+        deltas.computeIfAbsent(key, k -> new HashMap<>()).merge(field, delta, Long::sum);
+    }
+
+    private void writeDeltas(Map<String, Map<String, Long>> deltas) {
+        stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Object execute(RedisOperations operations) throws DataAccessException {
+                for (Map.Entry<String, Map<String, Long>> entry : deltas.entrySet()) {
+                    for (Map.Entry<String, Long> field : entry.getValue().entrySet()) {
+                        if (field.getValue() != 0) {
+                            operations.opsForHash().increment(entry.getKey(), field.getKey(), field.getValue());
+                        }
+                    }
+                }
+                return null;
+            }
+        });
+    }
+
+    private boolean sameOwner(AnswerProjection a, AnswerProjection b) {
+        return Objects.equals(a.getSurveyId(), b.getSurveyId())
+                && Objects.equals(a.getUserId(), b.getUserId());
+    }
+
+    private boolean sameDay(AnswerProjection a, AnswerProjection b) {
+        return Objects.equals(dayOf(a.getSubmittedAt()), dayOf(b.getSubmittedAt()));
+    }
+
+    private static LocalDate dayOf(LocalDateTime time) {
+        return time == null ? null : time.toLocalDate();
+    }
+
+    /**
+     * 一份答案的变更：answer为变更后的答案，为空表示已删除
+     */
+    private static final class Change {
+
+        private final String id;
+        private final Answer answer;
+        private final boolean inserted;
+
+        private Change(String id, Answer answer, boolean inserted) {
+            this.id = id;
+            this.answer = answer;
+            this.inserted = inserted;
+        }
+    }
+
+    /**
+     * 事件对应的答案ID，ObjectId转为十六进制字符串，与实体ID一致
+     */
+    static String documentId(ChangeStreamDocument<Document> event) {
+        BsonValue id = event.getDocumentKey().get("_id");
+        return id.isObjectId() ? id.asObjectId().getValue().toHexString() : id.asString().getValue();
+    }
+}
@@ -0,0 +1,54 @@
+package org.practice.surveymaster.projection;
+
+import org.practice.surveymaster.constant.QuestionType;
+import org.practice.surveymaster.mapper.QuestionMapper;
+import org.practice.surveymaster.model.Question;
+import org.practice.surveymaster.util.LruCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 可计数题目解析
+ * 按问卷查询单选、多选、评分题的问题ID，文本题不做选项计数；结果短时缓存，避免每个事件都查库
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+@Component
+public class CountableQuestionResolver {
+
+    private static final int CACHE_SIZE = 1000;
+    private static final long CACHE_TTL_MILLIS = 60_000L;
+
+    private final QuestionMapper questionMapper;
+    private final LruCache<Long, Set<Long>> cache = new LruCache<>(CACHE_SIZE, CACHE_TTL_MILLIS);
+
+    @Autowired
+    public CountableQuestionResolver(QuestionMapper questionMapper) {
+        this.questionMapper = questionMapper;
+    }
+
+    /**
+     * 查询问卷中可计数的问题ID
+     */
+    public Set<Long> countableQuestionIds(Long surveyId) {
+        if (surveyId == null) {
+            return Collections.emptySet();
+        }
+        Set<Long> ids = cache.get(surveyId);
+        if (ids == null) {
+            ids = new HashSet<>();
+            for (Question question : questionMapper.selectBySurveyId(surveyId)) {
+                if (question.getType() != QuestionType.TEXT) {
+                    ids.add(question.getId());
+                }
+            }
+            cache.put(surveyId, ids);
+        }
+        return ids;
+    }
+}
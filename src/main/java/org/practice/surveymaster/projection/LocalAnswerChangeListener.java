@@ -0,0 +1,27 @@
+package org.practice.surveymaster.projection;
+
+import java.util.List;
+
+/**
+ * 本地答案变更监听器
+ * 用于每个实例各自维护的派生视图（如本地缓存、本地列文件）。答案统计投影只在持有租约的实例上运行，
+ * 其处理后的变更经 {@link AnswerChangeBroadcaster} 广播，每个实例（包括投影所在实例）都会收到并按发生顺序回调。
+ * 广播不保证送达，无法确认是否漏收时回调 {@link #onChangesMissed()}。实现方应自行处理异常
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+public interface LocalAnswerChangeListener {
+
+    /**
+     * 处理一批答案变更
+     *
+     * @param changes 按发生顺序排列的变更
+     */
+    void onAnswersChanged(List<AnswerChange> changes);
+
+    /**
+     * 可能漏收了变更（如实例刚启动、订阅刚建立），实现方应丢弃或标记过期全部本地视图
+     */
+    void onChangesMissed();
+}
@@ -0,0 +1,186 @@
+package org.practice.surveymaster.projection;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * <p>
+ * 评分题的可合并分布草图
+ * </p>
+ *
+ * <p>
+ * 以Redis Hash存储，每个字段都是计数，写入只用HINCRBY，因此多个节点并发写入、多个时间桶相加都只是字段求和：
+ * 绝对值不超过{@value #EXACT_MAX}的整数评分（常见的1-5、0-10分）按值精确计数（e:值）；
+ * 其他评分按DDSketch的对数分桶计数（p:桶号 / m:桶号，分别对应正数与负数），分位数相对误差不超过1%；
+ * count为评分个数，sum为评分之和（以千分之一为单位，三位小数以内精确）。
+ * 撤销评分只需对同样的字段做相反的增量，读取时忽略计数不为正的字段。
+ * </p>
+ *
+ * <p>
+ * 字段数只与评分的取值范围有关，与答卷数无关，读取和计算分位数的开销是常数级的。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+public final class RatingSketch {
+
+    /**
+     * 评分个数字段
+     */
+    public static final String FIELD_COUNT = "count";
+
+    /**
+     * 评分之和字段，单位为千分之一
+     */
+    public static final String FIELD_SUM = "sum";
+
+    /**
+     * 精确计数的整数评分上限（绝对值）
+     */
+    static final int EXACT_MAX = 100;
+
+    private static final long SUM_SCALE = 1000L;
+    private static final double RELATIVE_ACCURACY = 0.01;
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+
+    private final Map<String, Long> fields = new HashMap<>();
+
+    /**
+     * 记入一个评分所需增加的字段
+     *
+     * @param value 评分
+     * @return 字段 → 增量，撤销时各增量取反
+     */
+    public static Map<String, Long> fieldsOf(BigDecimal value) {
+        Map<String, Long> fields = new LinkedHashMap<>();
+        fields.put(bucketOf(value), 1L);
+        fields.put(FIELD_COUNT, 1L);
+        fields.put(FIELD_SUM, value.multiply(BigDecimal.valueOf(SUM_SCALE)).setScale(0, RoundingMode.HALF_UP).longValue());
+        return fields;
+    }
+
+    /**
+     * 从Redis Hash读取草图
+     */
+    public static RatingSketch fromHash(Map<?, ?> hash) {
+        RatingSketch sketch = new RatingSketch();
+        if (hash != null) {
+            for (Map.Entry<?, ?> entry : hash.entrySet()) {
+                sketch.fields.merge(entry.getKey().toString(), Long.parseLong(entry.getValue().toString()), Long::sum);
+            }
+        }
+        return sketch;
+    }
+
+    /**
+     * 合并另一个草图（如其他时间桶）
+     */
+    public RatingSketch merge(RatingSketch other) {
+        other.fields.forEach((field, count) -> fields.merge(field, count, Long::sum));
+        return this;
+    }
+
+    public long count() {
+        return Math.max(0L, fields.getOrDefault(FIELD_COUNT, 0L));
+    }
+
+    /**
+     * 平均分，没有评分时为null
+     */
+    public Double mean() {
+        long count = count();
+        return count == 0 ? null : fields.getOrDefault(FIELD_SUM, 0L) / (double) SUM_SCALE / count;
+    }
+
+    /**
+     * 分位数，没有评分时为null
+     *
+     * @param quantile 0到1之间，0.5为中位数
+     */
+    public Double quantile(double quantile) {
+        TreeMap<Double, Long> bins = bins();
+        long total = 0;
+        for (long count : bins.values()) {
+            total += count;
+        }
+        if (total == 0) {
+            return null;
+        }
+        double rank = quantile * (total - 1);
+        long cumulative = 0;
+        for (Map.Entry<Double, Long> bin : bins.entrySet()) {
+            cumulative += bin.getValue();
+            if (cumulative > rank) {
+                return bin.getKey();
+            }
+        }
+        return bins.lastKey();
+    }
+
+    /**
+     * 评分分布，按评分从小到大排列；对数分桶的评分以桶代表值（保留4位有效数字）展示
+     */
+    public Map<String, Long> distribution() {
+        Map<String, Long> distribution = new LinkedHashMap<>();
+        for (Map.Entry<Double, Long> bin : bins().entrySet()) {
+            String label = BigDecimal.valueOf(bin.getKey()).round(new MathContext(4)).stripTrailingZeros()
+                    .toPlainString();
+            distribution.merge(label, bin.getValue(), Long::sum);
+        }
+        return distribution;
+    }
+
+    static String bucketOf(BigDecimal value) {
+        BigDecimal normalized = value.stripTrailingZeros();
+        if (normalized.signum() == 0
+                || (normalized.scale() <= 0 && normalized.abs().compareTo(BigDecimal.valueOf(EXACT_MAX)) <= 0)) {
+            return "e:" + normalized.toBigInteger();
+        }
+        double magnitude = Math.abs(normalized.doubleValue());
+        int index = (int) Math.ceil(Math.log(magnitude) / LOG_GAMMA);
+        return (normalized.signum() > 0 ? "p:" : "m:") + index;
+    }
+
+    /**
+     * 计数为正的桶：代表值 → 计数
+     */
+    private TreeMap<Double, Long> bins() {
+        TreeMap<Double, Long> bins = new TreeMap<>();
+        for (Map.Entry<String, Long> field : fields.entrySet()) {
+            String name = field.getKey();
+            if (field.getValue() <= 0 || name.length() < 3 || name.charAt(1) != ':') {
+                continue;
+            }
+            double value;
+            switch (name.charAt(0)) {
+                case 'e':
+                    value = Double.parseDouble(name.substring(2));
+                    break;
+                case 'p':
+                    value = representative(Integer.parseInt(name.substring(2)));
+                    break;
+                case 'm':
+                    value = -representative(Integer.parseInt(name.substring(2)));
+                    break;
+                default:
+                    continue;
+            }
+            bins.merge(value, field.getValue(), Long::sum);
+        }
+        return bins;
+    }
+
+    /**
+     * 对数桶(γ^(i-1), γ^i]的代表值，使桶内任一值的相对误差不超过1%
+     */
+    private static double representative(int index) {
+        return 2 * Math.pow(GAMMA, index) / (GAMMA + 1);
+    }
+}
@@ -0,0 +1,228 @@
+package org.practice.surveymaster.projection;
+
+import lombok.extern.slf4j.Slf4j;
+import org.practice.surveymaster.config.AnswerProjectionConfig;
+import org.practice.surveymaster.config.StatsRecomputeConfig;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <p>
+ * 全量重算期间的投影暂缓
+ * </p>
+ *
+ * <p>
+ * 全量重算扫描原始答案后整体替换统计，扫描期间投影写入的增量会被覆盖，而扫描时读到的又不一定是答案的最新版本。
+ * 重算开始前在Redis有序集合中登记问卷（分值为租约到期时间），投影遇到登记中问卷的事件时不再计入，
+ * 只把答案ID记入该问卷的暂缓Hash（值标记事件中是否有新增）；重算写入结果后取出暂缓的答案，
+ * 按当前文档与台账的差异重新投影，暂缓为空时才解除登记。暂缓与解除都在Lua脚本中判断登记状态，
+ * 不会有答案在解除后被记入暂缓而无人处理。
+ * </p>
+ *
+ * <p>
+ * 重算进程崩溃时登记随租约过期，投影发现过期登记后自行取出暂缓的答案重新投影。
+ * 投影检查登记与写入增量之间没有加锁，登记后需等待{@link #awaitInFlight()}，让检查前已开始的批次写完。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+@Slf4j
+@Component
+public class RecomputeFence {
+
+    /**
+     * ARGV: 问卷ID、当前时间、到期时间；未登记或已过期时登记，返回是否登记
+     */
+    private static final String ACQUIRE_SCRIPT =
+            "local deadline = redis.call('ZSCORE', KEYS[1], ARGV[1]) " +
+            "if deadline and tonumber(deadline) > tonumber(ARGV[2]) then return 0 end " +
+            "redis.call('ZADD', KEYS[1], ARGV[3], ARGV[1]) " +
+            "return 1";
+
+    /**
+     * ARGV: 问卷ID、到期时间；仍登记时续期，返回是否续期
+     */
+    private static final String RENEW_SCRIPT =
+            "if redis.call('ZSCORE', KEYS[1], ARGV[1]) then " +
+            "  redis.call('ZADD', KEYS[1], ARGV[2], ARGV[1]) " +
+            "  return 1 " +
+            "end " +
+            "return 0";
+
+    /**
+     * ARGV: 问卷ID、当前时间、答案ID与新增标记交替排列；登记有效时记入暂缓，返回是否记入
+     */
+    private static final String DEFER_SCRIPT =
+            "local deadline = redis.call('ZSCORE', KEYS[1], ARGV[1]) " +
+            "if not deadline or tonumber(deadline) <= tonumber(ARGV[2]) then return 0 end " +
+            "for i = 3, #ARGV, 2 do " +
+            "  if ARGV[i + 1] == '1' then redis.call('HSET', KEYS[2], ARGV[i], '1') " +
+            "  else redis.call('HSETNX', KEYS[2], ARGV[i], '0') end " +
+            "end " +
+            "return 1";
+
+    /**
+     * 取出并删除暂缓的答案
+     */
+    private static final String TAKE_SCRIPT =
+            "local deferred = redis.call('HGETALL', KEYS[1]) " +
+            "redis.call('DEL', KEYS[1]) " +
+            "return deferred";
+
+    /**
+     * ARGV: 问卷ID、当前时间；登记已过期时解除登记并取出暂缓的答案
+     */
+    private static final String TAKE_EXPIRED_SCRIPT =
+            "local deadline = redis.call('ZSCORE', KEYS[1], ARGV[1]) " +
+            "if deadline and tonumber(deadline) > tonumber(ARGV[2]) then return {} end " +
+            "redis.call('ZREM', KEYS[1], ARGV[1]) " +
+            "local deferred = redis.call('HGETALL', KEYS[2]) " +
+            "redis.call('DEL', KEYS[2]) " +
+            "return deferred";
+
+    /**
+     * ARGV: 问卷ID；没有暂缓的答案时解除登记，返回是否解除
+     */
+    private static final String RELEASE_SCRIPT =
+            "if redis.call('EXISTS', KEYS[2]) == 1 then return 0 end " +
+            "redis.call('ZREM', KEYS[1], ARGV[1]) " +
+            "return 1";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final AnswerProjectionConfig projectionConfig;
+    private final StatsRecomputeConfig config;
+    private final DefaultRedisScript<Long> acquireScript = new DefaultRedisScript<>(ACQUIRE_SCRIPT, Long.class);
+    private final DefaultRedisScript<Long> renewScript = new DefaultRedisScript<>(RENEW_SCRIPT, Long.class);
+    private final DefaultRedisScript<Long> deferScript = new DefaultRedisScript<>(DEFER_SCRIPT, Long.class);
+    private final DefaultRedisScript<List> takeScript = new DefaultRedisScript<>(TAKE_SCRIPT, List.class);
+    private final DefaultRedisScript<List> takeExpiredScript = new DefaultRedisScript<>(TAKE_EXPIRED_SCRIPT, List.class);
+    private final DefaultRedisScript<Long> releaseScript = new DefaultRedisScript<>(RELEASE_SCRIPT, Long.class);
+
+    @Autowired
+    public RecomputeFence(StringRedisTemplate stringRedisTemplate, AnswerProjectionConfig projectionConfig,
+                          StatsRecomputeConfig config) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.projectionConfig = projectionConfig;
+        this.config = config;
+    }
+
+    /**
+     * 登记问卷，其他重算持有有效登记时返回false
+     */
+    public boolean acquire(Long surveyId) {
+        long now = System.currentTimeMillis();
+        Long acquired = stringRedisTemplate.execute(acquireScript, Collections.singletonList(fencesKey()),
+                String.valueOf(surveyId), String.valueOf(now), String.valueOf(now + config.getFenceLeaseMillis()));
+        return acquired != null && acquired == 1L;
+    }
+
+    /**
+     * 等待登记前已开始的投影批次写完
+     */
+    public void awaitInFlight() throws InterruptedException {
+        Thread.sleep(config.getFenceSettleMillis());
+    }
+
+    /**
+     * 续期登记，返回登记是否仍然存在
+     */
+    public boolean renew(Long surveyId) {
+        Long renewed = stringRedisTemplate.execute(renewScript, Collections.singletonList(fencesKey()),
+                String.valueOf(surveyId), String.valueOf(System.currentTimeMillis() + config.getFenceLeaseMillis()));
+        return renewed != null && renewed == 1L;
+    }
+
+    /**
+     * 当前所有登记：问卷ID → 到期时间
+     */
+    public Map<Long, Long> fences() {
+        Set<ZSetOperations.TypedTuple<String>> tuples = stringRedisTemplate.opsForZSet().rangeWithScores(fencesKey(), 0, -1);
+        if (tuples == null || tuples.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<Long, Long> fences = new HashMap<>();
+        for (ZSetOperations.TypedTuple<String> tuple : tuples) {
+            if (tuple.getValue() != null && tuple.getScore() != null) {
+                fences.put(Long.valueOf(tuple.getValue()), tuple.getScore().longValue());
+            }
+        }
+        return fences;
+    }
+
+    /**
+     * 暂缓问卷的答案变更
+     *
+     * @param surveyId 问卷ID
+     * @param answers  答案ID → 事件中是否有新增
+     * @return 是否已记入暂缓；登记已解除或过期时返回false，由调用方照常投影
+     */
+    public boolean defer(Long surveyId, Map<String, Boolean> answers) {
+        String[] args = new String[answers.size() * 2 + 2];
+        args[0] = String.valueOf(surveyId);
+        args[1] = String.valueOf(System.currentTimeMillis());
+        int i = 2;
+        for (Map.Entry<String, Boolean> answer : answers.entrySet()) {
+            args[i++] = answer.getKey();
+            args[i++] = answer.getValue() ? "1" : "0";
+        }
+        Long deferred = stringRedisTemplate.execute(deferScript,
+                Arrays.asList(fencesKey(), deferredKey(surveyId)), (Object[]) args);
+        return deferred != null && deferred == 1L;
+    }
+
+    /**
+     * 取出暂缓的答案：答案ID → 是否有新增
+     */
+    public Map<String, Boolean> takeDeferred(Long surveyId) {
+        return toMap(stringRedisTemplate.execute(takeScript, Collections.singletonList(deferredKey(surveyId))));
+    }
+
+    /**
+     * 登记已过期时解除登记并取出暂缓的答案，登记仍有效时返回空
+     */
+    public Map<String, Boolean> takeExpired(Long surveyId) {
+        return toMap(stringRedisTemplate.execute(takeExpiredScript,
+                Arrays.asList(fencesKey(), deferredKey(surveyId)), String.valueOf(surveyId),
+                String.valueOf(System.currentTimeMillis())));
+    }
+
+    /**
+     * 没有暂缓的答案时解除登记，返回是否解除；返回false时应再次取出暂缓的答案处理
+     */
+    public boolean release(Long surveyId) {
+        Long released = stringRedisTemplate.execute(releaseScript,
+                Arrays.asList(fencesKey(), deferredKey(surveyId)), String.valueOf(surveyId));
+        return released != null && released == 1L;
+    }
+
+    private static Map<String, Boolean> toMap(List<?> flat) {
+        if (flat == null || flat.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<String, Boolean> answers = new LinkedHashMap<>();
+        for (int i = 0; i + 1 < flat.size(); i += 2) {
+            answers.put(String.valueOf(flat.get(i)), "1".equals(String.valueOf(flat.get(i + 1))));
+        }
+        return answers;
+    }
+
+    private String fencesKey() {
+        return projectionConfig.getStatsKeyPrefix() + "recompute:fences";
+    }
+
+    private String deferredKey(Long surveyId) {
+        return projectionConfig.getStatsKeyPrefix() + "recompute:deferred:" + surveyId;
+    }
+}
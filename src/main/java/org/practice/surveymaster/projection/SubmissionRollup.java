@@ -0,0 +1,178 @@
+package org.practice.surveymaster.projection;
+
+import org.practice.surveymaster.config.AnswerProjectionConfig;
+import org.practice.surveymaster.config.SubmissionRollupConfig;
+import org.practice.surveymaster.constant.ErrorCode;
+import org.practice.surveymaster.constant.TimeGranularity;
+import org.practice.surveymaster.model.mongo.Answer;
+import org.practice.surveymaster.util.AssertUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * 提交数时间序列的预聚合
+ * </p>
+ *
+ * <p>
+ * 每份新提交的答案同时计入分钟、小时、天三个粒度的桶，桶按上一级时间分组存放在同一个Hash中
+ * （见{@link AnswerStatsKeys#submissions}），一批答案的增量合并后通过一次Redis管道写入。
+ * 细粒度的桶按配置过期，相当于写入时即完成从分钟到小时、天的压缩，查询时无需再做合并。
+ * 查询任意范围时只读取覆盖该范围的分组Hash：按分钟查一天最多读25个Hash，按天查一年最多读13个。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+@Component
+public class SubmissionRollup {
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final AnswerProjectionConfig projectionConfig;
+    private final SubmissionRollupConfig config;
+
+    @Autowired
+    public SubmissionRollup(StringRedisTemplate stringRedisTemplate, AnswerProjectionConfig projectionConfig,
+                            SubmissionRollupConfig config) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.projectionConfig = projectionConfig;
+        this.config = config;
+    }
+
+    /**
+     * 计入一批新提交的答案
+     */
+    public void record(List<Answer> answers) {
+        Map<String, Map<String, Long>> increments = new LinkedHashMap<>();
+        Map<String, Long> ttlSeconds = new HashMap<>();
+        for (Answer answer : answers) {
+            if (answer.getSurveyId() == null || answer.getSubmittedAt() == null) {
+                continue;
+            }
+            for (TimeGranularity granularity : TimeGranularity.values()) {
+                String key = AnswerStatsKeys.submissions(projectionConfig.getStatsKeyPrefix(), answer.getSurveyId(),
+                        granularity, answer.getSubmittedAt());
+                increments.computeIfAbsent(key, k -> new HashMap<>())
+                        .merge(fieldOf(granularity, answer.getSubmittedAt()), 1L, Long::sum);
+                Long ttl = ttlSecondsOf(granularity);
+                if (ttl != null) {
+                    ttlSeconds.put(key, ttl);
+                }
+            }
+        }
+        if (increments.isEmpty()) {
+            return;
+        }
+        stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Object execute(RedisOperations operations) throws DataAccessException {
+                for (Map.Entry<String, Map<String, Long>> entry : increments.entrySet()) {
+                    for (Map.Entry<String, Long> field : entry.getValue().entrySet()) {
+                        operations.opsForHash().increment(entry.getKey(), field.getKey(), field.getValue());
+                    }
+                    Long ttl = ttlSeconds.get(entry.getKey());
+                    if (ttl != null) {
+                        operations.expire(entry.getKey(), ttl, TimeUnit.SECONDS);
+                    }
+                }
+                return null;
+            }
+        });
+    }
+
+    /**
+     * 读取时间范围内每个桶的提交数
+     *
+     * @param surveyId    问卷ID
+     * @param granularity 粒度
+     * @param from        起始时间（含），向下对齐到桶
+     * @param to          截止时间（含），向下对齐到桶
+     * @return 桶起始时间 → 提交数，按时间顺序排列，没有提交的桶为0
+     */
+    public Map<LocalDateTime, Long> series(Long surveyId, TimeGranularity granularity,
+                                           LocalDateTime from, LocalDateTime to) {
+        LocalDateTime start = granularity.truncate(from);
+        LocalDateTime end = granularity.truncate(to);
+        AssertUtil.state(!start.isAfter(end)
+                && granularity.getUnit().between(start, end) < config.getMaxPoints(), ErrorCode.BAD_REQUEST);
+
+        Map<LocalDateTime, Long> points = new LinkedHashMap<>();
+        List<String> keys = new ArrayList<>();
+        for (LocalDateTime time = start; !time.isAfter(end); time = time.plus(1, granularity.getUnit())) {
+            points.put(time, 0L);
+            String key = AnswerStatsKeys.submissions(projectionConfig.getStatsKeyPrefix(), surveyId, granularity, time);
+            if (keys.isEmpty() || !keys.get(keys.size() - 1).equals(key)) {
+                keys.add(key);
+            }
+        }
+        List<Object> results = stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Object execute(RedisOperations operations) throws DataAccessException {
+                for (String key : keys) {
+                    operations.opsForHash().entries(key);
+                }
+                return null;
+            }
+        });
+        Map<String, Map<?, ?>> buckets = new HashMap<>();
+        for (int i = 0; i < keys.size(); i++) {
+            buckets.put(keys.get(i), (Map<?, ?>) results.get(i));
+        }
+        for (Map.Entry<LocalDateTime, Long> point : points.entrySet()) {
+            Map<?, ?> bucket = buckets.get(AnswerStatsKeys.submissions(projectionConfig.getStatsKeyPrefix(), surveyId,
+                    granularity, point.getKey()));
+            Object count = bucket == null ? null : bucket.get(fieldOf(granularity, point.getKey()));
+            if (count != null) {
+                point.setValue(Long.parseLong(count.toString()));
+            }
+        }
+        return points;
+    }
+
+    /**
+     * 桶在分组Hash中的字段：分钟、小时或日期的两位数字
+     */
+    static String fieldOf(TimeGranularity granularity, LocalDateTime time) {
+        int value;
+        switch (granularity) {
+            case MINUTE:
+                value = time.getMinute();
+                break;
+            case HOUR:
+                value = time.getHour();
+                break;
+            default:
+                value = time.getDayOfMonth();
+                break;
+        }
+        return value < 10 ? "0" + value : String.valueOf(value);
+    }
+
+    private Long ttlSecondsOf(TimeGranularity granularity) {
+        switch (granularity) {
+            case MINUTE:
+                // 分组Hash覆盖一小时，多保留一小时保证整组过期前都可读
+                return TimeUnit.HOURS.toSeconds(config.getMinuteRetentionHours() + 1L);
+            case HOUR:
+                return TimeUnit.DAYS.toSeconds(config.getHourRetentionDays() + 1L);
+            default:
+                // 分组Hash覆盖一个月
+                return config.getDayRetentionDays() <= 0 ? null
+                        : TimeUnit.DAYS.toSeconds(config.getDayRetentionDays() + 31L);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package org.practice.surveymaster.projection;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * <p>
+ * 词频的Count-Min Sketch
+ * </p>
+ *
+ * <p>
+ * {@value #DEPTH}行×{@value #WIDTH}列计数器，每个词按双重哈希在每行命中一列，估计值取各行计数的最小值：
+ * 只会高估，高估量超过总词次×e/{@value #WIDTH}（约0.13%）的概率不超过e^-{@value #DEPTH}（约2%）。
+ * 所占空间与词的种类无关，多个草图逐格相加即为合并。
+ * </p>
+ *
+ * <p>
+ * 在Redis中以Hash存储，字段为计数器下标（行×WIDTH+列），增量写入只用HINCRBY；
+ * 内存中的实例用于全量重建时各分块独立计数后合并。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+public final class TermSketch {
+
+    static final int DEPTH = 4;
+    static final int WIDTH = 2048;
+
+    private final long[] counters = new long[DEPTH * WIDTH];
+
+    /**
+     * 词在各行命中的计数器下标，同时作为Redis Hash的字段
+     */
+    public static int[] cells(String term) {
+        // 64位FNV-1a，高低32位作为双重哈希的两个基础哈希
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : term.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        int[] cells = new int[DEPTH];
+        for (int row = 0; row < DEPTH; row++) {
+            cells[row] = row * WIDTH + Math.floorMod(h1 + row * h2, WIDTH);
+        }
+        return cells;
+    }
+
+    public void add(String term, long count) {
+        for (int cell : cells(term)) {
+            counters[cell] += count;
+        }
+    }
+
+    public long estimate(String term) {
+        long estimate = Long.MAX_VALUE;
+        for (int cell : cells(term)) {
+            estimate = Math.min(estimate, counters[cell]);
+        }
+        return estimate;
+    }
+
+    public TermSketch merge(TermSketch other) {
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] += other.counters[i];
+        }
+        return this;
+    }
+
+    /**
+     * 非零计数器，用于整体写入Redis Hash
+     */
+    public Map<String, String> toHash() {
+        Map<String, String> hash = new HashMap<>();
+        for (int i = 0; i < counters.length; i++) {
+            if (counters[i] != 0) {
+                hash.put(String.valueOf(i), String.valueOf(counters[i]));
+            }
+        }
+        return hash;
+    }
+}
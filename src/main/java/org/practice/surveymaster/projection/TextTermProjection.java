@@ -0,0 +1,170 @@
+package org.practice.surveymaster.projection;
+
+import lombok.extern.slf4j.Slf4j;
+import org.practice.surveymaster.codec.OptionDictionary;
+import org.practice.surveymaster.codec.SurveyDictionary;
+import org.practice.surveymaster.config.AnswerProjectionConfig;
+import org.practice.surveymaster.config.TextAnalyticsConfig;
+import org.practice.surveymaster.constant.QuestionType;
+import org.practice.surveymaster.model.mongo.Answer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <p>
+ * 文本题热词投影
+ * </p>
+ *
+ * <p>
+ * 新提交答案中的文本题经{@link TextTokenizer}分词后，按题目合并为词→答卷数的增量，
+ * 第一次管道对每个词在{@link TermSketch}中的{@value TermSketch#DEPTH}个计数器做HINCRBY，
+ * 返回值的最小值即该词的最新估计；第二次管道把估计值写入热词有序集合，并裁剪到配置的候选数，
+ * 有序集合即所有节点共享的top-k小顶堆。
+ * </p>
+ *
+ * <p>
+ * Count-Min Sketch只支持累加，答案修改与删除不回退词频，候选词的计数可能偏高；
+ * 需要精确结果时由{@link TextTermRebuilder}从原始答案全量重建。出错只记录日志，不影响其他统计。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+@Slf4j
+@Component
+public class TextTermProjection {
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final OptionDictionary optionDictionary;
+    private final AnswerProjectionConfig projectionConfig;
+    private final TextAnalyticsConfig config;
+
+    @Autowired
+    public TextTermProjection(StringRedisTemplate stringRedisTemplate, OptionDictionary optionDictionary,
+                              AnswerProjectionConfig projectionConfig, TextAnalyticsConfig config) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.optionDictionary = optionDictionary;
+        this.projectionConfig = projectionConfig;
+        this.config = config;
+    }
+
+    /**
+     * 计入一批新提交的答案
+     */
+    public void record(List<Answer> answers) {
+        try {
+            doRecord(answers);
+        } catch (Exception e) {
+            log.warn("更新文本题热词失败", e);
+        }
+    }
+
+    /**
+     * 答案中各文本题的词
+     *
+     * @return 题目ID → 去重后的词，没有文本题时为空
+     */
+    static Map<Long, Set<String>> termsOf(Answer answer, SurveyDictionary dictionary, int maxTerms) {
+        if (answer.getAnswers() == null) {
+            return Collections.emptyMap();
+        }
+        Map<Long, Set<String>> terms = new HashMap<>();
+        for (Answer.QuestionAnswer questionAnswer : answer.getAnswers()) {
+            if (questionAnswer.getAnswer() instanceof String
+                    && dictionary.typeOf(questionAnswer.getQuestionId()) == QuestionType.TEXT) {
+                Set<String> tokens = TextTokenizer.tokenize((String) questionAnswer.getAnswer(), maxTerms);
+                if (!tokens.isEmpty()) {
+                    terms.put(questionAnswer.getQuestionId(), tokens);
+                }
+            }
+        }
+        return terms;
+    }
+
+    private void doRecord(List<Answer> answers) {
+        String prefix = projectionConfig.getStatsKeyPrefix();
+        // 草图key → 词 → 答卷数增量，草图key → 计入的答卷数
+        Map<String, Map<String, Long>> increments = new LinkedHashMap<>();
+        Map<String, Long> answerCounts = new HashMap<>();
+        Map<String, String> topKeys = new HashMap<>();
+        for (Answer answer : answers) {
+            if (answer.getSurveyId() == null) {
+                continue;
+            }
+            SurveyDictionary dictionary = optionDictionary.get(answer.getSurveyId());
+            for (Map.Entry<Long, Set<String>> question
+                    : termsOf(answer, dictionary, config.getMaxTermsPerAnswer()).entrySet()) {
+                String key = AnswerStatsKeys.terms(prefix, answer.getSurveyId(), question.getKey());
+                topKeys.put(key, AnswerStatsKeys.topTerms(prefix, answer.getSurveyId(), question.getKey()));
+                answerCounts.merge(key, 1L, Long::sum);
+                Map<String, Long> terms = increments.computeIfAbsent(key, k -> new HashMap<>());
+                for (String term : question.getValue()) {
+                    terms.merge(term, 1L, Long::sum);
+                }
+            }
+        }
+        if (increments.isEmpty()) {
+            return;
+        }
+
+        List<Object> results = stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Object execute(RedisOperations operations) throws DataAccessException {
+                for (Map.Entry<String, Map<String, Long>> entry : increments.entrySet()) {
+                    operations.opsForHash().increment(entry.getKey(), AnswerStatsKeys.FIELD_ANSWERS,
+                            answerCounts.get(entry.getKey()));
+                    for (Map.Entry<String, Long> term : entry.getValue().entrySet()) {
+                        for (int cell : TermSketch.cells(term.getKey())) {
+                            operations.opsForHash().increment(entry.getKey(), String.valueOf(cell), term.getValue());
+                        }
+                    }
+                }
+                return null;
+            }
+        });
+
+        // 按写入顺序取回各计数器的新值，最小值为估计
+        Map<String, Map<String, Long>> estimates = new LinkedHashMap<>();
+        int index = 0;
+        for (Map.Entry<String, Map<String, Long>> entry : increments.entrySet()) {
+            index++;
+            Map<String, Long> termEstimates = new HashMap<>();
+            for (String term : entry.getValue().keySet()) {
+                long estimate = Long.MAX_VALUE;
+                for (int row = 0; row < TermSketch.DEPTH; row++) {
+                    estimate = Math.min(estimate, ((Number) results.get(index++)).longValue());
+                }
+                termEstimates.put(term, estimate);
+            }
+            estimates.put(topKeys.get(entry.getKey()), termEstimates);
+        }
+
+        int capacity = config.getTopCandidates();
+        stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Object execute(RedisOperations operations) throws DataAccessException {
+                for (Map.Entry<String, Map<String, Long>> entry : estimates.entrySet()) {
+                    for (Map.Entry<String, Long> term : entry.getValue().entrySet()) {
+                        operations.opsForZSet().add(entry.getKey(), term.getKey(), term.getValue());
+                    }
+                    // 只保留分值最高的capacity个候选
+                    operations.opsForZSet().removeRange(entry.getKey(), 0, -capacity - 1);
+                }
+                return null;
+            }
+        });
+    }
+}
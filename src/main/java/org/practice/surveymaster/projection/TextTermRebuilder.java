@@ -0,0 +1,372 @@
+package org.practice.surveymaster.projection;
+
+import lombok.extern.slf4j.Slf4j;
+import org.practice.surveymaster.codec.OptionDictionary;
+import org.practice.surveymaster.codec.SurveyDictionary;
+import org.practice.surveymaster.config.AnswerProjectionConfig;
+import org.practice.surveymaster.config.StatsRecomputeConfig;
+import org.practice.surveymaster.config.TextAnalyticsConfig;
+import org.practice.surveymaster.constant.ErrorCode;
+import org.practice.surveymaster.constant.QuestionType;
+import org.practice.surveymaster.exception.BusinessException;
+import org.practice.surveymaster.mapper.QuestionMapper;
+import org.practice.surveymaster.model.mongo.Answer;
+import org.practice.surveymaster.service.AnswerService;
+import org.practice.surveymaster.util.AssertUtil;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>
+ * 文本题热词全量重建
+ * </p>
+ *
+ * <p>
+ * 通过{@link AnswerService#exportAnswers}流式读取问卷的全部答案（含归档），每满一个分块交给线程池分词，
+ * 各分块在本地独立计数、生成自己的{@link TermSketch}并选出本块的top-k候选，再合并到全局草图与候选集；
+ * 读取线程在在途分块达到上限时阻塞，内存占用与分块大小和线程数成正比，与答卷数无关。
+ * 全局热词在块内排名靠前的概率很高，候选集超过上限时用全局草图估计后裁剪。
+ * 全部分块完成后整体替换Redis中的草图与热词集合。
+ * </p>
+ *
+ * <p>
+ * 重建前通过{@link RecomputeFence}登记问卷，投影暂缓该问卷的事件，避免期间写入的热词被整体替换覆盖。
+ * 热词只在答案新增时记录，扫描时记下登记前不久提交的答案，写入结果后重新投影暂缓的答案，
+ * 其中已被扫描计入的新增不再记录热词，选项计数等其他统计照常补上。同一问卷同时只允许一个重建或重算任务。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+@Slf4j
+@Component
+public class TextTermRebuilder implements DisposableBean {
+
+    private final AnswerService answerService;
+    private final QuestionMapper questionMapper;
+    private final OptionDictionary optionDictionary;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final AnswerProjectionConfig projectionConfig;
+    private final TextAnalyticsConfig config;
+    private final RecomputeFence recomputeFence;
+    private final AnswerStatsProjection answerStatsProjection;
+    private final StatsRecomputeConfig recomputeConfig;
+    private final ExecutorService executor;
+    private final int threads;
+    private final Set<Long> rebuilding = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public TextTermRebuilder(AnswerService answerService, QuestionMapper questionMapper,
+                             OptionDictionary optionDictionary, StringRedisTemplate stringRedisTemplate,
+                             AnswerProjectionConfig projectionConfig, TextAnalyticsConfig config,
+                             RecomputeFence recomputeFence, AnswerStatsProjection answerStatsProjection,
+                             StatsRecomputeConfig recomputeConfig) {
+        this.answerService = answerService;
+        this.questionMapper = questionMapper;
+        this.optionDictionary = optionDictionary;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.projectionConfig = projectionConfig;
+        this.config = config;
+        this.recomputeFence = recomputeFence;
+        this.answerStatsProjection = answerStatsProjection;
+        this.recomputeConfig = recomputeConfig;
+        this.threads = config.getRebuildThreads() > 0
+                ? config.getRebuildThreads()
+                : Runtime.getRuntime().availableProcessors();
+        AtomicInteger sequence = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "text-term-rebuild-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 重建问卷所有文本题的词频草图与热词
+     *
+     * @param surveyId 问卷ID
+     * @return 扫描的答案数
+     */
+    public long rebuild(Long surveyId) {
+        AssertUtil.state(rebuilding.add(surveyId), ErrorCode.TOO_MANY_REQUESTS, "该问卷的词云正在重建");
+        try {
+            AssertUtil.state(recomputeFence.acquire(surveyId), ErrorCode.TOO_MANY_REQUESTS, "该问卷正在重算");
+            Set<String> counted = Collections.emptySet();
+            try {
+                Set<String> recent = new HashSet<>();
+                long scanned = doRebuild(surveyId, recent);
+                counted = recent;
+                return scanned;
+            } finally {
+                // 重建失败时热词未被替换，暂缓的新增照常记录热词
+                drain(surveyId, counted);
+            }
+        } finally {
+            rebuilding.remove(surveyId);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private long doRebuild(Long surveyId, Set<String> recent) {
+        long start = System.currentTimeMillis();
+        try {
+            recomputeFence.awaitInFlight();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException(ErrorCode.DATA_PROCESSING_ERROR, "词云重建被中断");
+        }
+        LocalDateTime recentSince = LocalDateTime.now().minusNanos(recomputeConfig.getRecentMarginMillis() * 1_000_000L);
+        long[] renewedAt = {start};
+        SurveyDictionary dictionary = optionDictionary.get(surveyId);
+        List<Long> questionIds = new ArrayList<>();
+        for (Long questionId : questionMapper.getQuestionIdsBySurveyId(surveyId)) {
+            if (dictionary.typeOf(questionId) == QuestionType.TEXT) {
+                questionIds.add(questionId);
+            }
+        }
+        if (questionIds.isEmpty()) {
+            return 0;
+        }
+
+        Map<Long, QuestionTerms> merged = new HashMap<>();
+        for (Long questionId : questionIds) {
+            merged.put(questionId, new QuestionTerms());
+        }
+        Semaphore inFlight = new Semaphore(threads * 2);
+        List<Future<?>> futures = new ArrayList<>();
+        List<List<Answer>> chunk = new ArrayList<>();
+        chunk.add(new ArrayList<>());
+        long[] scanned = {0};
+        answerService.exportAnswers(surveyId, answer -> {
+            scanned[0]++;
+            chunk.get(0).add(answer);
+            if (answer.getSubmittedAt() != null && !answer.getSubmittedAt().isBefore(recentSince)) {
+                recent.add(answer.getId());
+            }
+            if (chunk.get(0).size() >= config.getRebuildChunkSize()) {
+                futures.add(submit(chunk.get(0), dictionary, merged, inFlight));
+                chunk.set(0, new ArrayList<>());
+                renew(surveyId, renewedAt);
+            }
+        });
+        if (!chunk.get(0).isEmpty()) {
+            futures.add(submit(chunk.get(0), dictionary, merged, inFlight));
+        }
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new BusinessException(ErrorCode.DATA_PROCESSING_ERROR, "词云重建被中断");
+            } catch (ExecutionException e) {
+                log.error("词云重建分块处理失败: 问卷ID={}", surveyId, e.getCause());
+                throw new BusinessException(ErrorCode.DATA_PROCESSING_ERROR, "词云重建失败");
+            }
+        }
+
+        write(surveyId, merged);
+        log.info("文本题热词重建完成: 问卷ID={}, 答案数={}, 分块数={}, 耗时={}ms", surveyId, scanned[0],
+                futures.size(), System.currentTimeMillis() - start);
+        return scanned[0];
+    }
+
+    private void renew(Long surveyId, long[] renewedAt) {
+        long now = System.currentTimeMillis();
+        if (now - renewedAt[0] >= recomputeConfig.getFenceLeaseMillis() / 3) {
+            renewedAt[0] = now;
+            AssertUtil.state(recomputeFence.renew(surveyId), ErrorCode.DATA_PROCESSING_ERROR, "重建登记已失效");
+        }
+    }
+
+    /**
+     * 重新投影暂缓的答案，直到暂缓为空并解除登记
+     *
+     * @param counted 已被扫描计入热词的答案
+     */
+    private void drain(Long surveyId, Set<String> counted) {
+        try {
+            while (true) {
+                Map<String, Boolean> deferred = recomputeFence.takeDeferred(surveyId);
+                if (deferred.isEmpty()) {
+                    if (recomputeFence.release(surveyId)) {
+                        return;
+                    }
+                    continue;
+                }
+                answerStatsProjection.reproject(deferred, null, counted);
+            }
+        } catch (RuntimeException e) {
+            log.error("重新投影暂缓的答案失败，等待登记过期后由投影接手: 问卷ID={}", surveyId, e);
+        }
+    }
+
+    private Future<?> submit(List<Answer> answers, SurveyDictionary dictionary, Map<Long, QuestionTerms> merged,
+                             Semaphore inFlight) {
+        try {
+            inFlight.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException(ErrorCode.DATA_PROCESSING_ERROR, "词云重建被中断");
+        }
+        try {
+            return executor.submit(() -> {
+                try {
+                    process(answers, dictionary, merged);
+                } finally {
+                    inFlight.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlight.release();
+            throw e;
+        }
+    }
+
+    /**
+     * 分块内精确计数，生成本块草图与候选后合并到全局
+     */
+    private void process(List<Answer> answers, SurveyDictionary dictionary, Map<Long, QuestionTerms> merged) {
+        Map<Long, Map<String, Long>> counts = new HashMap<>();
+        Map<Long, Long> answerCounts = new HashMap<>();
+        for (Answer answer : answers) {
+            for (Map.Entry<Long, Set<String>> question
+                    : TextTermProjection.termsOf(answer, dictionary, config.getMaxTermsPerAnswer()).entrySet()) {
+                if (!merged.containsKey(question.getKey())) {
+                    continue;
+                }
+                answerCounts.merge(question.getKey(), 1L, Long::sum);
+                Map<String, Long> terms = counts.computeIfAbsent(question.getKey(), k -> new HashMap<>());
+                for (String term : question.getValue()) {
+                    terms.merge(term, 1L, Long::sum);
+                }
+            }
+        }
+        for (Map.Entry<Long, Map<String, Long>> question : counts.entrySet()) {
+            TermSketch sketch = new TermSketch();
+            question.getValue().forEach(sketch::add);
+            List<String> candidates = top(question.getValue(), config.getTopCandidates());
+            merged.get(question.getKey()).merge(sketch, candidates, answerCounts.get(question.getKey()),
+                    config.getTopCandidates());
+        }
+    }
+
+    private void write(Long surveyId, Map<Long, QuestionTerms> merged) {
+        String prefix = projectionConfig.getStatsKeyPrefix();
+        stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Object execute(RedisOperations operations) throws DataAccessException {
+                for (Map.Entry<Long, QuestionTerms> entry : merged.entrySet()) {
+                    QuestionTerms terms = entry.getValue();
+                    String key = AnswerStatsKeys.terms(prefix, surveyId, entry.getKey());
+                    String topKey = AnswerStatsKeys.topTerms(prefix, surveyId, entry.getKey());
+                    operations.delete(key);
+                    operations.delete(topKey);
+                    if (terms.answers == 0) {
+                        continue;
+                    }
+                    Map<String, String> hash = terms.sketch.toHash();
+                    hash.put(AnswerStatsKeys.FIELD_ANSWERS, String.valueOf(terms.answers));
+                    operations.opsForHash().putAll(key, hash);
+                    Set<ZSetOperations.TypedTuple<String>> tuples = new HashSet<>();
+                    for (Map.Entry<String, Long> term : terms.estimates(config.getTopCandidates()).entrySet()) {
+                        tuples.add(new DefaultTypedTuple<>(term.getKey(), term.getValue().doubleValue()));
+                    }
+                    if (!tuples.isEmpty()) {
+                        operations.opsForZSet().add(topKey, tuples);
+                    }
+                }
+                return null;
+            }
+        });
+    }
+
+    /**
+     * 按计数选出前k个词，小顶堆实现，结果从高到低
+     */
+    static List<String> top(Map<String, Long> counts, int k) {
+        PriorityQueue<Map.Entry<String, Long>> heap = new PriorityQueue<>(Map.Entry.comparingByValue());
+        for (Map.Entry<String, Long> entry : counts.entrySet()) {
+            if (heap.size() < k) {
+                heap.offer(entry);
+            } else if (entry.getValue() > heap.peek().getValue()) {
+                heap.poll();
+                heap.offer(entry);
+            }
+        }
+        List<String> top = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            top.add(0, heap.poll().getKey());
+        }
+        return top;
+    }
+
+    /**
+     * 一道文本题的全局合并结果，由分块线程并发合并
+     */
+    private static final class QuestionTerms {
+
+        private final TermSketch sketch = new TermSketch();
+        private final Set<String> candidates = new LinkedHashSet<>();
+        private long answers;
+
+        private synchronized void merge(TermSketch chunkSketch, List<String> chunkCandidates, long chunkAnswers,
+                                        int capacity) {
+            sketch.merge(chunkSketch);
+            candidates.addAll(chunkCandidates);
+            answers += chunkAnswers;
+            if (candidates.size() > capacity * 4) {
+                List<String> kept = top(estimateAll(), capacity * 2);
+                candidates.clear();
+                candidates.addAll(kept);
+            }
+        }
+
+        private synchronized Map<String, Long> estimates(int capacity) {
+            Map<String, Long> estimates = estimateAll();
+            Map<String, Long> top = new LinkedHashMap<>();
+            for (String term : top(estimates, capacity)) {
+                top.put(term, estimates.get(term));
+            }
+            return top;
+        }
+
+        private Map<String, Long> estimateAll() {
+            Map<String, Long> estimates = new HashMap<>();
+            for (String term : candidates) {
+                estimates.put(term, sketch.estimate(term));
+            }
+            return estimates;
+        }
+    }
+}
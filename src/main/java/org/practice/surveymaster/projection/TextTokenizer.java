@@ -0,0 +1,113 @@
+package org.practice.surveymaster.projection;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * <p>
+ * 文本答案分词
+ * </p>
+ *
+ * <p>
+ * 不依赖词典：先做NFKC归一化（全角转半角）并转小写，连续的汉字切为相邻二元组（与Lucene的CJK二元分词相同），
+ * 只有一个汉字时保留单字；连续的字母数字作为一个词，长度至少为2且不是纯数字。
+ * 含虚词（的、了、是……）的二元组与常见英文停用词不计入。
+ * 每份答案中的同一个词只计一次，热词计数的含义是提到该词的答卷数。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+public final class TextTokenizer {
+
+    private static final Set<Integer> STOP_CHARS = new HashSet<>();
+    private static final Set<String> STOP_WORDS = new HashSet<>(Arrays.asList(
+            "the", "and", "or", "of", "to", "in", "on", "for", "is", "are", "was", "were", "be", "it", "this",
+            "that", "with", "as", "at", "by", "an", "not", "no", "but", "so", "very"));
+
+    static {
+        "的了着过吗呢吧啊呀哦嘛和与及或是在也就都而把被给对从向于之其这那个么".codePoints().forEach(STOP_CHARS::add);
+    }
+
+    private TextTokenizer() {
+    }
+
+    /**
+     * 切分一段文本
+     *
+     * @param text     文本
+     * @param maxTerms 最多返回的词数
+     * @return 去重后的词，按出现顺序排列
+     */
+    public static Set<String> tokenize(String text, int maxTerms) {
+        Set<String> terms = new LinkedHashSet<>();
+        if (text == null || text.isEmpty()) {
+            return terms;
+        }
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase();
+        StringBuilder han = new StringBuilder();
+        StringBuilder word = new StringBuilder();
+        int i = 0;
+        while (i < normalized.length() && terms.size() < maxTerms) {
+            int codePoint = normalized.codePointAt(i);
+            i += Character.charCount(codePoint);
+            if (Character.UnicodeScript.of(codePoint) == Character.UnicodeScript.HAN) {
+                flushWord(word, terms);
+                han.appendCodePoint(codePoint);
+            } else if (Character.isLetterOrDigit(codePoint)) {
+                flushHan(han, terms);
+                word.appendCodePoint(codePoint);
+            } else {
+                flushHan(han, terms);
+                flushWord(word, terms);
+            }
+        }
+        flushHan(han, terms);
+        flushWord(word, terms);
+        if (terms.size() > maxTerms) {
+            Set<String> limited = new LinkedHashSet<>();
+            for (String term : terms) {
+                if (limited.size() == maxTerms) {
+                    break;
+                }
+                limited.add(term);
+            }
+            return limited;
+        }
+        return terms;
+    }
+
+    private static void flushHan(StringBuilder han, Set<String> terms) {
+        if (han.length() == 0) {
+            return;
+        }
+        int[] chars = han.codePoints().toArray();
+        han.setLength(0);
+        if (chars.length == 1) {
+            if (!STOP_CHARS.contains(chars[0])) {
+                terms.add(new String(chars, 0, 1));
+            }
+            return;
+        }
+        for (int j = 0; j + 1 < chars.length; j++) {
+            if (!STOP_CHARS.contains(chars[j]) && !STOP_CHARS.contains(chars[j + 1])) {
+                terms.add(new String(chars, j, 2));
+            }
+        }
+    }
+
+    private static void flushWord(StringBuilder word, Set<String> terms) {
+        if (word.length() == 0) {
+            return;
+        }
+        String term = word.toString();
+        word.setLength(0);
+        if (term.codePointCount(0, term.length()) >= 2 && !STOP_WORDS.contains(term)
+                && !term.chars().allMatch(Character::isDigit)) {
+            terms.add(term);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package org.practice.surveymaster.projection;
+
+import lombok.extern.slf4j.Slf4j;
+import org.practice.surveymaster.config.AnswerProjectionConfig;
+import org.practice.surveymaster.config.UniqueRespondentConfig;
+import org.practice.surveymaster.mapper.SurveyMapper;
+import org.practice.surveymaster.model.Survey;
+import org.practice.surveymaster.model.mongo.Answer;
+import org.practice.surveymaster.util.LruCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * 去重答题人投影
+ * </p>
+ *
+ * <p>
+ * 把每批答案变更中的答题用户按提交日期写入问卷和问卷创建者的HyperLogLog日桶，
+ * 同一批内同一个key的用户先合并，再通过一次Redis管道执行PFADD并刷新过期时间。
+ * 任意日期范围的去重人数由PFCOUNT对多个日桶求并集得到。
+ * HyperLogLog不支持删除，答案被删除后其答题人仍计入当日，统计口径为"曾经提交过的去重用户"。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+@Slf4j
+@Component
+public class UniqueRespondentProjection implements AnswerChangeListener {
+
+    private static final int OWNER_CACHE_SIZE = 10000;
+    private static final long OWNER_CACHE_TTL_MILLIS = 600_000L;
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final SurveyMapper surveyMapper;
+    private final AnswerProjectionConfig projectionConfig;
+    private final UniqueRespondentConfig config;
+    private final LruCache<Long, Long> owners = new LruCache<>(OWNER_CACHE_SIZE, OWNER_CACHE_TTL_MILLIS);
+
+    @Autowired
+    public UniqueRespondentProjection(StringRedisTemplate stringRedisTemplate, SurveyMapper surveyMapper,
+                                      AnswerProjectionConfig projectionConfig, UniqueRespondentConfig config) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.surveyMapper = surveyMapper;
+        this.projectionConfig = projectionConfig;
+        this.config = config;
+    }
+
+    @Override
+    public void onAnswersChanged(List<AnswerChange> changes) {
+        try {
+            add(changes);
+        } catch (Exception e) {
+            log.warn("写入去重答题人失败: {}", e.getMessage());
+        }
+    }
+
+    private void add(List<AnswerChange> changes) {
+        String prefix = projectionConfig.getStatsKeyPrefix();
+        Map<String, Set<String>> additions = new LinkedHashMap<>();
+        for (AnswerChange change : changes) {
+            Answer answer = change.getAnswer();
+            if (answer == null || answer.getUserId() == null || answer.getSubmittedAt() == null) {
+                continue;
+            }
+            String userId = String.valueOf(answer.getUserId());
+            LocalDate day = answer.getSubmittedAt().toLocalDate();
+            additions.computeIfAbsent(AnswerStatsKeys.surveyUnique(prefix, answer.getSurveyId(), day),
+                    k -> new LinkedHashSet<>()).add(userId);
+            Long ownerId = ownerOf(answer.getSurveyId());
+            if (ownerId != null) {
+                additions.computeIfAbsent(AnswerStatsKeys.ownerUnique(prefix, ownerId, day),
+                        k -> new LinkedHashSet<>()).add(userId);
+            }
+        }
+        if (additions.isEmpty()) {
+            return;
+        }
+        stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Object execute(RedisOperations operations) throws DataAccessException {
+                for (Map.Entry<String, Set<String>> entry : additions.entrySet()) {
+                    operations.opsForHyperLogLog().add(entry.getKey(), entry.getValue().toArray());
+                    operations.expire(entry.getKey(), config.getBucketTtlDays(), TimeUnit.DAYS);
+                }
+                return null;
+            }
+        });
+    }
+
+    private Long ownerOf(Long surveyId) {
+        if (surveyId == null) {
+            return null;
+        }
+        Long ownerId = owners.get(surveyId);
+        if (ownerId == null) {
+            Survey survey = surveyMapper.selectById(surveyId);
+            if (survey == null) {
+                return null;
+            }
+            ownerId = survey.getUserId();
+            owners.put(surveyId, ownerId);
+        }
+        return ownerId;
+    }
+}
@@ -0,0 +1,140 @@
+package org.practice.surveymaster.ratelimit;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.UUID;
+
+/**
+ * <p>
+ * 基于Redis的分布式滑动窗口限流器
+ * </p>
+ *
+ * <p>
+ * 每个限流key对应一个ZSET，成员为请求标识、分值为Redis服务器时间戳。Lua脚本中先移除窗口外的记录，
+ * 再判断窗口内记录数是否达到上限，整个过程在Redis中原子执行，多实例部署下计数准确。
+ * 相比固定窗口不存在窗口边界处两倍突发的问题。每个key最多保存limit条记录，并随窗口过期。
+ * Redis不可用时放行（fail-open），由本地令牌桶兜底。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/13
+ */
+@Slf4j
+@Component
+public class SlidingWindowRateLimiter {
+
+    /**
+     * 以Redis服务器时钟为准，各实例的时钟偏差不会影响窗口判断；
+     * 调用TIME后再写入需要先开启效果复制（Redis 5起默认开启）
+     */
+    private static final String NOW =
+            "redis.replicate_commands() " +
+            "local time = redis.call('TIME') " +
+            "local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000) ";
+
+    /**
+     * 返回-1表示放行，否则返回需要等待的毫秒数
+     */
+    private static final String ACQUIRE_SCRIPT = NOW +
+            "local window = tonumber(ARGV[1]) " +
+            "redis.call('ZREMRANGEBYSCORE', KEYS[1], 0, now - window) " +
+            "if redis.call('ZCARD', KEYS[1]) < tonumber(ARGV[2]) then " +
+            "  redis.call('ZADD', KEYS[1], now, ARGV[3]) " +
+            "  redis.call('PEXPIRE', KEYS[1], window) " +
+            "  return -1 " +
+            "end " +
+            "local oldest = redis.call('ZRANGE', KEYS[1], 0, 0, 'WITHSCORES') " +
+            "return math.max(1, tonumber(oldest[2]) + window - now)";
+
+    /**
+     * 返回窗口内的记录数
+     */
+    private static final String COUNT_SCRIPT = NOW +
+            "redis.call('ZREMRANGEBYSCORE', KEYS[1], 0, now - tonumber(ARGV[1])) " +
+            "return redis.call('ZCARD', KEYS[1])";
+
+    /**
+     * 无条件记录一次并返回窗口内的记录数
+     */
+    private static final String RECORD_SCRIPT = NOW +
+            "local window = tonumber(ARGV[1]) " +
+            "redis.call('ZREMRANGEBYSCORE', KEYS[1], 0, now - window) " +
+            "redis.call('ZADD', KEYS[1], now, ARGV[2]) " +
+            "redis.call('PEXPIRE', KEYS[1], window) " +
+            "return redis.call('ZCARD', KEYS[1])";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final DefaultRedisScript<Long> acquireScript = new DefaultRedisScript<>(ACQUIRE_SCRIPT, Long.class);
+    private final DefaultRedisScript<Long> countScript = new DefaultRedisScript<>(COUNT_SCRIPT, Long.class);
+    private final DefaultRedisScript<Long> recordScript = new DefaultRedisScript<>(RECORD_SCRIPT, Long.class);
+
+    @Autowired
+    public SlidingWindowRateLimiter(StringRedisTemplate stringRedisTemplate) {
+        this.stringRedisTemplate = stringRedisTemplate;
+    }
+
+    /**
+     * 尝试在窗口内占用一次配额
+     *
+     * @param key 限流key
+     * @param limit 窗口内允许的最大次数
+     * @param windowMillis 窗口长度（毫秒）
+     * @return 小于等于0表示放行，否则为建议的重试等待毫秒数
+     */
+    public long tryAcquire(String key, int limit, long windowMillis) {
+        try {
+            Long result = stringRedisTemplate.execute(acquireScript, Collections.singletonList(key),
+                    String.valueOf(windowMillis), String.valueOf(limit), UUID.randomUUID().toString());
+            return result == null ? -1 : result;
+        } catch (Exception e) {
+            log.warn("Redis限流不可用，放行请求，key: {}，原因: {}", key, e.getMessage());
+            return -1;
+        }
+    }
+
+    /**
+     * 统计窗口内的记录数
+     */
+    public long count(String key, long windowMillis) {
+        try {
+            Long result = stringRedisTemplate.execute(countScript, Collections.singletonList(key),
+                    String.valueOf(windowMillis));
+            return result == null ? 0 : result;
+        } catch (Exception e) {
+            log.warn("Redis限流不可用，key: {}，原因: {}", key, e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * 无条件记录一次（用于失败计数）
+     *
+     * @return 记录后窗口内的记录数
+     */
+    public long record(String key, long windowMillis) {
+        try {
+            Long result = stringRedisTemplate.execute(recordScript, Collections.singletonList(key),
+                    String.valueOf(windowMillis), UUID.randomUUID().toString());
+            return result == null ? 0 : result;
+        } catch (Exception e) {
+            log.warn("Redis限流不可用，key: {}，原因: {}", key, e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * 清除key的所有记录
+     */
+    public void reset(String key) {
+        try {
+            stringRedisTemplate.delete(key);
+        } catch (Exception e) {
+            log.warn("Redis限流不可用，key: {}，原因: {}", key, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package org.practice.surveymaster.ratelimit;
+
+/**
+ * <p>
+ * 本地令牌桶
+ * </p>
+ *
+ * <p>
+ * 采用惰性补充：不启动定时线程，每次获取令牌时根据距上次补充的时间计算应补充的令牌数。
+ * 用于在访问Redis之前就地拒绝明显的突发洪峰。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/13
+ */
+public class TokenBucket {
+
+    private final double capacity;
+    private final double refillPerNano;
+    private double tokens;
+    private long lastRefillNanos;
+
+    /**
+     * @param capacity 桶容量（允许的突发量）
+     * @param refillPerSecond 每秒补充的令牌数
+     */
+    public TokenBucket(double capacity, double refillPerSecond) {
+        this.capacity = capacity;
+        this.refillPerNano = refillPerSecond / 1_000_000_000d;
+        this.tokens = capacity;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    /**
+     * 尝试获取一个令牌
+     *
+     * @return 是否获取成功
+     */
+    public synchronized boolean tryAcquire() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * refillPerNano);
+        lastRefillNanos = now;
+        if (tokens >= 1) {
+            tokens -= 1;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 预占若干令牌，不足时允许透支，返回调用方应等待的纳秒数
+     * 透支量由之后补充的令牌偿还，用于后台批处理的平滑限速，长期速率不超过每秒补充数
+     *
+     * @param permits 令牌数
+     * @return 需要等待的纳秒数，0表示无需等待
+     */
+    public synchronized long reserve(double permits) {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * refillPerNano);
+        lastRefillNanos = now;
+        tokens -= permits;
+        return tokens >= 0 ? 0L : (long) (-tokens / refillPerNano);
+    }
+}
@@ -0,0 +1,44 @@
+package org.practice.surveymaster.recompute;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 重算时题目选项到计数数组下标的映射
+ * 所有分区共享同一个映射，使各分区的{@link StatsAccumulator}下标一致、可逐元素相加；
+ * 同一问卷的选项种类有限，映射很快稳定，之后只有无锁的读
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+final class SlotIndex {
+
+    private final ConcurrentHashMap<String, Integer> slots = new ConcurrentHashMap<>();
+    private final AtomicInteger next = new AtomicInteger();
+
+    int slotOf(Long questionId, String value) {
+        String key = questionId + ":" + value;
+        Integer slot = slots.get(key);
+        return slot != null ? slot : slots.computeIfAbsent(key, k -> next.getAndIncrement());
+    }
+
+    /**
+     * 把计数数组还原为题目ID → 选项值 → 计数，计数为0的选项省略
+     */
+    Map<Long, Map<String, Long>> decode(StatsAccumulator accumulator) {
+        Map<Long, Map<String, Long>> counts = new HashMap<>();
+        for (Map.Entry<String, Integer> entry : slots.entrySet()) {
+            long count = accumulator.count(entry.getValue());
+            if (count == 0) {
+                continue;
+            }
+            String key = entry.getKey();
+            int separator = key.indexOf(':');
+            counts.computeIfAbsent(Long.valueOf(key.substring(0, separator)), k -> new HashMap<>())
+                    .put(key.substring(separator + 1), count);
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,50 @@
+package org.practice.surveymaster.recompute;
+
+import java.util.Arrays;
+
+/**
+ * 单个分区的统计累加器
+ * 答卷数与各选项计数都是基本类型，选项计数按{@link SlotIndex}分配的下标存入long数组，
+ * 累加不产生装箱对象，分区合并即数组逐元素相加
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+final class StatsAccumulator {
+
+    private long answers;
+    private long[] counts = new long[64];
+
+    void addAnswer() {
+        answers++;
+    }
+
+    void add(int slot) {
+        if (slot >= counts.length) {
+            counts = Arrays.copyOf(counts, Math.max(slot + 1, counts.length * 2));
+        }
+        counts[slot]++;
+    }
+
+    long getAnswers() {
+        return answers;
+    }
+
+    long count(int slot) {
+        return slot < counts.length ? counts[slot] : 0L;
+    }
+
+    /**
+     * 合并另一个分区的结果，返回自身
+     */
+    StatsAccumulator merge(StatsAccumulator other) {
+        if (other.counts.length > counts.length) {
+            counts = Arrays.copyOf(counts, other.counts.length);
+        }
+        for (int i = 0; i < other.counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        answers += other.answers;
+        return this;
+    }
+}
@@ -0,0 +1,575 @@
+package org.practice.surveymaster.recompute;
+
+import lombok.extern.slf4j.Slf4j;
+import org.practice.surveymaster.cache.SurveyResultCache;
+import org.practice.surveymaster.codec.OptionDictionary;
+import org.practice.surveymaster.codec.SurveyDictionary;
+import org.practice.surveymaster.config.AnswerProjectionConfig;
+import org.practice.surveymaster.config.StatsRecomputeConfig;
+import org.practice.surveymaster.constant.ErrorCode;
+import org.practice.surveymaster.constant.QuestionType;
+import org.practice.surveymaster.model.mongo.Answer;
+import org.practice.surveymaster.model.mongo.AnswerProjection;
+import org.practice.surveymaster.projection.AnswerDiff;
+import org.practice.surveymaster.projection.AnswerStatsKeys;
+import org.practice.surveymaster.projection.AnswerStatsProjection;
+import org.practice.surveymaster.projection.CountableQuestionResolver;
+import org.practice.surveymaster.projection.RatingSketch;
+import org.practice.surveymaster.projection.RecomputeFence;
+import org.practice.surveymaster.ratelimit.TokenBucket;
+import org.practice.surveymaster.repository.AnswerRepository;
+import org.practice.surveymaster.service.AnswerArchiveService;
+import org.practice.surveymaster.util.AssertUtil;
+import org.practice.surveymaster.util.LruCache;
+import org.practice.surveymaster.vo.RecomputeProgress;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.util.Pair;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * <p>
+ * 问卷统计全量重算
+ * </p>
+ *
+ * <p>
+ * 计数丢失（如恢复令牌失效）或新增指标时，从原始答案重新计算问卷答卷数、各题选项计数与评分草图：
+ * 先沿(surveyId, _id)索引每隔固定条数取一个_id，把答案切分为条数相近的_id区间；
+ * 区间列表在专用ForkJoinPool上递归二分，每个叶子区间打开一个按_id排序的游标，
+ * 把答案累加到基本类型数组的{@link StatsAccumulator}，归档答案作为单独的一个叶子任务并行读取；
+ * 子任务合并时逐元素相加，最后通过一次Redis管道整体替换对应的统计key。
+ * </p>
+ *
+ * <p>
+ * 游标不是快照，扫描期间被修改的答案可能读到任一版本，投影在此期间写入的增量也会被整体替换。
+ * 因此重算开始前通过{@link RecomputeFence}登记问卷，投影暂缓该问卷的事件；扫描时按读到的版本重写台账，
+ * 台账与重算结果逐份答案一致。写入结果后取出暂缓的答案，按当前文档与台账的差异重新投影，
+ * 未被扫描到的答案（扫描前已删除或扫描经过后才新增）的旧台账不参与差异。暂缓处理完后才解除登记。
+ * </p>
+ *
+ * <p>
+ * 并行游标数由池的并行度限制；所有分区共用一个令牌桶限速，每读一批申请一次令牌，不足时就地休眠，
+ * 限速可在运行中调整，避免重算挤占线上数据库。进度保存在本实例内存中。
+ * 评分日草图、时间序列和去重人数不在重算范围内，重算期间新增的答案由重新投影补记。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+@Slf4j
+@Component
+public class SurveyStatsRecomputer implements DisposableBean {
+
+    private static final int PROGRESS_CACHE_SIZE = 1000;
+    private static final long PROGRESS_TTL_MILLIS = TimeUnit.DAYS.toMillis(1);
+
+    /**
+     * 台账中记录最近一次重写它的重算任务的字段
+     */
+    private static final String FIELD_REBUILT_BY = "rebuiltBy";
+
+    private final MongoTemplate mongoTemplate;
+    private final AnswerRepository answerRepository;
+    private final AnswerArchiveService answerArchiveService;
+    private final CountableQuestionResolver countableQuestionResolver;
+    private final OptionDictionary optionDictionary;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final AnswerProjectionConfig projectionConfig;
+    private final StatsRecomputeConfig config;
+    private final SurveyResultCache surveyResultCache;
+    private final RecomputeFence recomputeFence;
+    private final AnswerStatsProjection answerStatsProjection;
+    private final ForkJoinPool pool;
+    private final Set<Long> running = ConcurrentHashMap.newKeySet();
+    private final Map<Long, Job> jobs = new ConcurrentHashMap<>();
+    private final LruCache<Long, RecomputeProgress> finished = new LruCache<>(PROGRESS_CACHE_SIZE, PROGRESS_TTL_MILLIS);
+    private volatile boolean indexesEnsured;
+
+    @Autowired
+    public SurveyStatsRecomputer(MongoTemplate mongoTemplate, AnswerRepository answerRepository,
+                                 AnswerArchiveService answerArchiveService,
+                                 CountableQuestionResolver countableQuestionResolver,
+                                 OptionDictionary optionDictionary, StringRedisTemplate stringRedisTemplate,
+                                 AnswerProjectionConfig projectionConfig, StatsRecomputeConfig config,
+                                 SurveyResultCache surveyResultCache, RecomputeFence recomputeFence,
+                                 AnswerStatsProjection answerStatsProjection) {
+        this.mongoTemplate = mongoTemplate;
+        this.answerRepository = answerRepository;
+        this.answerArchiveService = answerArchiveService;
+        this.countableQuestionResolver = countableQuestionResolver;
+        this.optionDictionary = optionDictionary;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.projectionConfig = projectionConfig;
+        this.config = config;
+        this.surveyResultCache = surveyResultCache;
+        this.recomputeFence = recomputeFence;
+        this.answerStatsProjection = answerStatsProjection;
+        int parallelism = config.getParallelism() > 0
+                ? config.getParallelism()
+                : Runtime.getRuntime().availableProcessors();
+        AtomicInteger sequence = new AtomicInteger();
+        this.pool = new ForkJoinPool(parallelism, forkJoinPool -> {
+            ForkJoinWorkerThread thread =
+                    ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+            thread.setName("stats-recompute-" + sequence.incrementAndGet());
+            return thread;
+        }, null, false);
+    }
+
+    /**
+     * 发起问卷统计重算，立即返回，进度通过{@link #progress}查询
+     *
+     * @param surveyId 问卷ID
+     * @param docsPerSecond 限速（每秒读取的答案数），为空时使用配置的默认值，0表示不限速
+     * @return 初始进度
+     */
+    public RecomputeProgress start(Long surveyId, Integer docsPerSecond) {
+        int rate = docsPerSecond != null ? docsPerSecond : config.getDocsPerSecond();
+        AssertUtil.isTrue(rate >= 0, ErrorCode.BAD_REQUEST, "限速不能为负数");
+        AssertUtil.state(running.add(surveyId), ErrorCode.TOO_MANY_REQUESTS, "该问卷正在重算");
+        boolean fenced = false;
+        try {
+            fenced = recomputeFence.acquire(surveyId);
+        } finally {
+            if (!fenced) {
+                running.remove(surveyId);
+            }
+        }
+        AssertUtil.state(fenced, ErrorCode.TOO_MANY_REQUESTS, "该问卷正在重算");
+        Job job = new Job(surveyId, rate);
+        jobs.put(surveyId, job);
+        finished.remove(surveyId);
+        try {
+            pool.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(surveyId);
+            running.remove(surveyId);
+            recomputeFence.release(surveyId);
+            throw e;
+        }
+        return job.snapshot();
+    }
+
+    /**
+     * 查询问卷最近一次重算的进度，没有记录时返回null
+     */
+    public RecomputeProgress progress(Long surveyId) {
+        Job job = jobs.get(surveyId);
+        return job != null ? job.snapshot() : finished.get(surveyId);
+    }
+
+    /**
+     * 调整运行中重算的限速
+     *
+     * @param surveyId 问卷ID
+     * @param docsPerSecond 每秒读取的答案数，0表示不限速
+     * @return 当前进度，未在运行时返回null
+     */
+    public RecomputeProgress throttle(Long surveyId, int docsPerSecond) {
+        AssertUtil.isTrue(docsPerSecond >= 0, ErrorCode.BAD_REQUEST, "限速不能为负数");
+        Job job = jobs.get(surveyId);
+        if (job == null) {
+            return null;
+        }
+        job.setRate(docsPerSecond);
+        return job.snapshot();
+    }
+
+    @Override
+    public void destroy() {
+        pool.shutdownNow();
+    }
+
+    private void run(Job job) {
+        Long surveyId = job.surveyId;
+        long start = System.currentTimeMillis();
+        try {
+            recomputeFence.awaitInFlight();
+            ensureIndexes();
+            job.total.set(answerRepository.countBySurveyId(surveyId));
+            List<String> boundaries = answerRepository.findIdBoundaries(surveyId, config.getPartitionSize());
+            List<String[]> ranges = new ArrayList<>(boundaries.size() + 1);
+            String from = null;
+            for (String boundary : boundaries) {
+                ranges.add(new String[]{from, boundary});
+                from = boundary;
+            }
+            ranges.add(new String[]{from, null});
+            job.partitions = ranges.size();
+
+            Set<Long> countable = countableQuestionResolver.countableQuestionIds(surveyId);
+            SlotIndex slots = new SlotIndex();
+            RangeTask hot = new RangeTask(job, countable, slots, ranges, 0, ranges.size());
+            ArchiveTask archived = new ArchiveTask(job, countable, slots);
+            archived.fork();
+            StatsAccumulator result = hot.invoke().merge(archived.join());
+
+            write(surveyId, countable, result, slots.decode(result));
+            int replayed = drain(job, true);
+            surveyResultCache.invalidate(surveyId);
+            job.finish("COMPLETED", null);
+            log.info("问卷统计重算完成: 问卷ID={}, 答案数={}, 区间数={}, 重新投影={}, 耗时={}ms", surveyId,
+                    result.getAnswers(), ranges.size(), replayed, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            log.error("问卷统计重算失败: 问卷ID={}", surveyId, e);
+            job.finish("FAILED", e.getMessage());
+            try {
+                // 统计未被替换，暂缓的答案按台账照常投影；已重写的台账可能与计数不一致，需重新执行重算
+                drain(job, false);
+            } catch (Exception drainError) {
+                log.error("重新投影暂缓的答案失败，等待登记过期后由投影接手: 问卷ID={}", surveyId, drainError);
+            }
+        } finally {
+            finished.put(surveyId, job.snapshot());
+            jobs.remove(surveyId);
+            running.remove(surveyId);
+        }
+    }
+
+    private void accumulate(StatsAccumulator accumulator, LedgerWriter ledger, Answer answer, Set<Long> countable,
+                            SlotIndex slots) {
+        accumulator.addAnswer();
+        Map<Long, Set<String>> selections = AnswerDiff.selections(answer.getAnswers(), countable);
+        for (Map.Entry<Long, Set<String>> question : selections.entrySet()) {
+            for (String value : question.getValue()) {
+                accumulator.add(slots.slotOf(question.getKey(), value));
+            }
+        }
+        ledger.add(answer, selections);
+    }
+
+    /**
+     * 记录一批已读取的答案：写入台账、更新进度并按需续期登记
+     */
+    private void advance(Job job, LedgerWriter ledger, int count) {
+        ledger.flush();
+        job.advance(count);
+        long now = System.currentTimeMillis();
+        if (now - job.fenceRenewedAt >= config.getFenceLeaseMillis() / 3) {
+            job.fenceRenewedAt = now;
+            AssertUtil.state(recomputeFence.renew(job.surveyId), ErrorCode.DATA_PROCESSING_ERROR, "重算登记已失效");
+        }
+    }
+
+    /**
+     * 重新投影暂缓的答案，直到暂缓为空并解除登记
+     *
+     * @param rebuilt 台账是否已按扫描结果完整重写
+     * @return 重新投影的答案数
+     */
+    private int drain(Job job, boolean rebuilt) {
+        int replayed = 0;
+        while (true) {
+            Map<String, Boolean> deferred = recomputeFence.takeDeferred(job.surveyId);
+            if (deferred.isEmpty()) {
+                if (recomputeFence.release(job.surveyId)) {
+                    return replayed;
+                }
+                continue;
+            }
+            answerStatsProjection.reproject(deferred, rebuilt ? rebuiltIds(deferred.keySet(), job.token) : null,
+                    Collections.emptySet());
+            replayed += deferred.size();
+        }
+    }
+
+    /**
+     * 台账由本次重算重写过的答案，即扫描时读到的答案
+     */
+    private Set<String> rebuiltIds(Set<String> ids, String token) {
+        Query query = Query.query(Criteria.where("_id").in(ids).and(FIELD_REBUILT_BY).is(token));
+        query.fields().include("_id");
+        Set<String> rebuilt = new HashSet<>();
+        for (AnswerProjection projection : mongoTemplate.find(query, AnswerProjection.class)) {
+            rebuilt.add(projection.getId());
+        }
+        return rebuilt;
+    }
+
+    /**
+     * 整体替换问卷答卷数、各可计数题目的选项计数与评分全量草图
+     */
+    private void write(Long surveyId, Set<Long> countable, StatsAccumulator result,
+                       Map<Long, Map<String, Long>> counts) {
+        String prefix = projectionConfig.getStatsKeyPrefix();
+        SurveyDictionary dictionary = optionDictionary.get(surveyId);
+        stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Object execute(RedisOperations operations) throws DataAccessException {
+                operations.opsForHash().put(AnswerStatsKeys.survey(prefix, surveyId), AnswerStatsKeys.FIELD_ANSWERS,
+                        String.valueOf(result.getAnswers()));
+                for (Long questionId : countable) {
+                    Map<String, Long> options = counts.getOrDefault(questionId, Collections.emptyMap());
+                    String key = AnswerStatsKeys.question(prefix, surveyId, questionId);
+                    operations.delete(key);
+                    if (!options.isEmpty()) {
+                        operations.opsForHash().putAll(key, toStrings(options));
+                    }
+                    if (dictionary.typeOf(questionId) == QuestionType.RATING) {
+                        String ratingKey = AnswerStatsKeys.rating(prefix, surveyId, questionId);
+                        operations.delete(ratingKey);
+                        Map<String, Long> sketch = ratingSketch(options);
+                        if (!sketch.isEmpty()) {
+                            operations.opsForHash().putAll(ratingKey, toStrings(sketch));
+                        }
+                    }
+                }
+                return null;
+            }
+        });
+    }
+
+    private static Map<String, Long> ratingSketch(Map<String, Long> ratings) {
+        Map<String, Long> fields = new HashMap<>();
+        for (Map.Entry<String, Long> rating : ratings.entrySet()) {
+            BigDecimal value;
+            try {
+                value = new BigDecimal(rating.getKey());
+            } catch (NumberFormatException e) {
+                continue;
+            }
+            for (Map.Entry<String, Long> field : RatingSketch.fieldsOf(value).entrySet()) {
+                fields.merge(field.getKey(), field.getValue() * rating.getValue(), Long::sum);
+            }
+        }
+        return fields;
+    }
+
+    private static Map<String, String> toStrings(Map<String, Long> counts) {
+        Map<String, String> values = new HashMap<>();
+        counts.forEach((field, count) -> values.put(field, String.valueOf(count)));
+        return values;
+    }
+
+    private void ensureIndexes() {
+        if (indexesEnsured) {
+            return;
+        }
+        mongoTemplate.indexOps(Answer.class)
+                .ensureIndex(new Index().on("surveyId", Sort.Direction.ASC).on("_id", Sort.Direction.ASC));
+        indexesEnsured = true;
+    }
+
+    /**
+     * 一次重算任务的运行状态
+     */
+    private static final class Job {
+
+        private final Long surveyId;
+        private final String token = UUID.randomUUID().toString();
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final AtomicLong total = new AtomicLong();
+        private final AtomicLong processed = new AtomicLong();
+        private final AtomicInteger completedPartitions = new AtomicInteger();
+        private volatile int partitions;
+        private volatile int rate;
+        private volatile TokenBucket bucket;
+        private volatile String status = "RUNNING";
+        private volatile String message;
+        private volatile LocalDateTime finishedAt;
+        private volatile long fenceRenewedAt = System.currentTimeMillis();
+
+        private Job(Long surveyId, int rate) {
+            this.surveyId = surveyId;
+            setRate(rate);
+        }
+
+        private void setRate(int rate) {
+            this.rate = rate;
+            // 桶容量为一秒的量，限速调整后立即按新速率生效
+            this.bucket = rate > 0 ? new TokenBucket(rate, rate) : null;
+        }
+
+        /**
+         * 记录一批已读取的答案，超出限速时休眠
+         */
+        private void advance(int count) {
+            if (count == 0) {
+                return;
+            }
+            processed.addAndGet(count);
+            TokenBucket current = bucket;
+            if (current == null) {
+                return;
+            }
+            long waitNanos = current.reserve(count);
+            if (waitNanos > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(waitNanos);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("重算被中断", e);
+                }
+            }
+        }
+
+        private void finish(String status, String message) {
+            this.status = status;
+            this.message = message;
+            this.finishedAt = LocalDateTime.now();
+        }
+
+        private RecomputeProgress snapshot() {
+            return new RecomputeProgress(surveyId, status, Math.max(total.get(), processed.get()), processed.get(),
+                    partitions, completedPartitions.get(), rate, startedAt, finishedAt, message);
+        }
+    }
+
+    /**
+     * 对一段连续的_id区间递归二分，叶子为单个区间
+     */
+    private final class RangeTask extends RecursiveTask<StatsAccumulator> {
+
+        private final Job job;
+        private final Set<Long> countable;
+        private final SlotIndex slots;
+        private final List<String[]> ranges;
+        private final int from;
+        private final int to;
+
+        private RangeTask(Job job, Set<Long> countable, SlotIndex slots, List<String[]> ranges, int from, int to) {
+            this.job = job;
+            this.countable = countable;
+            this.slots = slots;
+            this.ranges = ranges;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected StatsAccumulator compute() {
+            if (to - from > 1) {
+                int mid = (from + to) >>> 1;
+                RangeTask right = new RangeTask(job, countable, slots, ranges, mid, to);
+                right.fork();
+                StatsAccumulator left = new RangeTask(job, countable, slots, ranges, from, mid).compute();
+                return left.merge(right.join());
+            }
+            String[] range = ranges.get(from);
+            StatsAccumulator accumulator = new StatsAccumulator();
+            LedgerWriter ledger = new LedgerWriter(job.token, false);
+            int pending = 0;
+            try (Stream<Answer> answers = answerRepository.streamBySurveyIdAndIdRange(job.surveyId, range[0], range[1])) {
+                Iterator<Answer> iterator = answers.iterator();
+                while (iterator.hasNext()) {
+                    accumulate(accumulator, ledger, iterator.next(), countable, slots);
+                    if (++pending == config.getBatchSize()) {
+                        advance(job, ledger, pending);
+                        pending = 0;
+                    }
+                }
+            }
+            advance(job, ledger, pending);
+            job.completedPartitions.incrementAndGet();
+            return accumulator;
+        }
+    }
+
+    /**
+     * 读取问卷的全部归档答案
+     */
+    private final class ArchiveTask extends RecursiveTask<StatsAccumulator> {
+
+        private final Job job;
+        private final Set<Long> countable;
+        private final SlotIndex slots;
+
+        private ArchiveTask(Job job, Set<Long> countable, SlotIndex slots) {
+            this.job = job;
+            this.countable = countable;
+            this.slots = slots;
+        }
+
+        @Override
+        protected StatsAccumulator compute() {
+            StatsAccumulator accumulator = new StatsAccumulator();
+            LedgerWriter ledger = new LedgerWriter(job.token, true);
+            int[] pending = {0};
+            answerArchiveService.forEachArchived(job.surveyId, null, null, answer -> {
+                accumulate(accumulator, ledger, answer, countable, slots);
+                job.total.incrementAndGet();
+                if (++pending[0] == config.getBatchSize()) {
+                    advance(job, ledger, pending[0]);
+                    pending[0] = 0;
+                }
+            });
+            advance(job, ledger, pending[0]);
+            return accumulator;
+        }
+    }
+
+    /**
+     * 按扫描读到的答案批量重写台账，并标记本次重算
+     */
+    private final class LedgerWriter {
+
+        private final String token;
+        private final boolean archived;
+        private final List<Pair<Query, Update>> upserts = new ArrayList<>();
+
+        private LedgerWriter(String token, boolean archived) {
+            this.token = token;
+            this.archived = archived;
+        }
+
+        private void add(Answer answer, Map<Long, Set<String>> selections) {
+            Update update = new Update()
+                    .set("surveyId", answer.getSurveyId())
+                    .set("userId", answer.getUserId())
+                    .set("selections", AnswerDiff.toLedger(selections))
+                    .set("submittedAt", answer.getSubmittedAt())
+                    .set(FIELD_REBUILT_BY, token);
+            if (archived) {
+                update.set("archived", true);
+            } else {
+                // 扫描后并发转入归档的答案保留归档事务写入的标记
+                update.setOnInsert("archived", false);
+            }
+            upserts.add(Pair.of(Query.query(Criteria.where("_id").is(answer.getId())), update));
+        }
+
+        private void flush() {
+            if (upserts.isEmpty()) {
+                return;
+            }
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, AnswerProjection.class).upsert(upserts).execute();
+            upserts.clear();
+        }
+    }
+}
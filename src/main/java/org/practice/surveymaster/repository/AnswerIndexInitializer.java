@@ -0,0 +1,56 @@
+package org.practice.surveymaster.repository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.practice.surveymaster.model.mongo.Answer;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Component;
+
+/**
+ * <p>
+ * 问卷答案集合索引初始化
+ * </p>
+ *
+ * <p>
+ * 在(surveyId, userId)上建立唯一索引，作为"每个用户每份问卷只能提交一次"的最终保证：
+ * 提交前的存在性检查与写入之间存在竞态，并发的重复提交由索引拒绝，业务层将DuplicateKeyException转换为重复提交错误。
+ * 匿名答卷不写userId，索引只覆盖带userId的文档，匿名答卷不受约束。
+ * </p>
+ *
+ * <p>
+ * 已有重复数据时建索引会失败，此时只记录日志、不阻止启动，清理重复答卷后重启即可建立。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AnswerIndexInitializer {
+
+    static final String SURVEY_USER_INDEX = "uk_survey_user";
+
+    private final MongoTemplate mongoTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndexes() {
+        try {
+            mongoTemplate.indexOps(Answer.class).ensureIndex(new Index()
+                    .on("surveyId", Sort.Direction.ASC)
+                    .on("userId", Sort.Direction.ASC)
+                    .named(SURVEY_USER_INDEX)
+                    .unique()
+                    .partial(PartialIndexFilter.of(Criteria.where("userId").exists(true))));
+        } catch (DataAccessException e) {
+            log.error("建立答案唯一索引 {} 失败，请检查是否存在重复答卷", SURVEY_USER_INDEX, e);
+        }
+    }
+}
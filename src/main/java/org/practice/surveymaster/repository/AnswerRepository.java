@@ -10,6 +10,7 @@ import org.springframework.stereotype.Repository;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * <p>
@@ -25,7 +26,7 @@ import java.util.Optional;
  * @since 2025/9/25 下午2:30
  */
 @Repository
-public interface AnswerRepository extends MongoRepository<Answer, String> {
+public interface AnswerRepository extends MongoRepository<Answer, String>, AnswerRepositoryCustom {
 
     /**
      * 根据问卷ID查询所有答案
@@ -43,6 +44,14 @@ public interface AnswerRepository extends MongoRepository<Answer, String> {
      */
     List<Answer> findByUserId(Long userId);
 
+    /**
+     * 以游标方式逐条读取问卷的答案，用于导出，调用方需关闭流
+     *
+     * @param surveyId 问卷ID
+     * @return 答案流
+     */
+    Stream<Answer> streamBySurveyId(Long surveyId);
+
     /**
      * 根据问卷ID和用户ID查询答案
      *
@@ -121,12 +130,12 @@ public interface AnswerRepository extends MongoRepository<Answer, String> {
     long deleteByUserId(Long userId);
 
     /**
-     * 查询包含特定问题ID的答案
+     * 查询包含特定问题ID的答案，同时匹配紧凑格式与尚未迁移的旧格式
      *
      * @param questionId 问题ID
      * @return 答案列表
      */
-    @Query("{'answers.questionId': ?0}")
+    @Query("{'$or': [{'a.q': ?0}, {'answers.questionId': ?0}]}")
     List<Answer> findByQuestionId(Long questionId);
 
     /**
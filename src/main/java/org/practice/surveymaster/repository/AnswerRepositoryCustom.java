@@ -0,0 +1,71 @@
+package org.practice.surveymaster.repository;
+
+import org.practice.surveymaster.model.mongo.Answer;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * <p>
+ * 问卷答案自定义数据访问接口
+ * </p>
+ *
+ * <p>
+ * 承载无法通过Spring Data方法名派生的操作（如分批删除、字段级更新等），
+ * 由 {@link AnswerRepositoryImpl} 基于MongoTemplate实现，并由 {@link AnswerRepository} 继承。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/9
+ */
+public interface AnswerRepositoryCustom {
+
+    /**
+     * 分批删除某个问卷的答案，每次最多删除limit条，避免一次性大删除长时间占用数据库
+     *
+     * @param surveyId 问卷ID
+     * @param limit 单批最大删除条数
+     * @return 本批删除的记录数，返回0表示已清理完毕
+     */
+    long deleteChunkBySurveyId(Long surveyId, int limit);
+
+    /**
+     * 分批删除某个用户的答案，每次最多删除limit条
+     *
+     * @param userId 用户ID
+     * @param limit 单批最大删除条数
+     * @return 本批删除的记录数，返回0表示已清理完毕
+     */
+    long deleteChunkByUserId(Long userId, int limit);
+
+    /**
+     * 查询问卷在提交时间范围内的去重用户ID，由数据库完成去重
+     *
+     * @param surveyId 问卷ID
+     * @param from 起始提交时间（含）
+     * @param to 截止提交时间（含）
+     * @return 去重后的用户ID
+     */
+    List<Long> findDistinctUserIds(Long surveyId, LocalDateTime from, LocalDateTime to);
+
+    /**
+     * 按_id顺序每隔step条取一个_id作为分区边界，把问卷的答案切分为条数相近的_id区间。
+     * 每次从上一个边界起跳过step条，只扫描(surveyId, _id)索引，不读取文档
+     *
+     * @param surveyId 问卷ID
+     * @param step 每个区间的条数
+     * @return 升序排列的边界_id，不含第一条答案；答案不足step条时为空
+     */
+    List<String> findIdBoundaries(Long surveyId, int step);
+
+    /**
+     * 按_id顺序流式读取问卷在_id区间[fromId, toId)内的答案
+     *
+     * @param surveyId 问卷ID
+     * @param fromId 起始_id（含），为空表示不限
+     * @param toId 结束_id（不含），为空表示不限
+     * @return 答案流，使用后需关闭
+     */
+    Stream<Answer> streamBySurveyIdAndIdRange(Long surveyId, String fromId, String toId);
+}
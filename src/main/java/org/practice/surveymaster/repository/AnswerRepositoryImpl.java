@@ -0,0 +1,95 @@
+package org.practice.surveymaster.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.practice.surveymaster.model.mongo.Answer;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * <p>
+ * 问卷答案自定义数据访问实现
+ * </p>
+ *
+ * <p>
+ * 命名遵循Spring Data的Impl后缀约定，会被自动合并进 {@link AnswerRepository}。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/9
+ */
+@RequiredArgsConstructor
+public class AnswerRepositoryImpl implements AnswerRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public long deleteChunkBySurveyId(Long surveyId, int limit) {
+        return deleteChunk(Criteria.where("surveyId").is(surveyId), limit);
+    }
+
+    @Override
+    public long deleteChunkByUserId(Long userId, int limit) {
+        return deleteChunk(Criteria.where("userId").is(userId), limit);
+    }
+
+    @Override
+    public List<Long> findDistinctUserIds(Long surveyId, LocalDateTime from, LocalDateTime to) {
+        Query query = Query.query(Criteria.where("surveyId").is(surveyId).and("submittedAt").gte(from).lte(to));
+        return mongoTemplate.findDistinct(query, "userId", Answer.class, Long.class);
+    }
+
+    @Override
+    public List<String> findIdBoundaries(Long surveyId, int step) {
+        List<String> boundaries = new ArrayList<>();
+        String last = null;
+        while (true) {
+            Criteria criteria = Criteria.where("surveyId").is(surveyId);
+            if (last != null) {
+                criteria.and("_id").gte(last);
+            }
+            Query query = Query.query(criteria).with(Sort.by(Sort.Direction.ASC, "_id")).skip(step).limit(1);
+            query.fields().include("_id");
+            Answer next = mongoTemplate.findOne(query, Answer.class);
+            if (next == null) {
+                return boundaries;
+            }
+            boundaries.add(next.getId());
+            last = next.getId();
+        }
+    }
+
+    @Override
+    public Stream<Answer> streamBySurveyIdAndIdRange(Long surveyId, String fromId, String toId) {
+        Criteria criteria = Criteria.where("surveyId").is(surveyId);
+        if (fromId != null && toId != null) {
+            criteria.and("_id").gte(fromId).lt(toId);
+        } else if (fromId != null) {
+            criteria.and("_id").gte(fromId);
+        } else if (toId != null) {
+            criteria.and("_id").lt(toId);
+        }
+        Query query = Query.query(criteria).with(Sort.by(Sort.Direction.ASC, "_id"));
+        return mongoTemplate.stream(query, Answer.class).stream();
+    }
+
+    private long deleteChunk(Criteria criteria, int limit) {
+        // 先只取出一批_id，再按_id删除，保证单次删除的规模有上限
+        Query idQuery = Query.query(criteria).limit(limit);
+        idQuery.fields().include("_id");
+        List<String> ids = mongoTemplate.find(idQuery, Answer.class).stream()
+                .map(Answer::getId)
+                .collect(Collectors.toList());
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return mongoTemplate.remove(Query.query(Criteria.where("_id").in(ids)), Answer.class).getDeletedCount();
+    }
+}
@@ -0,0 +1,83 @@
+package org.practice.surveymaster.search;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * <p>
+ * 二元组分词器
+ * </p>
+ *
+ * <p>
+ * 连续的中日韩字符切分为相邻二元组（"问卷调查" → 问卷、卷调、调查），单个孤立汉字保留为一元组；
+ * 连续的字母数字作为一个词并转小写；其余字符视为分隔符。与Elasticsearch的cjk分析器行为一致，
+ * 无需词典即可对中文标题做子串级匹配。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/16
+ */
+public final class BigramTokenizer {
+
+    private BigramTokenizer() {
+    }
+
+    /**
+     * 分词
+     *
+     * @param text 文本，可为null
+     * @return 词项列表（可能重复，保持出现顺序）
+     */
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        int length = lower.length();
+        int i = 0;
+        while (i < length) {
+            char c = lower.charAt(i);
+            if (isCjk(c)) {
+                int start = i;
+                while (i < length && isCjk(lower.charAt(i))) {
+                    i++;
+                }
+                if (i - start == 1) {
+                    tokens.add(lower.substring(start, i));
+                } else {
+                    for (int j = start; j + 1 < i; j++) {
+                        tokens.add(lower.substring(j, j + 2));
+                    }
+                }
+            } else if (Character.isLetterOrDigit(c)) {
+                int start = i;
+                while (i < length && Character.isLetterOrDigit(lower.charAt(i)) && !isCjk(lower.charAt(i))) {
+                    i++;
+                }
+                tokens.add(lower.substring(start, i));
+            } else {
+                i++;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * 分词并去重
+     */
+    public static Set<String> distinctTokens(String text) {
+        return new LinkedHashSet<>(tokenize(text));
+    }
+
+    private static boolean isCjk(char c) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(c);
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA
+                || script == Character.UnicodeScript.HANGUL;
+    }
+}
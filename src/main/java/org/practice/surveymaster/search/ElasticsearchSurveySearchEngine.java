@@ -0,0 +1,125 @@
+package org.practice.surveymaster.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.elasticsearch.index.query.BoolQueryBuilder;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.search.fetch.subphase.highlight.HighlightBuilder;
+import org.practice.surveymaster.config.SurveySearchConfig;
+import org.practice.surveymaster.constant.SurveyStatus;
+import org.practice.surveymaster.vo.SurveySearchResult;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.IndexOperations;
+import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.data.elasticsearch.core.SearchHits;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.data.elasticsearch.core.query.NativeSearchQuery;
+import org.springframework.data.elasticsearch.core.query.NativeSearchQueryBuilder;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 基于Elasticsearch的问卷搜索引擎
+ * 标题、描述、问题内容多字段匹配（标题加权），只返回已发布问卷，支持分页与高亮
+ *
+ * @author ljn
+ * @since 2025/10/15
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "survey.search", name = "engine", havingValue = "elasticsearch", matchIfMissing = true)
+public class ElasticsearchSurveySearchEngine implements SurveySearchEngine {
+
+    private static final String[] SEARCH_FIELDS = {"title", "description", "questions"};
+
+    private final ElasticsearchOperations elasticsearchOperations;
+    private final IndexCoordinates index;
+
+    /**
+     * 索引是否已确认存在，避免每次写入都检查
+     */
+    private volatile boolean indexReady;
+
+    @Autowired
+    public ElasticsearchSurveySearchEngine(ElasticsearchOperations elasticsearchOperations,
+                                           SurveySearchConfig surveySearchConfig) {
+        this.elasticsearchOperations = elasticsearchOperations;
+        this.index = IndexCoordinates.of(surveySearchConfig.getIndexName());
+    }
+
+    @Override
+    public void index(List<SurveyDocument> documents) {
+        if (documents.isEmpty()) {
+            return;
+        }
+        ensureIndex();
+        // save(Iterable) 以bulk请求批量写入
+        elasticsearchOperations.save(documents, index);
+    }
+
+    @Override
+    public void delete(Collection<Long> surveyIds) {
+        if (surveyIds.isEmpty()) {
+            return;
+        }
+        ensureIndex();
+        NativeSearchQuery query = new NativeSearchQueryBuilder()
+                .withQuery(QueryBuilders.idsQuery().addIds(surveyIds.stream().map(String::valueOf).toArray(String[]::new)))
+                .build();
+        elasticsearchOperations.delete(query, SurveyDocument.class, index);
+    }
+
+    @Override
+    public SurveySearchResult search(String keyword, int page, int size) {
+        BoolQueryBuilder query = QueryBuilders.boolQuery()
+                .must(QueryBuilders.multiMatchQuery(keyword, SEARCH_FIELDS).field("title", 3))
+                .filter(QueryBuilders.termQuery("status", SurveyStatus.PUBLISHED.getCode()));
+        NativeSearchQuery searchQuery = new NativeSearchQueryBuilder()
+                .withQuery(query)
+                .withPageable(PageRequest.of(page - 1, size))
+                .withHighlightFields(
+                        new HighlightBuilder.Field("title").numOfFragments(0),
+                        new HighlightBuilder.Field("description"),
+                        new HighlightBuilder.Field("questions"))
+                .build();
+
+        SearchHits<SurveyDocument> hits = elasticsearchOperations.search(searchQuery, SurveyDocument.class, index);
+        List<SurveySearchResult.Item> items = new ArrayList<>();
+        for (SearchHit<SurveyDocument> hit : hits) {
+            SurveyDocument document = hit.getContent();
+            items.add(new SurveySearchResult.Item(document.getId(), document.getUserId(), null, document.getTitle(),
+                    document.getDescription(), document.getStatus(), toLocalDateTime(document.getCreatedAt()),
+                    hit.getHighlightFields()));
+        }
+        return new SurveySearchResult(hits.getTotalHits(), page, size, items);
+    }
+
+    /**
+     * 索引不存在时按文档注解创建索引与映射
+     */
+    private void ensureIndex() {
+        if (indexReady) {
+            return;
+        }
+        IndexOperations indexOps = elasticsearchOperations.indexOps(index);
+        if (!indexOps.exists()) {
+            indexOps.create();
+            indexOps.putMapping(indexOps.createMapping(SurveyDocument.class));
+            log.info("创建问卷搜索索引: {}", index.getIndexName());
+        }
+        indexReady = true;
+    }
+
+    private LocalDateTime toLocalDateTime(Long epochMillis) {
+        return epochMillis == null ? null
+                : LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+}
@@ -0,0 +1,295 @@
+package org.practice.surveymaster.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.practice.surveymaster.config.SurveySearchConfig;
+import org.practice.surveymaster.constant.SurveyStatus;
+import org.practice.surveymaster.mapper.QuestionMapper;
+import org.practice.surveymaster.mapper.SurveyMapper;
+import org.practice.surveymaster.model.Question;
+import org.practice.surveymaster.model.Survey;
+import org.practice.surveymaster.vo.SurveySearchResult;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * <p>
+ * 进程内问卷搜索引擎
+ * </p>
+ *
+ * <p>
+ * survey.search.engine=embedded 时启用，替代Elasticsearch。索引只保存已发布问卷，
+ * 增量更新与Elasticsearch实现共用同一条发件箱同步链路（{@link SurveySearchIndexer}）。
+ * 有变更时定期把文档写入本地GZIP快照（先写临时文件再原子替换），启动时优先加载快照，
+ * 停机期间产生的变更保留在本实例的持久化队列中，启动后继续消费补齐；没有快照时才按主键分页扫描MySQL全量重建。
+ * 加载在后台线程中进行，期间收到的增量更新优先，加载过程不会用旧数据覆盖它们。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/16
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "survey.search", name = "engine", havingValue = "embedded")
+public class EmbeddedSurveySearchEngine implements SurveySearchEngine {
+
+    private static final int SNAPSHOT_MAGIC = 0x53494458;
+    private static final int SNAPSHOT_VERSION = 1;
+
+    private final SurveyMapper surveyMapper;
+    private final QuestionMapper questionMapper;
+    private final SurveySearchConfig config;
+    private final InvertedIndex index = new InvertedIndex();
+
+    /**
+     * 加载期间被增量更新过的问卷，加载时跳过
+     */
+    private final Set<Long> touchedDuringLoad = ConcurrentHashMap.newKeySet();
+    private volatile boolean loading = true;
+    private volatile boolean dirty;
+
+    @Autowired
+    public EmbeddedSurveySearchEngine(SurveyMapper surveyMapper, QuestionMapper questionMapper,
+                                      SurveySearchConfig config) {
+        this.surveyMapper = surveyMapper;
+        this.questionMapper = questionMapper;
+        this.config = config;
+    }
+
+    @Override
+    public synchronized void index(List<SurveyDocument> documents) {
+        for (SurveyDocument document : documents) {
+            markTouched(document.getId());
+            if (document.getStatus() != null && document.getStatus() == SurveyStatus.PUBLISHED.getCode()) {
+                index.put(document);
+            } else {
+                index.remove(document.getId());
+            }
+        }
+        dirty = true;
+    }
+
+    @Override
+    public synchronized void delete(Collection<Long> surveyIds) {
+        for (Long surveyId : surveyIds) {
+            markTouched(surveyId);
+            index.remove(surveyId);
+        }
+        dirty = true;
+    }
+
+    @Override
+    public SurveySearchResult search(String keyword, int page, int size) {
+        return index.search(keyword, page, size);
+    }
+
+    /**
+     * 应用就绪后异步加载，不阻塞启动
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadAsync() {
+        Thread thread = new Thread(this::load, "survey-search-load");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    void load() {
+        long start = System.currentTimeMillis();
+        try {
+            Path path = Paths.get(config.getSnapshotPath());
+            if (Files.exists(path)) {
+                try {
+                    int loaded = loadSnapshot(path);
+                    log.info("内置搜索索引从快照加载完成，文档数: {}，耗时: {}ms", loaded, System.currentTimeMillis() - start);
+                    return;
+                } catch (IOException e) {
+                    log.warn("内置搜索索引快照读取失败，改为从数据库重建: {}", e.getMessage());
+                }
+            }
+            int loaded = rebuildFromDatabase();
+            dirty = true;
+            log.info("内置搜索索引从数据库重建完成，文档数: {}，耗时: {}ms", loaded, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("内置搜索索引加载失败，仅包含增量更新的数据", e);
+        } finally {
+            loading = false;
+            touchedDuringLoad.clear();
+        }
+    }
+
+    /**
+     * 有变更时写入快照
+     */
+    @Scheduled(fixedDelayString = "${survey.search.snapshot-interval-millis:60000}")
+    public void snapshotIfDirty() {
+        if (!dirty || loading) {
+            return;
+        }
+        dirty = false;
+        try {
+            writeSnapshot(Paths.get(config.getSnapshotPath()));
+        } catch (IOException e) {
+            dirty = true;
+            log.warn("内置搜索索引快照写入失败: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        snapshotIfDirty();
+    }
+
+    private void markTouched(Long surveyId) {
+        if (loading) {
+            touchedDuringLoad.add(surveyId);
+        }
+    }
+
+    private synchronized void putIfUntouched(SurveyDocument document) {
+        if (!touchedDuringLoad.contains(document.getId())) {
+            index.put(document);
+        }
+    }
+
+    /**
+     * 按主键分页扫描已发布问卷重建索引
+     */
+    private int rebuildFromDatabase() {
+        long lastId = 0L;
+        int loaded = 0;
+        while (true) {
+            List<Survey> surveys = surveyMapper.selectPublishedAfterId(lastId, config.getRebuildBatchSize());
+            if (surveys.isEmpty()) {
+                break;
+            }
+            List<Long> ids = surveys.stream().map(Survey::getId).collect(Collectors.toList());
+            Map<Long, List<String>> questionsBySurvey = new HashMap<>();
+            for (Question question : questionMapper.selectBySurveyIds(ids)) {
+                questionsBySurvey.computeIfAbsent(question.getSurveyId(), k -> new ArrayList<>()).add(question.getContent());
+            }
+            for (Survey survey : surveys) {
+                putIfUntouched(SurveyDocument.of(survey, questionsBySurvey.getOrDefault(survey.getId(), new ArrayList<>())));
+                lastId = survey.getId();
+            }
+            loaded += surveys.size();
+            if (surveys.size() < config.getRebuildBatchSize()) {
+                break;
+            }
+        }
+        return loaded;
+    }
+
+    private void writeSnapshot(Path path) throws IOException {
+        List<SurveyDocument> documents = index.documents();
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new GZIPOutputStream(Files.newOutputStream(tmp))))) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(SNAPSHOT_VERSION);
+            out.writeInt(documents.size());
+            for (SurveyDocument document : documents) {
+                out.writeLong(document.getId());
+                writeLong(out, document.getUserId());
+                writeString(out, document.getTitle());
+                writeString(out, document.getDescription());
+                out.writeInt(document.getStatus() == null ? -1 : document.getStatus());
+                writeLong(out, document.getCreatedAt());
+                List<String> questions = document.getQuestions() == null ? new ArrayList<>() : document.getQuestions();
+                out.writeInt(questions.size());
+                for (String question : questions) {
+                    writeString(out, question);
+                }
+            }
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        log.debug("内置搜索索引快照已写入，文档数: {}", documents.size());
+    }
+
+    private int loadSnapshot(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(Files.newInputStream(path))))) {
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+                throw new IOException("快照格式不匹配");
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                SurveyDocument document = new SurveyDocument();
+                document.setId(in.readLong());
+                document.setUserId(readLong(in));
+                document.setTitle(readString(in));
+                document.setDescription(readString(in));
+                int status = in.readInt();
+                document.setStatus(status < 0 ? null : status);
+                document.setCreatedAt(readLong(in));
+                int questionCount = in.readInt();
+                List<String> questions = new ArrayList<>(questionCount);
+                for (int j = 0; j < questionCount; j++) {
+                    questions.add(readString(in));
+                }
+                document.setQuestions(questions);
+                putIfUntouched(document);
+            }
+            return count;
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeLong(DataOutputStream out, Long value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value);
+        }
+    }
+
+    private static Long readLong(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readLong() : null;
+    }
+}
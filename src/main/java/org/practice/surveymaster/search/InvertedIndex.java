@@ -0,0 +1,288 @@
+package org.practice.surveymaster.search;
+
+import org.practice.surveymaster.vo.SurveySearchResult;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * <p>
+ * 内存倒排索引
+ * </p>
+ *
+ * <p>
+ * 词项由 {@link BigramTokenizer} 从标题、描述和问题内容中切分，每个词项对应一条 {@link PostingList}。
+ * 查询时对关键字分词后求所有词项倒排链的交集（从最短链开始），再按命中字段打分（标题权重3，描述与问题各1）
+ * 排序分页，并对命中片段加&lt;em&gt;高亮。文档原文保存在内存中，用于打分、高亮、删除时定位旧词项以及快照。
+ * 读写锁保护，查询之间互不阻塞。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/16
+ */
+public class InvertedIndex {
+
+    private static final int TITLE_WEIGHT = 3;
+    private static final String PRE_TAG = "<em>";
+    private static final String POST_TAG = "</em>";
+
+    private final Map<String, PostingList> postings = new HashMap<>();
+    private final Map<Long, SurveyDocument> documents = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * 写入（新增或覆盖）文档
+     */
+    public void put(SurveyDocument document) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(document.getId());
+            documents.put(document.getId(), document);
+            for (String term : terms(document)) {
+                postings.computeIfAbsent(term, k -> new PostingList()).add(document.getId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 移除文档
+     *
+     * @return 文档是否存在
+     */
+    public boolean remove(long id) {
+        lock.writeLock().lock();
+        try {
+            return removeInternal(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 搜索
+     *
+     * @param keyword 关键字
+     * @param page    页码，从1开始
+     * @param size    每页条数
+     * @return 分页结果
+     */
+    public SurveySearchResult search(String keyword, int page, int size) {
+        Set<String> queryTerms = BigramTokenizer.distinctTokens(keyword);
+        if (queryTerms.isEmpty()) {
+            return new SurveySearchResult(0, page, size, Collections.emptyList());
+        }
+        lock.readLock().lock();
+        try {
+            // 1. 取出所有词项的倒排链，任一词项不存在则无结果
+            List<PostingList> lists = new ArrayList<>(queryTerms.size());
+            for (String term : queryTerms) {
+                PostingList list = postings.get(term);
+                if (list == null) {
+                    return new SurveySearchResult(0, page, size, Collections.emptyList());
+                }
+                lists.add(list);
+            }
+            // 2. 从最短链开始求交集
+            lists.sort(Comparator.comparingInt(PostingList::size));
+            long[] candidates = lists.get(0).toArray();
+            int count = candidates.length;
+            for (int i = 1; i < lists.size() && count > 0; i++) {
+                count = intersect(candidates, count, lists.get(i).toArray());
+            }
+
+            // 3. 打分排序
+            List<SurveyDocument> hits = new ArrayList<>(count);
+            Map<Long, Integer> scores = new HashMap<>(count * 2);
+            for (int i = 0; i < count; i++) {
+                SurveyDocument document = documents.get(candidates[i]);
+                hits.add(document);
+                scores.put(document.getId(), score(document, queryTerms));
+            }
+            hits.sort(Comparator.<SurveyDocument>comparingInt(d -> scores.get(d.getId())).reversed()
+                    .thenComparing(SurveyDocument::getId, Comparator.reverseOrder()));
+
+            // 4. 分页并生成高亮
+            List<SurveySearchResult.Item> items = new ArrayList<>();
+            int from = (int) Math.min((long) (page - 1) * size, hits.size());
+            int to = Math.min(from + size, hits.size());
+            for (SurveyDocument document : hits.subList(from, to)) {
+                items.add(toItem(document, queryTerms));
+            }
+            return new SurveySearchResult(count, page, size, items);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 当前全部文档的副本，用于快照
+     */
+    public List<SurveyDocument> documents() {
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(documents.values());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 文档数
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private boolean removeInternal(long id) {
+        SurveyDocument old = documents.remove(id);
+        if (old == null) {
+            return false;
+        }
+        for (String term : terms(old)) {
+            PostingList list = postings.get(term);
+            if (list != null && list.remove(id) && list.size() == 0) {
+                postings.remove(term);
+            }
+        }
+        return true;
+    }
+
+    private Set<String> terms(SurveyDocument document) {
+        Set<String> terms = new LinkedHashSet<>();
+        terms.addAll(BigramTokenizer.tokenize(document.getTitle()));
+        terms.addAll(BigramTokenizer.tokenize(document.getDescription()));
+        if (document.getQuestions() != null) {
+            for (String question : document.getQuestions()) {
+                terms.addAll(BigramTokenizer.tokenize(question));
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * 有序数组求交集，结果写回target前count位
+     */
+    private int intersect(long[] target, int count, long[] other) {
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < count && j < other.length) {
+            if (target[i] == other[j]) {
+                target[k++] = target[i];
+                i++;
+                j++;
+            } else if (target[i] < other[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return k;
+    }
+
+    private int score(SurveyDocument document, Set<String> queryTerms) {
+        String title = lower(document.getTitle());
+        String description = lower(document.getDescription());
+        int score = 0;
+        for (String term : queryTerms) {
+            if (title.contains(term)) {
+                score += TITLE_WEIGHT;
+            }
+            if (description.contains(term)) {
+                score++;
+            }
+            if (document.getQuestions() != null) {
+                for (String question : document.getQuestions()) {
+                    if (lower(question).contains(term)) {
+                        score++;
+                        break;
+                    }
+                }
+            }
+        }
+        return score;
+    }
+
+    private SurveySearchResult.Item toItem(SurveyDocument document, Set<String> queryTerms) {
+        Map<String, List<String>> highlights = new HashMap<>();
+        addHighlight(highlights, "title", document.getTitle(), queryTerms);
+        addHighlight(highlights, "description", document.getDescription(), queryTerms);
+        if (document.getQuestions() != null) {
+            for (String question : document.getQuestions()) {
+                addHighlight(highlights, "questions", question, queryTerms);
+            }
+        }
+        LocalDateTime createdAt = document.getCreatedAt() == null ? null
+                : LocalDateTime.ofInstant(Instant.ofEpochMilli(document.getCreatedAt()), ZoneId.systemDefault());
+        return new SurveySearchResult.Item(document.getId(), document.getUserId(), null, document.getTitle(),
+                document.getDescription(), document.getStatus(), createdAt, highlights);
+    }
+
+    private void addHighlight(Map<String, List<String>> highlights, String field, String text, Set<String> queryTerms) {
+        String highlighted = highlight(text, queryTerms);
+        if (highlighted != null) {
+            highlights.computeIfAbsent(field, k -> new ArrayList<>()).add(highlighted);
+        }
+    }
+
+    /**
+     * 将命中词项覆盖的字符区间用&lt;em&gt;包裹，相邻区间合并；无命中返回null
+     */
+    static String highlight(String text, Set<String> queryTerms) {
+        if (text == null || text.isEmpty()) {
+            return null;
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        if (lower.length() != text.length()) {
+            return null;
+        }
+        boolean[] marked = new boolean[text.length()];
+        boolean any = false;
+        for (String term : queryTerms) {
+            int from = lower.indexOf(term);
+            while (from >= 0) {
+                for (int i = from; i < from + term.length(); i++) {
+                    marked[i] = true;
+                }
+                any = true;
+                from = lower.indexOf(term, from + 1);
+            }
+        }
+        if (!any) {
+            return null;
+        }
+        StringBuilder sb = new StringBuilder(text.length() + 16);
+        for (int i = 0; i < text.length(); i++) {
+            if (marked[i] && (i == 0 || !marked[i - 1])) {
+                sb.append(PRE_TAG);
+            }
+            sb.append(text.charAt(i));
+            if (marked[i] && (i == text.length() - 1 || !marked[i + 1])) {
+                sb.append(POST_TAG);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String lower(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,131 @@
+package org.practice.surveymaster.search;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * 压缩倒排链
+ * </p>
+ *
+ * <p>
+ * 升序保存文档ID，相邻ID之差以varint编码（每字节7位有效位，最高位为续位标志），
+ * 自增ID下大多数差值只占1~2字节，比long[]节省约4~8倍内存。
+ * 问卷ID单调递增，新文档几乎总是追加到末尾，追加为O(1)；中间插入与删除需要整体重编码，
+ * 只发生在问卷更新/下线时，频率很低。非线程安全，由 {@link InvertedIndex} 加锁保护。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/16
+ */
+public final class PostingList {
+
+    private static final byte[] EMPTY = new byte[0];
+
+    private byte[] data = EMPTY;
+    private int length;
+    private int size;
+    private long last;
+
+    /**
+     * 添加文档ID
+     *
+     * @return 是否新增（已存在返回false）
+     */
+    public boolean add(long id) {
+        if (size == 0 || id > last) {
+            writeVarLong(size == 0 ? id : id - last);
+            last = id;
+            size++;
+            return true;
+        }
+        long[] ids = toArray();
+        int pos = Arrays.binarySearch(ids, id);
+        if (pos >= 0) {
+            return false;
+        }
+        int insertAt = -pos - 1;
+        long[] merged = new long[ids.length + 1];
+        System.arraycopy(ids, 0, merged, 0, insertAt);
+        merged[insertAt] = id;
+        System.arraycopy(ids, insertAt, merged, insertAt + 1, ids.length - insertAt);
+        rebuild(merged, merged.length);
+        return true;
+    }
+
+    /**
+     * 移除文档ID
+     *
+     * @return 是否移除成功
+     */
+    public boolean remove(long id) {
+        long[] ids = toArray();
+        int pos = Arrays.binarySearch(ids, id);
+        if (pos < 0) {
+            return false;
+        }
+        System.arraycopy(ids, pos + 1, ids, pos, ids.length - pos - 1);
+        rebuild(ids, ids.length - 1);
+        return true;
+    }
+
+    /**
+     * 解码为升序数组
+     */
+    public long[] toArray() {
+        long[] ids = new long[size];
+        long current = 0;
+        int offset = 0;
+        for (int i = 0; i < size; i++) {
+            long delta = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[offset++];
+                delta |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            current = i == 0 ? delta : current + delta;
+            ids[i] = current;
+        }
+        return ids;
+    }
+
+    /**
+     * 文档数
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 编码后占用的字节数
+     */
+    public int byteSize() {
+        return length;
+    }
+
+    private void rebuild(long[] ids, int count) {
+        data = EMPTY;
+        length = 0;
+        size = 0;
+        for (int i = 0; i < count; i++) {
+            writeVarLong(i == 0 ? ids[i] : ids[i] - ids[i - 1]);
+        }
+        size = count;
+        last = count == 0 ? 0 : ids[count - 1];
+        if (length < data.length) {
+            data = Arrays.copyOf(data, length);
+        }
+    }
+
+    private void writeVarLong(long value) {
+        if (data.length - length < 10) {
+            data = Arrays.copyOf(data, Math.max(16, data.length + (data.length >> 1) + 10));
+        }
+        while ((value & ~0x7FL) != 0) {
+            data[length++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        data[length++] = (byte) value;
+    }
+}
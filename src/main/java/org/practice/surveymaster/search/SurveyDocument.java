@@ -0,0 +1,82 @@
+package org.practice.surveymaster.search;
+
+import lombok.Data;
+import org.practice.surveymaster.model.Survey;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.elasticsearch.annotations.Document;
+import org.springframework.data.elasticsearch.annotations.Field;
+import org.springframework.data.elasticsearch.annotations.FieldType;
+
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * 问卷搜索文档
+ * 由问卷基本信息与其全部问题内容组成，title/description/questions参与全文检索
+ *
+ * @author ljn
+ * @since 2025/10/15
+ */
+@Data
+@Document(indexName = "survey", createIndex = false)
+public class SurveyDocument {
+
+    /**
+     * 问卷ID
+     */
+    @Id
+    private Long id;
+
+    /**
+     * 创建者ID
+     */
+    @Field(type = FieldType.Long)
+    private Long userId;
+
+    /**
+     * 问卷标题，cjk分析器按二元组切分中文
+     */
+    @Field(type = FieldType.Text, analyzer = "cjk")
+    private String title;
+
+    /**
+     * 问卷描述
+     */
+    @Field(type = FieldType.Text, analyzer = "cjk")
+    private String description;
+
+    /**
+     * 问题内容
+     */
+    @Field(type = FieldType.Text, analyzer = "cjk")
+    private List<String> questions;
+
+    /**
+     * 问卷状态
+     */
+    @Field(type = FieldType.Integer)
+    private Integer status;
+
+    /**
+     * 创建时间（毫秒时间戳）
+     */
+    @Field(type = FieldType.Long)
+    private Long createdAt;
+
+    /**
+     * 由问卷及其问题内容构建文档
+     */
+    public static SurveyDocument of(Survey survey, List<String> questions) {
+        SurveyDocument document = new SurveyDocument();
+        document.setId(survey.getId());
+        document.setUserId(survey.getUserId());
+        document.setTitle(survey.getTitle());
+        document.setDescription(survey.getDescription());
+        document.setQuestions(questions);
+        document.setStatus(survey.getStatus());
+        if (survey.getCreatedAt() != null) {
+            document.setCreatedAt(survey.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        }
+        return document;
+    }
+}
@@ -0,0 +1,46 @@
+package org.practice.surveymaster.search;
+
+import org.practice.surveymaster.vo.SurveySearchResult;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * <p>
+ * 问卷搜索引擎接口
+ * </p>
+ *
+ * <p>
+ * 屏蔽具体搜索实现，由survey.search.engine配置选择实现类。
+ * 写入接口均为幂等操作：同一问卷重复写入以最后一次为准，便于发件箱至少一次投递下的重试。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/15
+ */
+public interface SurveySearchEngine {
+
+    /**
+     * 批量写入（新增或覆盖）文档
+     *
+     * @param documents 文档列表
+     */
+    void index(List<SurveyDocument> documents);
+
+    /**
+     * 批量删除文档
+     *
+     * @param surveyIds 问卷ID
+     */
+    void delete(Collection<Long> surveyIds);
+
+    /**
+     * 搜索已发布的问卷
+     *
+     * @param keyword 关键字
+     * @param page    页码，从1开始
+     * @param size    每页条数
+     * @return 分页结果（含高亮片段）
+     */
+    SurveySearchResult search(String keyword, int page, int size);
+}
@@ -0,0 +1,100 @@
+package org.practice.surveymaster.search;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.practice.surveymaster.constant.SurveyStatus;
+import org.practice.surveymaster.mapper.QuestionMapper;
+import org.practice.surveymaster.mapper.SurveyMapper;
+import org.practice.surveymaster.model.OutboxEvent;
+import org.practice.surveymaster.model.Question;
+import org.practice.surveymaster.model.Survey;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <p>
+ * 问卷搜索索引同步器
+ * </p>
+ *
+ * <p>
+ * 批量消费发件箱投递到RabbitMQ的问卷变更事件，按问卷ID去重后从MySQL读取最新状态重建文档并批量写入搜索引擎。
+ * 写入失败时整批消息重新入队（至少一次）。文档总是按当前数据重建，因此重复消费同一事件、
+ * 事件乱序都不影响最终结果，消费方无需按messageId去重。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/15
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SurveySearchIndexer {
+
+    private final SurveyMapper surveyMapper;
+    private final QuestionMapper questionMapper;
+    private final SurveySearchEngine surveySearchEngine;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * 批量消费问卷事件
+     *
+     * @param messages 一批消息
+     */
+    @RabbitListener(queues = "#{surveySearchQueue.name}", containerFactory = "batchListenerContainerFactory")
+    public void onSurveyEvents(List<Message> messages) {
+        Set<Long> surveyIds = new LinkedHashSet<>();
+        for (Message message : messages) {
+            try {
+                OutboxEvent event = objectMapper.readValue(message.getBody(), OutboxEvent.class);
+                surveyIds.add(event.getAggregateId());
+            } catch (IOException e) {
+                // 格式错误的消息重试也无法成功，记录后丢弃
+                log.warn("丢弃无法解析的问卷事件，messageId: {}", message.getMessageProperties().getMessageId());
+            }
+        }
+        if (!surveyIds.isEmpty()) {
+            reindex(surveyIds);
+        }
+    }
+
+    /**
+     * 按MySQL中的最新数据重建指定问卷的文档，已删除或不存在的问卷从索引中移除
+     *
+     * @param surveyIds 问卷ID
+     */
+    public void reindex(Collection<Long> surveyIds) {
+        Map<Long, List<String>> questionsBySurvey = new HashMap<>();
+        for (Question question : questionMapper.selectBySurveyIds(surveyIds)) {
+            questionsBySurvey.computeIfAbsent(question.getSurveyId(), k -> new ArrayList<>()).add(question.getContent());
+        }
+        Map<Long, Survey> surveys = new HashMap<>();
+        for (Survey survey : surveyMapper.selectByIds(surveyIds)) {
+            surveys.put(survey.getId(), survey);
+        }
+
+        List<SurveyDocument> documents = new ArrayList<>();
+        List<Long> removed = new ArrayList<>();
+        for (Long surveyId : surveyIds) {
+            Survey survey = surveys.get(surveyId);
+            if (survey == null || survey.getStatus() == SurveyStatus.DELETED.getCode()) {
+                removed.add(surveyId);
+            } else {
+                documents.add(SurveyDocument.of(survey, questionsBySurvey.getOrDefault(surveyId, new ArrayList<>())));
+            }
+        }
+        surveySearchEngine.index(documents);
+        surveySearchEngine.delete(removed);
+        log.debug("问卷索引同步完成，写入 {} 个，删除 {} 个", documents.size(), removed.size());
+    }
+}
@@ -0,0 +1,51 @@
+package org.practice.surveymaster.security;
+
+import org.practice.surveymaster.config.PasswordConfig;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+import org.springframework.stereotype.Component;
+
+/**
+ * BCrypt 密码哈希
+ * 哈希格式：$2a$强度$盐值与哈希值
+ *
+ * @author ljn
+ * @since 2025/10/12
+ */
+@Component
+public class BCryptPasswordHasher implements PasswordHasher {
+
+    private final PasswordConfig passwordConfig;
+
+    @Autowired
+    public BCryptPasswordHasher(PasswordConfig passwordConfig) {
+        this.passwordConfig = passwordConfig;
+    }
+
+    @Override
+    public String id() {
+        return "bcrypt";
+    }
+
+    @Override
+    public String hash(String rawPassword) {
+        return BCrypt.hashpw(rawPassword, BCrypt.gensalt(passwordConfig.getBcryptStrength()));
+    }
+
+    @Override
+    public boolean supports(String storedHash) {
+        return storedHash != null
+                && (storedHash.startsWith("$2a$") || storedHash.startsWith("$2b$") || storedHash.startsWith("$2y$"));
+    }
+
+    @Override
+    public boolean matches(String rawPassword, String storedHash) {
+        return BCrypt.checkpw(rawPassword, storedHash);
+    }
+
+    @Override
+    public boolean needsRehash(String storedHash) {
+        int strength = Integer.parseInt(storedHash.substring(4, 6));
+        return strength < passwordConfig.getBcryptStrength();
+    }
+}
@@ -0,0 +1,44 @@
+package org.practice.surveymaster.security;
+
+import org.practice.surveymaster.util.MD5Util;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * 历史MD5密码哈希
+ * 仅用于校验存量用户的密码，校验通过后总是需要重新哈希为当前算法
+ *
+ * @author ljn
+ * @since 2025/10/12
+ */
+@Component
+public class LegacyMd5PasswordHasher implements PasswordHasher {
+
+    @Override
+    public String id() {
+        return "md5";
+    }
+
+    @Override
+    public String hash(String rawPassword) {
+        return MD5Util.md5(rawPassword);
+    }
+
+    @Override
+    public boolean supports(String storedHash) {
+        return storedHash != null && storedHash.matches("[0-9a-f]{32}");
+    }
+
+    @Override
+    public boolean matches(String rawPassword, String storedHash) {
+        return MessageDigest.isEqual(MD5Util.md5(rawPassword).getBytes(StandardCharsets.US_ASCII),
+                storedHash.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    @Override
+    public boolean needsRehash(String storedHash) {
+        return true;
+    }
+}
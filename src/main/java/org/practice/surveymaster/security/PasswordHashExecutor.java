@@ -0,0 +1,141 @@
+package org.practice.surveymaster.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.practice.surveymaster.config.PasswordConfig;
+import org.practice.surveymaster.constant.ErrorCode;
+import org.practice.surveymaster.exception.BusinessException;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>
+ * 密码哈希专用线程池
+ * </p>
+ *
+ * <p>
+ * 强哈希算法单次耗时在百毫秒级，若直接在Tomcat请求线程中计算，登录风暴会占满请求线程，拖垮问卷相关接口。
+ * 这里使用固定大小的线程池和有界队列，队列满时立即拒绝；同时限制单个IP同时在执行或排队的任务数，
+ * 防止单一来源占满队列。任务以CompletableFuture返回，配合Spring MVC异步请求，等待期间不占用Tomcat线程。
+ * 线程池的活跃线程、队列长度、饱和度和拒绝次数通过Micrometer暴露为 password.hash.* 指标。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/12
+ */
+@Slf4j
+@Component
+public class PasswordHashExecutor implements DisposableBean {
+
+    private final ThreadPoolExecutor executor;
+    private final int perIpMaxConcurrent;
+    private final Map<String, Integer> inFlightByIp = new ConcurrentHashMap<>();
+    private final Counter queueRejected;
+    private final Counter ipRejected;
+
+    @Autowired
+    public PasswordHashExecutor(PasswordConfig passwordConfig, MeterRegistry meterRegistry) {
+        int poolSize = passwordConfig.getPoolSize() > 0
+                ? passwordConfig.getPoolSize()
+                : Runtime.getRuntime().availableProcessors();
+        this.perIpMaxConcurrent = passwordConfig.getPerIpMaxConcurrent();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(passwordConfig.getQueueCapacity()),
+                new NamedThreadFactory(), new ThreadPoolExecutor.AbortPolicy());
+
+        int capacity = poolSize + passwordConfig.getQueueCapacity();
+        Gauge.builder("password.hash.pool.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("正在执行的密码哈希任务数").register(meterRegistry);
+        Gauge.builder("password.hash.pool.queued", executor, e -> e.getQueue().size())
+                .description("排队中的密码哈希任务数").register(meterRegistry);
+        Gauge.builder("password.hash.pool.saturation", executor,
+                        e -> (double) (e.getActiveCount() + e.getQueue().size()) / capacity)
+                .description("密码哈希线程池饱和度，1表示已满").register(meterRegistry);
+        this.queueRejected = Counter.builder("password.hash.rejected").tag("reason", "queue_full")
+                .description("因队列已满被拒绝的哈希任务数").register(meterRegistry);
+        this.ipRejected = Counter.builder("password.hash.rejected").tag("reason", "ip_limit")
+                .description("因单IP并发超限被拒绝的哈希任务数").register(meterRegistry);
+    }
+
+    /**
+     * 提交哈希任务
+     *
+     * @param clientIp 客户端IP，用于单IP并发限制
+     * @param task 哈希任务
+     * @return 任务结果
+     * @throws BusinessException 单IP并发超限或队列已满时抛出 TOO_MANY_REQUESTS
+     */
+    public <T> CompletableFuture<T> submit(String clientIp, Callable<T> task) {
+        String ipKey = clientIp == null ? "unknown" : clientIp;
+        if (!acquire(ipKey)) {
+            ipRejected.increment();
+            throw new BusinessException(ErrorCode.TOO_MANY_REQUESTS, "请求过于频繁，请稍后重试");
+        }
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    future.complete(task.call());
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                } finally {
+                    release(ipKey);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            release(ipKey);
+            queueRejected.increment();
+            log.warn("密码哈希线程池已满，拒绝来自 {} 的请求", clientIp);
+            throw new BusinessException(ErrorCode.TOO_MANY_REQUESTS, "服务繁忙，请稍后重试");
+        }
+        return future;
+    }
+
+    private boolean acquire(String clientIp) {
+        boolean[] acquired = {false};
+        inFlightByIp.compute(clientIp, (ip, count) -> {
+            int current = count == null ? 0 : count;
+            if (current >= perIpMaxConcurrent) {
+                return count;
+            }
+            acquired[0] = true;
+            return current + 1;
+        });
+        return acquired[0];
+    }
+
+    private void release(String clientIp) {
+        // 计数归零时移除，保证Map大小只与当前在途IP数相关
+        inFlightByIp.computeIfPresent(clientIp, (ip, count) -> count <= 1 ? null : count - 1);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+
+    private static class NamedThreadFactory implements ThreadFactory {
+        private final AtomicInteger index = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "password-hash-" + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package org.practice.surveymaster.security;
+
+/**
+ * 密码哈希算法接口
+ * 每种算法负责识别并校验自己生成的哈希格式
+ *
+ * @author ljn
+ * @since 2025/10/12
+ */
+public interface PasswordHasher {
+
+    /**
+     * 算法标识，对应配置项 password.algorithm
+     */
+    String id();
+
+    /**
+     * 计算密码哈希
+     *
+     * @param rawPassword 明文密码
+     * @return 包含算法参数和盐值的哈希字符串
+     */
+    String hash(String rawPassword);
+
+    /**
+     * 是否能识别该哈希格式
+     */
+    boolean supports(String storedHash);
+
+    /**
+     * 校验明文密码与哈希是否匹配
+     */
+    boolean matches(String rawPassword, String storedHash);
+
+    /**
+     * 哈希参数是否低于当前配置，需要在登录成功后重新哈希
+     */
+    default boolean needsRehash(String storedHash) {
+        return false;
+    }
+}
@@ -0,0 +1,103 @@
+package org.practice.surveymaster.security;
+
+import lombok.Getter;
+import org.practice.surveymaster.config.PasswordConfig;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * <p>
+ * 密码管理器
+ * </p>
+ *
+ * <p>
+ * 新密码统一使用配置的当前算法哈希；校验时按哈希格式自动选择对应算法，
+ * 因此MD5等历史格式的密码仍可登录，并在校验通过后返回按当前算法重新计算的哈希，由调用方落库完成透明升级。
+ * 本类的方法都是CPU密集型操作，应通过 {@link PasswordHashExecutor} 在专用线程池中调用。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/12
+ */
+@Component
+public class PasswordManager {
+
+    private final List<PasswordHasher> hashers;
+    private final PasswordHasher current;
+    private volatile String dummyHash;
+
+    @Autowired
+    public PasswordManager(List<PasswordHasher> hashers, PasswordConfig passwordConfig) {
+        this.hashers = hashers;
+        this.current = hashers.stream()
+                .filter(hasher -> hasher.id().equals(passwordConfig.getAlgorithm()))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("不支持的密码哈希算法: " + passwordConfig.getAlgorithm()));
+    }
+
+    /**
+     * 使用当前算法计算密码哈希
+     */
+    public String hash(String rawPassword) {
+        return current.hash(rawPassword);
+    }
+
+    /**
+     * 校验密码
+     *
+     * @param rawPassword 明文密码
+     * @param storedHash 数据库中的哈希，用户不存在时传null
+     * @return 校验结果，需要升级时包含新的哈希
+     */
+    public VerifyResult verify(String rawPassword, String storedHash) {
+        if (storedHash == null) {
+            // 用户不存在时同样执行一次哈希，使响应时间与密码错误一致，避免用户名枚举
+            current.matches(rawPassword, dummyHash());
+            return VerifyResult.MISMATCH;
+        }
+        PasswordHasher hasher = hashers.stream()
+                .filter(h -> h.supports(storedHash))
+                .findFirst()
+                .orElse(null);
+        if (hasher == null || !hasher.matches(rawPassword, storedHash)) {
+            return VerifyResult.MISMATCH;
+        }
+        if (hasher != current || hasher.needsRehash(storedHash)) {
+            return new VerifyResult(true, current.hash(rawPassword));
+        }
+        return VerifyResult.MATCH;
+    }
+
+    private String dummyHash() {
+        if (dummyHash == null) {
+            dummyHash = current.hash("dummy-password-for-timing");
+        }
+        return dummyHash;
+    }
+
+    /**
+     * 密码校验结果
+     */
+    @Getter
+    public static class VerifyResult {
+        static final VerifyResult MATCH = new VerifyResult(true, null);
+        static final VerifyResult MISMATCH = new VerifyResult(false, null);
+
+        /**
+         * 密码是否匹配
+         */
+        private final boolean matched;
+
+        /**
+         * 按当前算法重新计算的哈希，为null表示无需升级
+         */
+        private final String upgradedHash;
+
+        VerifyResult(boolean matched, String upgradedHash) {
+            this.matched = matched;
+            this.upgradedHash = upgradedHash;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package org.practice.surveymaster.security;
+
+import org.practice.surveymaster.config.PasswordConfig;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * PBKDF2-HMAC-SHA256 密码哈希
+ * 哈希格式：$pbkdf2-sha256$迭代次数$盐值(Base64)$哈希值(Base64)
+ *
+ * @author ljn
+ * @since 2025/10/12
+ */
+@Component
+public class Pbkdf2PasswordHasher implements PasswordHasher {
+
+    private static final String PREFIX = "$pbkdf2-sha256$";
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+
+    private final PasswordConfig passwordConfig;
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    @Autowired
+    public Pbkdf2PasswordHasher(PasswordConfig passwordConfig) {
+        this.passwordConfig = passwordConfig;
+    }
+
+    @Override
+    public String id() {
+        return "pbkdf2";
+    }
+
+    @Override
+    public String hash(String rawPassword) {
+        byte[] salt = new byte[SALT_BYTES];
+        secureRandom.nextBytes(salt);
+        int iterations = passwordConfig.getPbkdf2Iterations();
+        byte[] hash = derive(rawPassword, salt, iterations);
+        Base64.Encoder encoder = Base64.getEncoder().withoutPadding();
+        return PREFIX + iterations + "$" + encoder.encodeToString(salt) + "$" + encoder.encodeToString(hash);
+    }
+
+    @Override
+    public boolean supports(String storedHash) {
+        return storedHash != null && storedHash.startsWith(PREFIX);
+    }
+
+    @Override
+    public boolean matches(String rawPassword, String storedHash) {
+        String[] parts = storedHash.substring(PREFIX.length()).split("\\$");
+        if (parts.length != 3) {
+            return false;
+        }
+        int iterations = Integer.parseInt(parts[0]);
+        byte[] salt = Base64.getDecoder().decode(parts[1]);
+        byte[] expected = Base64.getDecoder().decode(parts[2]);
+        // 常量时间比较，避免时序攻击
+        return MessageDigest.isEqual(expected, derive(rawPassword, salt, iterations));
+    }
+
+    @Override
+    public boolean needsRehash(String storedHash) {
+        String iterations = storedHash.substring(PREFIX.length(), storedHash.indexOf('$', PREFIX.length()));
+        return Integer.parseInt(iterations) < passwordConfig.getPbkdf2Iterations();
+    }
+
+    private byte[] derive(String rawPassword, byte[] salt, int iterations) {
+        PBEKeySpec spec = new PBEKeySpec(rawPassword.toCharArray(), salt, iterations, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("PBKDF2 algorithm not available", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+}
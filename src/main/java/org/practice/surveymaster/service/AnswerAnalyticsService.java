@@ -0,0 +1,61 @@
+package org.practice.surveymaster.service;
+
+import org.practice.surveymaster.dto.CrosstabQueryDTO;
+import org.practice.surveymaster.dto.DistributionQueryDTO;
+import org.practice.surveymaster.vo.Crosstab;
+import org.practice.surveymaster.vo.QuestionDistribution;
+import org.practice.surveymaster.vo.WordCloud;
+
+/**
+ * <p>
+ * 答案分析服务接口
+ * </p>
+ *
+ * <p>
+ * 基于列式答案存储做带筛选条件的分析查询，基于热词草图生成文本题词云，不在MongoDB上做聚合。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+public interface AnswerAnalyticsService {
+
+    /**
+     * 查询某题在筛选条件下的答案分布
+     *
+     * @param surveyId   问卷ID
+     * @param questionId 问题ID
+     * @param query      筛选条件
+     * @return 答案分布
+     */
+    QuestionDistribution getDistribution(Long surveyId, Long questionId, DistributionQueryDTO query);
+
+    /**
+     * 两道题目的交叉分析，仅问卷创建者可查询
+     *
+     * @param surveyId 问卷ID
+     * @param userId   当前用户ID
+     * @param query    行列题目与筛选条件
+     * @return 交叉分析结果
+     */
+    Crosstab getCrosstab(Long surveyId, Long userId, CrosstabQueryDTO query);
+
+    /**
+     * 查询文本题的词云
+     *
+     * @param surveyId   问卷ID
+     * @param questionId 文本题ID
+     * @param limit      最多返回的词数
+     * @return 词云
+     */
+    WordCloud getWordCloud(Long surveyId, Long questionId, int limit);
+
+    /**
+     * 从原始答案重建问卷所有文本题的词云，仅问卷创建者可操作
+     *
+     * @param surveyId 问卷ID
+     * @param userId   当前用户ID
+     * @return 扫描的答案数
+     */
+    long rebuildWordCloud(Long surveyId, Long userId);
+}
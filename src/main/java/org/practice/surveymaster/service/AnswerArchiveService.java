@@ -0,0 +1,107 @@
+package org.practice.surveymaster.service;
+
+import org.practice.surveymaster.model.mongo.Answer;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * <p>
+ * 答案归档服务接口
+ * </p>
+ *
+ * <p>
+ * 把已关闭或发布已久的问卷的答案从answer集合迁入压缩归档块，缩小热数据的工作集；
+ * 答案查询、统计与导出通过本接口透明地读取归档数据。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+public interface AnswerArchiveService {
+
+    /**
+     * 归档一批到期的问卷
+     *
+     * @return 本次归档的问卷数
+     */
+    int archiveDue();
+
+    /**
+     * 归档某个问卷中已沉淀的答案
+     *
+     * @param surveyId 问卷ID
+     * @return 归档的答案数
+     */
+    long archiveSurvey(Long surveyId);
+
+    /**
+     * 流式读取问卷的归档答案，按提交时间顺序逐条回调
+     *
+     * @param surveyId 问卷ID
+     * @param from     起始提交时间，为空表示不限
+     * @param to       截止提交时间，为空表示不限
+     * @param consumer 答案回调
+     */
+    void forEachArchived(Long surveyId, LocalDateTime from, LocalDateTime to, Consumer<Answer> consumer);
+
+    /**
+     * 统计问卷的归档答案数
+     *
+     * @param surveyId 问卷ID
+     * @return 归档答案数
+     */
+    long countArchived(Long surveyId);
+
+    /**
+     * 判断用户的答案是否在归档中
+     *
+     * @param surveyId 问卷ID
+     * @param userId   用户ID
+     * @return 是否存在
+     */
+    boolean existsArchived(Long surveyId, Long userId);
+
+    /**
+     * 从归档中查询用户的答案
+     *
+     * @param surveyId 问卷ID
+     * @param userId   用户ID
+     * @return 答案
+     */
+    Optional<Answer> findArchived(Long surveyId, Long userId);
+
+    /**
+     * 从归档中查询用户的全部答案
+     *
+     * @param userId 用户ID
+     * @return 答案列表
+     */
+    List<Answer> findArchivedByUserId(Long userId);
+
+    /**
+     * 统计用户的归档答案数
+     *
+     * @param userId 用户ID
+     * @return 归档答案数
+     */
+    long countArchivedByUserId(Long userId);
+
+    /**
+     * 删除问卷的全部归档答案，并撤销其统计
+     *
+     * @param surveyId 问卷ID
+     * @return 删除的答案数
+     */
+    long deleteArchived(Long surveyId);
+
+    /**
+     * 从归档中删除某个用户的答案，并撤销其统计
+     *
+     * @param userId 用户ID
+     * @return 删除的答案数
+     */
+    long deleteArchivedByUserId(Long userId);
+}
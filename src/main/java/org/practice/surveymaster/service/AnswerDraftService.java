@@ -0,0 +1,55 @@
+package org.practice.surveymaster.service;
+
+import org.practice.surveymaster.dto.SaveDraftDTO;
+import org.practice.surveymaster.model.mongo.Answer;
+import org.practice.surveymaster.model.mongo.AnswerDraft;
+
+import java.util.Optional;
+
+/**
+ * <p>
+ * 答案草稿服务接口
+ * </p>
+ *
+ * <p>
+ * 支持长问卷的作答进度自动保存：保存请求先在内存中按会话合并防抖，
+ * 再以字段级更新写入MongoDB；提交时草稿原子地转为正式答案。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+public interface AnswerDraftService {
+
+    /**
+     * 保存草稿中改动的题目，写入会被防抖合并
+     *
+     * @param saveDraftDTO 改动的题目
+     */
+    void saveDraft(SaveDraftDTO saveDraftDTO);
+
+    /**
+     * 查询草稿，包含尚未写入MongoDB的改动
+     *
+     * @param surveyId 问卷ID
+     * @param userId   用户ID
+     * @return 草稿
+     */
+    Optional<AnswerDraft> getDraft(Long surveyId, Long userId);
+
+    /**
+     * 将草稿转为正式答案，删除草稿与写入答案在同一事务中完成
+     *
+     * @param surveyId 问卷ID
+     * @param userId   用户ID
+     * @return 正式答案
+     */
+    Answer submitDraft(Long surveyId, Long userId);
+
+    /**
+     * 写入已超过防抖窗口的缓冲改动
+     *
+     * @return 本次写入的会话数
+     */
+    int flushDue();
+}
@@ -9,6 +9,7 @@ import org.springframework.data.domain.Page;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * <p>
@@ -115,6 +116,14 @@ public interface AnswerService {
      */
     long deleteAnswersByUserId(Long userId);
 
+    /**
+     * 流式导出问卷的全部答案（含归档），逐条回调，不在内存中汇总
+     *
+     * @param surveyId 问卷ID
+     * @param consumer 答案回调
+     */
+    void exportAnswers(Long surveyId, Consumer<Answer> consumer);
+
     /**
      * 统计某个问卷的答案数量
      *
@@ -0,0 +1,84 @@
+package org.practice.surveymaster.service;
+
+import org.practice.surveymaster.constant.TimeGranularity;
+import org.practice.surveymaster.vo.RatingStats;
+import org.practice.surveymaster.vo.SubmissionSeries;
+import org.practice.surveymaster.vo.SurveyAnswerStats;
+import org.practice.surveymaster.vo.UniqueRespondents;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * <p>
+ * 答题统计服务接口
+ * </p>
+ *
+ * <p>
+ * 读取由答案Change Stream投影维护的统计数据，不在MongoDB上做聚合查询。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/18
+ */
+public interface AnswerStatsService {
+
+    /**
+     * 查询问卷答题统计
+     *
+     * @param surveyId 问卷ID
+     * @return 统计结果
+     */
+    SurveyAnswerStats getSurveyStats(Long surveyId);
+
+    /**
+     * 查询用户的答卷数
+     *
+     * @param userId 用户ID
+     * @return 答卷数
+     */
+    long getUserAnswerCount(Long userId);
+
+    /**
+     * 查询评分题统计，可限定提交日期范围
+     *
+     * @param surveyId   问卷ID
+     * @param questionId 评分题ID
+     * @param from       起始日期（含），与to同时为空时统计全部
+     * @param to         结束日期（含）
+     * @return 评分统计
+     */
+    RatingStats getRatingStats(Long surveyId, Long questionId, LocalDate from, LocalDate to);
+
+    /**
+     * 查询问卷在日期范围内的去重答题人数
+     *
+     * @param surveyId 问卷ID
+     * @param from     起始日期（含）
+     * @param to       结束日期（含）
+     * @return 去重答题人数
+     */
+    UniqueRespondents getSurveyUniqueRespondents(Long surveyId, LocalDate from, LocalDate to);
+
+    /**
+     * 查询问卷创建者名下所有问卷在日期范围内的去重答题人数
+     *
+     * @param ownerId 问卷创建者ID
+     * @param from    起始日期（含）
+     * @param to      结束日期（含）
+     * @return 去重答题人数
+     */
+    UniqueRespondents getOwnerUniqueRespondents(Long ownerId, LocalDate from, LocalDate to);
+
+    /**
+     * 查询问卷在时间范围内的提交数时间序列
+     *
+     * @param surveyId    问卷ID
+     * @param granularity 时间粒度，分钟与小时粒度只保留配置的最近一段时间
+     * @param from        起始时间（含）
+     * @param to          结束时间（含）
+     * @return 提交数时间序列
+     */
+    SubmissionSeries getSubmissionSeries(Long surveyId, TimeGranularity granularity,
+                                         LocalDateTime from, LocalDateTime to);
+}
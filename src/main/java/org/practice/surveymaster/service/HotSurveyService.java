@@ -0,0 +1,48 @@
+package org.practice.surveymaster.service;
+
+import org.practice.surveymaster.model.Survey;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * <p>
+ * 热门问卷服务接口
+ * </p>
+ *
+ * <p>
+ * 根据答题事件维护带时间衰减的问卷热度排行，并在本地缓存Top-N快照。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/14
+ */
+public interface HotSurveyService {
+
+    /**
+     * 记录一次答题，增加问卷热度
+     *
+     * @param surveyId 问卷ID
+     * @param answeredAt 答题时间
+     */
+    void recordAnswer(Long surveyId, LocalDateTime answeredAt);
+
+    /**
+     * 将问卷移出热度排行（删除、关闭时调用）
+     *
+     * @param surveyId 问卷ID
+     */
+    void remove(Long surveyId);
+
+    /**
+     * 获取热门问卷列表，直接读取本地快照
+     *
+     * @return 按热度降序排列的问卷列表
+     */
+    List<Survey> getHotSurveys();
+
+    /**
+     * 从Redis与数据库重新加载本地快照
+     */
+    void refreshSnapshot();
+}
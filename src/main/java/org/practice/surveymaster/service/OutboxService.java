@@ -0,0 +1,42 @@
+package org.practice.surveymaster.service;
+
+/**
+ * <p>
+ * 发件箱服务接口
+ * </p>
+ *
+ * <p>
+ * 业务写操作在同一数据库事务中追加事件，事务提交则事件必然存在、回滚则事件一并消失，
+ * 投递任务再按ID顺序批量发布到RabbitMQ，确认后批量删除，下游（搜索索引等）订阅消费，
+ * 不会出现数据已改而事件丢失的情况，也无需两阶段提交。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/15
+ */
+public interface OutboxService {
+
+    /**
+     * 追加事件，必须在已有事务中调用
+     *
+     * @param aggregateType 聚合类型
+     * @param aggregateId   聚合ID
+     * @param eventType     事件类型
+     * @param payload       事件内容（JSON），可为空
+     */
+    void append(String aggregateType, Long aggregateId, String eventType, String payload);
+
+    /**
+     * 追加问卷变更事件，必须在已有事务中调用
+     *
+     * @param surveyId 问卷ID
+     */
+    void surveyChanged(Long surveyId);
+
+    /**
+     * 投递待发布的事件
+     *
+     * @return 本次投递的事件数
+     */
+    int relayPending();
+}
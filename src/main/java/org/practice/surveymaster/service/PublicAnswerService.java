@@ -0,0 +1,29 @@
+package org.practice.surveymaster.service;
+
+import org.practice.surveymaster.dto.PublicSubmitAnswerDTO;
+import org.practice.surveymaster.model.mongo.Answer;
+
+/**
+ * <p>
+ * 公开问卷匿名答题服务接口
+ * </p>
+ *
+ * <p>
+ * 只接受已发布问卷的匿名提交，同一设备对同一问卷只能提交一次，由Redis过滤器去重，不查询MongoDB。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+public interface PublicAnswerService {
+
+    /**
+     * 匿名提交问卷答案
+     *
+     * @param surveyId    问卷ID
+     * @param dto         答案
+     * @param fingerprint 设备指纹
+     * @return 保存后的答案
+     */
+    Answer submitAnonymous(Long surveyId, PublicSubmitAnswerDTO dto, String fingerprint);
+}
@@ -0,0 +1,47 @@
+package org.practice.surveymaster.service;
+
+import org.practice.surveymaster.vo.RecomputeProgress;
+
+/**
+ * <p>
+ * 统计全量重算服务接口
+ * </p>
+ *
+ * <p>
+ * 从原始答案重新计算问卷的实时统计，仅问卷创建者可操作。重算异步执行，通过进度接口查询。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+public interface StatsRecomputeService {
+
+    /**
+     * 发起问卷统计重算
+     *
+     * @param surveyId      问卷ID
+     * @param userId        当前用户ID
+     * @param docsPerSecond 限速（每秒读取的答案数），为空时使用默认值，0表示不限速
+     * @return 初始进度
+     */
+    RecomputeProgress startRecompute(Long surveyId, Long userId, Integer docsPerSecond);
+
+    /**
+     * 查询问卷最近一次重算的进度
+     *
+     * @param surveyId 问卷ID
+     * @param userId   当前用户ID
+     * @return 重算进度
+     */
+    RecomputeProgress getRecomputeProgress(Long surveyId, Long userId);
+
+    /**
+     * 调整运行中重算的限速
+     *
+     * @param surveyId      问卷ID
+     * @param userId        当前用户ID
+     * @param docsPerSecond 每秒读取的答案数，0表示不限速
+     * @return 当前进度
+     */
+    RecomputeProgress throttleRecompute(Long surveyId, Long userId, int docsPerSecond);
+}
@@ -0,0 +1,27 @@
+package org.practice.surveymaster.service;
+
+import org.practice.surveymaster.model.SurveyPurgeTask;
+
+/**
+ * 问卷清理服务接口
+ * 负责在问卷被逻辑删除后，分批清理其选项、问题和答案数据
+ *
+ * @author ljn
+ * @since 2025/10/9
+ */
+public interface SurveyPurgeService {
+
+    /**
+     * 执行一轮清理：抢占待执行任务的租约，并对每个任务推进有限批次
+     *
+     * @return 本轮处理的任务数
+     */
+    int purgePendingTasks();
+
+    /**
+     * 推进单个清理任务，最多执行配置的批次数后让出
+     *
+     * @param task 已抢占租约的清理任务
+     */
+    void purge(SurveyPurgeTask task);
+}
@@ -3,6 +3,9 @@ package org.practice.surveymaster.service;
 import org.practice.surveymaster.dto.CreateSurvey;
 import org.practice.surveymaster.dto.UpdateSurveyStatus;
 import org.practice.surveymaster.model.Survey;
+import org.practice.surveymaster.model.SurveyPurgeTask;
+import org.practice.surveymaster.vo.SurveySearchResult;
+import org.practice.surveymaster.vo.SurveySummary;
 
 import java.util.List;
 
@@ -41,10 +44,10 @@ public interface SurveyService {
     List<Survey> QuerySurveyListByUserId(Long userId);
 
     /**
-     * 查询热门问卷列表
+     * 查询热门问卷列表，附带创建者用户名
      * @return 问卷列表
      */
-    List<Survey> QueryHotSurveyList();
+    List<SurveySummary> QueryHotSurveyList();
 
     /**
      * 搜索问卷列表 按标题/描述/标签搜索
@@ -52,4 +55,29 @@ public interface SurveyService {
      * @return 问卷列表
      */
     List<Survey> SearchSurveyList(String keyword);
+
+    /**
+     * 分页搜索已发布的问卷 按标题/描述/问题内容搜索，结果附带高亮片段
+     * @param keyword 关键字
+     * @param page 页码，从1开始
+     * @param size 每页条数
+     * @return 搜索结果
+     */
+    SurveySearchResult SearchSurveyPage(String keyword, int page, int size);
+
+    /**
+     * 删除问卷
+     * 问卷立即标记为已删除，选项、问题和答案由后台任务分批清理
+     * @param surveyId 问卷id
+     * @param userId 当前用户id
+     */
+    void DeleteSurvey(Long surveyId, Long userId);
+
+    /**
+     * 查询问卷删除（清理）进度
+     * @param surveyId 问卷id
+     * @param userId 当前用户id
+     * @return 清理任务
+     */
+    SurveyPurgeTask QueryDeletionStatus(Long surveyId, Long userId);
 }
@@ -4,6 +4,10 @@ import org.practice.surveymaster.dto.UserRegister;
 import org.practice.surveymaster.model.User;
 import org.practice.surveymaster.vo.LoginResponse;
 
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * 用户服务接口
  * 提供用户相关的业务功能
@@ -15,19 +19,24 @@ import org.practice.surveymaster.vo.LoginResponse;
 public interface UserService {
     /**
      * 用户注册
+     * 密码哈希在专用线程池中异步执行
      *
      * @param userRegister 注册信息
+     * @param clientIp 客户端IP，用于哈希线程池的单IP并发限制
+     * @return 注册完成的future
      */
-    void register(UserRegister userRegister);
+    CompletableFuture<Void> register(UserRegister userRegister, String clientIp);
     
     /**
      * 用户登录
+     * 密码校验在专用线程池中异步执行，历史哈希格式会在登录成功后透明升级
      *
      * @param username 用户名
      * @param password 密码
+     * @param clientIp 客户端IP，用于哈希线程池的单IP并发限制
      * @return 登录响应信息（包含用户信息和token）
      */
-    LoginResponse login(String username, String password);
+    CompletableFuture<LoginResponse> login(String username, String password, String clientIp);
     
     /**
      * 根据ID查找用户
@@ -36,6 +45,14 @@ public interface UserService {
      * @return 用户信息
      */
     User findById(Long id);
+
+    /**
+     * 根据ID批量查找用户，优先读取本地缓存，未命中部分合并为一次查询
+     *
+     * @param ids 用户ID集合
+     * @return 用户ID到用户信息的映射，不存在的用户不包含在结果中
+     */
+    Map<Long, User> findByIds(Collection<Long> ids);
     
     /**
      * 刷新访问令牌
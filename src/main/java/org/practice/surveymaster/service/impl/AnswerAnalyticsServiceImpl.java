@@ -0,0 +1,177 @@
+package org.practice.surveymaster.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import org.practice.surveymaster.cache.SurveyResultCache;
+import org.practice.surveymaster.codec.OptionDictionary;
+import org.practice.surveymaster.codec.SurveyDictionary;
+import org.practice.surveymaster.columnar.ColumnarAnswerStore;
+import org.practice.surveymaster.columnar.RowBitmap;
+import org.practice.surveymaster.columnar.SurveyColumnStore;
+import org.practice.surveymaster.config.AnswerProjectionConfig;
+import org.practice.surveymaster.constant.ErrorCode;
+import org.practice.surveymaster.constant.QuestionType;
+import org.practice.surveymaster.dto.CrosstabQueryDTO;
+import org.practice.surveymaster.dto.DistributionQueryDTO;
+import org.practice.surveymaster.mapper.SurveyMapper;
+import org.practice.surveymaster.model.Survey;
+import org.practice.surveymaster.projection.AnswerStatsKeys;
+import org.practice.surveymaster.projection.TextTermRebuilder;
+import org.practice.surveymaster.service.AnswerAnalyticsService;
+import org.practice.surveymaster.util.AssertUtil;
+import org.practice.surveymaster.vo.Crosstab;
+import org.practice.surveymaster.vo.QuestionDistribution;
+import org.practice.surveymaster.vo.WordCloud;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 答案分析服务实现类
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+@Service
+@RequiredArgsConstructor
+public class AnswerAnalyticsServiceImpl implements AnswerAnalyticsService {
+
+    private final ColumnarAnswerStore columnarAnswerStore;
+    private final OptionDictionary optionDictionary;
+    private final SurveyMapper surveyMapper;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final TextTermRebuilder textTermRebuilder;
+    private final AnswerProjectionConfig projectionConfig;
+    private final SurveyResultCache surveyResultCache;
+
+    @Override
+    public QuestionDistribution getDistribution(Long surveyId, Long questionId, DistributionQueryDTO query) {
+        AssertUtil.notNull(optionDictionary.get(surveyId).typeOf(questionId), ErrorCode.QUESTION_NOT_FOUND);
+        List<DistributionQueryDTO.Filter> filters = filtersOf(query == null ? null : query.getFilters());
+        return surveyResultCache.get(surveyId, "distribution:" + questionId + ":" + filters,
+                () -> computeDistribution(surveyId, questionId, filters));
+    }
+
+    @Override
+    public Crosstab getCrosstab(Long surveyId, Long userId, CrosstabQueryDTO query) {
+        checkOwner(surveyId, userId);
+        SurveyDictionary dictionary = optionDictionary.get(surveyId);
+        AssertUtil.notNull(dictionary.typeOf(query.getRowQuestionId()), ErrorCode.QUESTION_NOT_FOUND);
+        AssertUtil.notNull(dictionary.typeOf(query.getColumnQuestionId()), ErrorCode.QUESTION_NOT_FOUND);
+        List<DistributionQueryDTO.Filter> filters = filtersOf(query.getFilters());
+        return surveyResultCache.get(surveyId,
+                "crosstab:" + query.getRowQuestionId() + ":" + query.getColumnQuestionId() + ":" + filters,
+                () -> computeCrosstab(surveyId, query, filters));
+    }
+
+    @Override
+    public WordCloud getWordCloud(Long surveyId, Long questionId, int limit) {
+        AssertUtil.state(optionDictionary.get(surveyId).typeOf(questionId) == QuestionType.TEXT,
+                ErrorCode.INVALID_QUESTION_TYPE);
+        AssertUtil.state(limit > 0, ErrorCode.BAD_REQUEST);
+        String prefix = projectionConfig.getStatsKeyPrefix();
+        Object answerCount = stringRedisTemplate.opsForHash()
+                .get(AnswerStatsKeys.terms(prefix, surveyId, questionId), AnswerStatsKeys.FIELD_ANSWERS);
+        Set<ZSetOperations.TypedTuple<String>> top = stringRedisTemplate.opsForZSet()
+                .reverseRangeWithScores(AnswerStatsKeys.topTerms(prefix, surveyId, questionId), 0, limit - 1);
+        List<WordCloud.Term> terms = new ArrayList<>();
+        if (top != null) {
+            for (ZSetOperations.TypedTuple<String> tuple : top) {
+                if (tuple.getScore() != null && tuple.getScore() > 0) {
+                    terms.add(new WordCloud.Term(tuple.getValue(), tuple.getScore().longValue()));
+                }
+            }
+        }
+        return new WordCloud(surveyId, questionId,
+                answerCount == null ? 0L : Long.parseLong(answerCount.toString()), terms);
+    }
+
+    @Override
+    public long rebuildWordCloud(Long surveyId, Long userId) {
+        checkOwner(surveyId, userId);
+        return textTermRebuilder.rebuild(surveyId);
+    }
+
+    private QuestionDistribution computeDistribution(Long surveyId, Long questionId,
+                                                     List<DistributionQueryDTO.Filter> filters) {
+        return columnarAnswerStore.query(surveyId, store -> {
+            long[] rows = store.liveRows();
+            for (DistributionQueryDTO.Filter filter : filters) {
+                store.retain(rows, filter.getQuestionId(), filter.getValues());
+            }
+            return new QuestionDistribution(surveyId, questionId, SurveyColumnStore.count(rows),
+                    store.distribution(questionId, rows));
+        });
+    }
+
+    private Crosstab computeCrosstab(Long surveyId, CrosstabQueryDTO query, List<DistributionQueryDTO.Filter> filters) {
+        return columnarAnswerStore.query(surveyId, store -> {
+            // 各筛选条件命中行的交集，无筛选条件时为null表示全部答卷
+            RowBitmap selected = null;
+            for (DistributionQueryDTO.Filter filter : filters) {
+                RowBitmap matched = store.rowsMatching(filter.getQuestionId(), filter.getValues());
+                selected = selected == null ? matched : selected.and(matched);
+            }
+            Map<String, RowBitmap> rows = restrict(store.valueBitmaps(query.getRowQuestionId()), selected);
+            Map<String, RowBitmap> columns = restrict(store.valueBitmaps(query.getColumnQuestionId()), selected);
+
+            Map<String, Long> rowTotals = totals(rows);
+            Map<String, Long> columnTotals = totals(columns);
+            Map<String, Map<String, Long>> cells = new LinkedHashMap<>();
+            for (Map.Entry<String, RowBitmap> row : rows.entrySet()) {
+                Map<String, Long> line = new LinkedHashMap<>();
+                for (Map.Entry<String, RowBitmap> column : columns.entrySet()) {
+                    long count = row.getValue().andCardinality(column.getValue());
+                    if (count > 0) {
+                        line.put(column.getKey(), count);
+                    }
+                }
+                cells.put(row.getKey(), line);
+            }
+            long respondents = selected == null ? SurveyColumnStore.count(store.liveRows()) : selected.cardinality();
+            return new Crosstab(surveyId, query.getRowQuestionId(), query.getColumnQuestionId(), respondents,
+                    rowTotals, columnTotals, cells);
+        });
+    }
+
+    private void checkOwner(Long surveyId, Long userId) {
+        Survey survey = surveyMapper.selectById(surveyId);
+        AssertUtil.notNull(survey, ErrorCode.NOT_FOUND, "问卷不存在");
+        AssertUtil.isTrue(survey.getUserId().equals(userId), ErrorCode.UNAUTHORIZED, "无权操作此问卷");
+    }
+
+    private static List<DistributionQueryDTO.Filter> filtersOf(List<DistributionQueryDTO.Filter> filters) {
+        return filters == null ? Collections.emptyList() : filters;
+    }
+
+    /**
+     * 把每个答案值的行位图限定在筛选结果内，结果为空的值去掉
+     */
+    private static Map<String, RowBitmap> restrict(Map<String, RowBitmap> bitmaps, RowBitmap selected) {
+        if (selected == null) {
+            return bitmaps;
+        }
+        Map<String, RowBitmap> result = new LinkedHashMap<>();
+        for (Map.Entry<String, RowBitmap> entry : bitmaps.entrySet()) {
+            RowBitmap bitmap = entry.getValue().and(selected);
+            if (!bitmap.isEmpty()) {
+                result.put(entry.getKey(), bitmap);
+            }
+        }
+        return result;
+    }
+
+    private static Map<String, Long> totals(Map<String, RowBitmap> bitmaps) {
+        Map<String, Long> totals = new LinkedHashMap<>();
+        for (Map.Entry<String, RowBitmap> entry : bitmaps.entrySet()) {
+            totals.put(entry.getKey(), entry.getValue().cardinality());
+        }
+        return totals;
+    }
+}
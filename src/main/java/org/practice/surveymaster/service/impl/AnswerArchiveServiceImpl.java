@@ -0,0 +1,320 @@
+package org.practice.surveymaster.service.impl;
+
+import com.mongodb.ClientSessionOptions;
+import com.mongodb.client.ClientSession;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.practice.surveymaster.archive.ArchiveChunkCodec;
+import org.practice.surveymaster.codec.AnswerCodec;
+import org.practice.surveymaster.config.AnswerArchiveConfig;
+import org.practice.surveymaster.mapper.SurveyMapper;
+import org.practice.surveymaster.model.Survey;
+import org.practice.surveymaster.model.mongo.Answer;
+import org.practice.surveymaster.model.mongo.AnswerArchiveChunk;
+import org.practice.surveymaster.model.mongo.AnswerProjection;
+import org.practice.surveymaster.projection.AnswerStatsProjection;
+import org.practice.surveymaster.service.AnswerArchiveService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * <p>
+ * 答案归档服务实现类
+ * </p>
+ *
+ * <p>
+ * 归档按_id顺序每次取一块答案的原始文档，压缩为一个归档块；写入归档块、标记台账已归档、
+ * 删除原答案三步在同一个MongoDB事务中完成，中途失败不会丢失或重复答案。
+ * 只归档提交时间早于沉淀期的答案，此时答案统计投影已处理过它们，
+ * 归档引起的删除事件按台账标记跳过，统计保持不变。删除归档时，删除台账与删除或重写归档块同样在一个事务中完成，
+ * 事务提交后再撤销统计。
+ * 读取时逐块流式解压，内存中只保留一个块。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+@Slf4j
+@Service
+public class AnswerArchiveServiceImpl implements AnswerArchiveService {
+
+    private final MongoTemplate mongoTemplate;
+    private final SurveyMapper surveyMapper;
+    private final AnswerCodec answerCodec;
+    private final AnswerStatsProjection answerStatsProjection;
+    private final AnswerArchiveConfig config;
+    private final String answerCollection;
+    private volatile boolean indexesEnsured;
+
+    @Autowired
+    public AnswerArchiveServiceImpl(MongoTemplate mongoTemplate, SurveyMapper surveyMapper, AnswerCodec answerCodec,
+                                    AnswerStatsProjection answerStatsProjection, AnswerArchiveConfig config) {
+        this.mongoTemplate = mongoTemplate;
+        this.surveyMapper = surveyMapper;
+        this.answerCodec = answerCodec;
+        this.answerStatsProjection = answerStatsProjection;
+        this.config = config;
+        this.answerCollection = mongoTemplate.getCollectionName(Answer.class);
+    }
+
+    @Override
+    public int archiveDue() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Survey> surveys = surveyMapper.selectArchiveCandidates(now.minusDays(config.getArchiveAfterDays()),
+                config.getSurveysPerRun());
+        for (Survey survey : surveys) {
+            long archived = archiveSurvey(survey.getId());
+            surveyMapper.markArchived(survey.getId(), now);
+            log.info("问卷 {} 归档完成，归档答案 {} 条", survey.getId(), archived);
+        }
+        return surveys.size();
+    }
+
+    @Override
+    public long archiveSurvey(Long surveyId) {
+        ensureIndexes();
+        Date cutoff = Date.from(LocalDateTime.now().minusMinutes(config.getSettleMinutes())
+                .atZone(ZoneId.systemDefault()).toInstant());
+        int seq = nextSeq(surveyId);
+        long total = 0;
+        while (true) {
+            Query query = Query.query(Criteria.where("surveyId").is(surveyId).and("submittedAt").lt(cutoff))
+                    .with(Sort.by(Sort.Direction.ASC, "_id"))
+                    .limit(config.getChunkSize());
+            List<Document> documents = mongoTemplate.find(query, Document.class, answerCollection);
+            if (documents.isEmpty()) {
+                break;
+            }
+            AnswerArchiveChunk chunk = toChunk(surveyId, seq, documents);
+            List<Object> ids = new ArrayList<>(documents.size());
+            List<String> ledgerIds = new ArrayList<>(documents.size());
+            for (Document document : documents) {
+                Object id = document.get("_id");
+                ids.add(id);
+                ledgerIds.add(id instanceof ObjectId ? ((ObjectId) id).toHexString() : id.toString());
+            }
+            inTransaction(operations -> {
+                operations.insert(chunk);
+                operations.updateMulti(Query.query(Criteria.where("_id").in(ledgerIds)),
+                        Update.update("archived", true), AnswerProjection.class);
+                operations.remove(Query.query(Criteria.where("_id").in(ids)), answerCollection);
+                return null;
+            });
+            seq++;
+            total += documents.size();
+            if (documents.size() < config.getChunkSize()) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    @Override
+    public void forEachArchived(Long surveyId, LocalDateTime from, LocalDateTime to, Consumer<Answer> consumer) {
+        Criteria criteria = Criteria.where("surveyId").is(surveyId);
+        // 按块上的时间范围裁剪，不相交的块不读取
+        if (from != null) {
+            criteria.and("lastSubmittedAt").gte(from);
+        }
+        if (to != null) {
+            criteria.and("firstSubmittedAt").lte(to);
+        }
+        Query query = Query.query(criteria).with(Sort.by(Sort.Direction.ASC, "seq"));
+        try (CloseableIterator<AnswerArchiveChunk> chunks = mongoTemplate.stream(query, AnswerArchiveChunk.class)) {
+            while (chunks.hasNext()) {
+                ArchiveChunkCodec.unpack(chunks.next().getData(), document -> {
+                    Answer answer = read(document);
+                    LocalDateTime submittedAt = answer.getSubmittedAt();
+                    if ((from == null || !submittedAt.isBefore(from)) && (to == null || !submittedAt.isAfter(to))) {
+                        consumer.accept(answer);
+                    }
+                });
+            }
+        }
+    }
+
+    @Override
+    public long countArchived(Long surveyId) {
+        Query query = Query.query(Criteria.where("surveyId").is(surveyId));
+        query.fields().include("count");
+        return mongoTemplate.find(query, AnswerArchiveChunk.class).stream()
+                .mapToLong(AnswerArchiveChunk::getCount)
+                .sum();
+    }
+
+    @Override
+    public boolean existsArchived(Long surveyId, Long userId) {
+        return mongoTemplate.exists(userQuery(surveyId, userId), AnswerArchiveChunk.class);
+    }
+
+    @Override
+    public Optional<Answer> findArchived(Long surveyId, Long userId) {
+        List<Answer> found = new ArrayList<>(1);
+        Query query = userQuery(surveyId, userId).with(Sort.by(Sort.Direction.ASC, "seq"));
+        for (AnswerArchiveChunk chunk : mongoTemplate.find(query, AnswerArchiveChunk.class)) {
+            ArchiveChunkCodec.unpack(chunk.getData(), document -> {
+                if (found.isEmpty() && Objects.equals(userIdOf(document), userId)) {
+                    found.add(read(document));
+                }
+            });
+            if (!found.isEmpty()) {
+                return Optional.of(found.get(0));
+            }
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public List<Answer> findArchivedByUserId(Long userId) {
+        List<Answer> found = new ArrayList<>();
+        Query query = Query.query(Criteria.where("userIds").is(userId))
+                .with(Sort.by(Sort.Direction.ASC, "surveyId", "seq"));
+        for (AnswerArchiveChunk chunk : mongoTemplate.find(query, AnswerArchiveChunk.class)) {
+            ArchiveChunkCodec.unpack(chunk.getData(), document -> {
+                if (Objects.equals(userIdOf(document), userId)) {
+                    found.add(read(document));
+                }
+            });
+        }
+        return found;
+    }
+
+    @Override
+    public long countArchivedByUserId(Long userId) {
+        // 同一用户对同一问卷只有一份答案，包含该用户的块数即其归档答案数
+        return mongoTemplate.count(Query.query(Criteria.where("userIds").is(userId)), AnswerArchiveChunk.class);
+    }
+
+    @Override
+    public long deleteArchived(Long surveyId) {
+        long deleted = countArchived(surveyId);
+        // 删除台账与删除归档块在同一个事务中完成，提交后再撤销统计
+        List<AnswerProjection> retracted = inTransaction(operations -> {
+            List<AnswerProjection> taken = answerStatsProjection.takeArchived(operations,
+                    Criteria.where("surveyId").is(surveyId));
+            operations.remove(Query.query(Criteria.where("surveyId").is(surveyId)), AnswerArchiveChunk.class);
+            return taken;
+        });
+        answerStatsProjection.retract(retracted);
+        return deleted;
+    }
+
+    @Override
+    public long deleteArchivedByUserId(Long userId) {
+        long[] deleted = new long[1];
+        List<AnswerProjection> retracted = inTransaction(operations -> {
+            // 事务冲突重试时回调会重新执行，计数随之重置
+            deleted[0] = 0;
+            List<AnswerProjection> taken = new ArrayList<>();
+            for (AnswerArchiveChunk chunk : operations.find(Query.query(Criteria.where("userIds").is(userId)),
+                    AnswerArchiveChunk.class)) {
+                // 解压后去掉该用户的答案再重新压缩
+                List<Document> kept = new ArrayList<>();
+                List<String> removedIds = new ArrayList<>();
+                ArchiveChunkCodec.unpack(chunk.getData(), document -> {
+                    if (Objects.equals(userIdOf(document), userId)) {
+                        Object id = document.get("_id");
+                        removedIds.add(id instanceof ObjectId ? ((ObjectId) id).toHexString() : id.toString());
+                    } else {
+                        kept.add(document);
+                    }
+                });
+                taken.addAll(answerStatsProjection.takeArchived(operations, Criteria.where("_id").in(removedIds)));
+                if (kept.isEmpty()) {
+                    operations.remove(chunk);
+                } else {
+                    operations.save(toChunk(chunk.getSurveyId(), chunk.getSeq(), kept));
+                }
+                deleted[0] += removedIds.size();
+            }
+            return taken;
+        });
+        answerStatsProjection.retract(retracted);
+        return deleted[0];
+    }
+
+    /**
+     * 在一个MongoDB事务中执行，任一步失败整体回滚
+     */
+    private <T> T inTransaction(Function<MongoOperations, T> action) {
+        try (ClientSession session = mongoTemplate.getMongoDatabaseFactory()
+                .getSession(ClientSessionOptions.builder().build())) {
+            return session.withTransaction(() -> action.apply(mongoTemplate.withSession(session)));
+        }
+    }
+
+    private AnswerArchiveChunk toChunk(Long surveyId, int seq, List<Document> documents) {
+        List<Long> userIds = new ArrayList<>(documents.size());
+        LocalDateTime first = null;
+        LocalDateTime last = null;
+        for (Document document : documents) {
+            Long userId = userIdOf(document);
+            if (userId != null) {
+                userIds.add(userId);
+            }
+            Date submittedAt = document.getDate("submittedAt");
+            if (submittedAt != null) {
+                LocalDateTime time = LocalDateTime.ofInstant(submittedAt.toInstant(), ZoneId.systemDefault());
+                first = first == null || time.isBefore(first) ? time : first;
+                last = last == null || time.isAfter(last) ? time : last;
+            }
+        }
+        return new AnswerArchiveChunk(surveyId + ":" + seq, surveyId, seq, documents.size(), first, last, userIds,
+                ArchiveChunkCodec.pack(documents), LocalDateTime.now());
+    }
+
+    /**
+     * 归档中的文档不经过映射事件，需手动解码紧凑格式
+     */
+    private Answer read(Document document) {
+        return answerCodec.adapt(mongoTemplate.getConverter().read(Answer.class, document));
+    }
+
+    private int nextSeq(Long surveyId) {
+        Query query = Query.query(Criteria.where("surveyId").is(surveyId))
+                .with(Sort.by(Sort.Direction.DESC, "seq"))
+                .limit(1);
+        query.fields().include("seq");
+        AnswerArchiveChunk last = mongoTemplate.findOne(query, AnswerArchiveChunk.class);
+        return last == null ? 0 : last.getSeq() + 1;
+    }
+
+    private Query userQuery(Long surveyId, Long userId) {
+        return Query.query(Criteria.where("surveyId").is(surveyId).and("userIds").is(userId));
+    }
+
+    private static Long userIdOf(Document document) {
+        Object userId = document.get("userId");
+        return userId instanceof Number ? ((Number) userId).longValue() : null;
+    }
+
+    private void ensureIndexes() {
+        if (indexesEnsured) {
+            return;
+        }
+        mongoTemplate.indexOps(AnswerArchiveChunk.class)
+                .ensureIndex(new Index().on("surveyId", Sort.Direction.ASC).on("seq", Sort.Direction.ASC));
+        mongoTemplate.indexOps(AnswerArchiveChunk.class)
+                .ensureIndex(new Index().on("userIds", Sort.Direction.ASC).on("surveyId", Sort.Direction.ASC));
+        indexesEnsured = true;
+    }
+}
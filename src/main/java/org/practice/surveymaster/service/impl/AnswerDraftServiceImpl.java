@@ -0,0 +1,303 @@
+package org.practice.surveymaster.service.impl;
+
+import com.mongodb.ClientSessionOptions;
+import com.mongodb.client.ClientSession;
+import lombok.extern.slf4j.Slf4j;
+import org.practice.surveymaster.cache.SurveyStatusCache;
+import org.practice.surveymaster.config.AnswerDraftConfig;
+import org.practice.surveymaster.constant.ErrorCode;
+import org.practice.surveymaster.dto.SaveDraftDTO;
+import org.practice.surveymaster.dto.SubmitAnswerDTO;
+import org.practice.surveymaster.exception.BusinessException;
+import org.practice.surveymaster.model.mongo.Answer;
+import org.practice.surveymaster.model.mongo.AnswerDraft;
+import org.practice.surveymaster.service.AnswerArchiveService;
+import org.practice.surveymaster.service.AnswerDraftService;
+import org.practice.surveymaster.util.AssertUtil;
+import org.practice.surveymaster.validation.AnswerValidatorCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>
+ * 答案草稿服务实现类
+ * </p>
+ *
+ * <p>
+ * 保存请求按会话（问卷ID+用户ID）合并到内存缓冲，同一题目只保留最后一次的值；
+ * 会话静默超过防抖窗口或累计超过最长延迟后，由刷写任务写入MongoDB。
+ * 写入只修改改动的题目：已有题目用arrayFilters定位后$set，缺失的题目以条件$push追加，
+ * 不会整篇重写文档，一个会话的全部改动在一次有序批量写中完成。
+ * 提交时先写入该会话的缓冲，再在一个MongoDB事务中删除草稿并插入正式答案。
+ * 同一会话的刷写与提交通过分段锁串行，避免提交时遗漏正在写入的改动。
+ * </p>
+ *
+ * <p>
+ * 缓冲只存在于本实例内存中：多实例部署时，负载均衡必须按用户粘滞到同一实例，
+ * 否则在其他实例上读取或提交草稿会看不到尚未写入的改动，提交的答案可能缺少最后几秒的作答；
+ * 无法保证粘滞时应关闭缓冲（answer.draft.buffer-enabled=false），每次保存直接写入MongoDB。
+ * 实例异常退出时，未写入的改动最多丢失最长延迟内的部分。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+@Slf4j
+@Service
+public class AnswerDraftServiceImpl implements AnswerDraftService {
+
+    private static final int LOCK_STRIPES = 64;
+
+    private final MongoTemplate mongoTemplate;
+    private final AnswerValidatorCache answerValidatorCache;
+    private final SurveyStatusCache surveyStatusCache;
+    private final AnswerArchiveService answerArchiveService;
+    private final AnswerDraftConfig config;
+    private final Map<String, PendingDraft> pending = new ConcurrentHashMap<>();
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    @Autowired
+    public AnswerDraftServiceImpl(MongoTemplate mongoTemplate, AnswerValidatorCache answerValidatorCache,
+                                  SurveyStatusCache surveyStatusCache, AnswerArchiveService answerArchiveService,
+                                  AnswerDraftConfig config) {
+        this.mongoTemplate = mongoTemplate;
+        this.answerValidatorCache = answerValidatorCache;
+        this.surveyStatusCache = surveyStatusCache;
+        this.answerArchiveService = answerArchiveService;
+        this.config = config;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    @Override
+    public void saveDraft(SaveDraftDTO saveDraftDTO) {
+        String id = AnswerDraft.idOf(saveDraftDTO.getSurveyId(), saveDraftDTO.getUserId());
+        long now = System.currentTimeMillis();
+        if (!config.isBufferEnabled()
+                || !pending.containsKey(id) && pending.size() >= config.getMaxPendingSessions()) {
+            // 关闭缓冲或缓冲已满时不再合并，直接写入
+            PendingDraft draft = new PendingDraft(saveDraftDTO.getSurveyId(), saveDraftDTO.getUserId(), now);
+            draft.merge(saveDraftDTO.getAnswers(), now);
+            synchronized (lockOf(id)) {
+                write(id, draft);
+            }
+            return;
+        }
+        pending.compute(id, (key, draft) -> {
+            if (draft == null) {
+                draft = new PendingDraft(saveDraftDTO.getSurveyId(), saveDraftDTO.getUserId(), now);
+            }
+            draft.merge(saveDraftDTO.getAnswers(), now);
+            return draft;
+        });
+    }
+
+    @Override
+    public Optional<AnswerDraft> getDraft(Long surveyId, Long userId) {
+        String id = AnswerDraft.idOf(surveyId, userId);
+        AnswerDraft draft = mongoTemplate.findById(id, AnswerDraft.class);
+        Map<Long, Object> changes = new LinkedHashMap<>();
+        pending.computeIfPresent(id, (key, pendingDraft) -> {
+            changes.putAll(pendingDraft.answers);
+            return pendingDraft;
+        });
+        if (changes.isEmpty()) {
+            return Optional.ofNullable(draft);
+        }
+        if (draft == null) {
+            draft = new AnswerDraft(id, surveyId, userId, new ArrayList<>(), LocalDateTime.now(), LocalDateTime.now());
+        }
+        // 叠加尚未写入的改动
+        List<Answer.QuestionAnswer> answers = draft.getAnswers();
+        for (Answer.QuestionAnswer answer : answers) {
+            Object value = changes.remove(answer.getQuestionId());
+            if (value != null) {
+                answer.setAnswer(value);
+            }
+        }
+        changes.forEach((questionId, value) -> answers.add(new Answer.QuestionAnswer(questionId, value)));
+        return Optional.of(draft);
+    }
+
+    @Override
+    public Answer submitDraft(Long surveyId, Long userId) {
+        AssertUtil.state(surveyStatusCache.isAccepting(surveyId), ErrorCode.SURVEY_NOT_PUBLISHED);
+        String id = AnswerDraft.idOf(surveyId, userId);
+        synchronized (lockOf(id)) {
+            PendingDraft draft = pending.remove(id);
+            if (draft != null) {
+                write(id, draft);
+            }
+            try (ClientSession session = mongoTemplate.getMongoDatabaseFactory()
+                    .getSession(ClientSessionOptions.builder().build())) {
+                Answer answer;
+                try {
+                    answer = session.withTransaction(() -> convert(mongoTemplate.withSession(session), id));
+                } catch (DuplicateKeyException e) {
+                    // 其他途径的并发提交先写入了答案，唯一索引拒绝本次写入，事务回滚后草稿保留
+                    throw new BusinessException(ErrorCode.ANSWER_ALREADY_SUBMITTED);
+                }
+                log.info("用户 {} 提交问卷 {} 的草稿，答案ID: {}", userId, surveyId, answer.getId());
+                return answer;
+            }
+        }
+    }
+
+    @Override
+    public int flushDue() {
+        long now = System.currentTimeMillis();
+        int flushed = 0;
+        for (Map.Entry<String, PendingDraft> entry : pending.entrySet()) {
+            PendingDraft draft = entry.getValue();
+            if (!draft.isDue(now, config.getDebounceMillis(), config.getMaxDelayMillis())) {
+                continue;
+            }
+            synchronized (lockOf(entry.getKey())) {
+                // 已被提交流程取走的会话不再写入
+                if (pending.remove(entry.getKey(), draft)) {
+                    try {
+                        write(entry.getKey(), draft);
+                        flushed++;
+                    } catch (Exception e) {
+                        log.warn("写入答案草稿 {} 失败: {}", entry.getKey(), e.getMessage());
+                        pending.merge(entry.getKey(), draft, (current, failed) -> failed.mergeNewer(current));
+                    }
+                }
+            }
+        }
+        return flushed;
+    }
+
+    /**
+     * 停机前写入全部缓冲
+     */
+    @PreDestroy
+    public void flushAll() {
+        for (String id : new ArrayList<>(pending.keySet())) {
+            synchronized (lockOf(id)) {
+                PendingDraft draft = pending.remove(id);
+                if (draft != null) {
+                    try {
+                        write(id, draft);
+                    } catch (Exception e) {
+                        log.warn("停机时写入答案草稿 {} 失败: {}", id, e.getMessage());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 事务内删除草稿并写入正式答案，任一步失败整体回滚
+     * 草稿保存时不做校验，提交时按与直接提交相同的规则校验整份答案
+     */
+    private Answer convert(MongoOperations operations, String id) {
+        AnswerDraft draft = operations.findAndRemove(Query.query(Criteria.where("_id").is(id)), AnswerDraft.class);
+        AssertUtil.notNull(draft, ErrorCode.ANSWER_DRAFT_NOT_FOUND);
+        AssertUtil.state(draft.getAnswers() != null && !draft.getAnswers().isEmpty(), ErrorCode.INVALID_ANSWER_DATA);
+        answerValidatorCache.validate(draft.getSurveyId(), draft.getAnswers());
+        boolean answered = operations.exists(Query.query(Criteria.where("surveyId").is(draft.getSurveyId())
+                .and("userId").is(draft.getUserId())), Answer.class)
+                || answerArchiveService.existsArchived(draft.getSurveyId(), draft.getUserId());
+        AssertUtil.state(!answered, ErrorCode.ANSWER_ALREADY_SUBMITTED);
+
+        Answer answer = new Answer();
+        answer.setSurveyId(draft.getSurveyId());
+        answer.setUserId(draft.getUserId());
+        answer.setSubmittedAt(LocalDateTime.now());
+        answer.setAnswers(draft.getAnswers());
+        return operations.insert(answer);
+    }
+
+    /**
+     * 以字段级更新写入一个会话的改动，全部操作放在一个有序批量写中，一次往返完成
+     */
+    private void write(String id, PendingDraft draft) {
+        Query byId = Query.query(Criteria.where("_id").is(id));
+        LocalDateTime now = LocalDateTime.now();
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, AnswerDraft.class);
+        // 1. 草稿不存在时创建空草稿，后续操作统一按已存在处理
+        bulk.upsert(byId, new Update()
+                .set("updatedAt", now)
+                .setOnInsert("surveyId", draft.surveyId)
+                .setOnInsert("userId", draft.userId)
+                .setOnInsert("answers", new ArrayList<>())
+                .setOnInsert("createdAt", now));
+        if (!draft.answers.isEmpty()) {
+            // 2. 已存在的题目：arrayFilters定位后原地$set
+            Update update = new Update();
+            int index = 0;
+            for (Map.Entry<Long, Object> entry : draft.answers.entrySet()) {
+                String identifier = "q" + index++;
+                update.set("answers.$[" + identifier + "].answer", entry.getValue());
+                update.filterArray(Criteria.where(identifier + ".questionId").is(entry.getKey()));
+            }
+            bulk.updateOne(byId, update);
+        }
+        // 3. 缺失的题目：仅当数组中不存在该题时追加，并发追加也不会重复
+        for (Map.Entry<Long, Object> entry : draft.answers.entrySet()) {
+            bulk.updateOne(Query.query(Criteria.where("_id").is(id).and("answers.questionId").ne(entry.getKey())),
+                    new Update().push("answers", new Answer.QuestionAnswer(entry.getKey(), entry.getValue())));
+        }
+        bulk.execute();
+    }
+
+    private Object lockOf(String id) {
+        return locks[(id.hashCode() & Integer.MAX_VALUE) % LOCK_STRIPES];
+    }
+
+    /**
+     * 一个会话尚未写入的改动
+     */
+    private static final class PendingDraft {
+        private final Long surveyId;
+        private final Long userId;
+        private final long firstSavedAt;
+        private volatile long lastSavedAt;
+        private final Map<Long, Object> answers = new LinkedHashMap<>();
+
+        private PendingDraft(Long surveyId, Long userId, long now) {
+            this.surveyId = surveyId;
+            this.userId = userId;
+            this.firstSavedAt = now;
+            this.lastSavedAt = now;
+        }
+
+        private void merge(List<SubmitAnswerDTO.QuestionAnswerDTO> changes, long now) {
+            for (SubmitAnswerDTO.QuestionAnswerDTO change : changes) {
+                answers.put(change.getQuestionId(), change.getAnswer());
+            }
+            lastSavedAt = now;
+        }
+
+        /**
+         * 写入失败后与期间新产生的改动合并，新改动优先
+         */
+        private PendingDraft mergeNewer(PendingDraft newer) {
+            answers.putAll(newer.answers);
+            lastSavedAt = newer.lastSavedAt;
+            return this;
+        }
+
+        private boolean isDue(long now, long debounceMillis, long maxDelayMillis) {
+            return now - lastSavedAt >= debounceMillis || now - firstSavedAt >= maxDelayMillis;
+        }
+    }
+}
@@ -2,16 +2,19 @@ package org.practice.surveymaster.service.impl;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.practice.surveymaster.cache.SurveyStatusCache;
 import org.practice.surveymaster.constant.ErrorCode;
 import org.practice.surveymaster.dto.AnswerQueryDTO;
 import org.practice.surveymaster.dto.SubmitAnswerDTO;
 import org.practice.surveymaster.dto.UpdateAnswerDTO;
 import org.practice.surveymaster.exception.BusinessException;
-import org.practice.surveymaster.mapper.QuestionMapper;
-import org.practice.surveymaster.mapper.SurveyMapper;
 import org.practice.surveymaster.model.mongo.Answer;
 import org.practice.surveymaster.repository.AnswerRepository;
+import org.practice.surveymaster.service.AnswerArchiveService;
 import org.practice.surveymaster.service.AnswerService;
+import org.practice.surveymaster.util.AssertUtil;
+import org.practice.surveymaster.validation.AnswerValidatorCache;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -20,10 +23,13 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.util.HashSet;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.IntToLongFunction;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * <p>
@@ -44,30 +50,29 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class AnswerServiceImpl implements AnswerService {
 
+    /**
+     * 批量删除答案时单批删除的文档数
+     */
+    private static final int DELETE_CHUNK_SIZE = 500;
+
     private final AnswerRepository answerRepository;
-    private final QuestionMapper questionMapper;
+    private final AnswerArchiveService answerArchiveService;
+    private final AnswerValidatorCache answerValidatorCache;
+    private final SurveyStatusCache surveyStatusCache;
 
     @Override
     @Transactional
     public Answer submitAnswer(SubmitAnswerDTO submitAnswerDTO) {
         log.info("用户 {} 开始提交问卷 {} 的答案", submitAnswerDTO.getUserId(), submitAnswerDTO.getSurveyId());
         
+        // 只有已发布的问卷接收答案
+        AssertUtil.state(surveyStatusCache.isAccepting(submitAnswerDTO.getSurveyId()), ErrorCode.SURVEY_NOT_PUBLISHED);
+
         // 检查用户是否已经回答过该问卷
         if (hasUserAnswered(submitAnswerDTO.getSurveyId(), submitAnswerDTO.getUserId())) {
             throw new BusinessException(ErrorCode.ANSWER_ALREADY_SUBMITTED);
         }
 
-        // 获取surveyId所有问题ID
-        List<Long> questionIds = questionMapper.getQuestionIdsBySurveyId(submitAnswerDTO.getSurveyId());
-        // 如果submitAnswerDTO 中 任意一个questionId 不在 questionIds 中，则认定为不合法
-        List<Long> submittedQuestionIds = submitAnswerDTO.getAnswers().stream()
-                .map(SubmitAnswerDTO.QuestionAnswerDTO::getQuestionId)
-                .collect(Collectors.toList());
-        
-        if (!new HashSet<>(questionIds).containsAll(submittedQuestionIds)) {
-            throw new BusinessException(ErrorCode.QUESTION_NOT_FOUND);
-        }
-
         // 创建答案实体
         Answer answer = new Answer();
         answer.setSurveyId(submitAnswerDTO.getSurveyId());
@@ -78,10 +83,17 @@ public class AnswerServiceImpl implements AnswerService {
         List<Answer.QuestionAnswer> questionAnswers = submitAnswerDTO.getAnswers().stream()
                 .map(dto -> new Answer.QuestionAnswer(dto.getQuestionId(), dto.getAnswer()))
                 .collect(Collectors.toList());
+        // 按问卷编译好的规则校验题目、选项与取值范围
+        answerValidatorCache.validate(submitAnswerDTO.getSurveyId(), questionAnswers);
         answer.setAnswers(questionAnswers);
         
-        // 保存答案
-        Answer savedAnswer = answerRepository.save(answer);
+        // 保存答案；并发的重复提交都通过了上面的检查，由(surveyId, userId)唯一索引拒绝
+        Answer savedAnswer;
+        try {
+            savedAnswer = answerRepository.save(answer);
+        } catch (DuplicateKeyException e) {
+            throw new BusinessException(ErrorCode.ANSWER_ALREADY_SUBMITTED);
+        }
         log.info("用户 {} 成功提交问卷 {} 的答案，答案ID: {}", 
                 submitAnswerDTO.getUserId(), submitAnswerDTO.getSurveyId(), savedAnswer.getId());
         
@@ -97,7 +109,8 @@ public class AnswerServiceImpl implements AnswerService {
     @Override
     public Optional<Answer> getAnswerBySurveyIdAndUserId(Long surveyId, Long userId) {
         log.debug("根据问卷ID {} 和用户ID {} 查询答案", surveyId, userId);
-        return answerRepository.findBySurveyIdAndUserId(surveyId, userId);
+        Optional<Answer> answer = answerRepository.findBySurveyIdAndUserId(surveyId, userId);
+        return answer.isPresent() ? answer : answerArchiveService.findArchived(surveyId, userId);
     }
 
     @Override
@@ -133,13 +146,19 @@ public class AnswerServiceImpl implements AnswerService {
     @Override
     public List<Answer> getAnswersBySurveyId(Long surveyId) {
         log.debug("根据问卷ID {} 查询所有答案", surveyId);
-        return answerRepository.findBySurveyId(surveyId);
+        // 归档中的答案更早，排在前面
+        List<Answer> answers = new ArrayList<>();
+        answerArchiveService.forEachArchived(surveyId, null, null, answers::add);
+        answers.addAll(answerRepository.findBySurveyId(surveyId));
+        return answers;
     }
 
     @Override
     public List<Answer> getAnswersByUserId(Long userId) {
         log.debug("根据用户ID {} 查询所有答案", userId);
-        return answerRepository.findByUserId(userId);
+        List<Answer> answers = new ArrayList<>(answerArchiveService.findArchivedByUserId(userId));
+        answers.addAll(answerRepository.findByUserId(userId));
+        return answers;
     }
 
     @Override
@@ -156,11 +175,14 @@ public class AnswerServiceImpl implements AnswerService {
         // 查找现有答案
         Answer existingAnswer = answerRepository.findById(updateAnswerDTO.getId())
                 .orElseThrow(() -> new BusinessException(ErrorCode.NOT_FOUND));
+        // 问卷关闭或删除后不再允许修改答案
+        AssertUtil.state(surveyStatusCache.isAccepting(existingAnswer.getSurveyId()), ErrorCode.SURVEY_NOT_PUBLISHED);
         
         // 转换新的答案列表
         List<Answer.QuestionAnswer> questionAnswers = updateAnswerDTO.getAnswers().stream()
                 .map(dto -> new Answer.QuestionAnswer(dto.getQuestionId(), dto.getAnswer()))
                 .collect(Collectors.toList());
+        answerValidatorCache.validate(existingAnswer.getSurveyId(), questionAnswers);
         
         // 更新答案内容
         existingAnswer.setAnswers(questionAnswers);
@@ -188,39 +210,63 @@ public class AnswerServiceImpl implements AnswerService {
     }
 
     @Override
-    @Transactional
     public long deleteAnswersBySurveyId(Long surveyId) {
         log.info("开始删除问卷 {} 的所有答案", surveyId);
-        long deletedCount = answerRepository.deleteBySurveyId(surveyId);
+        long deletedCount = deleteInChunks(limit -> answerRepository.deleteChunkBySurveyId(surveyId, limit))
+                + answerArchiveService.deleteArchived(surveyId);
         log.info("成功删除问卷 {} 的 {} 条答案记录", surveyId, deletedCount);
         return deletedCount;
     }
 
     @Override
-    @Transactional
     public long deleteAnswersByUserId(Long userId) {
         log.info("开始删除用户 {} 的所有答案", userId);
-        long deletedCount = answerRepository.deleteByUserId(userId);
+        long deletedCount = deleteInChunks(limit -> answerRepository.deleteChunkByUserId(userId, limit))
+                + answerArchiveService.deleteArchivedByUserId(userId);
         log.info("成功删除用户 {} 的 {} 条答案记录", userId, deletedCount);
         return deletedCount;
     }
 
+    /**
+     * 分批删除直到清理完毕
+     * 每批删除在Change Stream中产生一批删除事件，统计投影按批撤销计数，不会一次涌入整份问卷的删除
+     */
+    private long deleteInChunks(IntToLongFunction deleteChunk) {
+        long total = 0;
+        long deleted;
+        do {
+            deleted = deleteChunk.applyAsLong(DELETE_CHUNK_SIZE);
+            total += deleted;
+        } while (deleted >= DELETE_CHUNK_SIZE);
+        return total;
+    }
+
     @Override
     public long countAnswersBySurveyId(Long surveyId) {
         log.debug("统计问卷 {} 的答案数量", surveyId);
-        return answerRepository.countBySurveyId(surveyId);
+        return answerRepository.countBySurveyId(surveyId) + answerArchiveService.countArchived(surveyId);
     }
 
     @Override
     public long countAnswersByUserId(Long userId) {
         log.debug("统计用户 {} 的答案数量", userId);
-        return answerRepository.countByUserId(userId);
+        return answerRepository.countByUserId(userId) + answerArchiveService.countArchivedByUserId(userId);
     }
 
     @Override
     public boolean hasUserAnswered(Long surveyId, Long userId) {
         log.debug("检查用户 {} 是否已回答问卷 {}", userId, surveyId);
-        return answerRepository.existsBySurveyIdAndUserId(surveyId, userId);
+        return answerRepository.existsBySurveyIdAndUserId(surveyId, userId)
+                || answerArchiveService.existsArchived(surveyId, userId);
+    }
+
+    @Override
+    public void exportAnswers(Long surveyId, Consumer<Answer> consumer) {
+        log.info("导出问卷 {} 的答案", surveyId);
+        answerArchiveService.forEachArchived(surveyId, null, null, consumer);
+        try (Stream<Answer> answers = answerRepository.streamBySurveyId(surveyId)) {
+            answers.forEach(consumer);
+        }
     }
 
     @Override
@@ -0,0 +1,212 @@
+package org.practice.surveymaster.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import org.practice.surveymaster.cache.SurveyResultCache;
+import org.practice.surveymaster.codec.OptionDictionary;
+import org.practice.surveymaster.config.AnswerProjectionConfig;
+import org.practice.surveymaster.config.UniqueRespondentConfig;
+import org.practice.surveymaster.constant.ErrorCode;
+import org.practice.surveymaster.constant.QuestionType;
+import org.practice.surveymaster.constant.TimeGranularity;
+import org.practice.surveymaster.mapper.QuestionMapper;
+import org.practice.surveymaster.projection.AnswerStatsKeys;
+import org.practice.surveymaster.projection.RatingSketch;
+import org.practice.surveymaster.projection.SubmissionRollup;
+import org.practice.surveymaster.repository.AnswerRepository;
+import org.practice.surveymaster.service.AnswerArchiveService;
+import org.practice.surveymaster.service.AnswerStatsService;
+import org.practice.surveymaster.util.AssertUtil;
+import org.practice.surveymaster.vo.RatingStats;
+import org.practice.surveymaster.vo.SubmissionSeries;
+import org.practice.surveymaster.vo.SurveyAnswerStats;
+import org.practice.surveymaster.vo.UniqueRespondents;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * 答题统计服务实现类
+ *
+ * @author ljn
+ * @since 2025/10/18
+ */
+@Service
+@RequiredArgsConstructor
+public class AnswerStatsServiceImpl implements AnswerStatsService {
+
+    /**
+     * 按日期范围查询时最多合并的日桶数
+     */
+    private static final int MAX_RATING_DAYS = 366;
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final QuestionMapper questionMapper;
+    private final OptionDictionary optionDictionary;
+    private final AnswerRepository answerRepository;
+    private final AnswerArchiveService answerArchiveService;
+    private final AnswerProjectionConfig config;
+    private final UniqueRespondentConfig uniqueRespondentConfig;
+    private final SubmissionRollup submissionRollup;
+    private final SurveyResultCache surveyResultCache;
+
+    @Override
+    public SurveyAnswerStats getSurveyStats(Long surveyId) {
+        return surveyResultCache.get(surveyId, "stats", () -> {
+            long answerCount = readCount(AnswerStatsKeys.survey(config.getStatsKeyPrefix(), surveyId));
+            return new SurveyAnswerStats(surveyId, answerCount, readOptionCounts(surveyId));
+        });
+    }
+
+    @Override
+    public long getUserAnswerCount(Long userId) {
+        return readCount(AnswerStatsKeys.user(config.getStatsKeyPrefix(), userId));
+    }
+
+    @Override
+    public RatingStats getRatingStats(Long surveyId, Long questionId, LocalDate from, LocalDate to) {
+        AssertUtil.state(optionDictionary.get(surveyId).typeOf(questionId) == QuestionType.RATING,
+                ErrorCode.INVALID_QUESTION_TYPE);
+        String prefix = config.getStatsKeyPrefix();
+        List<String> keys = new ArrayList<>();
+        if (from == null && to == null) {
+            keys.add(AnswerStatsKeys.rating(prefix, surveyId, questionId));
+        } else {
+            AssertUtil.state(from != null && to != null && !from.isAfter(to)
+                    && ChronoUnit.DAYS.between(from, to) < MAX_RATING_DAYS, ErrorCode.BAD_REQUEST);
+            for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+                keys.add(AnswerStatsKeys.rating(prefix, surveyId, questionId, day));
+            }
+        }
+
+        // 日期范围内的日桶通过一次管道读取后合并
+        List<Object> results = stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Object execute(RedisOperations operations) throws DataAccessException {
+                for (String key : keys) {
+                    operations.opsForHash().entries(key);
+                }
+                return null;
+            }
+        });
+        RatingSketch sketch = new RatingSketch();
+        for (Object result : results) {
+            sketch.merge(RatingSketch.fromHash((Map<?, ?>) result));
+        }
+        return new RatingStats(surveyId, questionId, sketch.count(), sketch.mean(), sketch.quantile(0.5),
+                sketch.quantile(0.9), sketch.distribution());
+    }
+
+    @Override
+    public UniqueRespondents getSurveyUniqueRespondents(Long surveyId, LocalDate from, LocalDate to) {
+        checkUniqueRange(from, to);
+        long answerCount = readCount(AnswerStatsKeys.survey(config.getStatsKeyPrefix(), surveyId));
+        if (answerCount > uniqueRespondentConfig.getExactThreshold()) {
+            return estimateUnique(from, to,
+                    day -> AnswerStatsKeys.surveyUnique(config.getStatsKeyPrefix(), surveyId, day));
+        }
+        // 小问卷直接精确去重，热数据由数据库去重，归档数据流式合并
+        LocalDateTime start = from.atStartOfDay();
+        LocalDateTime end = to.plusDays(1).atStartOfDay().minusNanos(1);
+        Set<Long> userIds = new HashSet<>(answerRepository.findDistinctUserIds(surveyId, start, end));
+        answerArchiveService.forEachArchived(surveyId, start, end, answer -> {
+            if (answer.getUserId() != null) {
+                userIds.add(answer.getUserId());
+            }
+        });
+        userIds.remove(null);
+        return new UniqueRespondents(from, to, userIds.size(), true);
+    }
+
+    @Override
+    public UniqueRespondents getOwnerUniqueRespondents(Long ownerId, LocalDate from, LocalDate to) {
+        checkUniqueRange(from, to);
+        return estimateUnique(from, to, day -> AnswerStatsKeys.ownerUnique(config.getStatsKeyPrefix(), ownerId, day));
+    }
+
+    @Override
+    public SubmissionSeries getSubmissionSeries(Long surveyId, TimeGranularity granularity,
+                                                LocalDateTime from, LocalDateTime to) {
+        AssertUtil.state(granularity != null && from != null && to != null, ErrorCode.BAD_REQUEST);
+        List<SubmissionSeries.Point> points = new ArrayList<>();
+        long total = 0;
+        for (Map.Entry<LocalDateTime, Long> entry : submissionRollup.series(surveyId, granularity, from, to).entrySet()) {
+            points.add(new SubmissionSeries.Point(entry.getKey(), entry.getValue()));
+            total += entry.getValue();
+        }
+        return new SubmissionSeries(surveyId, granularity, total, points);
+    }
+
+    private void checkUniqueRange(LocalDate from, LocalDate to) {
+        AssertUtil.state(from != null && to != null && !from.isAfter(to)
+                && ChronoUnit.DAYS.between(from, to) < uniqueRespondentConfig.getMaxRangeDays(), ErrorCode.BAD_REQUEST);
+    }
+
+    /**
+     * PFCOUNT对范围内的全部日桶求并集后估算
+     */
+    private UniqueRespondents estimateUnique(LocalDate from, LocalDate to, Function<LocalDate, String> keyOfDay) {
+        List<String> keys = new ArrayList<>();
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            keys.add(keyOfDay.apply(day));
+        }
+        Long count = stringRedisTemplate.opsForHyperLogLog().size(keys.toArray(new String[0]));
+        return new UniqueRespondents(from, to, count == null ? 0L : count, false);
+    }
+
+    /**
+     * 通过一次管道读取问卷所有题目的选项计数
+     */
+    private Map<Long, Map<String, Long>> readOptionCounts(Long surveyId) {
+        List<Long> questionIds = questionMapper.getQuestionIdsBySurveyId(surveyId);
+        Map<Long, Map<String, Long>> optionCounts = new LinkedHashMap<>();
+        if (questionIds.isEmpty()) {
+            return optionCounts;
+        }
+        String prefix = config.getStatsKeyPrefix();
+        List<Object> results = stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Object execute(RedisOperations operations) throws DataAccessException {
+                for (Long questionId : questionIds) {
+                    operations.opsForHash().entries(AnswerStatsKeys.question(prefix, surveyId, questionId));
+                }
+                return null;
+            }
+        });
+        for (int i = 0; i < questionIds.size(); i++) {
+            Map<?, ?> entries = (Map<?, ?>) results.get(i);
+            if (entries == null || entries.isEmpty()) {
+                continue;
+            }
+            Map<String, Long> counts = new LinkedHashMap<>();
+            for (Map.Entry<?, ?> entry : entries.entrySet()) {
+                long count = Long.parseLong(entry.getValue().toString());
+                // 撤销后归零的选项不再展示
+                if (count > 0) {
+                    counts.put(entry.getKey().toString(), count);
+                }
+            }
+            optionCounts.put(questionIds.get(i), counts);
+        }
+        return optionCounts;
+    }
+
+    private long readCount(String key) {
+        Object value = stringRedisTemplate.opsForHash().get(key, AnswerStatsKeys.FIELD_ANSWERS);
+        return value == null ? 0L : Long.parseLong(value.toString());
+    }
+}
@@ -0,0 +1,146 @@
+package org.practice.surveymaster.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.practice.surveymaster.config.HotSurveyConfig;
+import org.practice.surveymaster.constant.SurveyStatus;
+import org.practice.surveymaster.mapper.SurveyMapper;
+import org.practice.surveymaster.model.Survey;
+import org.practice.surveymaster.service.HotSurveyService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <p>
+ * 热门问卷服务实现类
+ * </p>
+ *
+ * <p>
+ * 热度按指数衰减：一次在t时刻的答题，在当前时刻now的贡献为 e^(-λ(now-t))，λ = ln2 / 半衰期。
+ * 由于所有问卷在同一时刻都乘以相同的衰减因子 e^(-λ·now)，排序只取决于 Σ e^(λt)，
+ * 因此ZSET中存储其对数 log(Σ e^(λ(t-epoch)))，新增一次答题即在Lua脚本中做一次log-sum-exp合并。
+ * 这样无需定时重写整个集合（惰性衰减），分值随时间线性增长，不会溢出。
+ * </p>
+ *
+ * <p>
+ * 首页读取的是本地快照，由定时任务每隔几秒从ZSET取Top-N并批量查询问卷信息后整体替换，
+ * 请求路径上不访问Redis与数据库。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/14
+ */
+@Slf4j
+@Service
+public class HotSurveyServiceImpl implements HotSurveyService {
+
+    /**
+     * 衰减计算的基准时间，固定值保证各实例计算结果一致
+     */
+    private static final long EPOCH_MILLIS = LocalDateTime.of(2025, 1, 1, 0, 0)
+            .atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+
+    /**
+     * log-sum-exp合并：score = max + log(1 + e^(min - max))，并淘汰超出容量的低热度问卷
+     */
+    private static final String INCR_SCRIPT =
+            "local x = tonumber(ARGV[2]) " +
+            "local s = redis.call('ZSCORE', KEYS[1], ARGV[1]) " +
+            "if s then " +
+            "  s = tonumber(s) " +
+            "  local hi = math.max(s, x) " +
+            "  local lo = math.min(s, x) " +
+            "  x = hi + math.log(1 + math.exp(lo - hi)) " +
+            "end " +
+            "redis.call('ZADD', KEYS[1], x, ARGV[1]) " +
+            "local size = redis.call('ZCARD', KEYS[1]) " +
+            "if size > tonumber(ARGV[3]) then " +
+            "  redis.call('ZREMRANGEBYRANK', KEYS[1], 0, size - tonumber(ARGV[3]) - 1) " +
+            "end " +
+            "return 1";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final SurveyMapper surveyMapper;
+    private final HotSurveyConfig hotSurveyConfig;
+    private final DefaultRedisScript<Long> incrScript = new DefaultRedisScript<>(INCR_SCRIPT, Long.class);
+
+    /**
+     * 本地Top-N快照，整体替换，读取无需加锁
+     */
+    private volatile List<Survey> snapshot = Collections.emptyList();
+
+    @Autowired
+    public HotSurveyServiceImpl(StringRedisTemplate stringRedisTemplate, SurveyMapper surveyMapper,
+                                HotSurveyConfig hotSurveyConfig) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.surveyMapper = surveyMapper;
+        this.hotSurveyConfig = hotSurveyConfig;
+    }
+
+    @Override
+    public void recordAnswer(Long surveyId, LocalDateTime answeredAt) {
+        double score = logWeight(answeredAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        stringRedisTemplate.execute(incrScript, Collections.singletonList(hotSurveyConfig.getKey()),
+                surveyId.toString(), String.valueOf(score), String.valueOf(hotSurveyConfig.getMaxSize()));
+    }
+
+    @Override
+    public void remove(Long surveyId) {
+        stringRedisTemplate.opsForZSet().remove(hotSurveyConfig.getKey(), surveyId.toString());
+    }
+
+    @Override
+    public List<Survey> getHotSurveys() {
+        return snapshot;
+    }
+
+    @Override
+    public void refreshSnapshot() {
+        int topN = hotSurveyConfig.getTopN();
+        // 多取一些候选，过滤掉未发布的问卷后仍能凑满Top-N
+        Set<String> members = stringRedisTemplate.opsForZSet()
+                .reverseRange(hotSurveyConfig.getKey(), 0, topN * 2L - 1);
+        if (members == null || members.isEmpty()) {
+            snapshot = Collections.emptyList();
+            return;
+        }
+        List<Long> ids = new ArrayList<>(members.size());
+        for (String member : members) {
+            ids.add(Long.valueOf(member));
+        }
+
+        Map<Long, Survey> surveys = new HashMap<>();
+        for (Survey survey : surveyMapper.selectByIds(ids)) {
+            surveys.put(survey.getId(), survey);
+        }
+        List<Survey> result = new ArrayList<>(topN);
+        for (Long id : ids) {
+            Survey survey = surveys.get(id);
+            if (survey != null && survey.getStatus() == SurveyStatus.PUBLISHED.getCode()) {
+                result.add(survey);
+                if (result.size() >= topN) {
+                    break;
+                }
+            }
+        }
+        snapshot = Collections.unmodifiableList(result);
+    }
+
+    /**
+     * 计算t时刻一次答题的对数权重 λ(t - epoch)
+     */
+    double logWeight(long epochMillis) {
+        double lambdaPerMilli = Math.log(2) / (hotSurveyConfig.getHalfLifeHours() * 3600_000d);
+        return lambdaPerMilli * (epochMillis - EPOCH_MILLIS);
+    }
+}
@@ -10,6 +10,7 @@ import org.practice.surveymaster.model.Question;
 import org.practice.surveymaster.model.Survey;
 import org.practice.surveymaster.service.OptionService;
 import org.practice.surveymaster.util.AssertUtil;
+import org.practice.surveymaster.validation.AnswerValidatorCache;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -30,19 +31,22 @@ public class OptionServiceImpl implements OptionService {
     private final OptionMapper optionMapper;
     private final QuestionMapper questionMapper;
     private final SurveyMapper surveyMapper;
+    private final AnswerValidatorCache answerValidatorCache;
     
     @Autowired
-    public OptionServiceImpl(OptionMapper optionMapper, QuestionMapper questionMapper, SurveyMapper surveyMapper) {
+    public OptionServiceImpl(OptionMapper optionMapper, QuestionMapper questionMapper, SurveyMapper surveyMapper,
+                             AnswerValidatorCache answerValidatorCache) {
         this.optionMapper = optionMapper;
         this.questionMapper = questionMapper;
         this.surveyMapper = surveyMapper;
+        this.answerValidatorCache = answerValidatorCache;
     }
     
     @Override
     public OptionTable addOption(AddOption addOption, Long currentUserId) {
         AssertUtil.notNull(currentUserId, ErrorCode.AUTH_FAILURE, "用户未登录");
         
-        questionF(addOption.getQuestionId(),currentUserId);
+        Question question = questionF(addOption.getQuestionId(),currentUserId);
         
         // 创建选项对象
         OptionTable option = new OptionTable();
@@ -51,6 +55,7 @@ public class OptionServiceImpl implements OptionService {
         // 插入选项
         int result = optionMapper.insert(option);
         AssertUtil.isTrue(result > 0, ErrorCode.OPERATION_FAILED, "添加选项失败");
+        answerValidatorCache.invalidate(question.getSurveyId());
         
         return option;
     }
@@ -61,7 +66,7 @@ public class OptionServiceImpl implements OptionService {
         AssertUtil.notNull(questionId, ErrorCode.BAD_REQUEST, "问题ID不能为空");
         AssertUtil.notEmpty(optionContents, ErrorCode.BAD_REQUEST, "选项内容不能为空");
         
-        questionF(questionId,currentUserId);
+        Question question = questionF(questionId,currentUserId);
         
         // 创建选项列表
         List<OptionTable> options = new ArrayList<>();
@@ -78,6 +83,7 @@ public class OptionServiceImpl implements OptionService {
         if (!options.isEmpty()) {
             int result = optionMapper.batchInsert(options);
             AssertUtil.isTrue(result > 0, ErrorCode.OPERATION_FAILED, "批量添加选项失败");
+            answerValidatorCache.invalidate(question.getSurveyId());
         }
         
         return options;
@@ -115,11 +121,12 @@ public class OptionServiceImpl implements OptionService {
         AssertUtil.notNull(existingOption, ErrorCode.NOT_FOUND, "选项不存在");
         
         // 验证用户权限
-        questionF(option.getQuestionId(),currentUserId);
+        Question question = questionF(option.getQuestionId(),currentUserId);
         
         // 更新选项
         int result = optionMapper.update(option);
         AssertUtil.isTrue(result > 0, ErrorCode.OPERATION_FAILED, "更新选项失败");
+        answerValidatorCache.invalidate(question.getSurveyId());
     }
     
     @Override
@@ -131,11 +138,12 @@ public class OptionServiceImpl implements OptionService {
         OptionTable option = optionMapper.selectById(id);
         AssertUtil.notNull(option, ErrorCode.NOT_FOUND, "选项不存在");
 
-        questionF(option.getQuestionId(),currentUserId);
+        Question question = questionF(option.getQuestionId(),currentUserId);
 
         // 删除选项
         int result = optionMapper.deleteById(id);
         AssertUtil.isTrue(result > 0, ErrorCode.OPERATION_FAILED, "删除选项失败");
+        answerValidatorCache.invalidate(question.getSurveyId());
     }
 
 
@@ -145,18 +153,20 @@ public class OptionServiceImpl implements OptionService {
         AssertUtil.notNull(questionId, ErrorCode.BAD_REQUEST, "问题ID不能为空");
         AssertUtil.notNull(currentUserId, ErrorCode.AUTH_FAILURE, "用户未登录");
 
-        questionF(questionId,currentUserId);
+        Question question = questionF(questionId,currentUserId);
         
         // 删除问题的所有选项
         optionMapper.deleteByQuestionId(questionId);
+        answerValidatorCache.invalidate(question.getSurveyId());
     }
 
     /**
      * 验证问题是否存在/验证用户权限
      * @param questionId 问题ID
      * @param currentUserId 当前用户ID
+     * @return 问题
      */
-    private void questionF(Long questionId,Long currentUserId) {
+    private Question questionF(Long questionId,Long currentUserId) {
         // 验证问题是否存在
         Question question = questionMapper.selectById(questionId);
         AssertUtil.notNull(question, ErrorCode.NOT_FOUND, "问题不存在");
@@ -165,5 +175,6 @@ public class OptionServiceImpl implements OptionService {
         Survey survey = surveyMapper.selectById(question.getSurveyId());
         AssertUtil.notNull(survey, ErrorCode.NOT_FOUND, "问卷不存在");
         AssertUtil.isTrue(survey.getUserId().equals(currentUserId), ErrorCode.PERMISSION_DENIED, "无权限操作该问卷");
+        return question;
     }
 }
\ No newline at end of file
@@ -0,0 +1,176 @@
+package org.practice.surveymaster.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.practice.surveymaster.config.OutboxConfig;
+import org.practice.surveymaster.constant.ErrorCode;
+import org.practice.surveymaster.exception.BusinessException;
+import org.practice.surveymaster.mapper.OutboxEventMapper;
+import org.practice.surveymaster.model.OutboxEvent;
+import org.practice.surveymaster.service.OutboxService;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageBuilder;
+import org.springframework.amqp.core.MessageDeliveryMode;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * <p>
+ * 发件箱服务实现类
+ * </p>
+ *
+ * <p>
+ * 写入使用MANDATORY传播级别，保证事件只会随业务事务一起写入。
+ * 投递时先抢占Redis锁，同一时刻只有一个实例按ID顺序读取一批事件，在同一个channel上依次发布并等待Broker确认，
+ * 全部确认后再批量删除；发布失败或实例崩溃时事件保留，下次重新投递（至少一次）。
+ * 每批投递前按令牌续期锁，续期失败说明锁已过期、可能已被其他实例持有，立即结束本轮，不会有两个实例同时发布。
+ * 每条消息以 outbox-{事件ID} 作为messageId，消费方可据此去重。
+ * </p>
+ *
+ * <p>
+ * 自增ID在插入时分配而非提交时，较小ID的事务可能晚于较大ID提交；只投递写入时间早于提交宽限期的事件，
+ * 宽限期大于业务事务的最长耗时时，投递顺序即提交顺序。耗时超过宽限期的事务提交的事件仍会被投递，但可能晚于ID更大的事件，
+ * 因此顺序保证的是按提交（宽限期内），而不是严格按ID。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/15
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OutboxServiceImpl implements OutboxService {
+
+    private static final String RELEASE_LOCK_SCRIPT =
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) end return 0";
+
+    private static final String RENEW_LOCK_SCRIPT =
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('PEXPIRE', KEYS[1], ARGV[2]) end return 0";
+
+    private final OutboxEventMapper outboxEventMapper;
+    private final OutboxConfig outboxConfig;
+    private final RabbitTemplate rabbitTemplate;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ObjectMapper objectMapper;
+    private final DefaultRedisScript<Long> releaseLockScript = new DefaultRedisScript<>(RELEASE_LOCK_SCRIPT, Long.class);
+    private final DefaultRedisScript<Long> renewLockScript = new DefaultRedisScript<>(RENEW_LOCK_SCRIPT, Long.class);
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(String aggregateType, Long aggregateId, String eventType, String payload) {
+        OutboxEvent event = new OutboxEvent();
+        event.setAggregateType(aggregateType);
+        event.setAggregateId(aggregateId);
+        event.setEventType(eventType);
+        event.setPayload(payload);
+        event.setCreatedAt(LocalDateTime.now());
+        outboxEventMapper.insert(event);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void surveyChanged(Long surveyId) {
+        append(OutboxEvent.AGGREGATE_SURVEY, surveyId, OutboxEvent.SURVEY_CHANGED, null);
+    }
+
+    @Override
+    public int relayPending() {
+        String token = UUID.randomUUID().toString();
+        Boolean locked = stringRedisTemplate.opsForValue().setIfAbsent(outboxConfig.getLockKey(), token,
+                Duration.ofMillis(outboxConfig.getLockLeaseMillis()));
+        if (!Boolean.TRUE.equals(locked)) {
+            return 0;
+        }
+        try {
+            int relayed = 0;
+            for (int batch = 0; batch < outboxConfig.getMaxBatchesPerRun(); batch++) {
+                if (batch > 0 && !renewLock(token)) {
+                    log.warn("发件箱投递锁已失效，结束本轮投递，已投递 {} 条", relayed);
+                    break;
+                }
+                LocalDateTime before = LocalDateTime.now().minusNanos(outboxConfig.getCommitGraceMillis() * 1_000_000L);
+                List<OutboxEvent> events = outboxEventMapper.selectBatch(outboxConfig.getBatchSize(), before);
+                if (events.isEmpty()) {
+                    break;
+                }
+                publish(events);
+
+                List<Long> ids = new ArrayList<>(events.size());
+                for (OutboxEvent event : events) {
+                    ids.add(event.getId());
+                }
+                outboxEventMapper.deleteByIds(ids);
+                relayed += events.size();
+                if (events.size() < outboxConfig.getBatchSize()) {
+                    break;
+                }
+            }
+            return relayed;
+        } finally {
+            stringRedisTemplate.execute(releaseLockScript, Collections.singletonList(outboxConfig.getLockKey()), token);
+        }
+    }
+
+    /**
+     * 仍持有投递锁时续期，返回是否续期成功
+     */
+    private boolean renewLock(String token) {
+        Long renewed = stringRedisTemplate.execute(renewLockScript, Collections.singletonList(outboxConfig.getLockKey()),
+                token, String.valueOf(outboxConfig.getLockLeaseMillis()));
+        return renewed != null && renewed != 0L;
+    }
+
+    /**
+     * 在同一个channel上按序发布一批事件，并等待Broker确认全部消息
+     */
+    private void publish(List<OutboxEvent> events) {
+        List<Message> messages = new ArrayList<>(events.size());
+        for (OutboxEvent event : events) {
+            messages.add(toMessage(event));
+        }
+        rabbitTemplate.invoke(operations -> {
+            for (int i = 0; i < events.size(); i++) {
+                operations.send(outboxConfig.getExchange(), routingKey(events.get(i)), messages.get(i));
+            }
+            operations.waitForConfirmsOrDie(outboxConfig.getConfirmTimeoutMillis());
+            return null;
+        });
+    }
+
+    private Message toMessage(OutboxEvent event) {
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(event);
+        } catch (JsonProcessingException e) {
+            throw new BusinessException(ErrorCode.INTERNAL_SERVER_ERROR, e);
+        }
+        return MessageBuilder.withBody(body)
+                .setContentType(MessageProperties.CONTENT_TYPE_JSON)
+                .setMessageId("outbox-" + event.getId())
+                .setDeliveryMode(MessageDeliveryMode.PERSISTENT)
+                .setTimestamp(Date.from(event.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant()))
+                .setHeader("aggregateType", event.getAggregateType())
+                .setHeader("eventType", event.getEventType())
+                .build();
+    }
+
+    private String routingKey(OutboxEvent event) {
+        return event.getAggregateType() + "." + event.getEventType();
+    }
+}
@@ -0,0 +1,75 @@
+package org.practice.surveymaster.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.practice.surveymaster.cache.AnonymousRespondentFilter;
+import org.practice.surveymaster.cache.SurveyStatusCache;
+import org.practice.surveymaster.config.AnonymousAnswerConfig;
+import org.practice.surveymaster.constant.ErrorCode;
+import org.practice.surveymaster.dto.PublicSubmitAnswerDTO;
+import org.practice.surveymaster.model.mongo.Answer;
+import org.practice.surveymaster.repository.AnswerRepository;
+import org.practice.surveymaster.service.PublicAnswerService;
+import org.practice.surveymaster.util.AssertUtil;
+import org.practice.surveymaster.validation.AnswerValidatorCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * <p>
+ * 公开问卷匿名答题服务实现类
+ * </p>
+ *
+ * <p>
+ * 提交依次经过：问卷状态检查（{@link SurveyStatusCache}本地短期缓存）、答案校验（按问卷编译的校验器）、
+ * 设备去重（Redis布隆过滤器），最后写入MongoDB。去重放在校验之后，格式错误的提交不会占用设备名额；
+ * 写入失败时设备已被记录，该设备需换用其他设备标识重新提交。匿名答案不设置userId。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+@Slf4j
+@Service
+public class PublicAnswerServiceImpl implements PublicAnswerService {
+
+    private final AnswerRepository answerRepository;
+    private final SurveyStatusCache surveyStatusCache;
+    private final AnswerValidatorCache answerValidatorCache;
+    private final AnonymousRespondentFilter anonymousRespondentFilter;
+    private final AnonymousAnswerConfig config;
+
+    @Autowired
+    public PublicAnswerServiceImpl(AnswerRepository answerRepository, SurveyStatusCache surveyStatusCache,
+                                   AnswerValidatorCache answerValidatorCache,
+                                   AnonymousRespondentFilter anonymousRespondentFilter, AnonymousAnswerConfig config) {
+        this.answerRepository = answerRepository;
+        this.surveyStatusCache = surveyStatusCache;
+        this.answerValidatorCache = answerValidatorCache;
+        this.anonymousRespondentFilter = anonymousRespondentFilter;
+        this.config = config;
+    }
+
+    @Override
+    public Answer submitAnonymous(Long surveyId, PublicSubmitAnswerDTO dto, String fingerprint) {
+        AssertUtil.state(config.isEnabled(), ErrorCode.FORBIDDEN, "未开放匿名答题");
+        AssertUtil.state(surveyStatusCache.isAccepting(surveyId), ErrorCode.NOT_FOUND, "问卷不存在或未发布");
+
+        List<Answer.QuestionAnswer> questionAnswers = dto.getAnswers().stream()
+                .map(answer -> new Answer.QuestionAnswer(answer.getQuestionId(), answer.getAnswer()))
+                .collect(Collectors.toList());
+        answerValidatorCache.validate(surveyId, questionAnswers);
+        AssertUtil.state(anonymousRespondentFilter.tryAdd(surveyId, fingerprint), ErrorCode.ANSWER_ALREADY_SUBMITTED);
+
+        Answer answer = new Answer();
+        answer.setSurveyId(surveyId);
+        answer.setSubmittedAt(LocalDateTime.now());
+        answer.setAnswers(questionAnswers);
+        Answer saved = answerRepository.save(answer);
+        log.debug("匿名提交问卷 {} 的答案，答案ID: {}", surveyId, saved.getId());
+        return saved;
+    }
+}
@@ -8,8 +8,10 @@ import org.practice.surveymaster.mapper.SurveyMapper;
 import org.practice.surveymaster.model.Question;
 import org.practice.surveymaster.model.Survey;
 import org.practice.surveymaster.service.OptionService;
+import org.practice.surveymaster.service.OutboxService;
 import org.practice.surveymaster.service.QuestionService;
 import org.practice.surveymaster.util.AssertUtil;
+import org.practice.surveymaster.validation.AnswerValidatorCache;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -31,12 +33,17 @@ public class QuestionServiceImpl implements QuestionService {
     private final QuestionMapper questionMapper;
     private final SurveyMapper surveyMapper;
     private final OptionService optionService;
+    private final OutboxService outboxService;
+    private final AnswerValidatorCache answerValidatorCache;
     
     @Autowired
-    public QuestionServiceImpl(QuestionMapper questionMapper, SurveyMapper surveyMapper, OptionService optionService) {
+    public QuestionServiceImpl(QuestionMapper questionMapper, SurveyMapper surveyMapper, OptionService optionService,
+                               OutboxService outboxService, AnswerValidatorCache answerValidatorCache) {
         this.questionMapper = questionMapper;
         this.surveyMapper = surveyMapper;
         this.optionService = optionService;
+        this.outboxService = outboxService;
+        this.answerValidatorCache = answerValidatorCache;
     }
     
     @Override
@@ -61,6 +68,10 @@ public class QuestionServiceImpl implements QuestionService {
         if (needsOptions(addQuestion.getType()) && !CollectionUtils.isEmpty(addQuestion.getOptions())) {
             optionService.addOptions(question.getId(), addQuestion.getOptions(), currentUserId);
         }
+
+        // 问题内容参与问卷搜索，通知索引更新
+        outboxService.surveyChanged(question.getSurveyId());
+        answerValidatorCache.invalidate(question.getSurveyId());
         
         return question;
     }
@@ -87,6 +98,7 @@ public class QuestionServiceImpl implements QuestionService {
     }
     
     @Override
+    @Transactional
     public void updateQuestion(Question question, Long currentUserId) {
         AssertUtil.notNull(question, ErrorCode.BAD_REQUEST, "问题对象不能为空");
         AssertUtil.notNull(question.getId(), ErrorCode.BAD_REQUEST, "问题ID不能为空");
@@ -104,6 +116,8 @@ public class QuestionServiceImpl implements QuestionService {
         // 更新问题
         int result = questionMapper.update(question);
         AssertUtil.isTrue(result > 0, ErrorCode.INTERNAL_SERVER_ERROR, "更新问题失败");
+        outboxService.surveyChanged(existingQuestion.getSurveyId());
+        answerValidatorCache.invalidate(existingQuestion.getSurveyId());
     }
     
     @Override
@@ -128,6 +142,8 @@ public class QuestionServiceImpl implements QuestionService {
         // 删除问题
         int result = questionMapper.deleteById(id);
         AssertUtil.isTrue(result > 0, ErrorCode.INTERNAL_SERVER_ERROR, "删除问题失败");
+        outboxService.surveyChanged(question.getSurveyId());
+        answerValidatorCache.invalidate(question.getSurveyId());
     }
     
     /**
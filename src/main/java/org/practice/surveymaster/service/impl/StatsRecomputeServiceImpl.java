@@ -0,0 +1,53 @@
+package org.practice.surveymaster.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import org.practice.surveymaster.constant.ErrorCode;
+import org.practice.surveymaster.mapper.SurveyMapper;
+import org.practice.surveymaster.model.Survey;
+import org.practice.surveymaster.recompute.SurveyStatsRecomputer;
+import org.practice.surveymaster.service.StatsRecomputeService;
+import org.practice.surveymaster.util.AssertUtil;
+import org.practice.surveymaster.vo.RecomputeProgress;
+import org.springframework.stereotype.Service;
+
+/**
+ * 统计全量重算服务实现类
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+@Service
+@RequiredArgsConstructor
+public class StatsRecomputeServiceImpl implements StatsRecomputeService {
+
+    private final SurveyStatsRecomputer surveyStatsRecomputer;
+    private final SurveyMapper surveyMapper;
+
+    @Override
+    public RecomputeProgress startRecompute(Long surveyId, Long userId, Integer docsPerSecond) {
+        checkOwner(surveyId, userId);
+        return surveyStatsRecomputer.start(surveyId, docsPerSecond);
+    }
+
+    @Override
+    public RecomputeProgress getRecomputeProgress(Long surveyId, Long userId) {
+        checkOwner(surveyId, userId);
+        RecomputeProgress progress = surveyStatsRecomputer.progress(surveyId);
+        AssertUtil.notNull(progress, ErrorCode.NOT_FOUND, "没有重算记录");
+        return progress;
+    }
+
+    @Override
+    public RecomputeProgress throttleRecompute(Long surveyId, Long userId, int docsPerSecond) {
+        checkOwner(surveyId, userId);
+        RecomputeProgress progress = surveyStatsRecomputer.throttle(surveyId, docsPerSecond);
+        AssertUtil.notNull(progress, ErrorCode.NOT_FOUND, "没有正在运行的重算");
+        return progress;
+    }
+
+    private void checkOwner(Long surveyId, Long userId) {
+        Survey survey = surveyMapper.selectById(surveyId);
+        AssertUtil.notNull(survey, ErrorCode.NOT_FOUND, "问卷不存在");
+        AssertUtil.isTrue(survey.getUserId().equals(userId), ErrorCode.UNAUTHORIZED, "无权操作此问卷");
+    }
+}
@@ -0,0 +1,175 @@
+package org.practice.surveymaster.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.practice.surveymaster.columnar.ColumnarAnswerStore;
+import org.practice.surveymaster.config.SurveyPurgeConfig;
+import org.practice.surveymaster.mapper.OptionMapper;
+import org.practice.surveymaster.mapper.QuestionMapper;
+import org.practice.surveymaster.mapper.SurveyMapper;
+import org.practice.surveymaster.mapper.SurveyPurgeTaskMapper;
+import org.practice.surveymaster.model.SurveyPurgeTask;
+import org.practice.surveymaster.projection.AnswerStatsProjection;
+import org.practice.surveymaster.repository.AnswerRepository;
+import org.practice.surveymaster.service.AnswerArchiveService;
+import org.practice.surveymaster.service.HotSurveyService;
+import org.practice.surveymaster.service.SurveyPurgeService;
+import org.practice.surveymaster.validation.AnswerValidatorCache;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * <p>
+ * 问卷清理服务实现类
+ * </p>
+ *
+ * <p>
+ * 按 选项 → 问题 → 答案 → 问卷 的顺序分批删除，顺序与外键依赖一致；问卷在登记任务时已标记为删除，
+ * 提交答案前的问卷状态检查会拒绝写入（各实例的状态缓存过期后），开始清理时再丢弃本实例的校验器，
+ * 因此答案阶段不会再有新数据写入。最后的问卷阶段同时删除热度、列存副本以及统计台账和全部统计key。每批都是独立的小事务，执行后立即持久化阶段与计数，
+ * 配合任务租约，服务重启或实例宕机后其他实例可以从上次的位置继续清理。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/9
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SurveyPurgeServiceImpl implements SurveyPurgeService {
+
+    private final SurveyPurgeTaskMapper surveyPurgeTaskMapper;
+    private final SurveyMapper surveyMapper;
+    private final QuestionMapper questionMapper;
+    private final OptionMapper optionMapper;
+    private final AnswerRepository answerRepository;
+    private final AnswerArchiveService answerArchiveService;
+    private final SurveyPurgeConfig surveyPurgeConfig;
+    private final HotSurveyService hotSurveyService;
+    private final ColumnarAnswerStore columnarAnswerStore;
+    private final AnswerValidatorCache answerValidatorCache;
+    private final AnswerStatsProjection answerStatsProjection;
+
+    @Override
+    public int purgePendingTasks() {
+        LocalDateTime now = LocalDateTime.now();
+        List<SurveyPurgeTask> tasks = surveyPurgeTaskMapper.selectRunnable(now, surveyPurgeConfig.getMaxTasksPerRun());
+        int processed = 0;
+        for (SurveyPurgeTask task : tasks) {
+            // 抢占租约失败说明任务已被其他实例接管
+            if (surveyPurgeTaskMapper.tryLock(task.getId(), now, leaseDeadline()) <= 0) {
+                continue;
+            }
+            try {
+                purge(task);
+                processed++;
+            } catch (Exception e) {
+                log.error("问卷 {} 清理失败，阶段: {}", task.getSurveyId(), task.getStage(), e);
+                surveyPurgeTaskMapper.updateError(task.getId(), abbreviate(e.getMessage()));
+            }
+        }
+        return processed;
+    }
+
+    @Override
+    public void purge(SurveyPurgeTask task) {
+        int chunks = 0;
+        while (!SurveyPurgeTask.STAGE_DONE.equals(task.getStage())
+                && chunks < surveyPurgeConfig.getMaxChunksPerRun()) {
+            purgeChunk(task);
+            chunks++;
+
+            // 每批完成后立即保存进度并续租
+            task.setLockedUntil(SurveyPurgeTask.STAGE_DONE.equals(task.getStage()) ? null : leaseDeadline());
+            task.setUpdatedAt(LocalDateTime.now());
+            surveyPurgeTaskMapper.updateProgress(task);
+
+            if (!SurveyPurgeTask.STAGE_DONE.equals(task.getStage()) && !pause()) {
+                return;
+            }
+        }
+
+        if (SurveyPurgeTask.STAGE_DONE.equals(task.getStage())) {
+            log.info("问卷 {} 清理完成，选项: {}，问题: {}，答案: {}", task.getSurveyId(),
+                    task.getPurgedOptions(), task.getPurgedQuestions(), task.getPurgedAnswers());
+        }
+    }
+
+    /**
+     * 执行当前阶段的一批删除，本批删除量不足一整批时进入下一阶段
+     */
+    private void purgeChunk(SurveyPurgeTask task) {
+        int chunkSize = surveyPurgeConfig.getChunkSize();
+        Long surveyId = task.getSurveyId();
+
+        switch (task.getStage()) {
+            case SurveyPurgeTask.STAGE_OPTION: {
+                answerValidatorCache.invalidate(surveyId);
+                int deleted = optionMapper.deleteBySurveyIdLimit(surveyId, chunkSize);
+                task.setPurgedOptions(task.getPurgedOptions() + deleted);
+                if (deleted < chunkSize) {
+                    task.setStage(SurveyPurgeTask.STAGE_QUESTION);
+                }
+                break;
+            }
+            case SurveyPurgeTask.STAGE_QUESTION: {
+                int deleted = questionMapper.deleteBySurveyIdLimit(surveyId, chunkSize);
+                task.setPurgedQuestions(task.getPurgedQuestions() + deleted);
+                if (deleted < chunkSize) {
+                    task.setStage(SurveyPurgeTask.STAGE_ANSWER);
+                }
+                break;
+            }
+            case SurveyPurgeTask.STAGE_ANSWER: {
+                long deleted = answerRepository.deleteChunkBySurveyId(surveyId, chunkSize);
+                task.setPurgedAnswers(task.getPurgedAnswers() + deleted);
+                if (deleted < chunkSize) {
+                    // 热数据清理完后一并删除归档
+                    task.setPurgedAnswers(task.getPurgedAnswers() + answerArchiveService.deleteArchived(surveyId));
+                    task.setStage(SurveyPurgeTask.STAGE_SURVEY);
+                }
+                break;
+            }
+            case SurveyPurgeTask.STAGE_SURVEY:
+                surveyMapper.deleteById(surveyId);
+                hotSurveyService.remove(surveyId);
+                columnarAnswerStore.drop(surveyId);
+                answerStatsProjection.purge(surveyId);
+                task.setStage(SurveyPurgeTask.STAGE_DONE);
+                break;
+            default:
+                throw new IllegalStateException("未知的清理阶段: " + task.getStage());
+        }
+    }
+
+    /**
+     * 批次间节流停顿
+     *
+     * @return 线程被中断时返回false
+     */
+    private boolean pause() {
+        if (surveyPurgeConfig.getChunkPauseMillis() <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(surveyPurgeConfig.getChunkPauseMillis());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private LocalDateTime leaseDeadline() {
+        return LocalDateTime.now().plusNanos(surveyPurgeConfig.getLeaseMillis() * 1_000_000L);
+    }
+
+    private String abbreviate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() > 500 ? message.substring(0, 500) : message;
+    }
+}
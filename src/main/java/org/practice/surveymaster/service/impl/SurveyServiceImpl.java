@@ -1,21 +1,40 @@
 package org.practice.surveymaster.service.impl;
 
+import org.practice.surveymaster.cache.SurveyStatusCache;
+import org.practice.surveymaster.cache.UserBatchLoader;
+import org.practice.surveymaster.config.SurveySearchConfig;
 import org.practice.surveymaster.constant.ErrorCode;
+import org.practice.surveymaster.constant.SurveyStatus;
 import org.practice.surveymaster.dto.CreateSurvey;
 import org.practice.surveymaster.dto.UpdateSurveyStatus;
 import org.practice.surveymaster.exception.BusinessException;
 import org.practice.surveymaster.mapper.SurveyMapper;
+import org.practice.surveymaster.mapper.SurveyPurgeTaskMapper;
 import org.practice.surveymaster.mapper.UserMapper;
 import org.practice.surveymaster.model.Survey;
+import org.practice.surveymaster.model.SurveyPurgeTask;
+import org.practice.surveymaster.model.User;
+import org.practice.surveymaster.search.SurveySearchEngine;
+import org.practice.surveymaster.service.HotSurveyService;
+import org.practice.surveymaster.service.OutboxService;
 import org.practice.surveymaster.service.SurveyService;
 import org.practice.surveymaster.util.AssertUtil;
+import org.practice.surveymaster.validation.AnswerValidatorCache;
+import org.practice.surveymaster.vo.SurveySearchResult;
+import org.practice.surveymaster.vo.SurveySummary;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * 问卷服务实现类
@@ -27,13 +46,34 @@ import java.util.List;
 @Service
 public class SurveyServiceImpl implements SurveyService {
     private final SurveyMapper surveyMapper;
+    private final SurveyPurgeTaskMapper surveyPurgeTaskMapper;
+    private final HotSurveyService hotSurveyService;
+    private final OutboxService outboxService;
+    private final SurveySearchEngine surveySearchEngine;
+    private final SurveySearchConfig surveySearchConfig;
+    private final SurveyStatusCache surveyStatusCache;
+    private final AnswerValidatorCache answerValidatorCache;
+    private final UserBatchLoader userBatchLoader;
 
     @Autowired
-    public SurveyServiceImpl(SurveyMapper surveyMapper, UserMapper userMapper) {
+    public SurveyServiceImpl(SurveyMapper surveyMapper, UserMapper userMapper,
+                             SurveyPurgeTaskMapper surveyPurgeTaskMapper, HotSurveyService hotSurveyService,
+                             OutboxService outboxService, SurveySearchEngine surveySearchEngine,
+                             SurveySearchConfig surveySearchConfig, SurveyStatusCache surveyStatusCache,
+                             AnswerValidatorCache answerValidatorCache, UserBatchLoader userBatchLoader) {
         this.surveyMapper = surveyMapper;
+        this.surveyPurgeTaskMapper = surveyPurgeTaskMapper;
+        this.hotSurveyService = hotSurveyService;
+        this.outboxService = outboxService;
+        this.surveySearchEngine = surveySearchEngine;
+        this.surveySearchConfig = surveySearchConfig;
+        this.surveyStatusCache = surveyStatusCache;
+        this.answerValidatorCache = answerValidatorCache;
+        this.userBatchLoader = userBatchLoader;
     }
 
     @Override
+    @Transactional
     public void CreateSurvey(CreateSurvey createSurvey) {
         // 创建问卷对象
         Survey survey = new Survey();
@@ -50,15 +90,20 @@ public class SurveyServiceImpl implements SurveyService {
         if (result <= 0) {
             throw new BusinessException(ErrorCode.INTERNAL_SERVER_ERROR);
         }
+        // 同一事务中写入发件箱，异步更新搜索索引
+        outboxService.surveyChanged(survey.getId());
     }
 
     @Override
+    @Transactional
     public void ChangeSurveyStatus(UpdateSurveyStatus updateSurveyStatus) {
         // 检查问卷是否存在且属于当前用户
         Survey existingSurvey = surveyMapper.selectById(updateSurveyStatus.getId());
         AssertUtil.notNull(existingSurvey, ErrorCode.NOT_FOUND, "问卷不存在");
         AssertUtil.isTrue(existingSurvey.getUserId().equals(updateSurveyStatus.getUserId()),
                 ErrorCode.UNAUTHORIZED, "无权操作此问卷");
+        AssertUtil.isFalse(existingSurvey.getStatus() == SurveyStatus.DELETED.getCode(),
+                ErrorCode.SURVEY_ALREADY_DELETED);
 
         // 更新问卷状态
         int result = surveyMapper.updateStatus(
@@ -70,6 +115,10 @@ public class SurveyServiceImpl implements SurveyService {
         if (result <= 0) {
             throw new BusinessException(ErrorCode.INTERNAL_SERVER_ERROR, "更新问卷状态失败");
         }
+        // 提交后再失效，避免并发请求在提交前重新加载到旧状态
+        Long surveyId = updateSurveyStatus.getId();
+        afterCommit(() -> surveyStatusCache.invalidate(surveyId));
+        outboxService.surveyChanged(surveyId);
     }
 
 
@@ -83,12 +132,108 @@ public class SurveyServiceImpl implements SurveyService {
     }
 
     @Override
-    public List<Survey> QueryHotSurveyList() {
-        return Collections.emptyList();
+    public List<SurveySummary> QueryHotSurveyList() {
+        // 读取本地快照，由定时任务周期刷新；快照为共享对象，复制后再填充创建者
+        List<Survey> surveys = hotSurveyService.getHotSurveys();
+        List<CompletableFuture<User>> creators = new ArrayList<>(surveys.size());
+        for (Survey survey : surveys) {
+            creators.add(userBatchLoader.load(survey.getUserId()));
+        }
+        userBatchLoader.dispatch();
+        List<SurveySummary> summaries = new ArrayList<>(surveys.size());
+        for (int i = 0; i < surveys.size(); i++) {
+            Survey survey = surveys.get(i);
+            summaries.add(new SurveySummary(survey.getId(), survey.getUserId(), usernameOf(creators.get(i)),
+                    survey.getTitle(), survey.getDescription(), survey.getStatus(), survey.getCreatedAt()));
+        }
+        return summaries;
     }
 
     @Override
     public List<Survey> SearchSurveyList(String keyword) {
-        return Collections.emptyList();
+        List<Survey> surveys = new ArrayList<>();
+        for (SurveySearchResult.Item item : SearchSurveyPage(keyword, 1, surveySearchConfig.getMaxPageSize()).getItems()) {
+            Survey survey = new Survey();
+            BeanUtils.copyProperties(item, survey);
+            surveys.add(survey);
+        }
+        return surveys;
+    }
+
+    @Override
+    public SurveySearchResult SearchSurveyPage(String keyword, int page, int size) {
+        if (!StringUtils.hasText(keyword)) {
+            return new SurveySearchResult(0, page, size, Collections.emptyList());
+        }
+        AssertUtil.isTrue(page >= 1 && size >= 1, ErrorCode.BAD_REQUEST, "分页参数不合法");
+        SurveySearchResult result = surveySearchEngine.search(keyword.trim(), page,
+                Math.min(size, surveySearchConfig.getMaxPageSize()));
+        // 整页的创建者合并为一次批量查询
+        List<CompletableFuture<User>> creators = new ArrayList<>(result.getItems().size());
+        for (SurveySearchResult.Item item : result.getItems()) {
+            creators.add(userBatchLoader.load(item.getUserId()));
+        }
+        userBatchLoader.dispatch();
+        for (int i = 0; i < creators.size(); i++) {
+            result.getItems().get(i).setCreatorName(usernameOf(creators.get(i)));
+        }
+        return result;
+    }
+
+    @Override
+    @Transactional
+    public void DeleteSurvey(Long surveyId, Long userId) {
+        // 检查问卷是否存在且属于当前用户
+        Survey existingSurvey = surveyMapper.selectById(surveyId);
+        AssertUtil.notNull(existingSurvey, ErrorCode.NOT_FOUND, "问卷不存在");
+        AssertUtil.isTrue(existingSurvey.getUserId().equals(userId),
+                ErrorCode.UNAUTHORIZED, "无权操作此问卷");
+
+        // 先逻辑删除，问卷立即对外不可见；条件更新保证并发重复删除只有一次成功
+        int result = surveyMapper.markDeleted(surveyId, userId);
+        AssertUtil.isTrue(result > 0, ErrorCode.SURVEY_ALREADY_DELETED);
+
+        // 在同一事务中登记清理任务，由后台任务分批清理选项、问题和答案
+        SurveyPurgeTask task = new SurveyPurgeTask();
+        task.setSurveyId(surveyId);
+        task.setUserId(userId);
+        task.setStage(SurveyPurgeTask.STAGE_OPTION);
+        task.setCreatedAt(LocalDateTime.now());
+        surveyPurgeTaskMapper.insert(task);
+        // 提交后本实例立即停止接收答案并释放其校验器；事务内失效会让并发请求在提交前重新缓存旧状态
+        afterCommit(() -> {
+            surveyStatusCache.invalidate(surveyId);
+            answerValidatorCache.invalidate(surveyId);
+        });
+        outboxService.surveyChanged(surveyId);
+    }
+
+    @Override
+    public SurveyPurgeTask QueryDeletionStatus(Long surveyId, Long userId) {
+        SurveyPurgeTask task = surveyPurgeTaskMapper.selectBySurveyId(surveyId);
+        AssertUtil.notNull(task, ErrorCode.NOT_FOUND, "问卷删除任务不存在");
+        AssertUtil.isTrue(task.getUserId().equals(userId), ErrorCode.UNAUTHORIZED, "无权操作此问卷");
+        return task;
+    }
+
+    /**
+     * 在当前事务提交后执行，回滚时不执行；没有事务时立即执行
+     */
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static String usernameOf(CompletableFuture<User> creator) {
+        User user = creator.join();
+        return user == null ? null : user.getUsername();
     }
 }
@@ -1,75 +1,160 @@
 package org.practice.surveymaster.service.impl;
 
+import lombok.extern.slf4j.Slf4j;
+import org.practice.surveymaster.cache.UserCache;
+import org.practice.surveymaster.cache.UsernameBloomFilter;
 import org.practice.surveymaster.config.JwtConfig;
 import org.practice.surveymaster.constant.ErrorCode;
 import org.practice.surveymaster.dto.UserRegister;
 import org.practice.surveymaster.exception.BusinessException;
 import org.practice.surveymaster.mapper.UserMapper;
 import org.practice.surveymaster.model.User;
+import org.practice.surveymaster.ratelimit.LoginAttemptGuard;
+import org.practice.surveymaster.security.PasswordHashExecutor;
+import org.practice.surveymaster.security.PasswordManager;
 import org.practice.surveymaster.service.UserService;
 import org.practice.surveymaster.util.AssertUtil;
 import org.practice.surveymaster.util.JwtUtil;
-import org.practice.surveymaster.util.MD5Util;
 import org.practice.surveymaster.vo.LoginResponse;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * 用户服务实现类
  */
+@Slf4j
 @Service
 public class UserServiceImpl implements UserService {
 
+    /**
+     * user表的唯一索引名，见 survey_master_upgrade.sql
+     */
+    private static final String UK_USERNAME = "uk_username";
+    private static final String UK_EMAIL = "uk_email";
+
     private final UserMapper userMapper;
     private final JwtUtil jwtUtil;
     private final JwtConfig jwtConfig;
+    private final UserCache userCache;
+    private final UsernameBloomFilter usernameBloomFilter;
+    private final PasswordManager passwordManager;
+    private final PasswordHashExecutor passwordHashExecutor;
+    private final LoginAttemptGuard loginAttemptGuard;
 
     @Autowired
-    public UserServiceImpl(UserMapper userMapper, JwtUtil jwtUtil, JwtConfig jwtConfig) {
+    public UserServiceImpl(UserMapper userMapper, JwtUtil jwtUtil, JwtConfig jwtConfig, UserCache userCache,
+                           UsernameBloomFilter usernameBloomFilter, PasswordManager passwordManager,
+                           PasswordHashExecutor passwordHashExecutor, LoginAttemptGuard loginAttemptGuard) {
         this.userMapper = userMapper;
         this.jwtUtil = jwtUtil;
         this.jwtConfig = jwtConfig;
+        this.userCache = userCache;
+        this.usernameBloomFilter = usernameBloomFilter;
+        this.passwordManager = passwordManager;
+        this.passwordHashExecutor = passwordHashExecutor;
+        this.loginAttemptGuard = loginAttemptGuard;
     }
 
     @Override
-    public void register(UserRegister userRegister) {
-        // 1. 检查用户名是否已存在
-        AssertUtil.state(!userMapper.existsByUsername(userRegister.getUsername()), ErrorCode.USER_ALREADY_EXISTS);
-        // 检查邮箱是否存在
-        AssertUtil.state(!userMapper.existsByEmail(userRegister.getEmail()), ErrorCode.EMAIL_ALREADY_EXISTS);
-
-        // 2. 对密码进行加密
-        userRegister.setPassword(MD5Util.md5(userRegister.getPassword()));
-        User user = new User();
-        BeanUtils.copyProperties(userRegister, user);
-        user.setCreatedAt(LocalDateTime.now());
-        int result = userMapper.insert(user);
-        if (result <= 0) {
-            throw new BusinessException(ErrorCode.INTERNAL_SERVER_ERROR);
+    public CompletableFuture<Void> register(UserRegister userRegister, String clientIp) {
+        String username = userRegister.getUsername();
+        // 1. 已确认被占用的用户名直接拒绝，不访问数据库
+        AssertUtil.state(!usernameBloomFilter.isKnownTaken(username), ErrorCode.USER_ALREADY_EXISTS);
+        // 布隆过滤器判定可能被占用时才查库确认，一定未被占用的用户名直接插入
+        if (usernameBloomFilter.mightBeTaken(username) && isUsernameTaken(username)) {
+            usernameBloomFilter.markTaken(username);
+            throw new BusinessException(ErrorCode.USER_ALREADY_EXISTS);
         }
+
+        // 2. 在哈希专用线程池中对密码进行加密
+        String rawPassword = userRegister.getPassword();
+        return passwordHashExecutor.submit(clientIp, () -> passwordManager.hash(rawPassword))
+                .thenAccept(passwordHash -> {
+                    User user = new User();
+                    BeanUtils.copyProperties(userRegister, user);
+                    user.setPassword(passwordHash);
+                    user.setCreatedAt(LocalDateTime.now());
+                    insertUser(user);
+                });
     }
 
     @Override
-    public LoginResponse login(String username, String password) {
-        // 1. 根据用户名查找用户
-        // 2. TODO 密码加密前端操作
-        User user = userMapper.selectByUsernameAndPassword(username, MD5Util.md5(password));
-        AssertUtil.notNull(user, ErrorCode.USER_PASSWORD_ERROR);
-        // 3. 生成JWT token
-        String accessToken = jwtUtil.generateAccessToken((long) user.getId(), user.getUsername());
-        String refreshToken = jwtUtil.generateRefreshToken((long) user.getId(), user.getUsername());
-        
-        // 4. 返回登录响应信息
-        return new LoginResponse(user, accessToken, refreshToken, jwtConfig.getAccessTokenExpiration());
+    public CompletableFuture<LoginResponse> login(String username, String password, String clientIp) {
+        // 1. 该IP对该用户名失败过多，或账号失败总数过多时直接拒绝，不再消耗哈希算力
+        loginAttemptGuard.checkNotLocked(username, clientIp);
+
+        // 2. 根据用户名查找用户，密码在Java侧校验，不再在SQL中比较哈希
+        User user = userMapper.selectByUsername(username);
+        String storedHash = user == null ? null : user.getPassword();
+
+        // 3. 在哈希专用线程池中校验密码
+        return passwordHashExecutor.submit(clientIp, () -> passwordManager.verify(password, storedHash))
+                .thenApply(result -> {
+                    if (!result.isMatched()) {
+                        loginAttemptGuard.recordFailure(username, clientIp);
+                        throw new BusinessException(ErrorCode.USER_PASSWORD_ERROR);
+                    }
+                    loginAttemptGuard.reset(username, clientIp);
+                    // 历史MD5或低强度哈希透明升级为当前算法
+                    if (result.getUpgradedHash() != null) {
+                        userMapper.updatePassword(user.getId(), result.getUpgradedHash());
+                        user.setPassword(result.getUpgradedHash());
+                    }
+                    // 预热缓存，后续刷新令牌无需再查库
+                    userCache.put(user);
+                    // 4. 生成JWT token
+                    String accessToken = jwtUtil.generateAccessToken(user.getId(), user.getUsername());
+                    String refreshToken = jwtUtil.generateRefreshToken(user.getId(), user.getUsername());
+
+                    // 5. 返回登录响应信息
+                    return new LoginResponse(user, accessToken, refreshToken, jwtConfig.getAccessTokenExpiration());
+                });
     }
 
     @Override
     public User findById(Long id) {
-        // TODO: 实现根据ID查找用户逻辑
-        return null;
+        if (id == null) {
+            return null;
+        }
+        User cached = userCache.getById(id);
+        if (cached != null) {
+            return cached;
+        }
+        return userCache.put(userMapper.selectById(id));
+    }
+
+    @Override
+    public Map<Long, User> findByIds(Collection<Long> ids) {
+        Map<Long, User> result = new HashMap<>();
+        Set<Long> misses = new LinkedHashSet<>();
+        for (Long id : ids) {
+            if (id == null || result.containsKey(id)) {
+                continue;
+            }
+            User cached = userCache.getById(id);
+            if (cached != null) {
+                result.put(id, cached);
+            } else {
+                misses.add(id);
+            }
+        }
+        // 未命中部分合并为一次IN查询
+        if (!misses.isEmpty()) {
+            for (User user : userMapper.selectByIds(misses)) {
+                result.put(user.getId(), userCache.put(user));
+            }
+        }
+        return result;
     }
     
     @Override
@@ -86,8 +171,11 @@ public class UserServiceImpl implements UserService {
             String newAccessToken = jwtUtil.generateAccessToken(userId, username);
             String newRefreshToken = jwtUtil.generateRefreshToken(userId, username);
             
-            // 4. 查找用户信息
-            User user = userMapper.selectByUsername(username);
+            // 4. 查找用户信息（优先读取缓存）
+            User user = userCache.getByUsername(username);
+            if (user == null) {
+                user = userCache.put(userMapper.selectByUsername(username));
+            }
             if (user == null) {
                 // 如果查不到用户，创建一个简单的用户对象用于响应
                 user = new User();
@@ -102,4 +190,66 @@ public class UserServiceImpl implements UserService {
             throw new BusinessException(ErrorCode.TOKEN_INVALID);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * 插入用户，用户名、邮箱的唯一性由唯一索引保证，冲突时转换为对应的业务错误
+     */
+    private void insertUser(User user) {
+        int result;
+        try {
+            result = userMapper.insert(user);
+        } catch (DuplicateKeyException e) {
+            ErrorCode errorCode = resolveDuplicateKey(e, user);
+            if (errorCode == ErrorCode.USER_ALREADY_EXISTS) {
+                usernameBloomFilter.markTaken(user.getUsername());
+            }
+            throw new BusinessException(errorCode, e);
+        }
+        if (result <= 0) {
+            throw new BusinessException(ErrorCode.INTERNAL_SERVER_ERROR);
+        }
+        usernameBloomFilter.markTaken(user.getUsername());
+    }
+
+    /**
+     * 确认用户名是否已被占用，优先读取本地用户缓存
+     */
+    private boolean isUsernameTaken(String username) {
+        return userCache.getByUsername(username) != null || userMapper.existsByUsername(username);
+    }
+
+    /**
+     * 根据冲突的唯一索引名判断是用户名还是邮箱重复
+     * MySQL错误信息格式：Duplicate entry 'xxx' for key 'user.uk_email'（8.0.19之前不带表名前缀）
+     * 索引名无法识别时重新查询确认
+     */
+    private ErrorCode resolveDuplicateKey(DuplicateKeyException e, User user) {
+        String keyName = duplicateKeyName(e.getMostSpecificCause().getMessage());
+        if (UK_EMAIL.equals(keyName)) {
+            return ErrorCode.EMAIL_ALREADY_EXISTS;
+        }
+        if (UK_USERNAME.equals(keyName)) {
+            return ErrorCode.USER_ALREADY_EXISTS;
+        }
+        log.warn("无法识别的唯一索引冲突，重新查询确认: {}", keyName);
+        if (userMapper.existsByUsername(user.getUsername())) {
+            return ErrorCode.USER_ALREADY_EXISTS;
+        }
+        if (user.getEmail() != null && userMapper.existsByEmail(user.getEmail())) {
+            return ErrorCode.EMAIL_ALREADY_EXISTS;
+        }
+        return ErrorCode.DATA_ALREADY_EXISTS;
+    }
+
+    /**
+     * 从错误信息中取出索引名，去掉引号和表名前缀
+     */
+    private static String duplicateKeyName(String message) {
+        int keyIndex = message == null ? -1 : message.lastIndexOf("for key");
+        if (keyIndex < 0) {
+            return null;
+        }
+        String keyName = message.substring(keyIndex + "for key".length()).trim().replace("'", "").replace("`", "");
+        return keyName.substring(keyName.lastIndexOf('.') + 1);
+    }
+}
@@ -0,0 +1,141 @@
+package org.practice.surveymaster.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * <p>
+ * 字符串布隆过滤器
+ * </p>
+ *
+ * <p>
+ * 根据预期元素数n和期望误判率p计算位数组长度 m = -n·ln(p)/(ln2)² 与哈希函数个数 k = m/n·ln2，
+ * 使用一次64位哈希拆成两个32位值做双重哈希（h1 + i·h2）生成k个位置。
+ * 位数组基于AtomicLongArray，支持多线程并发写入与查询，无需加锁。
+ * mightContain返回false时元素一定不存在；返回true时元素可能存在，需要由调用方二次确认。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/11
+ */
+public class BloomFilter {
+
+    private final AtomicLongArray bits;
+    private final long numBits;
+    private final int numHashes;
+
+    /**
+     * @param expectedInsertions 预期元素数
+     * @param fpp 期望误判率，取值(0, 1)
+     */
+    public BloomFilter(long expectedInsertions, double fpp) {
+        if (expectedInsertions <= 0 || fpp <= 0 || fpp >= 1) {
+            throw new IllegalArgumentException("布隆过滤器参数无效: n=" + expectedInsertions + ", p=" + fpp);
+        }
+        this.numBits = optimalNumBits(expectedInsertions, fpp);
+        this.numHashes = optimalNumHashes(expectedInsertions, numBits);
+        this.bits = new AtomicLongArray((int) (numBits / 64));
+    }
+
+    /**
+     * 位数组长度，向上取整到64的倍数
+     */
+    public static long optimalNumBits(long expectedInsertions, double fpp) {
+        long m = (long) Math.ceil(-expectedInsertions * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+        return Math.max(64, (m + 63) / 64 * 64);
+    }
+
+    /**
+     * 哈希函数个数
+     */
+    public static int optimalNumHashes(long expectedInsertions, long numBits) {
+        return Math.max(1, (int) Math.round((double) numBits / expectedInsertions * Math.log(2)));
+    }
+
+    /**
+     * 元素对应的k个位置，供位数组存放在外部（如Redis位图）的过滤器使用
+     */
+    public static long[] positions(String value, long numBits, int numHashes) {
+        long hash = hash64(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        long[] positions = new long[numHashes];
+        for (int i = 1; i <= numHashes; i++) {
+            positions[i - 1] = ((h1 + i * h2) & Integer.MAX_VALUE) % numBits;
+        }
+        return positions;
+    }
+
+    /**
+     * 添加元素
+     */
+    public void put(String value) {
+        long hash = hash64(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= numHashes; i++) {
+            setBit(index(h1 + i * h2));
+        }
+    }
+
+    /**
+     * 判断元素是否可能存在
+     *
+     * @return false表示一定不存在，true表示可能存在
+     */
+    public boolean mightContain(String value) {
+        long hash = hash64(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= numHashes; i++) {
+            long index = index(h1 + i * h2);
+            if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long getNumBits() {
+        return numBits;
+    }
+
+    public int getNumHashes() {
+        return numHashes;
+    }
+
+    private long index(int combinedHash) {
+        // 取非负值后对位数取模
+        return (combinedHash & Integer.MAX_VALUE) % numBits;
+    }
+
+    private void setBit(long index) {
+        int word = (int) (index >>> 6);
+        long mask = 1L << index;
+        long current;
+        do {
+            current = bits.get(word);
+            if ((current & mask) != 0) {
+                return;
+            }
+        } while (!bits.compareAndSet(word, current, current | mask));
+    }
+
+    /**
+     * FNV-1a 64位哈希，再经过MurmurHash3的fmix64做雪崩混合
+     */
+    static long hash64(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        long h = 0xcbf29ce484222325L;
+        for (byte b : bytes) {
+            h ^= (b & 0xff);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
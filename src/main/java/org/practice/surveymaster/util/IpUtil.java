@@ -0,0 +1,161 @@
+package org.practice.surveymaster.util;
+
+import org.practice.surveymaster.config.ClientIpConfig;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.servlet.http.HttpServletRequest;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * 客户端IP工具类
+ * 只有直连地址属于可信代理时才读取代理请求头：X-Forwarded-For从右向左跳过可信代理，
+ * 取第一个不可信的地址（更靠左的部分可由客户端任意伪造）；没有X-Forwarded-For时读取X-Real-IP。
+ * 直连地址不可信时直接使用直连地址，防止客户端通过伪造请求头绕过按IP的限流与去重
+ *
+ * @author ljn
+ * @since 2025/10/12
+ */
+@Component
+public class IpUtil {
+
+    private static final Pattern IPV4 = Pattern.compile("\\d{1,3}(\\.\\d{1,3}){3}");
+    private static final Pattern IPV6 = Pattern.compile("[0-9a-fA-F:.]+");
+
+    private final List<Subnet> trustedProxies = new ArrayList<>();
+
+    @Autowired
+    public IpUtil(ClientIpConfig config) {
+        for (String proxy : config.getTrustedProxies()) {
+            Subnet subnet = Subnet.parse(proxy.trim());
+            if (subnet == null) {
+                throw new IllegalArgumentException("可信代理地址无效: " + proxy);
+            }
+            trustedProxies.add(subnet);
+        }
+    }
+
+    /**
+     * 获取客户端真实IP地址
+     */
+    public String getClientIp(HttpServletRequest request) {
+        String remoteAddr = request.getRemoteAddr();
+        if (!isTrusted(remoteAddr)) {
+            return remoteAddr;
+        }
+
+        String xForwardedFor = request.getHeader("X-Forwarded-For");
+        if (xForwardedFor != null && !xForwardedFor.isEmpty()) {
+            String client = remoteAddr;
+            String[] hops = xForwardedFor.split(",");
+            for (int i = hops.length - 1; i >= 0; i--) {
+                String hop = hops[i].trim();
+                if (parse(hop) == null) {
+                    // 无法识别的地址不可信，取其右侧最近的一跳
+                    break;
+                }
+                client = hop;
+                if (!isTrusted(hop)) {
+                    break;
+                }
+            }
+            return client;
+        }
+
+        String xRealIp = request.getHeader("X-Real-IP");
+        if (xRealIp != null && parse(xRealIp.trim()) != null) {
+            return xRealIp.trim();
+        }
+
+        return remoteAddr;
+    }
+
+    private boolean isTrusted(String ip) {
+        InetAddress address = parse(ip);
+        if (address == null) {
+            return false;
+        }
+        for (Subnet subnet : trustedProxies) {
+            if (subnet.contains(address)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 解析IP字面量，非字面量返回null；先按格式过滤，避免把主机名交给InetAddress触发DNS查询
+     */
+    private static InetAddress parse(String ip) {
+        if (ip == null || ip.isEmpty()) {
+            return null;
+        }
+        boolean literal = ip.indexOf(':') >= 0 ? IPV6.matcher(ip).matches() : IPV4.matcher(ip).matches();
+        if (!literal) {
+            return null;
+        }
+        try {
+            return InetAddress.getByName(ip);
+        } catch (UnknownHostException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 单个IP或CIDR网段
+     */
+    private static final class Subnet {
+
+        private final byte[] network;
+        private final int prefixLength;
+
+        private Subnet(byte[] network, int prefixLength) {
+            this.network = network;
+            this.prefixLength = prefixLength;
+        }
+
+        private static Subnet parse(String cidr) {
+            int slash = cidr.indexOf('/');
+            InetAddress address = IpUtil.parse(slash < 0 ? cidr : cidr.substring(0, slash));
+            if (address == null) {
+                return null;
+            }
+            int maxLength = address.getAddress().length * 8;
+            int prefixLength = maxLength;
+            if (slash >= 0) {
+                try {
+                    prefixLength = Integer.parseInt(cidr.substring(slash + 1));
+                } catch (NumberFormatException e) {
+                    return null;
+                }
+                if (prefixLength < 0 || prefixLength > maxLength) {
+                    return null;
+                }
+            }
+            return new Subnet(address.getAddress(), prefixLength);
+        }
+
+        private boolean contains(InetAddress address) {
+            byte[] bytes = address.getAddress();
+            if (bytes.length != network.length) {
+                return false;
+            }
+            int fullBytes = prefixLength / 8;
+            for (int i = 0; i < fullBytes; i++) {
+                if (bytes[i] != network[i]) {
+                    return false;
+                }
+            }
+            int remainingBits = prefixLength % 8;
+            if (remainingBits == 0) {
+                return true;
+            }
+            int mask = 0xFF << (8 - remainingBits);
+            return (bytes[fullBytes] & mask) == (network[fullBytes] & mask);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package org.practice.surveymaster.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * <p>
+ * 带过期时间的有界LRU缓存
+ * </p>
+ *
+ * <p>
+ * 基于访问顺序的LinkedHashMap实现，容量超出上限时淘汰最久未访问的条目；
+ * 条目超过ttl后在下一次读取时失效。所有方法加锁，适合读多写少、容量在万级以内的本地缓存场景。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/10
+ */
+public class LruCache<K, V> {
+
+    private final long ttlMillis;
+    private final LinkedHashMap<K, Entry<V>> map;
+
+    /**
+     * @param maxSize 最大条目数
+     * @param ttlMillis 条目存活时间（毫秒），小于等于0表示永不过期
+     */
+    public LruCache(int maxSize, long ttlMillis) {
+        this.ttlMillis = ttlMillis;
+        this.map = new LinkedHashMap<K, Entry<V>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * 读取缓存，未命中或已过期返回null
+     */
+    public synchronized V get(K key) {
+        Entry<V> entry = map.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (ttlMillis > 0 && System.currentTimeMillis() - entry.createdAt > ttlMillis) {
+            map.remove(key);
+            return null;
+        }
+        return entry.value;
+    }
+
+    /**
+     * 写入缓存
+     */
+    public synchronized void put(K key, V value) {
+        map.put(key, new Entry<>(value, System.currentTimeMillis()));
+    }
+
+    /**
+     * 移除缓存
+     */
+    public synchronized void remove(K key) {
+        map.remove(key);
+    }
+
+    /**
+     * 清空缓存
+     */
+    public synchronized void clear() {
+        map.clear();
+    }
+
+    /**
+     * 当前条目数（包含尚未被清理的过期条目）
+     */
+    public synchronized int size() {
+        return map.size();
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long createdAt;
+
+        private Entry(V value, long createdAt) {
+            this.value = value;
+            this.createdAt = createdAt;
+        }
+    }
+}
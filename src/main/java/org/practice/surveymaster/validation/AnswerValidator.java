@@ -0,0 +1,246 @@
+package org.practice.surveymaster.validation;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.practice.surveymaster.config.AnswerValidationConfig;
+import org.practice.surveymaster.constant.ErrorCode;
+import org.practice.surveymaster.model.OptionTable;
+import org.practice.surveymaster.model.Question;
+import org.practice.surveymaster.model.mongo.Answer;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>
+ * 单个问卷的答案校验器
+ * </p>
+ *
+ * <p>
+ * 由问卷的题目与选项一次编译而成：题目ID排序后存入long数组，与按题编译的规则数组一一对应，
+ * 查题目是一次二分查找，不装箱；每条规则按题型预先生成，选择题持有选项文本到题内序号的映射，
+ * 多选题用位图判断重复选项。校验时由规则自身决定期望的答案形态，只做一次类型判断，
+ * 不在答案值上逐个尝试各种类型。
+ * </p>
+ *
+ * <p>
+ * 编译后只读，可在多个线程间共享。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+public final class AnswerValidator {
+
+    private final long[] questionIds;
+    private final Rule[] rules;
+    private final long compiledAt;
+
+    private AnswerValidator(long[] questionIds, Rule[] rules, long compiledAt) {
+        this.questionIds = questionIds;
+        this.rules = rules;
+        this.compiledAt = compiledAt;
+    }
+
+    /**
+     * 按问卷的题目与选项编译校验器
+     *
+     * @param questions  问卷的全部题目
+     * @param options    问卷的全部选项
+     * @param config     取值约束
+     * @param compiledAt 编译时间
+     */
+    public static AnswerValidator compile(List<Question> questions, List<OptionTable> options,
+                                          AnswerValidationConfig config, long compiledAt) {
+        Map<Long, Map<String, Integer>> optionsByQuestion = new HashMap<>();
+        for (OptionTable option : options) {
+            Map<String, Integer> texts = optionsByQuestion.computeIfAbsent(option.getQuestionId(), k -> new HashMap<>());
+            // 同一题出现重复文本时视为同一个选项
+            texts.putIfAbsent(option.getContent(), texts.size());
+        }
+
+        Question[] sorted = questions.toArray(new Question[0]);
+        Arrays.sort(sorted, Comparator.comparing(Question::getId));
+        long[] questionIds = new long[sorted.length];
+        Rule[] rules = new Rule[sorted.length];
+        for (int i = 0; i < sorted.length; i++) {
+            Question question = sorted[i];
+            questionIds[i] = question.getId();
+            Map<String, Integer> texts = optionsByQuestion.getOrDefault(question.getId(), new HashMap<>());
+            rules[i] = ruleOf(question, texts, config);
+        }
+        return new AnswerValidator(questionIds, rules, compiledAt);
+    }
+
+    /**
+     * 校验一份答案
+     *
+     * @return 第一处违规，全部合法时返回null
+     */
+    public Violation validate(List<Answer.QuestionAnswer> answers) {
+        long[] answered = new long[(rules.length + 63) >>> 6];
+        for (Answer.QuestionAnswer answer : answers) {
+            Long questionId = answer.getQuestionId();
+            int index = questionId == null ? -1 : Arrays.binarySearch(questionIds, questionId);
+            if (index < 0) {
+                return new Violation(ErrorCode.QUESTION_NOT_FOUND, "题目不存在: " + questionId);
+            }
+            long bit = 1L << index;
+            if ((answered[index >>> 6] & bit) != 0L) {
+                return new Violation(ErrorCode.INVALID_ANSWER_DATA, "题目" + questionId + "重复作答");
+            }
+            answered[index >>> 6] |= bit;
+            String message = rules[index].check(answer.getAnswer());
+            if (message != null) {
+                return new Violation(ErrorCode.INVALID_ANSWER_DATA, "题目" + questionId + message);
+            }
+        }
+        return null;
+    }
+
+    public long getCompiledAt() {
+        return compiledAt;
+    }
+
+    private static Rule ruleOf(Question question, Map<String, Integer> texts, AnswerValidationConfig config) {
+        if (question.getType() == null) {
+            return value -> null;
+        }
+        switch (question.getType()) {
+            case SINGLE_CHOICE:
+                return new SingleChoiceRule(texts);
+            case MULTIPLE_CHOICE:
+                return new MultipleChoiceRule(texts);
+            case RATING:
+                return new RatingRule(config.getRatingMin(), config.getRatingMax());
+            case TEXT:
+                return new TextRule(config.getTextMaxLength());
+            default:
+                return value -> null;
+        }
+    }
+
+    /**
+     * 校验违规信息
+     */
+    @Getter
+    @AllArgsConstructor
+    public static final class Violation {
+
+        private final ErrorCode code;
+        private final String message;
+    }
+
+    /**
+     * 单道题的校验规则
+     */
+    private interface Rule {
+
+        /**
+         * @return 违规说明，合法时返回null
+         */
+        String check(Object value);
+    }
+
+    /**
+     * 单选题：答案是该题的一个选项文本。非字符串的值在文本映射中查不到，无需单独判断类型
+     */
+    private static final class SingleChoiceRule implements Rule {
+
+        private final Map<String, Integer> options;
+
+        private SingleChoiceRule(Map<String, Integer> options) {
+            this.options = options;
+        }
+
+        @Override
+        public String check(Object value) {
+            return options.containsKey(value) ? null : "的答案必须是该题的一个选项";
+        }
+    }
+
+    /**
+     * 多选题：答案是该题选项文本的非空列表，选项不可重复
+     */
+    private static final class MultipleChoiceRule implements Rule {
+
+        private final Map<String, Integer> options;
+        private final int words;
+
+        private MultipleChoiceRule(Map<String, Integer> options) {
+            this.options = options;
+            this.words = (options.size() + 63) >>> 6;
+        }
+
+        @Override
+        public String check(Object value) {
+            if (!(value instanceof Collection) || ((Collection<?>) value).isEmpty()) {
+                return "的答案必须是非空的选项列表";
+            }
+            long[] picked = new long[words];
+            for (Object item : (Collection<?>) value) {
+                Integer index = options.get(item);
+                if (index == null) {
+                    return "的选项不属于该题: " + item;
+                }
+                long bit = 1L << index;
+                if ((picked[index >>> 6] & bit) != 0L) {
+                    return "的选项重复: " + item;
+                }
+                picked[index >>> 6] |= bit;
+            }
+            return null;
+        }
+    }
+
+    /**
+     * 评分题：答案是取值范围内的数值
+     */
+    private static final class RatingRule implements Rule {
+
+        private final double min;
+        private final double max;
+
+        private RatingRule(double min, double max) {
+            this.min = min;
+            this.max = max;
+        }
+
+        @Override
+        public String check(Object value) {
+            if (!(value instanceof Number)) {
+                return "的评分必须是数值";
+            }
+            double rating = ((Number) value).doubleValue();
+            // NaN与任何值比较都为false，取反后一并拒绝
+            if (!(rating >= min && rating <= max)) {
+                return "的评分超出范围[" + min + ", " + max + "]: " + value;
+            }
+            return null;
+        }
+    }
+
+    /**
+     * 文本题：答案是长度不超过上限的字符串
+     */
+    private static final class TextRule implements Rule {
+
+        private final int maxLength;
+
+        private TextRule(int maxLength) {
+            this.maxLength = maxLength;
+        }
+
+        @Override
+        public String check(Object value) {
+            if (!(value instanceof String)) {
+                return "的答案必须是文本";
+            }
+            return ((String) value).length() <= maxLength ? null : "的答案超过" + maxLength + "字";
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package org.practice.surveymaster.validation;
+
+import org.practice.surveymaster.config.AnswerValidationConfig;
+import org.practice.surveymaster.exception.BusinessException;
+import org.practice.surveymaster.mapper.OptionMapper;
+import org.practice.surveymaster.mapper.QuestionMapper;
+import org.practice.surveymaster.model.mongo.Answer;
+import org.practice.surveymaster.util.LruCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * <p>
+ * 问卷答案校验器缓存
+ * </p>
+ *
+ * <p>
+ * 按问卷缓存编译好的{@link AnswerValidator}，题目或选项修改时由对应服务调用{@link #invalidate}。
+ * 其他实例的修改只能等缓存过期，因此校验失败且校验器已编译超过最小间隔时重新编译一次再判定，
+ * 避免刚新增的题目或选项被误判。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+@Component
+public class AnswerValidatorCache {
+
+    private final QuestionMapper questionMapper;
+    private final OptionMapper optionMapper;
+    private final AnswerValidationConfig config;
+    private final LruCache<Long, AnswerValidator> cache;
+
+    @Autowired
+    public AnswerValidatorCache(QuestionMapper questionMapper, OptionMapper optionMapper,
+                                AnswerValidationConfig config) {
+        this.questionMapper = questionMapper;
+        this.optionMapper = optionMapper;
+        this.config = config;
+        this.cache = new LruCache<>(config.getCacheSize(), config.getTtlMillis());
+    }
+
+    /**
+     * 校验一份答案，不合法时抛出业务异常
+     *
+     * @param surveyId 问卷ID
+     * @param answers  答案列表
+     */
+    public void validate(Long surveyId, List<Answer.QuestionAnswer> answers) {
+        AnswerValidator validator = get(surveyId);
+        AnswerValidator.Violation violation = validator.validate(answers);
+        if (violation != null && System.currentTimeMillis() - validator.getCompiledAt() >= config.getMinReloadMillis()) {
+            violation = load(surveyId).validate(answers);
+        }
+        if (violation != null) {
+            throw new BusinessException(violation.getCode(), violation.getMessage());
+        }
+    }
+
+    /**
+     * 问卷的题目或选项变更后丢弃其校验器
+     */
+    public void invalidate(Long surveyId) {
+        cache.remove(surveyId);
+    }
+
+    private AnswerValidator get(Long surveyId) {
+        AnswerValidator validator = cache.get(surveyId);
+        return validator != null ? validator : load(surveyId);
+    }
+
+    private AnswerValidator load(Long surveyId) {
+        AnswerValidator validator = AnswerValidator.compile(questionMapper.selectBySurveyId(surveyId),
+                optionMapper.selectBySurveyId(surveyId), config, System.currentTimeMillis());
+        cache.put(surveyId, validator);
+        return validator;
+    }
+}
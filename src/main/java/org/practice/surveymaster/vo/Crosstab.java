@@ -0,0 +1,55 @@
+package org.practice.surveymaster.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * 两道题目的交叉分析结果
+ * 由列式答案存储的位图求交计算，多选题一份答卷可计入多行或多列
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Crosstab {
+
+    /**
+     * 问卷ID
+     */
+    private Long surveyId;
+
+    /**
+     * 行题目ID
+     */
+    private Long rowQuestionId;
+
+    /**
+     * 列题目ID
+     */
+    private Long columnQuestionId;
+
+    /**
+     * 满足筛选条件的答卷数
+     */
+    private long respondents;
+
+    /**
+     * 行答案值 → 答卷数
+     */
+    private Map<String, Long> rowTotals;
+
+    /**
+     * 列答案值 → 答卷数
+     */
+    private Map<String, Long> columnTotals;
+
+    /**
+     * 行答案值 → (列答案值 → 答卷数)，为0的格子省略
+     */
+    private Map<String, Map<String, Long>> cells;
+}
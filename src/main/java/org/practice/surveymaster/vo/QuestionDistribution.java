@@ -0,0 +1,40 @@
+package org.practice.surveymaster.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * 单题答案分布
+ * 由列式答案存储计算，筛选条件作用后的答卷才参与统计
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuestionDistribution {
+
+    /**
+     * 问卷ID
+     */
+    private Long surveyId;
+
+    /**
+     * 问题ID
+     */
+    private Long questionId;
+
+    /**
+     * 满足筛选条件的答卷数
+     */
+    private long respondents;
+
+    /**
+     * 答案值 → 答卷数，多选题一份答卷可计入多个值
+     */
+    private Map<String, Long> counts;
+}
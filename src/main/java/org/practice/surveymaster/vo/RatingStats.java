@@ -0,0 +1,55 @@
+package org.practice.surveymaster.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * 评分题统计
+ * 由答案投影维护的评分草图计算，读取开销与答卷数无关
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RatingStats {
+
+    /**
+     * 问卷ID
+     */
+    private Long surveyId;
+
+    /**
+     * 问题ID
+     */
+    private Long questionId;
+
+    /**
+     * 评分个数
+     */
+    private long count;
+
+    /**
+     * 平均分，没有评分时为空
+     */
+    private Double mean;
+
+    /**
+     * 中位数，没有评分时为空
+     */
+    private Double median;
+
+    /**
+     * 90分位数，没有评分时为空
+     */
+    private Double p90;
+
+    /**
+     * 评分 → 个数，按评分从小到大排列
+     */
+    private Map<String, Long> distribution;
+}
@@ -0,0 +1,69 @@
+package org.practice.surveymaster.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 统计全量重算进度
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecomputeProgress {
+
+    /**
+     * 问卷ID
+     */
+    private Long surveyId;
+
+    /**
+     * 状态：RUNNING、COMPLETED、FAILED
+     */
+    private String status;
+
+    /**
+     * 待读取的答案数，归档答案在读取时累加
+     */
+    private long totalAnswers;
+
+    /**
+     * 已读取的答案数
+     */
+    private long processedAnswers;
+
+    /**
+     * _id区间数（不含归档）
+     */
+    private int partitions;
+
+    /**
+     * 已完成的区间数
+     */
+    private int completedPartitions;
+
+    /**
+     * 限速（每秒读取的答案数），0表示不限速
+     */
+    private int docsPerSecond;
+
+    /**
+     * 开始时间
+     */
+    private LocalDateTime startedAt;
+
+    /**
+     * 结束时间，运行中为空
+     */
+    private LocalDateTime finishedAt;
+
+    /**
+     * 失败原因
+     */
+    private String message;
+}
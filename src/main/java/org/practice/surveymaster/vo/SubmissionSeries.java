@@ -0,0 +1,61 @@
+package org.practice.surveymaster.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.practice.surveymaster.constant.TimeGranularity;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 问卷提交数时间序列
+ * 由写入时预聚合的分钟/小时/天桶直接读出，没有提交的桶计为0
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SubmissionSeries {
+
+    /**
+     * 问卷ID
+     */
+    private Long surveyId;
+
+    /**
+     * 时间粒度
+     */
+    private TimeGranularity granularity;
+
+    /**
+     * 范围内的提交总数
+     */
+    private long total;
+
+    /**
+     * 按时间顺序排列的数据点
+     */
+    private List<Point> points;
+
+    /**
+     * 单个时间桶
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Point {
+
+        /**
+         * 桶起始时间
+         */
+        private LocalDateTime time;
+
+        /**
+         * 提交数
+         */
+        private long count;
+    }
+}
@@ -0,0 +1,35 @@
+package org.practice.surveymaster.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * 问卷答题统计
+ * 由答案投影实时维护，读取时不访问MongoDB
+ *
+ * @author ljn
+ * @since 2025/10/18
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SurveyAnswerStats {
+
+    /**
+     * 问卷ID
+     */
+    private Long surveyId;
+
+    /**
+     * 答卷数
+     */
+    private long answerCount;
+
+    /**
+     * 各题选项人数：问题ID → (选项值 → 人数)，文本题不统计
+     */
+    private Map<Long, Map<String, Long>> optionCounts;
+}
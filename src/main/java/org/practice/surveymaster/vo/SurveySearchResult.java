@@ -0,0 +1,90 @@
+package org.practice.surveymaster.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 问卷搜索结果
+ * 包含分页信息与命中的问卷，命中字段附带高亮片段
+ *
+ * @author ljn
+ * @since 2025/10/15
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SurveySearchResult {
+
+    /**
+     * 命中总数
+     */
+    private long total;
+
+    /**
+     * 当前页码，从1开始
+     */
+    private int page;
+
+    /**
+     * 每页条数
+     */
+    private int size;
+
+    /**
+     * 当前页结果
+     */
+    private List<Item> items;
+
+    /**
+     * 单条命中结果
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+        /**
+         * 问卷ID
+         */
+        private Long id;
+
+        /**
+         * 创建者ID
+         */
+        private Long userId;
+
+        /**
+         * 创建者用户名，由请求级批量加载器填充，用户不存在时为null
+         */
+        private String creatorName;
+
+        /**
+         * 问卷标题
+         */
+        private String title;
+
+        /**
+         * 问卷描述
+         */
+        private String description;
+
+        /**
+         * 问卷状态
+         */
+        private Integer status;
+
+        /**
+         * 创建时间
+         */
+        private LocalDateTime createdAt;
+
+        /**
+         * 高亮片段，key为字段名（title/description/questions），命中词以&lt;em&gt;包裹
+         */
+        private Map<String, List<String>> highlights;
+    }
+}
@@ -0,0 +1,55 @@
+package org.practice.surveymaster.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 问卷列表项
+ * 在问卷基本信息之外附带创建者用户名，用于热门问卷等列表展示
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SurveySummary {
+
+    /**
+     * 问卷ID
+     */
+    private Long id;
+
+    /**
+     * 创建者ID
+     */
+    private Long userId;
+
+    /**
+     * 创建者用户名，用户不存在时为null
+     */
+    private String creatorName;
+
+    /**
+     * 问卷标题
+     */
+    private String title;
+
+    /**
+     * 问卷描述
+     */
+    private String description;
+
+    /**
+     * 问卷状态
+     */
+    private int status;
+
+    /**
+     * 创建时间
+     */
+    private LocalDateTime createdAt;
+}
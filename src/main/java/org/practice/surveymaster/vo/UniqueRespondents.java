@@ -0,0 +1,40 @@
+package org.practice.surveymaster.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * 去重答题人数
+ * 答卷较少的问卷精确统计，其余由HyperLogLog估算（标准误差约0.81%）
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UniqueRespondents {
+
+    /**
+     * 起始日期（含）
+     */
+    private LocalDate from;
+
+    /**
+     * 结束日期（含）
+     */
+    private LocalDate to;
+
+    /**
+     * 去重答题人数
+     */
+    private long count;
+
+    /**
+     * 是否为精确值
+     */
+    private boolean exact;
+}
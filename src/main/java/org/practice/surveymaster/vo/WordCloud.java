@@ -0,0 +1,59 @@
+package org.practice.surveymaster.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 文本题词云
+ * 词频来自Count-Min Sketch估计，只会高估；答案修改或删除后在重建前可能偏高
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WordCloud {
+
+    /**
+     * 问卷ID
+     */
+    private Long surveyId;
+
+    /**
+     * 问题ID
+     */
+    private Long questionId;
+
+    /**
+     * 计入统计的答卷数（该题有可分词内容的答卷）
+     */
+    private long answerCount;
+
+    /**
+     * 热词，按提到的答卷数从高到低
+     */
+    private List<Term> terms;
+
+    /**
+     * 单个热词
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Term {
+
+        /**
+         * 词
+         */
+        private String text;
+
+        /**
+         * 提到该词的答卷数（估计值）
+         */
+        private long count;
+    }
+}
@@ -0,0 +1,44 @@
+-- ************************************************************
+-- SurveyMaster 增量表结构
+-- 在 survey_master_2025-09-22.sql 基础上按顺序执行
+-- ************************************************************
+
+-- 问卷清理任务表：记录问卷删除后选项/问题/答案的分批清理进度，支持断点续删
+CREATE TABLE IF NOT EXISTS `survey_purge_task` (
+  `id` bigint NOT NULL AUTO_INCREMENT,
+  `survey_id` bigint NOT NULL,
+  `user_id` bigint NOT NULL,
+  `stage` varchar(20) NOT NULL,           -- OPTION,QUESTION,ANSWER,SURVEY,DONE
+  `purged_options` bigint NOT NULL DEFAULT '0',
+  `purged_questions` bigint NOT NULL DEFAULT '0',
+  `purged_answers` bigint NOT NULL DEFAULT '0',
+  `locked_until` timestamp NULL DEFAULT NULL,
+  `last_error` varchar(500) DEFAULT NULL,
+  `created_at` timestamp NULL DEFAULT CURRENT_TIMESTAMP,
+  `updated_at` timestamp NULL DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uk_survey_id` (`survey_id`),
+  KEY `idx_stage_locked` (`stage`, `locked_until`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+
+-- 用户表邮箱唯一索引：注册时依赖唯一索引判重（init.sql 中已有，生产库转储缺失）
+ALTER TABLE `user` ADD UNIQUE KEY `uk_email` (`email`);
+
+-- 用户名唯一索引统一命名：注册冲突时按索引名区分用户名与邮箱重复
+ALTER TABLE `user` RENAME INDEX `username` TO `uk_username`;
+
+-- 发件箱事件表：与业务数据同事务写入，由后台任务按ID顺序批量消费（搜索索引同步等）
+CREATE TABLE IF NOT EXISTS `outbox_event` (
+  `id` bigint NOT NULL AUTO_INCREMENT,
+  `aggregate_type` varchar(32) NOT NULL,  -- SURVEY
+  `aggregate_id` bigint NOT NULL,
+  `event_type` varchar(64) NOT NULL,      -- SURVEY_CHANGED
+  `payload` varchar(2000) DEFAULT NULL,
+  `created_at` timestamp(3) NULL DEFAULT CURRENT_TIMESTAMP(3),
+  PRIMARY KEY (`id`),
+  KEY `idx_aggregate_type_id` (`aggregate_type`, `id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+
+-- 问卷答案归档时间：非空表示该问卷的历史答案已转入MongoDB归档集合
+ALTER TABLE `survey` ADD COLUMN `archived_at` timestamp NULL DEFAULT NULL;
+ALTER TABLE `survey` ADD KEY `idx_archived_status` (`archived_at`, `status`);
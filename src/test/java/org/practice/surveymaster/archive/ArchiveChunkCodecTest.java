@@ -0,0 +1,53 @@
+package org.practice.surveymaster.archive;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * <p>
+ * 归档块编解码测试
+ * </p>
+ *
+ * <p>
+ * 验证文档压缩后能按原顺序流式还原，以及重复内容的压缩效果。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+public class ArchiveChunkCodecTest {
+
+    @Test
+    public void testPackAndUnpack() {
+        List<Document> documents = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            documents.add(new Document("surveyId", 7L)
+                    .append("userId", (long) i)
+                    .append("submittedAt", new Date(1_700_000_000_000L + i))
+                    .append("a", Arrays.asList(new Document("q", 1).append("o", 11),
+                            new Document("q", 2).append("x", "第" + i + "条意见"))));
+        }
+
+        byte[] data = ArchiveChunkCodec.pack(documents);
+        List<Document> unpacked = new ArrayList<>();
+        ArchiveChunkCodec.unpack(data, unpacked::add);
+
+        assertEquals(documents, unpacked);
+        int rawSize = documents.stream().mapToInt(document -> document.toJson().length()).sum();
+        assertTrue(data.length * 3 < rawSize);
+    }
+
+    @Test
+    public void testEmptyChunk() {
+        List<Document> unpacked = new ArrayList<>();
+        ArchiveChunkCodec.unpack(ArchiveChunkCodec.pack(new ArrayList<>()), unpacked::add);
+        assertTrue(unpacked.isEmpty());
+    }
+}
@@ -0,0 +1,103 @@
+package org.practice.surveymaster.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.practice.surveymaster.config.AnonymousAnswerConfig;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * <p>
+ * 匿名答题设备去重过滤器测试
+ * </p>
+ *
+ * <p>
+ * 以内存位图模拟Redis脚本，验证同一设备重复提交被拦截、不同问卷互不影响、新设备的误判率在预期范围内，
+ * 以及设备指纹的取值规则。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+public class AnonymousRespondentFilterTest {
+
+    private AnonymousAnswerConfig config;
+    private AnonymousRespondentFilter filter;
+
+    @BeforeEach
+    public void setUp() {
+        config = new AnonymousAnswerConfig();
+        config.setExpectedRespondents(10000);
+        config.setFpp(0.01);
+        filter = new AnonymousRespondentFilter(new InMemoryRedisTemplate(), config);
+    }
+
+    @Test
+    public void testDuplicateDeviceRejected() {
+        String device = filter.fingerprint("device-1", "10.0.0.1", "Mozilla");
+        assertTrue(filter.tryAdd(1L, device));
+        assertFalse(filter.tryAdd(1L, device));
+        // 其他问卷使用独立的位图
+        assertTrue(filter.tryAdd(2L, device));
+    }
+
+    @Test
+    public void testFalsePositiveRate() {
+        // 加入预期数量的不同设备，被拦截的都是误判；位图逐渐变满，整体误判率低于满载时的1%
+        int rejected = 0;
+        for (int i = 0; i < 10000; i++) {
+            if (!filter.tryAdd(1L, filter.fingerprint("device-" + i, "10.0.0.1", null))) {
+                rejected++;
+            }
+        }
+        assertTrue(rejected < 100, "误判过多: " + rejected);
+    }
+
+    @Test
+    public void testFingerprint() {
+        assertEquals(filter.fingerprint("device-1", "10.0.0.1", "Mozilla"),
+                filter.fingerprint("device-1", "10.0.0.2", "curl"));
+        assertEquals(filter.fingerprint(null, "10.0.0.1", "Mozilla"), filter.fingerprint("", "10.0.0.1", "Mozilla"));
+        assertNotEquals(filter.fingerprint(null, "10.0.0.1", "Mozilla"), filter.fingerprint(null, "10.0.0.1", "curl"));
+
+        StringBuilder tooLong = new StringBuilder();
+        for (int i = 0; i <= config.getMaxDeviceIdLength(); i++) {
+            tooLong.append('x');
+        }
+        assertEquals(filter.fingerprint(null, "10.0.0.1", "Mozilla"),
+                filter.fingerprint(tooLong.toString(), "10.0.0.1", "Mozilla"));
+        assertEquals(32, filter.fingerprint("device-1", "10.0.0.1", null).length());
+    }
+
+    /**
+     * 以内存位图模拟测试并置位脚本
+     */
+    @SuppressWarnings("unchecked")
+    private static final class InMemoryRedisTemplate extends StringRedisTemplate {
+
+        private final Map<String, BitSet> bitmaps = new ConcurrentHashMap<>();
+
+        @Override
+        public <T> T execute(RedisScript<T> script, List<String> keys, Object... args) {
+            BitSet bits = bitmaps.computeIfAbsent(keys.get(0), k -> new BitSet());
+            long added = 0;
+            synchronized (bits) {
+                for (int i = 1; i < args.length; i++) {
+                    int position = Integer.parseInt((String) args[i]);
+                    if (!bits.get(position)) {
+                        bits.set(position);
+                        added = 1;
+                    }
+                }
+            }
+            return (T) Long.valueOf(added);
+        }
+    }
+}
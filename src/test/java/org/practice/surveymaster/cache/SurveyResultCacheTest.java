@@ -0,0 +1,109 @@
+package org.practice.surveymaster.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.practice.surveymaster.config.SurveyResultCacheConfig;
+import org.practice.surveymaster.projection.AnswerChange;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * <p>
+ * 问卷结果缓存测试
+ * </p>
+ *
+ * <p>
+ * 验证并发未命中只计算一次、过期后先返回旧结果再后台刷新、答案变化使结果过期，以及计算异常不被缓存。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+public class SurveyResultCacheTest {
+
+    private SurveyResultCache cache;
+
+    @BeforeEach
+    public void setUp() {
+        SurveyResultCacheConfig config = new SurveyResultCacheConfig();
+        config.setFreshMillis(60_000L);
+        cache = new SurveyResultCache(config);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        cache.destroy();
+    }
+
+    @Test
+    public void testConcurrentMissesCollapse() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(50);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                results.add(pool.submit(() -> cache.get(1L, "stats", () -> {
+                    loads.incrementAndGet();
+                    await(release);
+                    return "结果";
+                })));
+            }
+            Thread.sleep(200);
+            release.countDown();
+            for (Future<String> result : results) {
+                assertEquals("结果", result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void testInvalidatedServesStaleThenRefreshes() throws Exception {
+        AtomicInteger version = new AtomicInteger();
+        assertEquals(Integer.valueOf(0), cache.get(1L, "stats", version::get));
+        version.incrementAndGet();
+        assertEquals(Integer.valueOf(0), cache.get(1L, "stats", version::get));
+
+        cache.onAnswersChanged(Collections.singletonList(new AnswerChange("a1", 1L, null)));
+        // 过期后立即返回旧结果，后台刷新完成后返回新结果
+        assertEquals(Integer.valueOf(0), cache.get(1L, "stats", version::get));
+        long deadline = System.currentTimeMillis() + 5000;
+        while (cache.get(1L, "stats", version::get) != 1 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(Integer.valueOf(1), cache.get(1L, "stats", version::get));
+        // 其他问卷不受影响
+        assertEquals("旧", cache.get(2L, "stats", () -> "旧"));
+        assertEquals("旧", cache.get(2L, "stats", () -> "新"));
+    }
+
+    @Test
+    public void testFailureNotCached() {
+        assertThrows(IllegalStateException.class, () -> cache.get(1L, "stats", () -> {
+            throw new IllegalStateException("计算失败");
+        }));
+        assertEquals("结果", cache.get(1L, "stats", () -> "结果"));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package org.practice.surveymaster.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.practice.surveymaster.model.User;
+import org.practice.surveymaster.service.UserService;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+/**
+ * <p>
+ * 请求级用户批量加载器测试
+ * </p>
+ *
+ * <p>
+ * 验证dispatch之前登记的用户合并为一次批量查询、同一用户只查询一次、已加载的用户不再重复查询，
+ * 以及不存在的用户结果为null且不出现在loadMany的结果中。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+public class UserBatchLoaderTest {
+
+    private UserService userService;
+    private UserBatchLoader userBatchLoader;
+
+    @BeforeEach
+    public void setUp() {
+        userService = mock(UserService.class);
+        when(userService.findByIds(anyCollection())).thenAnswer(call -> {
+            Map<Long, User> users = new HashMap<>();
+            for (Long id : (Collection<Long>) call.getArgument(0)) {
+                if (id < 100) {
+                    users.put(id, user(id));
+                }
+            }
+            return users;
+        });
+        userBatchLoader = new UserBatchLoader(userService);
+    }
+
+    @Test
+    public void testLoadsCoalescedIntoOneQuery() {
+        CompletableFuture<User> first = userBatchLoader.load(1L);
+        CompletableFuture<User> second = userBatchLoader.load(2L);
+        CompletableFuture<User> duplicate = userBatchLoader.load(1L);
+
+        assertFalse(first.isDone());
+        assertSame(first, duplicate);
+        userBatchLoader.dispatch();
+
+        verify(userService).findByIds(new LinkedHashSet<>(Arrays.asList(1L, 2L)));
+        assertEquals("user1", first.join().getUsername());
+        assertEquals("user2", second.join().getUsername());
+    }
+
+    @Test
+    public void testLoadedUsersNotQueriedAgain() {
+        userBatchLoader.load(1L);
+        userBatchLoader.dispatch();
+        userBatchLoader.load(1L);
+        userBatchLoader.dispatch();
+
+        verify(userService, times(1)).findByIds(anyCollection());
+    }
+
+    @Test
+    public void testLoadManySkipsMissingUsers() {
+        userBatchLoader.load(1L);
+        userBatchLoader.dispatch();
+
+        Map<Long, User> users = userBatchLoader.loadMany(Arrays.asList(1L, 3L, 404L));
+
+        assertEquals(Arrays.asList(1L, 3L), Arrays.asList(users.keySet().toArray()));
+        verify(userService).findByIds(new LinkedHashSet<>(Arrays.asList(3L, 404L)));
+        assertNull(userBatchLoader.load(404L).join());
+    }
+
+    private static User user(Long id) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername("user" + id);
+        return user;
+    }
+}
@@ -0,0 +1,76 @@
+package org.practice.surveymaster.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.practice.surveymaster.config.UserCacheConfig;
+import org.practice.surveymaster.model.User;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * <p>
+ * 本地用户缓存测试
+ * </p>
+ *
+ * <p>
+ * 验证缓存剔除密码、按ID与用户名都能读取、返回的是互相独立的副本，以及失效后两个索引都不再命中。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+public class UserCacheTest {
+
+    private UserCache userCache;
+
+    @BeforeEach
+    public void setUp() {
+        userCache = new UserCache(new UserCacheConfig());
+    }
+
+    @Test
+    public void testPutStripsPassword() {
+        User stored = userCache.put(user(1L, "alice"));
+
+        assertNull(stored.getPassword());
+        assertEquals("alice", userCache.getById(1L).getUsername());
+        assertEquals(1L, userCache.getByUsername("alice").getId());
+        assertNull(userCache.getById(1L).getPassword());
+        assertNull(userCache.getById(2L));
+        assertNull(userCache.getByUsername("bob"));
+        assertNull(userCache.getById(null));
+    }
+
+    @Test
+    public void testReturnsCopies() {
+        User source = user(1L, "alice");
+        User stored = userCache.put(source);
+        // 修改写入前的对象、写入返回值和读取结果都不影响缓存
+        source.setEmail("changed@example.com");
+        stored.setEmail("changed@example.com");
+        User read = userCache.getById(1L);
+        read.setUsername("mallory");
+
+        assertNotSame(read, userCache.getById(1L));
+        assertEquals("alice", userCache.getById(1L).getUsername());
+        assertEquals("alice@example.com", userCache.getByUsername("alice").getEmail());
+    }
+
+    @Test
+    public void testEvict() {
+        userCache.put(user(1L, "alice"));
+        userCache.evict(user(1L, "alice"));
+
+        assertNull(userCache.getById(1L));
+        assertNull(userCache.getByUsername("alice"));
+    }
+
+    private static User user(Long id, String username) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername(username);
+        user.setPassword("hash");
+        user.setEmail(username + "@example.com");
+        return user;
+    }
+}
@@ -0,0 +1,116 @@
+package org.practice.surveymaster.codec;
+
+import org.junit.jupiter.api.Test;
+import org.practice.surveymaster.constant.QuestionType;
+import org.practice.surveymaster.model.OptionTable;
+import org.practice.surveymaster.model.Question;
+import org.practice.surveymaster.model.mongo.Answer;
+import org.practice.surveymaster.model.mongo.CompactAnswer;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * <p>
+ * 答案编解码测试
+ * </p>
+ *
+ * <p>
+ * 验证各题型按类型化联合编码、选项文本换成int选项ID，无法编码的值原样往返，以及已删除的选项解码为固定的占位文本。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+public class AnswerCodecTest {
+
+    private final SurveyDictionary dictionary = new SurveyDictionary(
+            Arrays.asList(
+                    question(1L, QuestionType.SINGLE_CHOICE),
+                    question(2L, QuestionType.MULTIPLE_CHOICE),
+                    question(3L, QuestionType.RATING),
+                    question(4L, QuestionType.TEXT)),
+            Arrays.asList(
+                    option(11L, 1L, "选项A"),
+                    option(12L, 1L, "选项B"),
+                    option(21L, 2L, "红"),
+                    option(22L, 2L, "绿")),
+            System.currentTimeMillis());
+
+    @Test
+    public void testEncodeTypedUnion() {
+        List<CompactAnswer> encoded = AnswerCodec.encode(Arrays.asList(
+                new Answer.QuestionAnswer(1L, "选项B"),
+                new Answer.QuestionAnswer(2L, Arrays.asList("绿", "红")),
+                new Answer.QuestionAnswer(3L, 4),
+                new Answer.QuestionAnswer(4L, "很好")), dictionary);
+
+        assertEquals(Integer.valueOf(1), encoded.get(0).getQuestionId());
+        assertEquals(Integer.valueOf(12), encoded.get(0).getOption());
+        assertEquals(Arrays.asList(22, 21), encoded.get(1).getOptions());
+        assertEquals(4, encoded.get(2).getRating());
+        assertEquals("很好", encoded.get(3).getText());
+        encoded.forEach(answer -> assertNull(answer.getRaw()));
+    }
+
+    @Test
+    public void testRoundTrip() {
+        List<Answer.QuestionAnswer> answers = Arrays.asList(
+                new Answer.QuestionAnswer(1L, "选项A"),
+                new Answer.QuestionAnswer(2L, Arrays.asList("红", "绿")),
+                new Answer.QuestionAnswer(3L, 4.5),
+                new Answer.QuestionAnswer(4L, "文本"));
+
+        assertEquals(answers, AnswerCodec.decode(AnswerCodec.encode(answers, dictionary), dictionary));
+    }
+
+    @Test
+    public void testUnknownValuesKeptRaw() {
+        List<Answer.QuestionAnswer> answers = Arrays.asList(
+                new Answer.QuestionAnswer(1L, "不存在的选项"),
+                new Answer.QuestionAnswer(2L, Arrays.asList("红", "紫")),
+                new Answer.QuestionAnswer(9L, "已删除的题目"),
+                new Answer.QuestionAnswer(5_000_000_000L, "超出int范围的ID"));
+
+        List<CompactAnswer> encoded = AnswerCodec.encode(answers, dictionary);
+
+        encoded.forEach(answer -> assertNotNull(answer.getRaw()));
+        assertEquals(5_000_000_000L, encoded.get(3).getQuestionId());
+        assertEquals(answers, AnswerCodec.decode(encoded, dictionary));
+    }
+
+    @Test
+    public void testDeletedOptionDecodedAsPlaceholder() {
+        List<CompactAnswer> encoded = AnswerCodec.encode(Arrays.asList(
+                new Answer.QuestionAnswer(1L, "选项B"),
+                new Answer.QuestionAnswer(2L, Arrays.asList("红", "绿"))), dictionary);
+        // 选项B和绿被删除后重新加载的字典
+        SurveyDictionary reloaded = new SurveyDictionary(
+                Arrays.asList(question(1L, QuestionType.SINGLE_CHOICE), question(2L, QuestionType.MULTIPLE_CHOICE)),
+                Arrays.asList(option(11L, 1L, "选项A"), option(21L, 2L, "红")),
+                System.currentTimeMillis());
+
+        List<Answer.QuestionAnswer> decoded = AnswerCodec.decode(encoded, reloaded);
+
+        assertEquals("[已删除选项#12]", decoded.get(0).getAnswer());
+        assertEquals(Arrays.asList("红", "[已删除选项#22]"), decoded.get(1).getAnswer());
+        assertEquals(decoded, AnswerCodec.decode(encoded, reloaded));
+    }
+
+    private static Question question(Long id, QuestionType type) {
+        Question question = new Question();
+        question.setId(id);
+        question.setType(type);
+        return question;
+    }
+
+    private static OptionTable option(Long id, Long questionId, String content) {
+        OptionTable option = new OptionTable();
+        option.setId(id);
+        option.setQuestionId(questionId);
+        option.setContent(content);
+        return option;
+    }
+}
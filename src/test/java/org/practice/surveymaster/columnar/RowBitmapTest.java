@@ -0,0 +1,85 @@
+package org.practice.surveymaster.columnar;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * <p>
+ * 行号压缩位图测试
+ * </p>
+ *
+ * <p>
+ * 以BitSet为参照，覆盖稀疏与稠密分桶之间的转换、交并运算与序列化。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+public class RowBitmapTest {
+
+    @Test
+    public void testMatchesBitSet() throws Exception {
+        Random random = new Random(42);
+        RowBitmap sparse = new RowBitmap();
+        RowBitmap dense = new RowBitmap();
+        BitSet sparseExpected = new BitSet();
+        BitSet denseExpected = new BitSet();
+        for (int i = 0; i < 20000; i++) {
+            int row = random.nextInt(200000);
+            assertEquals(!sparseExpected.get(row), sparse.add(row));
+            sparseExpected.set(row);
+        }
+        // 稠密分桶超过4096个元素后转为位图
+        for (int row = 0; row < 150000; row += 2) {
+            dense.add(row);
+            denseExpected.set(row);
+        }
+        for (int i = 0; i < 60000; i++) {
+            int row = random.nextInt(150000);
+            assertEquals(denseExpected.get(row), dense.remove(row));
+            denseExpected.clear(row);
+        }
+
+        assertSame(sparseExpected, sparse);
+        assertSame(denseExpected, dense);
+
+        BitSet and = (BitSet) sparseExpected.clone();
+        and.and(denseExpected);
+        assertSame(and, sparse.and(dense));
+        assertEquals(and.cardinality(), sparse.andCardinality(dense));
+        assertEquals(and.cardinality(), dense.andCardinality(sparse));
+
+        BitSet or = (BitSet) sparseExpected.clone();
+        or.or(denseExpected);
+        assertSame(or, sparse.or(dense));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        dense.write(new DataOutputStream(bytes));
+        assertSame(denseExpected, RowBitmap.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()))));
+    }
+
+    @Test
+    public void testEmpty() {
+        RowBitmap bitmap = new RowBitmap();
+        bitmap.add(70000);
+        assertTrue(bitmap.remove(70000));
+        assertFalse(bitmap.remove(70000));
+        assertTrue(bitmap.isEmpty());
+        assertEquals(0, bitmap.and(new RowBitmap()).cardinality());
+    }
+
+    private static void assertSame(BitSet expected, RowBitmap actual) {
+        assertEquals(expected.cardinality(), actual.cardinality());
+        for (int row = expected.nextSetBit(0); row >= 0; row = expected.nextSetBit(row + 1)) {
+            assertTrue(actual.contains(row));
+        }
+    }
+}
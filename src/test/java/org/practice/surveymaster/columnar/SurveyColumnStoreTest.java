@@ -0,0 +1,143 @@
+package org.practice.surveymaster.columnar;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.practice.surveymaster.constant.QuestionType;
+import org.practice.surveymaster.model.mongo.Answer;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * <p>
+ * 单问卷列式存储测试
+ * </p>
+ *
+ * <p>
+ * 验证筛选与分布统计、答案覆盖与删除，以及关闭后重新打开时数据仍在。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+public class SurveyColumnStoreTest {
+
+    private static final Function<Long, QuestionType> TYPES = questionId -> {
+        Map<Long, QuestionType> types = new HashMap<>();
+        types.put(1L, QuestionType.SINGLE_CHOICE);
+        types.put(2L, QuestionType.MULTIPLE_CHOICE);
+        types.put(3L, QuestionType.RATING);
+        return types.get(questionId);
+    };
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void testFilteredDistribution() throws Exception {
+        try (SurveyColumnStore store = new SurveyColumnStore(dir)) {
+            for (int i = 0; i < 200; i++) {
+                store.upsert("a" + i, answers(i % 2 == 0 ? "男" : "女",
+                        i % 4 == 0 ? Arrays.asList("阅读", "运动") : Collections.singletonList("阅读"), i % 5 + 1),
+                        TYPES);
+            }
+
+            long[] rows = store.liveRows();
+            assertEquals(200, SurveyColumnStore.count(rows));
+            Map<String, Long> gender = store.distribution(1L, rows);
+            assertEquals(100L, gender.get("男"));
+            assertEquals(100L, gender.get("女"));
+
+            store.retain(rows, 1L, Collections.singletonList("男"));
+            Map<String, Long> hobbies = store.distribution(2L, rows);
+            assertEquals(100, SurveyColumnStore.count(rows));
+            assertEquals(100L, hobbies.get("阅读"));
+            assertEquals(50L, hobbies.get("运动"));
+
+            store.retain(rows, 2L, Collections.singletonList("运动"));
+            store.retain(rows, 3L, Arrays.asList("1", "2"));
+            // i为4的倍数且i % 5为0或1，即i % 20为0或16
+            assertEquals(20, SurveyColumnStore.count(rows));
+        }
+    }
+
+    @Test
+    public void testUpsertAndRemove() throws Exception {
+        try (SurveyColumnStore store = new SurveyColumnStore(dir)) {
+            store.upsert("a1", answers("男", Collections.singletonList("阅读"), 5), TYPES);
+            store.upsert("a2", answers("女", Collections.singletonList("运动"), 4), TYPES);
+            store.upsert("a1", answers("女", Collections.singletonList("运动"), 3), TYPES);
+            store.remove("a2");
+            store.remove("missing");
+
+            long[] rows = store.liveRows();
+            assertEquals(1, SurveyColumnStore.count(rows));
+            assertEquals(Collections.singletonMap("女", 1L), store.distribution(1L, rows));
+            assertEquals(Collections.singletonMap("运动", 1L), store.distribution(2L, rows));
+            assertEquals(Collections.singletonMap("3", 1L), store.distribution(3L, rows));
+            assertTrue(store.distribution(99L, rows).isEmpty());
+        }
+    }
+
+    @Test
+    public void testReopen() throws Exception {
+        try (SurveyColumnStore store = new SurveyColumnStore(dir)) {
+            for (int i = 0; i < 3000; i++) {
+                store.upsert("a" + i, answers("选项" + (i % 3), Collections.singletonList("阅读"), 5), TYPES);
+            }
+            store.remove("a0");
+            store.markBuilt();
+        }
+
+        try (SurveyColumnStore store = new SurveyColumnStore(dir)) {
+            assertTrue(store.isBuilt());
+            long[] rows = store.liveRows();
+            assertEquals(2999, SurveyColumnStore.count(rows));
+            Map<String, Long> counts = store.distribution(1L, rows);
+            assertEquals(999L, counts.get("选项0"));
+            assertEquals(1000L, counts.get("选项1"));
+            assertEquals(1000L, counts.get("选项2"));
+        }
+    }
+
+    @Test
+    public void testValueBitmapsSurviveReopen() throws Exception {
+        try (SurveyColumnStore store = new SurveyColumnStore(dir)) {
+            store.upsert("a1", answers("男", Arrays.asList("阅读", "运动"), 5), TYPES);
+            store.upsert("a2", answers("女", Collections.singletonList("运动"), 4), TYPES);
+            store.upsert("a3", answers("男", Collections.singletonList("运动"), 4), TYPES);
+            store.force();
+            store.remove("a3");
+        }
+        // 模拟崩溃后索引文件缺失，重新打开时从列数据重建
+        Files.delete(dir.resolve("bitmaps.idx"));
+
+        try (SurveyColumnStore store = new SurveyColumnStore(dir)) {
+            Map<String, RowBitmap> gender = store.valueBitmaps(1L);
+            Map<String, RowBitmap> hobbies = store.valueBitmaps(2L);
+            assertEquals(1, gender.get("男").cardinality());
+            assertEquals(1, gender.get("男").andCardinality(hobbies.get("运动")));
+            assertEquals(2, store.rowsMatching(2L, Arrays.asList("阅读", "运动")).cardinality());
+            store.upsert("a4", answers("女", Collections.singletonList("阅读"), 3), TYPES);
+        }
+
+        try (SurveyColumnStore store = new SurveyColumnStore(dir)) {
+            assertEquals(2, store.valueBitmaps(1L).get("女").cardinality());
+            assertEquals(2, store.valueBitmaps(2L).get("阅读").cardinality());
+        }
+    }
+
+    private static List<Answer.QuestionAnswer> answers(String gender, List<String> hobbies, int rating) {
+        return Arrays.asList(new Answer.QuestionAnswer(1L, gender),
+                new Answer.QuestionAnswer(2L, hobbies),
+                new Answer.QuestionAnswer(3L, rating));
+    }
+}
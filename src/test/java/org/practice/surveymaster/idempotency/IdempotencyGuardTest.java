@@ -0,0 +1,188 @@
+package org.practice.surveymaster.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.practice.surveymaster.config.IdempotencyConfig;
+import org.practice.surveymaster.exception.BusinessException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * <p>
+ * 幂等键去重测试
+ * </p>
+ *
+ * <p>
+ * 以内存Map模拟Redis，验证重试直接返回首次结果、并发重复请求只执行一次、
+ * 同一幂等键携带不同请求体时拒绝，以及执行失败后可以重新执行。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+public class IdempotencyGuardTest {
+
+    private InMemoryRedisTemplate redis;
+    private IdempotencyGuard guard;
+
+    @BeforeEach
+    public void setUp() {
+        IdempotencyConfig config = new IdempotencyConfig();
+        config.setWaitTimeoutMillis(5000L);
+        redis = new InMemoryRedisTemplate();
+        guard = new IdempotencyGuard(redis, new ObjectMapper(), config);
+    }
+
+    @Test
+    public void testRetryReturnsFirstResult() {
+        AtomicInteger executions = new AtomicInteger();
+        Map<String, Object> request = Collections.singletonMap("surveyId", 1);
+
+        String first = guard.execute("submit:1", "k1", request, String.class,
+                () -> "answer-" + executions.incrementAndGet());
+        String retry = guard.execute("submit:1", "k1", request, String.class,
+                () -> "answer-" + executions.incrementAndGet());
+
+        assertEquals("answer-1", first);
+        assertEquals("answer-1", retry);
+        assertEquals(1, executions.get());
+        // 不同作用域的同名幂等键互不影响
+        assertEquals("answer-2", guard.execute("submit:2", "k1", request, String.class,
+                () -> "answer-" + executions.incrementAndGet()));
+    }
+
+    @Test
+    public void testConcurrentDuplicatesExecuteOnce() throws Exception {
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return guard.execute("submit:1", "k1", "body", String.class, () -> {
+                        sleep(200);
+                        return "answer-" + executions.incrementAndGet();
+                    });
+                }));
+            }
+            start.countDown();
+            for (Future<String> result : results) {
+                assertEquals("answer-1", result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, executions.get());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testKeyReusedWithDifferentRequest() {
+        guard.execute("submit:1", "k1", "body-a", String.class, () -> "a");
+        assertThrows(BusinessException.class,
+                () -> guard.execute("submit:1", "k1", "body-b", String.class, () -> "b"));
+    }
+
+    @Test
+    public void testFailureAllowsRetry() {
+        assertThrows(IllegalStateException.class, () -> guard.execute("submit:1", "k1", "body", String.class, () -> {
+            throw new IllegalStateException("写入失败");
+        }));
+        assertEquals("ok", guard.execute("submit:1", "k1", "body", String.class, () -> "ok"));
+    }
+
+    @Test
+    public void testActionDataAccessErrorNotRetried() {
+        AtomicInteger executions = new AtomicInteger();
+        // 业务抛出的DataAccessException（如MongoDB写入失败）不能被当作Redis故障而再执行一次
+        assertThrows(DataAccessResourceFailureException.class, () -> guard.execute("submit:1", "k1", "body",
+                String.class, () -> {
+                    executions.incrementAndGet();
+                    throw new DataAccessResourceFailureException("mongo down");
+                }));
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    public void testResultReturnedWhenSavingFails() {
+        AtomicInteger executions = new AtomicInteger();
+        redis.failScripts = true;
+        assertEquals("answer-1", guard.execute("submit:1", "k1", "body", String.class,
+                () -> "answer-" + executions.incrementAndGet()));
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    public void testStoredFormat() {
+        String stored = IdempotencyGuard.encode(IdempotencyGuard.DONE, "0123456789abcdef0123456789abcdef", "{\"a\":\":\"}");
+        assertEquals("0123456789abcdef0123456789abcdef", IdempotencyGuard.fingerprintOf(stored));
+        assertEquals("{\"a\":\":\"}", IdempotencyGuard.bodyOf(stored));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 以内存Map模拟SET NX、GET以及两个比较后写入/删除的脚本
+     */
+    @SuppressWarnings("unchecked")
+    private static final class InMemoryRedisTemplate extends StringRedisTemplate {
+
+        private final Map<String, String> values = new ConcurrentHashMap<>();
+        private final ValueOperations<String, String> operations = mock(ValueOperations.class);
+        private volatile boolean failScripts;
+
+        private InMemoryRedisTemplate() {
+            when(operations.setIfAbsent(anyString(), anyString(), any(Duration.class)))
+                    .thenAnswer(call -> values.putIfAbsent(call.getArgument(0), call.getArgument(1)) == null);
+            when(operations.get(any())).thenAnswer(call -> values.get((String) call.getArgument(0)));
+        }
+
+        @Override
+        public ValueOperations<String, String> opsForValue() {
+            return operations;
+        }
+
+        @Override
+        public <T> T execute(RedisScript<T> script, List<String> keys, Object... args) {
+            if (failScripts) {
+                throw new RedisConnectionFailureException("redis down");
+            }
+            String key = keys.get(0);
+            String marker = (String) args[0];
+            boolean changed = script.getScriptAsString().contains("'SET'")
+                    ? values.replace(key, marker, (String) args[1])
+                    : values.remove(key, marker);
+            return (T) Long.valueOf(changed ? 1L : 0L);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package org.practice.surveymaster.interceptor;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.practice.surveymaster.config.ClientIpConfig;
+import org.practice.surveymaster.config.RateLimitConfig;
+import org.practice.surveymaster.ratelimit.SlidingWindowRateLimiter;
+import org.practice.surveymaster.util.IpUtil;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.DispatcherType;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * <p>
+ * 限流拦截器测试
+ * </p>
+ *
+ * <p>
+ * 验证策略匹配与限流维度的解析、本地令牌桶与Redis窗口的拒绝响应，
+ * 以及异步接口完成后的ASYNC再次分派不会重复计数。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+@ExtendWith(MockitoExtension.class)
+public class RateLimitInterceptorTest {
+
+    @Mock
+    private SlidingWindowRateLimiter rateLimiter;
+
+    private RateLimitConfig config;
+    private RateLimitInterceptor interceptor;
+
+    @BeforeEach
+    public void setUp() {
+        config = new RateLimitConfig();
+        config.getPolicies().add(policy("login", "/api/user/login", "POST", "ip", 0));
+        config.getPolicies().add(policy("public-submit", "/api/public/answer/survey/{surveyId}/submit", "POST", "path", 0));
+        config.getPolicies().add(policy("answer", "/api/answer/**", null, "user", 0));
+        interceptor = new RateLimitInterceptor(config, rateLimiter, new ObjectMapper().findAndRegisterModules(),
+                new IpUtil(new ClientIpConfig()));
+    }
+
+    @Test
+    public void testIpKey() throws Exception {
+        when(rateLimiter.tryAcquire(anyString(), anyInt(), anyLong())).thenReturn(-1L);
+        MockHttpServletRequest request = request("POST", "/api/user/login");
+        request.setRemoteAddr("10.0.0.1");
+
+        assertTrue(interceptor.preHandle(request, new MockHttpServletResponse(), null));
+        verify(rateLimiter).tryAcquire("rate:login:10.0.0.1", 60, 60000L);
+    }
+
+    @Test
+    public void testAsyncDispatchNotCounted() throws Exception {
+        MockHttpServletRequest request = request("POST", "/api/user/login");
+        request.setDispatcherType(DispatcherType.ASYNC);
+
+        assertTrue(interceptor.preHandle(request, new MockHttpServletResponse(), null));
+        verifyNoInteractions(rateLimiter);
+    }
+
+    @Test
+    public void testRejectedByRedisWindow() throws Exception {
+        when(rateLimiter.tryAcquire(anyString(), anyInt(), anyLong())).thenReturn(1500L);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertFalse(interceptor.preHandle(request("POST", "/api/user/login"), response, null));
+        assertEquals(429, response.getStatus());
+        assertEquals("2", response.getHeader("Retry-After"));
+        assertTrue(response.getContentAsString().contains("\"code\""));
+    }
+
+    @Test
+    public void testRejectedByLocalBucket() throws Exception {
+        config.getPolicies().clear();
+        config.getPolicies().add(policy("burst", "/api/user/login", "POST", "ip", 2));
+        when(rateLimiter.tryAcquire(anyString(), anyInt(), anyLong())).thenReturn(-1L);
+
+        assertTrue(interceptor.preHandle(request("POST", "/api/user/login"), new MockHttpServletResponse(), null));
+        assertTrue(interceptor.preHandle(request("POST", "/api/user/login"), new MockHttpServletResponse(), null));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        assertFalse(interceptor.preHandle(request("POST", "/api/user/login"), response, null));
+        assertEquals(429, response.getStatus());
+        assertEquals("1", response.getHeader("Retry-After"));
+        // 本地拒绝的请求不访问Redis
+        verify(rateLimiter, times(2)).tryAcquire(anyString(), anyInt(), anyLong());
+    }
+
+    @Test
+    public void testPathKey() throws Exception {
+        when(rateLimiter.tryAcquire(anyString(), anyInt(), anyLong())).thenReturn(-1L);
+
+        assertTrue(interceptor.preHandle(request("POST", "/api/public/answer/survey/42/submit"),
+                new MockHttpServletResponse(), null));
+        verify(rateLimiter).tryAcquire("rate:public-submit:42", 60, 60000L);
+    }
+
+    @Test
+    public void testUserKeyWithoutUserSkipped() throws Exception {
+        MockHttpServletRequest request = request("GET", "/api/answer/1");
+        assertTrue(interceptor.preHandle(request, new MockHttpServletResponse(), null));
+        verifyNoInteractions(rateLimiter);
+
+        when(rateLimiter.tryAcquire(anyString(), anyInt(), anyLong())).thenReturn(-1L);
+        request.setAttribute("currentUserId", 7L);
+        assertTrue(interceptor.preHandle(request, new MockHttpServletResponse(), null));
+        verify(rateLimiter).tryAcquire("rate:answer:7", 60, 60000L);
+    }
+
+    @Test
+    public void testMethodMismatchAndDisabled() throws Exception {
+        assertTrue(interceptor.preHandle(request("GET", "/api/user/login"), new MockHttpServletResponse(), null));
+        config.setEnabled(false);
+        assertTrue(interceptor.preHandle(request("POST", "/api/user/login"), new MockHttpServletResponse(), null));
+        verifyNoInteractions(rateLimiter);
+    }
+
+    private static MockHttpServletRequest request(String method, String uri) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        request.setRemoteAddr("10.0.0.1");
+        return request;
+    }
+
+    private static RateLimitConfig.Policy policy(String name, String path, String method, String key,
+                                                 int localCapacity) {
+        RateLimitConfig.Policy policy = new RateLimitConfig.Policy();
+        policy.setName(name);
+        policy.setPath(path);
+        policy.setMethod(method);
+        policy.setKey(key);
+        policy.setLocalCapacity(localCapacity);
+        policy.setLocalRefillPerSecond(0.001);
+        return policy;
+    }
+}
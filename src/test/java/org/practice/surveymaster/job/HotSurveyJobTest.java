@@ -0,0 +1,68 @@
+package org.practice.surveymaster.job;
+
+import org.junit.jupiter.api.Test;
+import org.practice.surveymaster.config.HotSurveyConfig;
+import org.practice.surveymaster.constant.SurveyStatus;
+import org.practice.surveymaster.mapper.SurveyMapper;
+import org.practice.surveymaster.model.Survey;
+import org.practice.surveymaster.service.impl.HotSurveyServiceImpl;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * <p>
+ * 热门问卷快照刷新任务测试
+ * </p>
+ *
+ * <p>
+ * 验证刷新后快照为热度排行中的已发布问卷，刷新失败时异常不会抛出到调度线程，并保留上一份快照。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+public class HotSurveyJobTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testFailureKeepsPreviousSnapshot() {
+        StringRedisTemplate redis = mock(StringRedisTemplate.class);
+        ZSetOperations<String, String> zSet = mock(ZSetOperations.class);
+        when(redis.opsForZSet()).thenReturn(zSet);
+        when(zSet.reverseRange(anyString(), anyLong(), anyLong()))
+                .thenReturn(new LinkedHashSet<>(Arrays.asList("2", "1")))
+                .thenThrow(new RedisConnectionFailureException("redis down"));
+        SurveyMapper surveyMapper = mock(SurveyMapper.class);
+        when(surveyMapper.selectByIds(anyList())).thenReturn(Arrays.asList(survey(1L), survey(2L)));
+        HotSurveyServiceImpl hotSurveyService = new HotSurveyServiceImpl(redis, surveyMapper, new HotSurveyConfig());
+        HotSurveyJob job = new HotSurveyJob(hotSurveyService);
+
+        job.run();
+        List<Survey> snapshot = hotSurveyService.getHotSurveys();
+        assertEquals(Arrays.asList(2L, 1L), Arrays.asList(snapshot.get(0).getId(), snapshot.get(1).getId()));
+
+        assertDoesNotThrow(job::run);
+        assertSame(snapshot, hotSurveyService.getHotSurveys());
+        verify(surveyMapper, times(1)).selectByIds(anyList());
+    }
+
+    private static Survey survey(Long id) {
+        Survey survey = new Survey();
+        survey.setId(id);
+        survey.setUserId(1L);
+        survey.setTitle("问卷" + id);
+        survey.setStatus(SurveyStatus.PUBLISHED.getCode());
+        return survey;
+    }
+}
@@ -0,0 +1,35 @@
+package org.practice.surveymaster.job;
+
+import org.junit.jupiter.api.Test;
+import org.practice.surveymaster.service.OutboxService;
+import org.springframework.amqp.AmqpTimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * <p>
+ * 发件箱投递任务测试
+ * </p>
+ *
+ * <p>
+ * 验证投递失败时异常不会抛出到调度线程，下个周期照常重试。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+public class OutboxRelayJobTest {
+
+    @Test
+    public void testFailureRetriedNextRun() {
+        OutboxService outboxService = mock(OutboxService.class);
+        when(outboxService.relayPending()).thenThrow(new AmqpTimeoutException("confirm timeout")).thenReturn(3);
+        OutboxRelayJob job = new OutboxRelayJob(outboxService);
+
+        assertDoesNotThrow(job::run);
+        assertDoesNotThrow(job::run);
+
+        verify(outboxService, times(2)).relayPending();
+    }
+}
@@ -0,0 +1,119 @@
+package org.practice.surveymaster.projection;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.practice.surveymaster.config.AnswerProjectionConfig;
+import org.practice.surveymaster.model.mongo.Answer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * <p>
+ * 答案变更广播测试
+ * </p>
+ *
+ * <p>
+ * 验证发布的消息只携带答案ID与问卷ID，订阅方按ID读取答案后按原顺序通知本地监听器，
+ * 读取时已不存在的答案跳过；发布失败不抛出，订阅建立时通知监听器可能漏收。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+@SuppressWarnings("unchecked")
+public class AnswerChangeBroadcasterTest {
+
+    private StringRedisTemplate stringRedisTemplate;
+    private MongoTemplate mongoTemplate;
+    private RecordingListener listener;
+    private AnswerChangeBroadcaster broadcaster;
+
+    @BeforeEach
+    public void setUp() {
+        stringRedisTemplate = mock(StringRedisTemplate.class);
+        mongoTemplate = mock(MongoTemplate.class);
+        listener = new RecordingListener();
+        ObjectProvider<LocalAnswerChangeListener> listeners = mock(ObjectProvider.class);
+        when(listeners.orderedStream()).thenAnswer(call -> Stream.of(listener));
+        broadcaster = new AnswerChangeBroadcaster(stringRedisTemplate, mock(RedisMessageListenerContainer.class),
+                mongoTemplate, new ObjectMapper(), listeners, new AnswerProjectionConfig());
+    }
+
+    @Test
+    public void testRoundTrip() {
+        Answer kept = new Answer();
+        kept.setId("a1");
+        kept.setSurveyId(1L);
+        when(mongoTemplate.find(any(Query.class), eq(Answer.class))).thenReturn(Collections.singletonList(kept));
+
+        broadcaster.publish(Arrays.asList(new AnswerChange("a1", 1L, kept), new AnswerChange("a2", 1L, new Answer()),
+                new AnswerChange("a3", 2L, null)));
+        ArgumentCaptor<String> message = ArgumentCaptor.forClass(String.class);
+        verify(stringRedisTemplate).convertAndSend(eq("answer:changes"), message.capture());
+        assertFalse(message.getValue().contains("answers"), "广播不应携带答案内容");
+
+        broadcaster.onMessage(new DefaultMessage("answer:changes".getBytes(StandardCharsets.UTF_8),
+                message.getValue().getBytes(StandardCharsets.UTF_8)), null);
+
+        // a2在读取时已不存在，跳过；删除不需要读取
+        assertEquals(1, listener.batches.size());
+        List<AnswerChange> changes = listener.batches.get(0);
+        assertEquals(2, changes.size());
+        assertEquals("a1", changes.get(0).getAnswerId());
+        assertSame(kept, changes.get(0).getAnswer());
+        assertEquals("a3", changes.get(1).getAnswerId());
+        assertEquals(Long.valueOf(2L), changes.get(1).getSurveyId());
+        assertTrue(changes.get(1).isRemoved());
+    }
+
+    @Test
+    public void testPublishFailureIgnored() {
+        doThrow(new RedisConnectionFailureException("redis down"))
+                .when(stringRedisTemplate).convertAndSend(anyString(), anyString());
+        broadcaster.publish(Collections.singletonList(new AnswerChange("a1", 1L, null)));
+        broadcaster.publish(Collections.emptyList());
+        verify(stringRedisTemplate, times(1)).convertAndSend(anyString(), anyString());
+    }
+
+    @Test
+    public void testSubscribeNotifiesMissed() {
+        broadcaster.subscribe();
+        assertEquals(1, listener.missed);
+    }
+
+    private static final class RecordingListener implements LocalAnswerChangeListener {
+
+        private final List<List<AnswerChange>> batches = new ArrayList<>();
+        private int missed;
+
+        @Override
+        public void onAnswersChanged(List<AnswerChange> changes) {
+            batches.add(changes);
+        }
+
+        @Override
+        public void onChangesMissed() {
+            missed++;
+        }
+    }
+}
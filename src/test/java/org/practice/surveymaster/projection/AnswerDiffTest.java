@@ -0,0 +1,85 @@
+package org.practice.surveymaster.projection;
+
+import org.junit.jupiter.api.Test;
+import org.practice.surveymaster.model.mongo.Answer;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * <p>
+ * 答案差异计算测试
+ * </p>
+ *
+ * <p>
+ * 验证选项提取的归一化、新旧答案的±1增量，以及台账格式的往返转换。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+public class AnswerDiffTest {
+
+    private static final Set<Long> COUNTABLE = new HashSet<>(Arrays.asList(1L, 2L, 3L));
+
+    @Test
+    public void testSelectionsSkipTextAndNormalizeNumbers() {
+        List<Answer.QuestionAnswer> answers = Arrays.asList(
+                answer(1L, "A"),
+                answer(2L, Arrays.asList("B", "C", "B")),
+                answer(3L, 5.0),
+                answer(4L, "自由文本"));
+
+        Map<Long, Set<String>> selections = AnswerDiff.selections(answers, COUNTABLE);
+
+        assertEquals(Collections.singleton("A"), selections.get(1L));
+        assertEquals(new HashSet<>(Arrays.asList("B", "C")), selections.get(2L));
+        assertEquals(Collections.singleton("5"), selections.get(3L));
+        assertFalse(selections.containsKey(4L));
+    }
+
+    @Test
+    public void testDiffOnlyChangedOptions() {
+        Map<Long, Set<String>> before = AnswerDiff.selections(Arrays.asList(
+                answer(1L, "A"), answer(2L, Arrays.asList("B", "C")), answer(3L, 4)), COUNTABLE);
+        Map<Long, Set<String>> after = AnswerDiff.selections(Arrays.asList(
+                answer(1L, "A"), answer(2L, Arrays.asList("C", "D")), answer(3L, 4L)), COUNTABLE);
+
+        AnswerDelta delta = AnswerDiff.diff(before, after);
+
+        assertFalse(delta.getChanges().containsKey(1L));
+        assertFalse(delta.getChanges().containsKey(3L));
+        Map<String, Integer> question2 = delta.getChanges().get(2L);
+        assertEquals(2, question2.size());
+        assertEquals(-1, question2.get("B"));
+        assertEquals(1, question2.get("D"));
+    }
+
+    @Test
+    public void testInsertAndDeleteAreSymmetric() {
+        Map<Long, Set<String>> selections = AnswerDiff.selections(Arrays.asList(
+                answer(1L, "A"), answer(2L, Arrays.asList("B", "C"))), COUNTABLE);
+
+        AnswerDelta insert = AnswerDiff.diff(Collections.emptyMap(), selections);
+        AnswerDelta delete = AnswerDiff.diff(AnswerDiff.fromLedger(AnswerDiff.toLedger(selections)),
+                Collections.emptyMap());
+
+        assertEquals(1, insert.getChanges().get(2L).get("C"));
+        assertEquals(-1, delete.getChanges().get(2L).get("C"));
+        assertEquals(insert.getChanges().keySet(), delete.getChanges().keySet());
+        assertTrue(AnswerDiff.diff(selections, selections).isEmpty());
+    }
+
+    private static Answer.QuestionAnswer answer(Long questionId, Object value) {
+        Answer.QuestionAnswer answer = new Answer.QuestionAnswer();
+        answer.setQuestionId(questionId);
+        answer.setAnswer(value);
+        return answer;
+    }
+}
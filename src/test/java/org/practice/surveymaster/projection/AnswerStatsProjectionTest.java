@@ -0,0 +1,251 @@
+package org.practice.surveymaster.projection;
+
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.practice.surveymaster.codec.AnswerCodec;
+import org.practice.surveymaster.codec.OptionDictionary;
+import org.practice.surveymaster.codec.SurveyDictionary;
+import org.practice.surveymaster.config.AnswerProjectionConfig;
+import org.practice.surveymaster.model.mongo.Answer;
+import org.practice.surveymaster.model.mongo.AnswerProjection;
+import org.practice.surveymaster.service.HotSurveyService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * <p>
+ * 答案统计投影测试
+ * </p>
+ *
+ * <p>
+ * 以模拟的MongoDB与Redis验证正在重算的问卷的事件只记入暂缓、不计入统计，登记已解除时照常投影；
+ * 重新投影暂缓的答案时只有重算扫描过的台账参与差异，未被扫描的答案按新增计入，扫描前已删除的台账只清理不撤销；
+ * 清理问卷时先删除台账，再分批删除全部统计key。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+@SuppressWarnings("unchecked")
+public class AnswerStatsProjectionTest {
+
+    private static final String PREFIX = "stats:";
+
+    private MongoTemplate mongoTemplate;
+    private StringRedisTemplate redis;
+    private RecomputeFence recomputeFence;
+    private TextTermProjection textTermProjection;
+    private BulkOperations bulk;
+    private Map<String, Long> increments;
+    private List<AnswerProjection> ledger;
+    private List<Answer> current;
+    private Map<String, Answer> documents;
+    private AnswerStatsProjection projection;
+
+    @BeforeEach
+    public void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        recomputeFence = mock(RecomputeFence.class);
+        textTermProjection = mock(TextTermProjection.class);
+        bulk = mock(BulkOperations.class);
+        increments = new HashMap<>();
+        ledger = new ArrayList<>();
+        current = new ArrayList<>();
+        documents = new HashMap<>();
+        MongoConverter converter = mock(MongoConverter.class);
+        when(converter.read(eq(Answer.class), any(Document.class)))
+                .thenAnswer(call -> documents.get(((Document) call.getArgument(1)).getString("_id")));
+        when(mongoTemplate.getConverter()).thenReturn(converter);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, AnswerProjection.class)).thenReturn(bulk);
+        when(mongoTemplate.find(any(Query.class), eq(AnswerProjection.class))).thenAnswer(call -> ledger);
+        when(mongoTemplate.find(any(Query.class), eq(Answer.class))).thenAnswer(call -> current);
+
+        CountableQuestionResolver resolver = mock(CountableQuestionResolver.class);
+        when(resolver.countableQuestionIds(anyLong())).thenReturn(Collections.singleton(1L));
+        OptionDictionary optionDictionary = mock(OptionDictionary.class);
+        when(optionDictionary.get(anyLong()))
+                .thenReturn(new SurveyDictionary(Collections.emptyList(), Collections.emptyList(), 0L));
+        AnswerCodec answerCodec = mock(AnswerCodec.class);
+        when(answerCodec.adapt(any(Answer.class))).thenAnswer(call -> call.getArgument(0));
+        ObjectProvider<AnswerChangeListener> listeners = mock(ObjectProvider.class);
+        when(listeners.orderedStream()).thenAnswer(call -> Stream.empty());
+
+        redis = recordingRedis();
+        projection = new AnswerStatsProjection(mongoTemplate, redis, mock(HotSurveyService.class),
+                resolver, answerCodec, optionDictionary, mock(SubmissionRollup.class), textTermProjection,
+                listeners, mock(AnswerChangeBroadcaster.class), recomputeFence, new AnswerProjectionConfig());
+    }
+
+    @Test
+    public void testFencedSurveyDeferred() {
+        when(recomputeFence.fences()).thenReturn(Collections.singletonMap(10L, System.currentTimeMillis() + 60000));
+        when(recomputeFence.defer(eq(10L), anyMap())).thenReturn(true);
+
+        projection.apply(Arrays.asList(insertEvent(answer("a", 10L, "X")), insertEvent(answer("b", 11L, "X"))));
+
+        // 重算中的问卷只记入暂缓，其他问卷照常投影
+        Map<String, Boolean> deferred = new LinkedHashMap<>();
+        deferred.put("a", true);
+        verify(recomputeFence).defer(10L, deferred);
+        assertNull(increments.get(PREFIX + "survey:10|answers"));
+        assertEquals(1L, increments.get(PREFIX + "survey:11|answers"));
+        assertEquals(1L, increments.get(PREFIX + "survey:11:q:1|X"));
+        verify(bulk, times(1)).upsert(any(Query.class), any(Update.class));
+    }
+
+    @Test
+    public void testReleasedFenceProjectedNormally() {
+        when(recomputeFence.fences()).thenReturn(Collections.singletonMap(10L, System.currentTimeMillis() + 60000));
+        // 检查登记后重算已解除登记，暂缓被拒绝
+        when(recomputeFence.defer(eq(10L), anyMap())).thenReturn(false);
+
+        projection.apply(Collections.singletonList(insertEvent(answer("a", 10L, "X"))));
+
+        assertEquals(1L, increments.get(PREFIX + "survey:10|answers"));
+        assertEquals(1L, increments.get(PREFIX + "survey:10:q:1|X"));
+    }
+
+    @Test
+    public void testReprojectAgainstRebuiltLedger() {
+        // a: 扫描读到X，之后被改为Y；b: 扫描经过后才提交，台账是扫描前的旧记录；c: 扫描前已删除
+        ledger.add(ledger("a", "X"));
+        ledger.add(ledger("b", "Z"));
+        ledger.add(ledger("c", "X"));
+        current.add(answer("a", 10L, "Y"));
+        current.add(answer("b", 10L, "X"));
+        Map<String, Boolean> deferred = new LinkedHashMap<>();
+        deferred.put("a", false);
+        deferred.put("b", true);
+        deferred.put("c", false);
+
+        projection.reproject(deferred, Collections.singleton("a"), Collections.emptySet());
+
+        assertEquals(1L, increments.get(PREFIX + "survey:10|answers"));
+        assertEquals(0L, increments.getOrDefault(PREFIX + "survey:10:q:1|X", 0L));
+        assertEquals(1L, increments.get(PREFIX + "survey:10:q:1|Y"));
+        assertNull(increments.get(PREFIX + "survey:10:q:1|Z"));
+        verify(mongoTemplate).remove(any(Query.class), eq(AnswerProjection.class));
+        verify(textTermProjection).record(Collections.singletonList(current.get(1)));
+    }
+
+    @Test
+    public void testReprojectSkipsCountedTerms() {
+        current.add(answer("a", 10L, "X"));
+        current.add(answer("b", 10L, "X"));
+        Map<String, Boolean> deferred = new LinkedHashMap<>();
+        deferred.put("a", true);
+        deferred.put("b", true);
+
+        projection.reproject(deferred, null, Collections.singleton("a"));
+
+        // 词云重建已计入a的热词，选项计数仍按台账差异补上
+        assertEquals(2L, increments.get(PREFIX + "survey:10|answers"));
+        verify(textTermProjection).record(Collections.singletonList(current.get(1)));
+    }
+
+    @Test
+    public void testPurgeDeletesLedgerAndKeys() {
+        List<String> scanned = Arrays.asList("stats:survey:10:q:1", "stats:survey:10:ts:d:202510");
+        Iterator<String> iterator = scanned.iterator();
+        Cursor<byte[]> cursor = mock(Cursor.class);
+        when(cursor.hasNext()).thenAnswer(call -> iterator.hasNext());
+        when(cursor.next()).thenAnswer(call -> iterator.next().getBytes(StandardCharsets.UTF_8));
+        when(redis.executeWithStickyConnection(any(RedisCallback.class))).thenReturn(cursor);
+        List<Object> deleted = new ArrayList<>();
+        when(redis.delete(anyCollection())).thenAnswer(call -> {
+            Collection<?> keys = call.getArgument(0);
+            deleted.addAll(keys);
+            return (long) keys.size();
+        });
+
+        assertEquals(3L, projection.purge(10L));
+
+        // 先删台账，之后到达的删除事件不会重新生成统计key
+        InOrder order = inOrder(mongoTemplate, redis);
+        order.verify(mongoTemplate).remove(any(Query.class), eq(AnswerProjection.class));
+        order.verify(redis).delete(anyCollection());
+        assertEquals(Arrays.asList("stats:survey:10", "stats:survey:10:q:1", "stats:survey:10:ts:d:202510"), deleted);
+        verify(cursor).close();
+    }
+
+    /**
+     * 执行管道回调，把HINCRBY按"key|field"累加到内存Map
+     */
+    private StringRedisTemplate recordingRedis() {
+        StringRedisTemplate redis = mock(StringRedisTemplate.class);
+        RedisOperations<String, String> operations = mock(RedisOperations.class);
+        HashOperations<String, Object, Object> hash = mock(HashOperations.class);
+        when(operations.opsForHash()).thenReturn(hash);
+        when(hash.increment(anyString(), any(), anyLong())).thenAnswer(call -> {
+            increments.merge(call.getArgument(0) + "|" + call.getArgument(1), (Long) call.getArgument(2), Long::sum);
+            return 0L;
+        });
+        when(redis.executePipelined(any(SessionCallback.class))).thenAnswer(call -> {
+            ((SessionCallback<Object>) call.getArgument(0)).execute(operations);
+            return Collections.emptyList();
+        });
+        return redis;
+    }
+
+    private ChangeStreamDocument<Document> insertEvent(Answer answer) {
+        documents.put(answer.getId(), answer);
+        return new ChangeStreamDocument<>(OperationType.INSERT, new BsonDocument(), null, null,
+                new Document("_id", answer.getId()), new BsonDocument("_id", new BsonString(answer.getId())),
+                null, null, null, null);
+    }
+
+    private static Answer answer(String id, Long surveyId, String value) {
+        Answer answer = new Answer();
+        answer.setId(id);
+        answer.setSurveyId(surveyId);
+        answer.setSubmittedAt(LocalDateTime.of(2025, 10, 19, 12, 0));
+        answer.setAnswers(Collections.singletonList(new Answer.QuestionAnswer(1L, value)));
+        return answer;
+    }
+
+    private static AnswerProjection ledger(String id, String value) {
+        Map<Long, Set<String>> selections = Collections.singletonMap(1L, new HashSet<>(Collections.singleton(value)));
+        return new AnswerProjection(id, 10L, null, AnswerDiff.toLedger(selections),
+                LocalDateTime.of(2025, 10, 19, 12, 0), false);
+    }
+}
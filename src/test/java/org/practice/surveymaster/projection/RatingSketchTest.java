@@ -0,0 +1,91 @@
+package org.practice.surveymaster.projection;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * <p>
+ * 评分草图测试
+ * </p>
+ *
+ * <p>
+ * 以模拟的Redis Hash（字段增量求和）验证：小范围整数评分的统计精确、撤销后结果一致、
+ * 时间桶合并等价于一起写入，以及大范围评分的分位数相对误差。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+public class RatingSketchTest {
+
+    @Test
+    public void testExactSmallRange() {
+        Map<String, Long> hash = new HashMap<>();
+        for (int rating : Arrays.asList(1, 2, 3, 3, 4, 4, 4, 5, 5, 5)) {
+            add(hash, BigDecimal.valueOf(rating), 1);
+        }
+        RatingSketch sketch = RatingSketch.fromHash(hash);
+
+        assertEquals(10, sketch.count());
+        assertEquals(3.6, sketch.mean(), 1e-9);
+        assertEquals(4.0, sketch.quantile(0.5));
+        assertEquals(5.0, sketch.quantile(0.9));
+        Map<String, Long> expected = new LinkedHashMap<>();
+        expected.put("1", 1L);
+        expected.put("2", 1L);
+        expected.put("3", 2L);
+        expected.put("4", 3L);
+        expected.put("5", 3L);
+        assertEquals(expected, sketch.distribution());
+    }
+
+    @Test
+    public void testRetractAndMerge() {
+        Map<String, Long> monday = new HashMap<>();
+        Map<String, Long> tuesday = new HashMap<>();
+        add(monday, new BigDecimal("4.5"), 1);
+        add(monday, BigDecimal.valueOf(2), 1);
+        add(tuesday, BigDecimal.valueOf(5), 1);
+        add(tuesday, BigDecimal.valueOf(1), 1);
+        // 修改评分：撤销旧值后记入新值
+        add(tuesday, BigDecimal.valueOf(1), -1);
+        add(tuesday, BigDecimal.valueOf(3), 1);
+
+        RatingSketch merged = RatingSketch.fromHash(monday).merge(RatingSketch.fromHash(tuesday));
+        assertEquals(4, merged.count());
+        assertEquals(14.5 / 4, merged.mean(), 1e-9);
+        assertFalse(merged.distribution().containsKey("1"));
+        assertNull(new RatingSketch().quantile(0.5));
+        assertNull(new RatingSketch().mean());
+    }
+
+    @Test
+    public void testRelativeAccuracy() {
+        Random random = new Random(7);
+        Map<String, Long> hash = new HashMap<>();
+        double[] values = new double[10000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = Math.round(Math.exp(random.nextDouble() * 10) * 100) / 100.0 + 101;
+            add(hash, BigDecimal.valueOf(values[i]), 1);
+        }
+        Arrays.sort(values);
+        RatingSketch sketch = RatingSketch.fromHash(hash);
+
+        for (double quantile : new double[]{0.1, 0.5, 0.9, 0.99}) {
+            double expected = values[(int) (quantile * (values.length - 1))];
+            assertEquals(expected, sketch.quantile(quantile), expected * 0.01);
+        }
+    }
+
+    private static void add(Map<String, Long> hash, BigDecimal value, long delta) {
+        RatingSketch.fieldsOf(value).forEach((field, count) -> hash.merge(field, count * delta, Long::sum));
+    }
+}
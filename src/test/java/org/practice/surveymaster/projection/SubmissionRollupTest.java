@@ -0,0 +1,134 @@
+package org.practice.surveymaster.projection;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.practice.surveymaster.config.AnswerProjectionConfig;
+import org.practice.surveymaster.config.SubmissionRollupConfig;
+import org.practice.surveymaster.constant.TimeGranularity;
+import org.practice.surveymaster.exception.BusinessException;
+import org.practice.surveymaster.model.mongo.Answer;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * <p>
+ * 提交数时间序列预聚合测试
+ * </p>
+ *
+ * <p>
+ * 以内存中的Hash模拟Redis管道，验证三个粒度同时计数并各自设置过期、跨分组Hash的范围查询补零，以及数据点上限。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+public class SubmissionRollupTest {
+
+    private final Map<String, Map<String, Long>> hashes = new HashMap<>();
+    private final Map<String, Long> ttls = new HashMap<>();
+    private SubmissionRollup rollup;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        HashOperations<String, Object, Object> hashOperations = mock(HashOperations.class);
+        List<Object> results = new ArrayList<>();
+        doAnswer(invocation -> {
+            hashes.computeIfAbsent(invocation.getArgument(0), k -> new HashMap<>())
+                    .merge(invocation.getArgument(1), invocation.getArgument(2), Long::sum);
+            return null;
+        }).when(hashOperations).increment(anyString(), any(), anyLong());
+        doAnswer(invocation -> {
+            Map<Object, Object> copy = new HashMap<>();
+            hashes.getOrDefault(invocation.getArgument(0), new HashMap<>())
+                    .forEach((field, count) -> copy.put(field, String.valueOf(count)));
+            results.add(copy);
+            return null;
+        }).when(hashOperations).entries(anyString());
+
+        RedisOperations<String, String> operations = mock(RedisOperations.class);
+        doReturn(hashOperations).when(operations).opsForHash();
+        doAnswer(invocation -> {
+            ttls.put(invocation.getArgument(0), invocation.getArgument(1));
+            return true;
+        }).when(operations).expire(anyString(), anyLong(), any(TimeUnit.class));
+
+        StringRedisTemplate stringRedisTemplate = mock(StringRedisTemplate.class);
+        doAnswer(invocation -> {
+            results.clear();
+            ((SessionCallback<Object>) invocation.getArgument(0)).execute(operations);
+            return new ArrayList<>(results);
+        }).when(stringRedisTemplate).executePipelined(any(SessionCallback.class));
+
+        rollup = new SubmissionRollup(stringRedisTemplate, new AnswerProjectionConfig(), new SubmissionRollupConfig());
+    }
+
+    @Test
+    public void testRecordAllGranularities() {
+        rollup.record(Arrays.asList(answer(LocalDateTime.of(2025, 10, 19, 9, 5, 30)),
+                answer(LocalDateTime.of(2025, 10, 19, 9, 5, 59)),
+                answer(LocalDateTime.of(2025, 10, 19, 9, 59, 0)),
+                answer(LocalDateTime.of(2025, 10, 20, 0, 0, 1))));
+
+        assertEquals(2L, hashes.get("stats:survey:1:ts:m:2025101909").get("05"));
+        assertEquals(1L, hashes.get("stats:survey:1:ts:m:2025101909").get("59"));
+        assertEquals(3L, hashes.get("stats:survey:1:ts:h:20251019").get("09"));
+        assertEquals(3L, hashes.get("stats:survey:1:ts:d:202510").get("19"));
+        assertEquals(1L, hashes.get("stats:survey:1:ts:d:202510").get("20"));
+        assertTrue(ttls.containsKey("stats:survey:1:ts:m:2025101909"));
+        assertTrue(ttls.containsKey("stats:survey:1:ts:h:20251019"));
+        // 天桶按月分组，保留期再加一个月
+        assertEquals(TimeUnit.DAYS.toSeconds(1096 + 31), ttls.get("stats:survey:1:ts:d:202510"));
+    }
+
+    @Test
+    public void testSeriesFillsGapsAcrossBuckets() {
+        rollup.record(Arrays.asList(answer(LocalDateTime.of(2025, 10, 19, 23, 10)),
+                answer(LocalDateTime.of(2025, 10, 20, 1, 0))));
+
+        Map<LocalDateTime, Long> series = rollup.series(1L, TimeGranularity.HOUR,
+                LocalDateTime.of(2025, 10, 19, 22, 30), LocalDateTime.of(2025, 10, 20, 1, 59));
+        assertEquals(Arrays.asList(LocalDateTime.of(2025, 10, 19, 22, 0), LocalDateTime.of(2025, 10, 19, 23, 0),
+                LocalDateTime.of(2025, 10, 20, 0, 0), LocalDateTime.of(2025, 10, 20, 1, 0)),
+                new ArrayList<>(series.keySet()));
+        assertEquals(Arrays.asList(0L, 1L, 0L, 1L), new ArrayList<>(series.values()));
+
+        Map<LocalDateTime, Long> days = rollup.series(1L, TimeGranularity.DAY,
+                LocalDateTime.of(2025, 9, 30, 0, 0), LocalDateTime.of(2025, 10, 20, 0, 0));
+        assertEquals(21, days.size());
+        assertEquals(1L, days.get(LocalDateTime.of(2025, 10, 19, 0, 0)));
+        assertEquals(0L, days.get(LocalDateTime.of(2025, 9, 30, 0, 0)));
+    }
+
+    @Test
+    public void testSeriesRejectsTooManyPoints() {
+        LocalDateTime from = LocalDateTime.of(2025, 10, 1, 0, 0);
+        assertThrows(BusinessException.class,
+                () -> rollup.series(1L, TimeGranularity.MINUTE, from, from.plusDays(2)));
+        assertThrows(BusinessException.class,
+                () -> rollup.series(1L, TimeGranularity.HOUR, from, from.minusHours(1)));
+    }
+
+    private static Answer answer(LocalDateTime submittedAt) {
+        Answer answer = new Answer();
+        answer.setSurveyId(1L);
+        answer.setSubmittedAt(submittedAt);
+        return answer;
+    }
+}
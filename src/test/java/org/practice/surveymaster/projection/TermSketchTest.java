@@ -0,0 +1,70 @@
+package org.practice.surveymaster.projection;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * <p>
+ * 词频Count-Min Sketch测试
+ * </p>
+ *
+ * <p>
+ * 在长尾分布上验证估计值只高估且误差在理论上界内、分块草图合并等价于整体计数，以及小顶堆选出的热词。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+public class TermSketchTest {
+
+    @Test
+    public void testEstimateWithinBound() {
+        Random random = new Random(42);
+        Map<String, Long> exact = new HashMap<>();
+        TermSketch whole = new TermSketch();
+        TermSketch first = new TermSketch();
+        TermSketch second = new TermSketch();
+        long total = 0;
+        for (int i = 0; i < 200000; i++) {
+            // 词的序号服从近似Zipf分布
+            String term = "词" + (int) Math.floor(Math.pow(20000, random.nextDouble()));
+            exact.merge(term, 1L, Long::sum);
+            whole.add(term, 1);
+            (i % 2 == 0 ? first : second).add(term, 1);
+            total++;
+        }
+        TermSketch merged = first.merge(second);
+
+        long bound = (long) Math.ceil(Math.E / TermSketch.WIDTH * total);
+        int violations = 0;
+        for (Map.Entry<String, Long> entry : exact.entrySet()) {
+            long estimate = whole.estimate(entry.getKey());
+            assertTrue(estimate >= entry.getValue());
+            assertEquals(estimate, merged.estimate(entry.getKey()));
+            if (estimate - entry.getValue() > bound) {
+                violations++;
+            }
+        }
+        assertTrue(violations <= exact.size() * 0.02, "超出误差上界的词过多: " + violations);
+        assertEquals(exact.get("词1"), whole.estimate("词1"), bound);
+    }
+
+    @Test
+    public void testTopHeap() {
+        Map<String, Long> counts = new HashMap<>();
+        counts.put("质量", 30L);
+        counts.put("价格", 50L);
+        counts.put("物流", 10L);
+        counts.put("包装", 20L);
+        List<String> top = TextTermRebuilder.top(counts, 3);
+        assertEquals(Arrays.asList("价格", "质量", "包装"), top);
+        assertEquals(4, TextTermRebuilder.top(counts, 10).size());
+    }
+}
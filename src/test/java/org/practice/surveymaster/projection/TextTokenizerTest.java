@@ -0,0 +1,44 @@
+package org.practice.surveymaster.projection;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * <p>
+ * 文本答案分词测试
+ * </p>
+ *
+ * <p>
+ * 验证汉字二元切分、虚词过滤、中英混排与全角归一化、同一答案内去重以及词数上限。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+public class TextTokenizerTest {
+
+    @Test
+    public void testChineseBigrams() {
+        assertEquals(new LinkedHashSet<>(Arrays.asList("服务", "务态", "态度", "很好")),
+                TextTokenizer.tokenize("服务态度的很好！", 100));
+        assertEquals(new LinkedHashSet<>(Arrays.asList("好")), TextTokenizer.tokenize("好。的", 100));
+    }
+
+    @Test
+    public void testMixedTextAndDedup() {
+        Set<String> terms = TextTokenizer.tokenize("ＡＰＰ闪退，APP很卡 the app 2025 v2", 100);
+        assertEquals(new LinkedHashSet<>(Arrays.asList("app", "闪退", "很卡", "v2")), terms);
+    }
+
+    @Test
+    public void testMaxTerms() {
+        assertEquals(3, TextTokenizer.tokenize("一二三四五六七八九十", 3).size());
+        assertTrue(TextTokenizer.tokenize("  ，。!!  ", 10).isEmpty());
+        assertTrue(TextTokenizer.tokenize(null, 10).isEmpty());
+    }
+}
@@ -0,0 +1,209 @@
+package org.practice.surveymaster.projection;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.practice.surveymaster.cache.SurveyResultCache;
+import org.practice.surveymaster.codec.OptionDictionary;
+import org.practice.surveymaster.config.AnswerProjectionConfig;
+import org.practice.surveymaster.config.UniqueRespondentConfig;
+import org.practice.surveymaster.mapper.QuestionMapper;
+import org.practice.surveymaster.mapper.SurveyMapper;
+import org.practice.surveymaster.model.Survey;
+import org.practice.surveymaster.model.mongo.Answer;
+import org.practice.surveymaster.repository.AnswerRepository;
+import org.practice.surveymaster.service.AnswerArchiveService;
+import org.practice.surveymaster.service.impl.AnswerStatsServiceImpl;
+import org.practice.surveymaster.vo.UniqueRespondents;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.HyperLogLogOperations;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * <p>
+ * 去重答题人投影测试
+ * </p>
+ *
+ * <p>
+ * 以内存中的精确集合模拟HyperLogLog：验证同一批内按问卷和创建者的日桶合并后一次PFADD并设置过期时间，
+ * 缺少用户或提交时间的答案被跳过；写入的日桶经查询服务按日期范围求并集，跨天重复的答题人只计一次；
+ * 答案数不超过阈值的问卷改为精确去重，超过阈值后读取HyperLogLog估算。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+@SuppressWarnings("unchecked")
+public class UniqueRespondentProjectionTest {
+
+    private static final LocalDate DAY1 = LocalDate.of(2025, 10, 1);
+    private static final LocalDate DAY2 = LocalDate.of(2025, 10, 2);
+    private static final LocalDate DAY3 = LocalDate.of(2025, 10, 3);
+
+    private StringRedisTemplate redis;
+    private RedisOperations<String, String> operations;
+    private HashOperations<String, Object, Object> hash;
+    private Map<String, Set<Object>> buckets;
+    private SurveyMapper surveyMapper;
+    private AnswerRepository answerRepository;
+    private AnswerArchiveService answerArchiveService;
+    private UniqueRespondentConfig config;
+    private UniqueRespondentProjection projection;
+    private AnswerStatsServiceImpl statsService;
+
+    @BeforeEach
+    public void setUp() {
+        buckets = new HashMap<>();
+        HyperLogLogOperations<String, String> hyperLogLog = mock(HyperLogLogOperations.class);
+        when(hyperLogLog.add(anyString(), any())).thenAnswer(call -> {
+            Object[] arguments = call.getArguments();
+            Set<Object> bucket = buckets.computeIfAbsent((String) arguments[0], k -> new HashSet<>());
+            bucket.addAll(Arrays.asList(arguments).subList(1, arguments.length));
+            return 1L;
+        });
+        when(hyperLogLog.size(any())).thenAnswer(call -> {
+            Set<Object> union = new HashSet<>();
+            for (Object key : call.getArguments()) {
+                union.addAll(buckets.getOrDefault((String) key, Collections.emptySet()));
+            }
+            return (long) union.size();
+        });
+        operations = mock(RedisOperations.class);
+        when(operations.opsForHyperLogLog()).thenReturn(hyperLogLog);
+        hash = mock(HashOperations.class);
+        redis = mock(StringRedisTemplate.class);
+        when(redis.opsForHyperLogLog()).thenReturn(hyperLogLog);
+        doReturn(hash).when(redis).opsForHash();
+        when(redis.executePipelined(any(SessionCallback.class))).thenAnswer(call -> {
+            ((SessionCallback<Object>) call.getArgument(0)).execute(operations);
+            return Collections.emptyList();
+        });
+
+        surveyMapper = mock(SurveyMapper.class);
+        when(surveyMapper.selectById(10L)).thenReturn(survey(10L, 100L));
+        when(surveyMapper.selectById(11L)).thenReturn(survey(11L, 100L));
+        answerRepository = mock(AnswerRepository.class);
+        answerArchiveService = mock(AnswerArchiveService.class);
+        config = new UniqueRespondentConfig();
+        config.setExactThreshold(2);
+        AnswerProjectionConfig projectionConfig = new AnswerProjectionConfig();
+        projection = new UniqueRespondentProjection(redis, surveyMapper, projectionConfig, config);
+        statsService = new AnswerStatsServiceImpl(redis, mock(QuestionMapper.class), mock(OptionDictionary.class),
+                answerRepository, answerArchiveService, projectionConfig, config, mock(SubmissionRollup.class),
+                mock(SurveyResultCache.class));
+    }
+
+    @Test
+    public void testBatchMergedIntoDailyBuckets() {
+        projection.onAnswersChanged(Arrays.asList(
+                change(10L, 1L, DAY1), change(10L, 2L, DAY1), change(10L, 1L, DAY1),
+                change(11L, 3L, DAY1), change(10L, 1L, DAY2),
+                change(10L, null, DAY1), new AnswerChange("removed", 10L, null)));
+
+        assertEquals(set(1L, 2L), buckets.get("stats:survey:10:uv:20251001"));
+        assertEquals(set(1L), buckets.get("stats:survey:10:uv:20251002"));
+        assertEquals(set(3L), buckets.get("stats:survey:11:uv:20251001"));
+        // 创建者的日桶合并其名下所有问卷
+        assertEquals(set(1L, 2L, 3L), buckets.get("stats:owner:100:uv:20251001"));
+        assertEquals(set(1L), buckets.get("stats:owner:100:uv:20251002"));
+        assertEquals(5, buckets.size());
+        // 每个日桶一次PFADD，并刷新过期时间；创建者只查询一次
+        verify(operations.opsForHyperLogLog(), times(5)).add(anyString(), any());
+        verify(operations).expire("stats:survey:10:uv:20251001", config.getBucketTtlDays(), TimeUnit.DAYS);
+        verify(operations, times(5)).expire(anyString(), eq((long) config.getBucketTtlDays()), eq(TimeUnit.DAYS));
+        verify(surveyMapper, times(1)).selectById(10L);
+        verify(redis, times(1)).executePipelined(any(SessionCallback.class));
+    }
+
+    @Test
+    public void testRangeMergesDailyBuckets() {
+        projection.onAnswersChanged(Arrays.asList(change(10L, 1L, DAY1), change(10L, 2L, DAY1),
+                change(10L, 2L, DAY2), change(10L, 3L, DAY3), change(11L, 4L, DAY2)));
+        when(hash.get("stats:survey:10", "answers")).thenReturn("5000");
+
+        // 跨天重复的答题人只计一次
+        UniqueRespondents survey = statsService.getSurveyUniqueRespondents(10L, DAY1, DAY3);
+        assertEquals(3, survey.getCount());
+        assertFalse(survey.isExact());
+        assertEquals(2, statsService.getSurveyUniqueRespondents(10L, DAY2, DAY3).getCount());
+        assertEquals(1, statsService.getSurveyUniqueRespondents(10L, DAY2, DAY2).getCount());
+        // 创建者范围合并名下全部问卷
+        assertEquals(4, statsService.getOwnerUniqueRespondents(100L, DAY1, DAY3).getCount());
+        assertEquals(2, statsService.getOwnerUniqueRespondents(100L, DAY2, DAY2).getCount());
+        assertEquals(0, statsService.getOwnerUniqueRespondents(100L, DAY3.plusDays(1), DAY3.plusDays(5)).getCount());
+    }
+
+    @Test
+    public void testSmallSurveyFallsBackToExact() {
+        projection.onAnswersChanged(Collections.singletonList(change(10L, 9L, DAY1)));
+        when(answerRepository.findDistinctUserIds(eq(10L), any(), any())).thenReturn(Arrays.asList(1L, 2L));
+        doAnswer(call -> {
+            Consumer<Answer> consumer = call.getArgument(3);
+            // 归档中与热数据重复的用户和匿名答案不重复计数
+            consumer.accept(answer(10L, 2L, DAY1));
+            consumer.accept(answer(10L, null, DAY1));
+            return null;
+        }).when(answerArchiveService).forEachArchived(eq(10L), any(), any(), any());
+
+        // 答案数恰好等于阈值时仍精确统计，不读取HyperLogLog
+        when(hash.get("stats:survey:10", "answers")).thenReturn("2");
+        UniqueRespondents exact = statsService.getSurveyUniqueRespondents(10L, DAY1, DAY3);
+        assertTrue(exact.isExact());
+        assertEquals(2, exact.getCount());
+        verify(answerRepository).findDistinctUserIds(10L, DAY1.atStartOfDay(),
+                DAY3.plusDays(1).atStartOfDay().minusNanos(1));
+
+        // 超过阈值后改为估算
+        when(hash.get("stats:survey:10", "answers")).thenReturn("3");
+        UniqueRespondents estimated = statsService.getSurveyUniqueRespondents(10L, DAY1, DAY3);
+        assertFalse(estimated.isExact());
+        assertEquals(1, estimated.getCount());
+    }
+
+    private static AnswerChange change(Long surveyId, Long userId, LocalDate day) {
+        Answer answer = answer(surveyId, userId, day);
+        return new AnswerChange(surveyId + "-" + userId + "-" + day, surveyId, answer);
+    }
+
+    private static Answer answer(Long surveyId, Long userId, LocalDate day) {
+        Answer answer = new Answer();
+        answer.setSurveyId(surveyId);
+        answer.setUserId(userId);
+        answer.setSubmittedAt(LocalDateTime.of(day, LocalTime.NOON));
+        return answer;
+    }
+
+    private static Survey survey(Long id, Long ownerId) {
+        Survey survey = new Survey();
+        survey.setId(id);
+        survey.setUserId(ownerId);
+        return survey;
+    }
+
+    private static Set<Object> set(Long... userIds) {
+        Set<Object> set = new HashSet<>();
+        for (Long userId : userIds) {
+            set.add(String.valueOf(userId));
+        }
+        return set;
+    }
+}
@@ -0,0 +1,95 @@
+package org.practice.surveymaster.ratelimit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.practice.surveymaster.config.RateLimitConfig;
+import org.practice.surveymaster.constant.ErrorCode;
+import org.practice.surveymaster.exception.BusinessException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * <p>
+ * 登录暴力破解防护测试
+ * </p>
+ *
+ * <p>
+ * 验证同一用户名+IP失败达到上限后只拒绝该IP、账号级失败总数达到更高上限后锁定账号，
+ * 失败同时计入两级计数、成功只清除该IP的记录，以及关闭限流时不访问Redis。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+@ExtendWith(MockitoExtension.class)
+public class LoginAttemptGuardTest {
+
+    @Mock
+    private SlidingWindowRateLimiter rateLimiter;
+
+    private RateLimitConfig config;
+    private LoginAttemptGuard guard;
+
+    @BeforeEach
+    public void setUp() {
+        config = new RateLimitConfig();
+        config.getLoginFailure().setMaxFailures(5);
+        config.getLoginFailure().setAccountMaxFailures(50);
+        config.getLoginFailure().setWindowSeconds(900);
+        guard = new LoginAttemptGuard(rateLimiter, config);
+    }
+
+    @Test
+    public void testIpLockedAfterMaxFailures() {
+        when(rateLimiter.count("rate:login-fail:alice:1.1.1.1", 900000L)).thenReturn(4L, 5L);
+        when(rateLimiter.count("rate:login-fail:alice:2.2.2.2", 900000L)).thenReturn(0L);
+        when(rateLimiter.count("rate:login-fail:alice", 900000L)).thenReturn(5L);
+
+        guard.checkNotLocked("alice", "1.1.1.1");
+        BusinessException exception = assertThrows(BusinessException.class,
+                () -> guard.checkNotLocked("alice", "1.1.1.1"));
+        assertEquals(ErrorCode.TOO_MANY_REQUESTS, exception.getErrorCode());
+        // 其他IP上的合法用户不受影响
+        guard.checkNotLocked("alice", "2.2.2.2");
+    }
+
+    @Test
+    public void testAccountLockedAfterAccountMaxFailures() {
+        when(rateLimiter.count("rate:login-fail:alice:3.3.3.3", 900000L)).thenReturn(0L);
+        when(rateLimiter.count("rate:login-fail:alice", 900000L)).thenReturn(49L, 50L);
+
+        guard.checkNotLocked("alice", "3.3.3.3");
+        BusinessException exception = assertThrows(BusinessException.class,
+                () -> guard.checkNotLocked("alice", "3.3.3.3"));
+        assertEquals(ErrorCode.TOO_MANY_REQUESTS, exception.getErrorCode());
+    }
+
+    @Test
+    public void testRecordAndReset() {
+        guard.recordFailure("alice", "1.1.1.1");
+        guard.reset("alice", "1.1.1.1");
+
+        verify(rateLimiter).record("rate:login-fail:alice:1.1.1.1", 900000L);
+        verify(rateLimiter).record("rate:login-fail:alice", 900000L);
+        verify(rateLimiter).reset("rate:login-fail:alice:1.1.1.1");
+        verify(rateLimiter, never()).reset("rate:login-fail:alice");
+    }
+
+    @Test
+    public void testDisabled() {
+        config.setEnabled(false);
+
+        guard.checkNotLocked("alice", "1.1.1.1");
+        guard.recordFailure("alice", "1.1.1.1");
+        guard.reset("alice", "1.1.1.1");
+
+        verify(rateLimiter, never()).count(anyString(), anyLong());
+        verifyNoMoreInteractions(rateLimiter);
+    }
+}
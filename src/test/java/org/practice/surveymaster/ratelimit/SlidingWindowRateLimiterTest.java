@@ -0,0 +1,99 @@
+package org.practice.surveymaster.ratelimit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * <p>
+ * Redis滑动窗口限流器测试
+ * </p>
+ *
+ * <p>
+ * 脚本本身在Redis中执行，这里验证脚本使用Redis服务器时间、传给脚本的参数、结果的解释，以及Redis不可用时放行（fail-open）。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+public class SlidingWindowRateLimiterTest {
+
+    @Test
+    public void testAcquireArguments() {
+        ScriptedRedisTemplate redis = new ScriptedRedisTemplate(-1L);
+        SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(redis);
+
+        assertTrue(limiter.tryAcquire("rate:login:1.2.3.4", 20, 60000L) <= 0);
+        assertEquals(Collections.singletonList("rate:login:1.2.3.4"), redis.keys);
+        assertEquals("60000", redis.args[0]);
+        assertEquals("20", redis.args[1]);
+        assertEquals(3, redis.args.length);
+        // 时间戳取自Redis服务器，不由应用传入
+        assertTrue(redis.script.getScriptAsString().contains("redis.call('TIME')"));
+    }
+
+    @Test
+    public void testRejectedReturnsRetryAfter() {
+        SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(new ScriptedRedisTemplate(1500L));
+        assertEquals(1500L, limiter.tryAcquire("k", 1, 60000L));
+    }
+
+    @Test
+    public void testFailOpen() {
+        ScriptedRedisTemplate redis = new ScriptedRedisTemplate(null);
+        redis.fail = true;
+        SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(redis);
+
+        assertTrue(limiter.tryAcquire("k", 1, 60000L) <= 0);
+        assertEquals(0L, limiter.count("k", 60000L));
+        assertEquals(0L, limiter.record("k", 60000L));
+    }
+
+    @Test
+    public void testCountAndRecord() {
+        ScriptedRedisTemplate redis = new ScriptedRedisTemplate(3L);
+        SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(redis);
+        assertEquals(3L, limiter.count("k", 900000L));
+        assertArrayEquals(new Object[]{"900000"}, redis.args);
+        assertTrue(redis.script.getScriptAsString().contains("redis.call('TIME')"));
+        assertEquals(3L, limiter.record("k", 900000L));
+        assertEquals("900000", redis.args[0]);
+        assertEquals(2, redis.args.length);
+        assertTrue(redis.script.getScriptAsString().contains("redis.call('TIME')"));
+    }
+
+    /**
+     * 记录脚本调用并返回预设结果
+     */
+    @SuppressWarnings("unchecked")
+    private static final class ScriptedRedisTemplate extends StringRedisTemplate {
+
+        private final Long result;
+        private boolean fail;
+        private List<String> keys = new ArrayList<>();
+        private Object[] args;
+        private RedisScript<?> script;
+
+        private ScriptedRedisTemplate(Long result) {
+            this.result = result;
+        }
+
+        @Override
+        public <T> T execute(RedisScript<T> script, List<String> keys, Object... args) {
+            if (fail) {
+                throw new RedisConnectionFailureException("redis down");
+            }
+            this.script = script;
+            this.keys = keys;
+            this.args = args;
+            return (T) result;
+        }
+    }
+}
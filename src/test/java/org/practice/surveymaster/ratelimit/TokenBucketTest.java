@@ -0,0 +1,58 @@
+package org.practice.surveymaster.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * <p>
+ * 本地令牌桶测试
+ * </p>
+ *
+ * <p>
+ * 验证容量耗尽后拒绝、按时间惰性补充，以及预占令牌时返回的等待时间。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+public class TokenBucketTest {
+
+    @Test
+    public void testCapacityExhausted() {
+        TokenBucket bucket = new TokenBucket(3, 0.001);
+        assertTrue(bucket.tryAcquire());
+        assertTrue(bucket.tryAcquire());
+        assertTrue(bucket.tryAcquire());
+        assertFalse(bucket.tryAcquire());
+    }
+
+    @Test
+    public void testRefill() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(1, 100);
+        assertTrue(bucket.tryAcquire());
+        assertFalse(bucket.tryAcquire());
+        // 每秒补充100个，等待足够补充一个令牌的时间
+        Thread.sleep(50);
+        assertTrue(bucket.tryAcquire());
+    }
+
+    @Test
+    public void testRefillCappedAtCapacity() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(2, 1000);
+        Thread.sleep(20);
+        assertTrue(bucket.tryAcquire());
+        assertTrue(bucket.tryAcquire());
+        // 空闲期间补充的令牌不超过容量
+        assertTrue(bucket.reserve(1000) > 0);
+    }
+
+    @Test
+    public void testReserve() {
+        TokenBucket bucket = new TokenBucket(10, 10);
+        assertEquals(0L, bucket.reserve(10));
+        long waitNanos = bucket.reserve(10);
+        // 透支10个令牌，按每秒10个补充约需1秒
+        assertTrue(waitNanos > 900_000_000L && waitNanos <= 1_000_000_000L, "等待时间: " + waitNanos);
+    }
+}
@@ -0,0 +1,96 @@
+package org.practice.surveymaster.recompute;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * <p>
+ * 重算累加器测试
+ * </p>
+ *
+ * <p>
+ * 验证多个分区共用下标映射并行累加后，逐元素合并的结果与顺序计数一致，以及计数还原。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+public class StatsAccumulatorTest {
+
+    @Test
+    public void testParallelMergeMatchesSequential() {
+        SlotIndex slots = new SlotIndex();
+        List<int[]> answers = new ArrayList<>();
+        for (int i = 0; i < 100000; i++) {
+            answers.add(new int[]{i % 3, i % 7});
+        }
+
+        StatsAccumulator result = new ForkJoinPool(4).invoke(new Partition(answers, slots, 0, answers.size()));
+        Map<Long, Map<String, Long>> counts = slots.decode(result);
+
+        assertEquals(100000, result.getAnswers());
+        assertEquals(3, counts.get(1L).size());
+        assertEquals(7, counts.get(2L).size());
+        assertEquals(33334L, counts.get(1L).get("选项0"));
+        assertEquals(14286L, counts.get(2L).get("选项0"));
+        assertEquals(14285L, counts.get(2L).get("选项6"));
+    }
+
+    @Test
+    public void testMergeGrowsCounts() {
+        StatsAccumulator small = new StatsAccumulator();
+        StatsAccumulator large = new StatsAccumulator();
+        small.add(1);
+        large.add(1);
+        large.add(500);
+        small.addAnswer();
+
+        small.merge(large);
+        assertEquals(2L, small.count(1));
+        assertEquals(1L, small.count(500));
+        assertEquals(0L, small.count(10000));
+        assertEquals(1L, small.getAnswers());
+    }
+
+    /**
+     * 模拟按区间二分的叶子任务：每个答案选中题1与题2各一个选项
+     */
+    private static final class Partition extends RecursiveTask<StatsAccumulator> {
+
+        private final List<int[]> answers;
+        private final SlotIndex slots;
+        private final int from;
+        private final int to;
+
+        private Partition(List<int[]> answers, SlotIndex slots, int from, int to) {
+            this.answers = answers;
+            this.slots = slots;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected StatsAccumulator compute() {
+            if (to - from > 5000) {
+                int mid = (from + to) >>> 1;
+                Partition right = new Partition(answers, slots, mid, to);
+                right.fork();
+                return new Partition(answers, slots, from, mid).compute().merge(right.join());
+            }
+            StatsAccumulator accumulator = new StatsAccumulator();
+            for (int i = from; i < to; i++) {
+                accumulator.addAnswer();
+                accumulator.add(slots.slotOf(1L, "选项" + answers.get(i)[0]));
+                accumulator.add(slots.slotOf(2L, "选项" + answers.get(i)[1]));
+            }
+            return accumulator;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package org.practice.surveymaster.search;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.practice.surveymaster.config.SurveySearchConfig;
+import org.practice.surveymaster.constant.SurveyStatus;
+import org.practice.surveymaster.mapper.QuestionMapper;
+import org.practice.surveymaster.mapper.SurveyMapper;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.IndexOperations;
+import org.springframework.data.elasticsearch.core.document.Document;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.data.elasticsearch.core.query.NativeSearchQuery;
+import org.springframework.data.elasticsearch.core.query.Query;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * <p>
+ * Elasticsearch问卷搜索引擎测试
+ * </p>
+ *
+ * <p>
+ * 以模拟的ElasticsearchOperations验证按MySQL数据重建的文档以一次批量请求写入、
+ * 删除按ID查询，索引缺失时只创建一次，以及空批次不访问Elasticsearch。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+@SuppressWarnings("unchecked")
+public class ElasticsearchSurveySearchEngineTest {
+
+    private ElasticsearchOperations elasticsearchOperations;
+    private IndexOperations indexOperations;
+    private ElasticsearchSurveySearchEngine engine;
+
+    @BeforeEach
+    public void setUp() {
+        elasticsearchOperations = mock(ElasticsearchOperations.class);
+        indexOperations = mock(IndexOperations.class);
+        when(elasticsearchOperations.indexOps(any(IndexCoordinates.class))).thenReturn(indexOperations);
+        engine = new ElasticsearchSurveySearchEngine(elasticsearchOperations, new SurveySearchConfig());
+    }
+
+    @Test
+    public void testReindexFromMysql() {
+        SurveyMapper surveyMapper = mock(SurveyMapper.class);
+        QuestionMapper questionMapper = mock(QuestionMapper.class);
+        when(surveyMapper.selectByIds(anyCollection())).thenReturn(Arrays.asList(
+                SurveySearchIndexerTest.survey(1L, SurveyStatus.PUBLISHED),
+                SurveySearchIndexerTest.survey(2L, SurveyStatus.CLOSED),
+                SurveySearchIndexerTest.survey(3L, SurveyStatus.DELETED)));
+        when(questionMapper.selectBySurveyIds(anyCollection())).thenReturn(Collections.singletonList(
+                SurveySearchIndexerTest.question(2L, "满意度")));
+        when(indexOperations.exists()).thenReturn(false);
+        when(indexOperations.createMapping(SurveyDocument.class)).thenReturn(Document.create());
+        SurveySearchIndexer indexer = new SurveySearchIndexer(surveyMapper, questionMapper, engine, new ObjectMapper());
+
+        indexer.reindex(Arrays.asList(1L, 2L, 3L, 4L));
+
+        // 未删除的问卷以一次bulk请求写入，关闭的问卷也保留在索引中，由查询时按状态过滤
+        ArgumentCaptor<Iterable<SurveyDocument>> saved = ArgumentCaptor.forClass(Iterable.class);
+        verify(elasticsearchOperations, times(1)).save(saved.capture(), any(IndexCoordinates.class));
+        List<SurveyDocument> documents = new ArrayList<>();
+        saved.getValue().forEach(documents::add);
+        assertEquals(2, documents.size());
+        assertEquals(Collections.singletonList("满意度"), documents.get(1).getQuestions());
+        assertEquals(SurveyStatus.CLOSED.getCode(), documents.get(1).getStatus());
+
+        ArgumentCaptor<Query> deleted = ArgumentCaptor.forClass(Query.class);
+        verify(elasticsearchOperations).delete(deleted.capture(), eq(SurveyDocument.class), any(IndexCoordinates.class));
+        String ids = ((NativeSearchQuery) deleted.getValue()).getQuery().toString();
+        assertTrue(ids.contains("\"3\"") && ids.contains("\"4\""));
+
+        // 索引只在首次写入时检查并创建
+        verify(indexOperations, times(1)).exists();
+        verify(indexOperations, times(1)).create();
+        verify(indexOperations, times(1)).putMapping(any(Document.class));
+    }
+
+    @Test
+    public void testExistingIndexNotRecreated() {
+        when(indexOperations.exists()).thenReturn(true);
+
+        engine.index(Collections.singletonList(new SurveyDocument()));
+        engine.index(Collections.singletonList(new SurveyDocument()));
+
+        verify(indexOperations, times(1)).exists();
+        verify(indexOperations, never()).create();
+        verify(elasticsearchOperations, times(2)).save(any(Iterable.class), any(IndexCoordinates.class));
+    }
+
+    @Test
+    public void testEmptyBatchSkipped() {
+        engine.index(Collections.emptyList());
+        engine.delete(Collections.emptyList());
+
+        verifyNoInteractions(elasticsearchOperations);
+    }
+}
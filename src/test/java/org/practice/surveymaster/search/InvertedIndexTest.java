@@ -0,0 +1,102 @@
+package org.practice.surveymaster.search;
+
+import org.junit.jupiter.api.Test;
+import org.practice.surveymaster.vo.SurveySearchResult;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * <p>
+ * 内存倒排索引测试
+ * </p>
+ *
+ * <p>
+ * 验证二元组分词、压缩倒排链的增删，以及中文检索、文档更新、分页与高亮。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/16
+ */
+public class InvertedIndexTest {
+
+    @Test
+    public void testBigramTokenizer() {
+        assertEquals(Arrays.asList("问卷", "卷调", "调查", "java"), BigramTokenizer.tokenize("问卷调查 Java"));
+        assertEquals(Collections.singletonList("问"), BigramTokenizer.tokenize("问?"));
+        assertTrue(BigramTokenizer.tokenize(null).isEmpty());
+    }
+
+    @Test
+    public void testPostingListAddAndRemove() {
+        PostingList list = new PostingList();
+        for (long id = 1000; id < 2000; id += 3) {
+            assertTrue(list.add(id));
+        }
+        assertFalse(list.add(1003));
+        assertTrue(list.add(1001));
+        assertTrue(list.remove(1000));
+        assertFalse(list.remove(1000));
+
+        long[] ids = list.toArray();
+        assertEquals(list.size(), ids.length);
+        assertEquals(1001, ids[0]);
+        assertEquals(1003, ids[1]);
+        for (int i = 1; i < ids.length; i++) {
+            assertTrue(ids[i] > ids[i - 1]);
+        }
+        // 差值编码后每个ID只占1字节
+        assertTrue(list.byteSize() < ids.length + 8);
+    }
+
+    @Test
+    public void testSearchChinese() {
+        InvertedIndex index = new InvertedIndex();
+        index.put(document(1L, "员工满意度调查", "年度调查", Collections.singletonList("你对食堂满意吗")));
+        index.put(document(2L, "食堂问卷", "关于食堂", Collections.singletonList("菜品是否满意")));
+        index.put(document(3L, "课程反馈", "", Collections.emptyList()));
+
+        SurveySearchResult result = index.search("满意", 1, 10);
+        assertEquals(2, result.getTotal());
+        // 标题命中的问卷排在前面
+        assertEquals(1L, result.getItems().get(0).getId());
+        assertEquals("员工<em>满意</em>度调查", result.getItems().get(0).getHighlights().get("title").get(0));
+        assertEquals("菜品是否<em>满意</em>", result.getItems().get(1).getHighlights().get("questions").get(0));
+
+        assertEquals(0, index.search("满意课程", 1, 10).getTotal());
+    }
+
+    @Test
+    public void testUpdateRemoveAndPaging() {
+        InvertedIndex index = new InvertedIndex();
+        for (long id = 1; id <= 25; id++) {
+            index.put(document(id, "问卷" + id, null, null));
+        }
+        SurveySearchResult page3 = index.search("问卷", 3, 10);
+        assertEquals(25, page3.getTotal());
+        assertEquals(5, page3.getItems().size());
+
+        // 更新后旧词项不再命中
+        index.put(document(5L, "改名", null, null));
+        assertEquals(24, index.search("问卷", 1, 10).getTotal());
+        assertEquals(1, index.search("改名", 1, 10).getTotal());
+
+        assertTrue(index.remove(5L));
+        assertEquals(0, index.search("改名", 1, 10).getTotal());
+        assertEquals(24, index.size());
+    }
+
+    private SurveyDocument document(Long id, String title, String description, List<String> questions) {
+        SurveyDocument document = new SurveyDocument();
+        document.setId(id);
+        document.setUserId(1L);
+        document.setTitle(title);
+        document.setDescription(description);
+        document.setQuestions(questions);
+        document.setStatus(1);
+        return document;
+    }
+}
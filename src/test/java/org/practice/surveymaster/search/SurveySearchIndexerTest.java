@@ -0,0 +1,125 @@
+package org.practice.surveymaster.search;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.practice.surveymaster.constant.QuestionType;
+import org.practice.surveymaster.constant.SurveyStatus;
+import org.practice.surveymaster.mapper.QuestionMapper;
+import org.practice.surveymaster.mapper.SurveyMapper;
+import org.practice.surveymaster.model.Question;
+import org.practice.surveymaster.model.Survey;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+/**
+ * <p>
+ * 问卷搜索索引同步器测试
+ * </p>
+ *
+ * <p>
+ * 以模拟的Mapper与搜索引擎验证一批消息按问卷ID去重后只查询一次MySQL、无法解析的消息被丢弃，
+ * 已删除或不存在的问卷从索引中移除，以及写入失败时异常抛出使整批消息重新入队。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+@SuppressWarnings("unchecked")
+public class SurveySearchIndexerTest {
+
+    private SurveyMapper surveyMapper;
+    private QuestionMapper questionMapper;
+    private SurveySearchEngine surveySearchEngine;
+    private SurveySearchIndexer indexer;
+
+    @BeforeEach
+    public void setUp() {
+        surveyMapper = mock(SurveyMapper.class);
+        questionMapper = mock(QuestionMapper.class);
+        surveySearchEngine = mock(SurveySearchEngine.class);
+        indexer = new SurveySearchIndexer(surveyMapper, questionMapper, surveySearchEngine, new ObjectMapper());
+    }
+
+    @Test
+    public void testBatchDeduplicatedAndReindexed() {
+        when(surveyMapper.selectByIds(anyCollection())).thenReturn(Arrays.asList(
+                survey(1L, SurveyStatus.PUBLISHED), survey(2L, SurveyStatus.DELETED)));
+        when(questionMapper.selectBySurveyIds(anyCollection())).thenReturn(Arrays.asList(
+                question(1L, "年龄"), question(1L, "城市")));
+
+        indexer.onSurveyEvents(Arrays.asList(event(1L), event(2L), event(1L), event(3L), malformed()));
+
+        // 一批消息只查询一次，问卷ID按首次出现的顺序去重，格式错误的消息被丢弃
+        ArgumentCaptor<Collection<Long>> ids = ArgumentCaptor.forClass(Collection.class);
+        verify(surveyMapper, times(1)).selectByIds(ids.capture());
+        assertEquals(Arrays.asList(1L, 2L, 3L), Arrays.asList(ids.getValue().toArray()));
+        verify(questionMapper, times(1)).selectBySurveyIds(anyCollection());
+
+        ArgumentCaptor<List<SurveyDocument>> documents = ArgumentCaptor.forClass(List.class);
+        verify(surveySearchEngine).index(documents.capture());
+        assertEquals(1, documents.getValue().size());
+        SurveyDocument document = documents.getValue().get(0);
+        assertEquals(1L, document.getId());
+        assertEquals(Arrays.asList("年龄", "城市"), document.getQuestions());
+        // 已删除与不存在的问卷从索引中移除
+        verify(surveySearchEngine).delete(Arrays.asList(2L, 3L));
+    }
+
+    @Test
+    public void testMalformedBatchSkipped() {
+        indexer.onSurveyEvents(Collections.singletonList(malformed()));
+
+        verifyNoInteractions(surveyMapper, questionMapper, surveySearchEngine);
+    }
+
+    @Test
+    public void testEngineFailureRequeuesBatch() {
+        when(surveyMapper.selectByIds(anyCollection()))
+                .thenReturn(Collections.singletonList(survey(1L, SurveyStatus.PUBLISHED)));
+        doThrow(new IllegalStateException("es down")).when(surveySearchEngine).index(any());
+
+        // 异常交给监听容器，整批消息重新入队
+        assertThrows(IllegalStateException.class, () -> indexer.onSurveyEvents(Collections.singletonList(event(1L))));
+    }
+
+    private static Message event(Long surveyId) {
+        String body = "{\"aggregateType\":\"survey\",\"aggregateId\":" + surveyId + ",\"eventType\":\"changed\"}";
+        return new Message(body.getBytes(StandardCharsets.UTF_8), new MessageProperties());
+    }
+
+    private static Message malformed() {
+        return new Message("not json".getBytes(StandardCharsets.UTF_8), new MessageProperties());
+    }
+
+    static Survey survey(Long id, SurveyStatus status) {
+        Survey survey = new Survey();
+        survey.setId(id);
+        survey.setUserId(100L);
+        survey.setTitle("问卷" + id);
+        survey.setStatus(status.getCode());
+        survey.setCreatedAt(LocalDateTime.of(2025, 10, 19, 12, 0));
+        return survey;
+    }
+
+    static Question question(Long surveyId, String content) {
+        Question question = new Question();
+        question.setSurveyId(surveyId);
+        question.setType(QuestionType.TEXT);
+        question.setContent(content);
+        return question;
+    }
+}
@@ -0,0 +1,91 @@
+package org.practice.surveymaster.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.practice.surveymaster.config.PasswordConfig;
+import org.practice.surveymaster.util.MD5Util;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * <p>
+ * 密码管理器测试
+ * </p>
+ *
+ * <p>
+ * 验证当前算法的哈希与校验、历史MD5密码的识别与透明升级，以及迭代次数提升后的重新哈希。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/12
+ */
+public class PasswordManagerTest {
+
+    private PasswordConfig passwordConfig;
+    private PasswordManager passwordManager;
+
+    @BeforeEach
+    void setUp() {
+        passwordConfig = new PasswordConfig();
+        passwordConfig.setAlgorithm("pbkdf2");
+        passwordConfig.setPbkdf2Iterations(1000);
+        passwordConfig.setBcryptStrength(4);
+        passwordManager = new PasswordManager(Arrays.asList(
+                new Pbkdf2PasswordHasher(passwordConfig),
+                new BCryptPasswordHasher(passwordConfig),
+                new LegacyMd5PasswordHasher()), passwordConfig);
+    }
+
+    @Test
+    void testHashAndVerify() {
+        String hash = passwordManager.hash("secret123");
+        assertTrue(hash.startsWith("$pbkdf2-sha256$1000$"));
+        assertTrue(hash.length() <= 100, "哈希长度超出password列宽度");
+
+        PasswordManager.VerifyResult result = passwordManager.verify("secret123", hash);
+        assertTrue(result.isMatched());
+        assertNull(result.getUpgradedHash());
+
+        assertFalse(passwordManager.verify("wrong", hash).isMatched());
+    }
+
+    @Test
+    void testLegacyMd5IsUpgraded() {
+        String legacy = MD5Util.md5("secret123");
+
+        PasswordManager.VerifyResult result = passwordManager.verify("secret123", legacy);
+        assertTrue(result.isMatched());
+        assertNotNull(result.getUpgradedHash());
+        assertTrue(passwordManager.verify("secret123", result.getUpgradedHash()).isMatched());
+
+        PasswordManager.VerifyResult wrong = passwordManager.verify("wrong", legacy);
+        assertFalse(wrong.isMatched());
+        assertNull(wrong.getUpgradedHash());
+    }
+
+    @Test
+    void testRehashWhenIterationsIncreased() {
+        String hash = passwordManager.hash("secret123");
+        passwordConfig.setPbkdf2Iterations(2000);
+
+        PasswordManager.VerifyResult result = passwordManager.verify("secret123", hash);
+        assertTrue(result.isMatched());
+        assertTrue(result.getUpgradedHash().startsWith("$pbkdf2-sha256$2000$"));
+    }
+
+    @Test
+    void testBCryptIsVerifiedAndMigrated() {
+        String bcrypt = new BCryptPasswordHasher(passwordConfig).hash("secret123");
+
+        PasswordManager.VerifyResult result = passwordManager.verify("secret123", bcrypt);
+        assertTrue(result.isMatched());
+        assertTrue(result.getUpgradedHash().startsWith("$pbkdf2-sha256$"));
+    }
+
+    @Test
+    void testUnknownUser() {
+        assertFalse(passwordManager.verify("secret123", null).isMatched());
+    }
+}
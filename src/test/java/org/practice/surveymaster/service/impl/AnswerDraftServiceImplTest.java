@@ -0,0 +1,232 @@
+package org.practice.surveymaster.service.impl;
+
+import com.mongodb.ClientSessionOptions;
+import com.mongodb.client.ClientSession;
+import com.mongodb.client.TransactionBody;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.practice.surveymaster.cache.SurveyStatusCache;
+import org.practice.surveymaster.config.AnswerDraftConfig;
+import org.practice.surveymaster.constant.ErrorCode;
+import org.practice.surveymaster.dto.SaveDraftDTO;
+import org.practice.surveymaster.dto.SubmitAnswerDTO;
+import org.practice.surveymaster.exception.BusinessException;
+import org.practice.surveymaster.model.mongo.Answer;
+import org.practice.surveymaster.model.mongo.AnswerDraft;
+import org.practice.surveymaster.service.AnswerArchiveService;
+import org.practice.surveymaster.validation.AnswerValidatorCache;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * <p>
+ * 答案草稿服务测试
+ * </p>
+ *
+ * <p>
+ * 以模拟的MongoTemplate验证同一会话的连续保存合并为一次批量写、只有到期的会话被刷写、
+ * 写入失败的改动与期间的新改动合并后重试，以及提交时先写入缓冲再在事务中转换为正式答案。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+public class AnswerDraftServiceImplTest {
+
+    private MongoTemplate mongoTemplate;
+    private BulkOperations bulk;
+    private AnswerValidatorCache answerValidatorCache;
+    private SurveyStatusCache surveyStatusCache;
+    private AnswerArchiveService answerArchiveService;
+    private AnswerDraftConfig config;
+    private AnswerDraftServiceImpl service;
+
+    @BeforeEach
+    public void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        bulk = mock(BulkOperations.class);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, AnswerDraft.class)).thenReturn(bulk);
+        answerValidatorCache = mock(AnswerValidatorCache.class);
+        surveyStatusCache = mock(SurveyStatusCache.class);
+        answerArchiveService = mock(AnswerArchiveService.class);
+        config = new AnswerDraftConfig();
+        config.setDebounceMillis(60000L);
+        config.setMaxDelayMillis(60000L);
+        service = new AnswerDraftServiceImpl(mongoTemplate, answerValidatorCache, surveyStatusCache,
+                answerArchiveService, config);
+    }
+
+    @Test
+    public void testSavesCoalesced() {
+        service.saveDraft(save(1L, "A"));
+        service.saveDraft(save(1L, "B"));
+        service.saveDraft(save(2L, "C"));
+        verify(mongoTemplate, never()).bulkOps(any(BulkOperations.BulkMode.class), eq(AnswerDraft.class));
+
+        service.flushAll();
+
+        // 三次保存合并为一次批量写：创建草稿、原地更新已有题目、追加两道缺失的题目
+        verify(mongoTemplate, times(1)).bulkOps(BulkOperations.BulkMode.ORDERED, AnswerDraft.class);
+        verify(bulk, times(1)).upsert(any(Query.class), any(Update.class));
+        verify(bulk, times(3)).updateOne(any(Query.class), any(Update.class));
+        verify(bulk, times(1)).execute();
+        Map<Long, Object> pushed = pushed();
+        assertEquals("B", pushed.get(1L));
+        assertEquals("C", pushed.get(2L));
+    }
+
+    @Test
+    public void testOnlyDueSessionsFlushed() {
+        service.saveDraft(save(1L, "A"));
+        assertEquals(0, service.flushDue());
+        verify(bulk, never()).execute();
+
+        config.setDebounceMillis(0L);
+        assertEquals(1, service.flushDue());
+        verify(bulk, times(1)).execute();
+        // 已写入的会话不再重复刷写
+        assertEquals(0, service.flushDue());
+        verify(bulk, times(1)).execute();
+    }
+
+    @Test
+    public void testBufferDisabledWritesThrough() {
+        config.setBufferEnabled(false);
+        service.saveDraft(save(1L, "A"));
+        verify(bulk, times(1)).execute();
+        assertEquals(0, service.flushDue());
+    }
+
+    @Test
+    public void testFailedWriteMergedBack() {
+        config.setDebounceMillis(0L);
+        service.saveDraft(save(1L, "A"));
+        service.saveDraft(save(2L, "B"));
+        // 写入期间同一会话又产生了新改动，随后写入失败
+        when(bulk.execute()).thenAnswer(call -> {
+            service.saveDraft(save(1L, "A2"));
+            throw new DataAccessResourceFailureException("mongo down");
+        }).thenReturn(null);
+
+        assertEquals(0, service.flushDue());
+
+        // 失败的改动与新改动合并，新改动优先，下次刷写一并写入
+        clearInvocations(bulk);
+        assertEquals(1, service.flushDue());
+        Map<Long, Object> pushed = pushed();
+        assertEquals("A2", pushed.get(1L));
+        assertEquals("B", pushed.get(2L));
+    }
+
+    @Test
+    public void testGetDraftOverlaysPending() {
+        List<Answer.QuestionAnswer> stored = new ArrayList<>(Arrays.asList(
+                new Answer.QuestionAnswer(1L, "A"), new Answer.QuestionAnswer(3L, "X")));
+        when(mongoTemplate.findById("10:20", AnswerDraft.class))
+                .thenReturn(new AnswerDraft("10:20", 10L, 20L, stored, null, null));
+        service.saveDraft(save(1L, "A2"));
+        service.saveDraft(save(2L, "B"));
+
+        AnswerDraft draft = service.getDraft(10L, 20L).orElseThrow(IllegalStateException::new);
+
+        assertEquals(3, draft.getAnswers().size());
+        assertEquals("A2", draft.getAnswers().get(0).getAnswer());
+        assertEquals("X", draft.getAnswers().get(1).getAnswer());
+        assertEquals("B", draft.getAnswers().get(2).getAnswer());
+    }
+
+    @Test
+    public void testSubmitConvertsDraft() {
+        MongoTemplate transactional = mockTransaction();
+        List<Answer.QuestionAnswer> answers = Arrays.asList(new Answer.QuestionAnswer(1L, "A"));
+        when(transactional.findAndRemove(any(Query.class), eq(AnswerDraft.class)))
+                .thenReturn(new AnswerDraft("10:20", 10L, 20L, answers, null, null));
+        when(transactional.insert(any(Answer.class))).thenAnswer(call -> call.getArgument(0));
+        service.saveDraft(save(1L, "A"));
+
+        Answer answer = service.submitDraft(10L, 20L);
+
+        // 提交前先写入缓冲中的改动，再在事务中删除草稿并插入正式答案
+        verify(bulk, times(1)).execute();
+        verify(answerValidatorCache).validate(10L, answers);
+        assertEquals(10L, answer.getSurveyId());
+        assertEquals(20L, answer.getUserId());
+        assertEquals(answers, answer.getAnswers());
+        assertNotNull(answer.getSubmittedAt());
+        assertFalse(service.getDraft(10L, 20L).isPresent());
+    }
+
+    @Test
+    public void testSubmitRejected() {
+        when(surveyStatusCache.isAccepting(10L)).thenReturn(false);
+        BusinessException notPublished = assertThrows(BusinessException.class, () -> service.submitDraft(10L, 20L));
+        assertEquals(ErrorCode.SURVEY_NOT_PUBLISHED, notPublished.getErrorCode());
+
+        MongoTemplate transactional = mockTransaction();
+        when(transactional.findAndRemove(any(Query.class), eq(AnswerDraft.class))).thenReturn(new AnswerDraft(
+                "10:20", 10L, 20L, Arrays.asList(new Answer.QuestionAnswer(1L, "A")), null, null));
+        when(answerArchiveService.existsArchived(anyLong(), anyLong())).thenReturn(false);
+        when(transactional.insert(any(Answer.class))).thenThrow(new DuplicateKeyException("E11000 duplicate key"));
+
+        BusinessException duplicate = assertThrows(BusinessException.class, () -> service.submitDraft(10L, 20L));
+        assertEquals(ErrorCode.ANSWER_ALREADY_SUBMITTED, duplicate.getErrorCode());
+    }
+
+    private static SaveDraftDTO save(Long questionId, Object value) {
+        return new SaveDraftDTO(10L, 20L, Arrays.asList(new SubmitAnswerDTO.QuestionAnswerDTO(questionId, value)));
+    }
+
+    /**
+     * 问卷接收答案，事务直接执行回调，事务内的操作交给返回的模拟模板
+     */
+    @SuppressWarnings("unchecked")
+    private MongoTemplate mockTransaction() {
+        when(surveyStatusCache.isAccepting(10L)).thenReturn(true);
+        MongoDatabaseFactory factory = mock(MongoDatabaseFactory.class);
+        ClientSession session = mock(ClientSession.class);
+        MongoTemplate transactional = mock(MongoTemplate.class);
+        when(mongoTemplate.getMongoDatabaseFactory()).thenReturn(factory);
+        when(factory.getSession(any(ClientSessionOptions.class))).thenReturn(session);
+        when(session.withTransaction(any(TransactionBody.class)))
+                .thenAnswer(call -> ((TransactionBody<Object>) call.getArgument(0)).execute());
+        when(mongoTemplate.withSession(session)).thenReturn(transactional);
+        return transactional;
+    }
+
+    /**
+     * 从批量写的$push操作中取出追加的题目与取值
+     */
+    private Map<Long, Object> pushed() {
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(bulk, atLeastOnce()).updateOne(any(Query.class), updates.capture());
+        Map<Long, Object> pushed = new HashMap<>();
+        for (Update update : updates.getAllValues()) {
+            Document push = (Document) update.getUpdateObject().get("$push");
+            if (push != null) {
+                Answer.QuestionAnswer answer = (Answer.QuestionAnswer) push.get("answers");
+                pushed.put(answer.getQuestionId(), answer.getAnswer());
+            }
+        }
+        return pushed;
+    }
+}
@@ -6,11 +6,16 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.practice.surveymaster.cache.SurveyStatusCache;
+import org.practice.surveymaster.constant.ErrorCode;
 import org.practice.surveymaster.dto.SubmitAnswerDTO;
 import org.practice.surveymaster.dto.UpdateAnswerDTO;
 import org.practice.surveymaster.exception.BusinessException;
 import org.practice.surveymaster.model.mongo.Answer;
 import org.practice.surveymaster.repository.AnswerRepository;
+import org.practice.surveymaster.service.AnswerArchiveService;
+import org.practice.surveymaster.validation.AnswerValidatorCache;
+import org.springframework.dao.DuplicateKeyException;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
@@ -41,6 +46,15 @@ class AnswerServiceImplTest {
     @Mock
     private AnswerRepository answerRepository;
 
+    @Mock
+    private AnswerArchiveService answerArchiveService;
+
+    @Mock
+    private AnswerValidatorCache answerValidatorCache;
+
+    @Mock
+    private SurveyStatusCache surveyStatusCache;
+
     @InjectMocks
     private AnswerServiceImpl answerService;
 
@@ -72,6 +86,7 @@ class AnswerServiceImplTest {
     @Test
     void testSubmitAnswer_Success() {
         // Given
+        when(surveyStatusCache.isAccepting(1L)).thenReturn(true);
         when(answerRepository.existsBySurveyIdAndUserId(1L, 1L)).thenReturn(false);
         when(answerRepository.save(any(Answer.class))).thenReturn(mockAnswer);
 
@@ -91,6 +106,7 @@ class AnswerServiceImplTest {
     @Test
     void testSubmitAnswer_UserAlreadyAnswered() {
         // Given
+        when(surveyStatusCache.isAccepting(1L)).thenReturn(true);
         when(answerRepository.existsBySurveyIdAndUserId(1L, 1L)).thenReturn(true);
 
         // When & Then
@@ -102,6 +118,51 @@ class AnswerServiceImplTest {
         verify(answerRepository, never()).save(any());
     }
 
+    @Test
+    void testSubmitAnswer_SurveyNotPublished() {
+        // Given
+        when(surveyStatusCache.isAccepting(1L)).thenReturn(false);
+
+        // When & Then
+        BusinessException exception = assertThrows(BusinessException.class,
+            () -> answerService.submitAnswer(submitAnswerDTO));
+
+        assertEquals(ErrorCode.SURVEY_NOT_PUBLISHED, exception.getErrorCode());
+        verify(answerRepository, never()).save(any());
+    }
+
+    @Test
+    void testSubmitAnswer_ConcurrentDuplicate() {
+        // Given：存在性检查通过，但并发的重复提交先写入，唯一索引拒绝本次写入
+        when(surveyStatusCache.isAccepting(1L)).thenReturn(true);
+        when(answerRepository.existsBySurveyIdAndUserId(1L, 1L)).thenReturn(false);
+        when(answerRepository.save(any(Answer.class))).thenThrow(new DuplicateKeyException("E11000 duplicate key"));
+
+        // When & Then
+        BusinessException exception = assertThrows(BusinessException.class,
+            () -> answerService.submitAnswer(submitAnswerDTO));
+
+        assertEquals(ErrorCode.ANSWER_ALREADY_SUBMITTED, exception.getErrorCode());
+    }
+
+    @Test
+    void testUpdateAnswer_SurveyNotPublished() {
+        // Given
+        UpdateAnswerDTO updateDTO = new UpdateAnswerDTO();
+        updateDTO.setId("60f1b2a3c4d5e6f7g8h9i0j1");
+        updateDTO.setAnswers(Arrays.asList(new UpdateAnswerDTO.QuestionAnswerDTO(1L, "选项D")));
+
+        when(answerRepository.findById("60f1b2a3c4d5e6f7g8h9i0j1")).thenReturn(Optional.of(mockAnswer));
+        when(surveyStatusCache.isAccepting(1L)).thenReturn(false);
+
+        // When & Then
+        BusinessException exception = assertThrows(BusinessException.class,
+            () -> answerService.updateAnswer(updateDTO));
+
+        assertEquals(ErrorCode.SURVEY_NOT_PUBLISHED, exception.getErrorCode());
+        verify(answerRepository, never()).save(any());
+    }
+
     @Test
     void testGetAnswerById_Success() {
         // Given
@@ -170,6 +231,7 @@ class AnswerServiceImplTest {
         updateDTO.setAnswers(Arrays.asList(updatedQA));
 
         when(answerRepository.findById("60f1b2a3c4d5e6f7g8h9i0j1")).thenReturn(Optional.of(mockAnswer));
+        when(surveyStatusCache.isAccepting(1L)).thenReturn(true);
         when(answerRepository.save(any(Answer.class))).thenReturn(mockAnswer);
 
         // When
@@ -232,14 +294,14 @@ class AnswerServiceImplTest {
     @Test
     void testDeleteAnswersBySurveyId() {
         // Given
-        when(answerRepository.deleteBySurveyId(1L)).thenReturn(3L);
+        when(answerRepository.deleteChunkBySurveyId(eq(1L), anyInt())).thenReturn(3L);
 
         // When
         long result = answerService.deleteAnswersBySurveyId(1L);
 
         // Then
         assertEquals(3L, result);
-        verify(answerRepository).deleteBySurveyId(1L);
+        verify(answerRepository).deleteChunkBySurveyId(eq(1L), anyInt());
     }
 
     @Test
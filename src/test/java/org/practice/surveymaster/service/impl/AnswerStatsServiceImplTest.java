@@ -0,0 +1,134 @@
+package org.practice.surveymaster.service.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.practice.surveymaster.cache.SurveyResultCache;
+import org.practice.surveymaster.codec.OptionDictionary;
+import org.practice.surveymaster.config.AnswerProjectionConfig;
+import org.practice.surveymaster.config.UniqueRespondentConfig;
+import org.practice.surveymaster.exception.BusinessException;
+import org.practice.surveymaster.mapper.QuestionMapper;
+import org.practice.surveymaster.model.mongo.Answer;
+import org.practice.surveymaster.projection.SubmissionRollup;
+import org.practice.surveymaster.repository.AnswerRepository;
+import org.practice.surveymaster.service.AnswerArchiveService;
+import org.practice.surveymaster.vo.UniqueRespondents;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.HyperLogLogOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * <p>
+ * AnswerStatsServiceImpl 单元测试类
+ * </p>
+ *
+ * <p>
+ * 测试去重答题人数在小问卷上走精确统计、大问卷上合并HyperLogLog日桶估算，以及日期范围校验。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+@ExtendWith(MockitoExtension.class)
+class AnswerStatsServiceImplTest {
+
+    private static final LocalDate FROM = LocalDate.of(2025, 10, 1);
+    private static final LocalDate TO = LocalDate.of(2025, 10, 3);
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Mock
+    private HashOperations<String, Object, Object> hashOperations;
+
+    @Mock
+    private HyperLogLogOperations<String, String> hyperLogLogOperations;
+
+    @Mock
+    private QuestionMapper questionMapper;
+
+    @Mock
+    private OptionDictionary optionDictionary;
+
+    @Mock
+    private AnswerRepository answerRepository;
+
+    @Mock
+    private AnswerArchiveService answerArchiveService;
+
+    @Mock
+    private SubmissionRollup submissionRollup;
+
+    @Mock
+    private SurveyResultCache surveyResultCache;
+
+    private AnswerStatsServiceImpl answerStatsService;
+
+    @BeforeEach
+    void setUp() {
+        answerStatsService = new AnswerStatsServiceImpl(stringRedisTemplate, questionMapper, optionDictionary,
+                answerRepository, answerArchiveService, new AnswerProjectionConfig(), new UniqueRespondentConfig(),
+                submissionRollup, surveyResultCache);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testSurveyUniqueRespondents_SmallSurveyIsExact() {
+        // Given
+        doReturn(hashOperations).when(stringRedisTemplate).opsForHash();
+        when(hashOperations.get("stats:survey:1", "answers")).thenReturn("3");
+        when(answerRepository.findDistinctUserIds(eq(1L), any(), any())).thenReturn(Arrays.asList(1L, 2L));
+        Answer archived = new Answer();
+        archived.setUserId(3L);
+        doAnswer(invocation -> {
+            ((Consumer<Answer>) invocation.getArgument(3)).accept(archived);
+            return null;
+        }).when(answerArchiveService).forEachArchived(eq(1L), any(), any(), any());
+
+        // When
+        UniqueRespondents result = answerStatsService.getSurveyUniqueRespondents(1L, FROM, TO);
+
+        // Then
+        assertEquals(3, result.getCount());
+        assertTrue(result.isExact());
+        verify(stringRedisTemplate, never()).opsForHyperLogLog();
+    }
+
+    @Test
+    void testSurveyUniqueRespondents_LargeSurveyIsEstimated() {
+        // Given
+        doReturn(hashOperations).when(stringRedisTemplate).opsForHash();
+        when(hashOperations.get("stats:survey:1", "answers")).thenReturn("50000");
+        doReturn(hyperLogLogOperations).when(stringRedisTemplate).opsForHyperLogLog();
+        // 三天的日桶一次PFCOUNT求并集
+        when(hyperLogLogOperations.size("stats:survey:1:uv:20251001", "stats:survey:1:uv:20251002",
+                "stats:survey:1:uv:20251003")).thenReturn(4200L);
+
+        // When
+        UniqueRespondents result = answerStatsService.getSurveyUniqueRespondents(1L, FROM, TO);
+
+        // Then
+        assertEquals(4200, result.getCount());
+        assertFalse(result.isExact());
+        verify(answerRepository, never()).findDistinctUserIds(any(), any(), any());
+    }
+
+    @Test
+    void testUniqueRespondents_InvalidRange() {
+        assertThrows(BusinessException.class, () -> answerStatsService.getOwnerUniqueRespondents(1L, TO, FROM));
+        assertThrows(BusinessException.class,
+                () -> answerStatsService.getOwnerUniqueRespondents(1L, FROM, FROM.plusYears(2)));
+    }
+}
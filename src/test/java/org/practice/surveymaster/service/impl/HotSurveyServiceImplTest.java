@@ -0,0 +1,146 @@
+package org.practice.surveymaster.service.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.practice.surveymaster.config.HotSurveyConfig;
+import org.practice.surveymaster.constant.SurveyStatus;
+import org.practice.surveymaster.mapper.SurveyMapper;
+import org.practice.surveymaster.model.Survey;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * <p>
+ * 热门问卷服务测试
+ * </p>
+ *
+ * <p>
+ * 验证对数热度：间隔一个半衰期的权重相差ln2，按Lua脚本同样的log-sum-exp合并后，
+ * 半衰期前的两次答题与现在的一次答题热度相同，多个半衰期同理；
+ * 刷新快照时按热度顺序过滤未发布和已删除的问卷，截取Top-N，快照不可修改。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+@SuppressWarnings("unchecked")
+public class HotSurveyServiceImplTest {
+
+    private static final double DELTA = 1e-9;
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 10, 19, 12, 0);
+
+    private StringRedisTemplate redis;
+    private ZSetOperations<String, String> zSet;
+    private SurveyMapper surveyMapper;
+    private HotSurveyConfig config;
+    private HotSurveyServiceImpl service;
+
+    @BeforeEach
+    public void setUp() {
+        redis = mock(StringRedisTemplate.class);
+        zSet = mock(ZSetOperations.class);
+        when(redis.opsForZSet()).thenReturn(zSet);
+        surveyMapper = mock(SurveyMapper.class);
+        config = new HotSurveyConfig();
+        config.setHalfLifeHours(24);
+        config.setTopN(2);
+        service = new HotSurveyServiceImpl(redis, surveyMapper, config);
+    }
+
+    @Test
+    public void testLogWeightGrowsLn2PerHalfLife() {
+        for (int periods = 1; periods <= 3; periods++) {
+            double older = weight(NOW.minusHours(24L * periods));
+            assertEquals(periods * Math.log(2), weight(NOW) - older, DELTA);
+        }
+        // 半衰期改为12小时后，同样的时间跨度相当于两个衰减周期
+        config.setHalfLifeHours(12);
+        assertEquals(2 * Math.log(2), weight(NOW) - weight(NOW.minusHours(24)), DELTA);
+    }
+
+    @Test
+    public void testDecayedAnswersTieWithFreshOnes() {
+        double fresh = weight(NOW);
+        // 一个半衰期前的2次答题 = 现在的1次
+        double oneHalfLife = merge(weight(NOW.minusHours(24)), weight(NOW.minusHours(24)));
+        assertEquals(fresh, oneHalfLife, DELTA);
+        // 两个半衰期前的4次答题 = 现在的1次
+        double old = weight(NOW.minusHours(48));
+        assertEquals(fresh, merge(merge(merge(old, old), old), old), DELTA);
+        // 合并顺序不影响结果
+        assertEquals(merge(fresh, old), merge(old, fresh), DELTA);
+        assertTrue(merge(fresh, old) > fresh);
+    }
+
+    @Test
+    public void testRecordAnswerPassesLogWeight() {
+        service.recordAnswer(7L, NOW);
+
+        verify(redis).execute(any(RedisScript.class), eq(Collections.singletonList("survey:hot")),
+                eq("7"), eq(String.valueOf(weight(NOW))), eq("10000"));
+    }
+
+    @Test
+    public void testRefreshKeepsPublishedTopN() {
+        when(zSet.reverseRange("survey:hot", 0, 3)).thenReturn(new LinkedHashSet<>(Arrays.asList("3", "1", "5", "2", "4")));
+        // 数据库返回顺序与热度无关；1为草稿，5已删除
+        when(surveyMapper.selectByIds(anyList())).thenReturn(Arrays.asList(
+                survey(1L, SurveyStatus.DRAFT), survey(2L, SurveyStatus.PUBLISHED),
+                survey(3L, SurveyStatus.PUBLISHED), survey(4L, SurveyStatus.PUBLISHED)));
+
+        service.refreshSnapshot();
+
+        List<Survey> hot = service.getHotSurveys();
+        assertEquals(Arrays.asList(3L, 2L), Arrays.asList(hot.get(0).getId(), hot.get(1).getId()));
+        assertThrows(UnsupportedOperationException.class, () -> hot.add(survey(6L, SurveyStatus.PUBLISHED)));
+        verify(surveyMapper).selectByIds(Arrays.asList(3L, 1L, 5L, 2L, 4L));
+    }
+
+    @Test
+    public void testRefreshWithEmptyRanking() {
+        when(zSet.reverseRange("survey:hot", 0, 3)).thenReturn(new LinkedHashSet<>(Collections.singletonList("3")));
+        when(surveyMapper.selectByIds(anyList())).thenReturn(Collections.singletonList(survey(3L, SurveyStatus.PUBLISHED)));
+        service.refreshSnapshot();
+        assertEquals(1, service.getHotSurveys().size());
+
+        when(zSet.reverseRange("survey:hot", 0, 3)).thenReturn(Collections.emptySet());
+        service.refreshSnapshot();
+
+        assertTrue(service.getHotSurveys().isEmpty());
+    }
+
+    private double weight(LocalDateTime time) {
+        return service.logWeight(time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+    }
+
+    /**
+     * 与Lua脚本相同的log-sum-exp合并
+     */
+    private static double merge(double score, double x) {
+        double hi = Math.max(score, x);
+        double lo = Math.min(score, x);
+        return hi + Math.log(1 + Math.exp(lo - hi));
+    }
+
+    private static Survey survey(Long id, SurveyStatus status) {
+        Survey survey = new Survey();
+        survey.setId(id);
+        survey.setUserId(1L);
+        survey.setStatus(status.getCode());
+        return survey;
+    }
+}
@@ -0,0 +1,264 @@
+package org.practice.surveymaster.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.practice.surveymaster.config.OutboxConfig;
+import org.practice.surveymaster.mapper.OutboxEventMapper;
+import org.practice.surveymaster.model.OutboxEvent;
+import org.practice.surveymaster.service.OutboxService;
+import org.springframework.amqp.AmqpTimeoutException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.core.RabbitOperations;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.AnnotationTransactionAttributeSource;
+import org.springframework.transaction.interceptor.TransactionInterceptor;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * <p>
+ * 发件箱服务测试
+ * </p>
+ *
+ * <p>
+ * 通过事务代理验证写入事件必须处在业务事务中：没有事务时直接拒绝，不会写入脱离业务数据的事件。
+ * 以模拟的Redis与RabbitTemplate验证投递：未抢到锁时不读取发件箱，Broker未确认时事件保留且锁被释放，
+ * 多批事件逐批确认后按批删除，每批前续期锁、续期失败时结束本轮，只读取超过提交宽限期的事件。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+public class OutboxServiceImplTest {
+
+    private OutboxEventMapper outboxEventMapper;
+    private StringRedisTemplate stringRedisTemplate;
+    private RabbitTemplate rabbitTemplate;
+    private OutboxConfig config;
+    private ValueOperations<String, String> valueOperations;
+    private RabbitOperations rabbitOperations;
+    private String lockToken;
+    private OutboxServiceImpl service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        outboxEventMapper = mock(OutboxEventMapper.class);
+        stringRedisTemplate = mock(StringRedisTemplate.class);
+        valueOperations = mock(ValueOperations.class);
+        when(stringRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        rabbitTemplate = mock(RabbitTemplate.class);
+        rabbitOperations = mock(RabbitOperations.class);
+        when(rabbitTemplate.invoke(any(RabbitOperations.OperationsCallback.class))).thenAnswer(call ->
+                ((RabbitOperations.OperationsCallback<Object>) call.getArgument(0)).doInRabbit(rabbitOperations));
+        config = new OutboxConfig();
+        service = new OutboxServiceImpl(outboxEventMapper, config, rabbitTemplate, stringRedisTemplate,
+                new ObjectMapper().findAndRegisterModules());
+    }
+
+    @Test
+    public void testAppendRequiresTransaction() {
+        InMemoryTransactionManager transactionManager = new InMemoryTransactionManager();
+        ProxyFactory factory = new ProxyFactory(service);
+        TransactionInterceptor interceptor = new TransactionInterceptor();
+        interceptor.setTransactionManager(transactionManager);
+        interceptor.setTransactionAttributeSource(new AnnotationTransactionAttributeSource());
+        factory.addAdvice(interceptor);
+        OutboxService proxy = (OutboxService) factory.getProxy();
+
+        assertThrows(IllegalTransactionStateException.class, () -> proxy.surveyChanged(1L));
+        assertThrows(IllegalTransactionStateException.class, () -> proxy.append("survey", 1L, "changed", null));
+        verify(outboxEventMapper, never()).insert(any());
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> proxy.surveyChanged(1L));
+
+        ArgumentCaptor<OutboxEvent> event = ArgumentCaptor.forClass(OutboxEvent.class);
+        verify(outboxEventMapper).insert(event.capture());
+        assertEquals(OutboxEvent.AGGREGATE_SURVEY, event.getValue().getAggregateType());
+        assertEquals(1L, event.getValue().getAggregateId());
+        assertEquals(OutboxEvent.SURVEY_CHANGED, event.getValue().getEventType());
+        assertNotNull(event.getValue().getCreatedAt());
+    }
+
+    @Test
+    public void testRelaySkippedWithoutLock() {
+        when(valueOperations.setIfAbsent(eq(config.getLockKey()), anyString(), any(Duration.class)))
+                .thenReturn(false);
+
+        assertEquals(0, service.relayPending());
+
+        verify(outboxEventMapper, never()).selectBatch(anyInt(), any());
+        verify(rabbitTemplate, never()).invoke(any(RabbitOperations.OperationsCallback.class));
+        // 锁由其他实例持有，不能释放
+        verify(stringRedisTemplate, never()).execute(any(RedisScript.class), anyList(), any());
+    }
+
+    @Test
+    public void testUnconfirmedEventsKept() {
+        lock();
+        when(outboxEventMapper.selectBatch(eq(config.getBatchSize()), any(LocalDateTime.class))).thenReturn(Arrays.asList(event(1L), event(2L)));
+        doThrow(new AmqpTimeoutException("confirm timeout")).when(rabbitOperations).waitForConfirmsOrDie(anyLong());
+
+        assertThrows(AmqpTimeoutException.class, () -> service.relayPending());
+
+        // 已发送但未确认的事件不删除，下次重新投递；锁按令牌释放
+        verify(rabbitOperations, times(2)).send(anyString(), anyString(), any(Message.class));
+        verify(outboxEventMapper, never()).deleteByIds(anyCollection());
+        verify(stringRedisTemplate).execute(any(RedisScript.class),
+                eq(Collections.singletonList(config.getLockKey())), eq(lockToken));
+    }
+
+    @Test
+    public void testBatchesConfirmedAndDeleted() {
+        lock();
+        config.setBatchSize(2);
+        when(outboxEventMapper.selectBatch(eq(2), any(LocalDateTime.class))).thenReturn(Arrays.asList(event(1L), event(2L)),
+                Arrays.asList(event(3L), event(4L)), Collections.singletonList(event(5L)));
+
+        assertEquals(5, service.relayPending());
+
+        // 每批确认后才删除该批，不足一整批时结束本轮
+        InOrder order = inOrder(rabbitOperations, outboxEventMapper);
+        order.verify(rabbitOperations).waitForConfirmsOrDie(config.getConfirmTimeoutMillis());
+        order.verify(outboxEventMapper).deleteByIds(Arrays.asList(1L, 2L));
+        order.verify(rabbitOperations).waitForConfirmsOrDie(config.getConfirmTimeoutMillis());
+        order.verify(outboxEventMapper).deleteByIds(Arrays.asList(3L, 4L));
+        order.verify(rabbitOperations).waitForConfirmsOrDie(config.getConfirmTimeoutMillis());
+        order.verify(outboxEventMapper).deleteByIds(Collections.singletonList(5L));
+        verify(outboxEventMapper, times(3)).selectBatch(eq(2), any(LocalDateTime.class));
+        // 第二、三批投递前各续期一次
+        verify(stringRedisTemplate, times(2)).execute(argThat(OutboxServiceImplTest::isRenewScript),
+                eq(Collections.singletonList(config.getLockKey())), eq(lockToken),
+                eq(String.valueOf(config.getLockLeaseMillis())));
+
+        ArgumentCaptor<Message> messages = ArgumentCaptor.forClass(Message.class);
+        verify(rabbitOperations, times(5)).send(eq(config.getExchange()), eq("SURVEY.SURVEY_CHANGED"), messages.capture());
+        assertEquals("outbox-1", messages.getAllValues().get(0).getMessageProperties().getMessageId());
+        assertEquals("outbox-5", messages.getAllValues().get(4).getMessageProperties().getMessageId());
+        verify(stringRedisTemplate).execute(any(RedisScript.class),
+                eq(Collections.singletonList(config.getLockKey())), eq(lockToken));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testRelayStopsWhenLockLost() {
+        lock();
+        config.setBatchSize(2);
+        when(outboxEventMapper.selectBatch(eq(2), any(LocalDateTime.class)))
+                .thenReturn(Arrays.asList(event(1L), event(2L)));
+        // 第一批耗时超过租约，锁已被其他实例抢占
+        when(stringRedisTemplate.execute(argThat(OutboxServiceImplTest::isRenewScript), anyList(), any()))
+                .thenReturn(0L);
+
+        assertEquals(2, service.relayPending());
+
+        verify(outboxEventMapper, times(1)).selectBatch(eq(2), any(LocalDateTime.class));
+        verify(rabbitOperations, times(2)).send(anyString(), anyString(), any(Message.class));
+        verify(outboxEventMapper, times(1)).deleteByIds(anyCollection());
+    }
+
+    @Test
+    public void testOnlyEventsPastGraceWindowRead() {
+        lock();
+        config.setCommitGraceMillis(5000L);
+        when(outboxEventMapper.selectBatch(eq(config.getBatchSize()), any(LocalDateTime.class)))
+                .thenReturn(Collections.emptyList());
+        LocalDateTime start = LocalDateTime.now();
+
+        assertEquals(0, service.relayPending());
+
+        ArgumentCaptor<LocalDateTime> before = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(outboxEventMapper).selectBatch(eq(config.getBatchSize()), before.capture());
+        assertFalse(before.getValue().isAfter(start.minusSeconds(5).plusSeconds(1)));
+        assertTrue(before.getValue().isAfter(start.minusSeconds(10)));
+    }
+
+    /**
+     * 抢锁成功，记下本次使用的令牌
+     */
+    @SuppressWarnings("unchecked")
+    private void lock() {
+        when(valueOperations.setIfAbsent(eq(config.getLockKey()), anyString(), any(Duration.class)))
+                .thenAnswer(call -> {
+                    lockToken = call.getArgument(1);
+                    return true;
+                });
+        lenient().when(stringRedisTemplate.execute(argThat(OutboxServiceImplTest::isRenewScript), anyList(), any()))
+                .thenReturn(1L);
+    }
+
+    private static boolean isRenewScript(RedisScript<?> script) {
+        return script != null && script.getScriptAsString().contains("PEXPIRE");
+    }
+
+    private static OutboxEvent event(Long id) {
+        OutboxEvent event = new OutboxEvent();
+        event.setId(id);
+        event.setAggregateType(OutboxEvent.AGGREGATE_SURVEY);
+        event.setAggregateId(id);
+        event.setEventType(OutboxEvent.SURVEY_CHANGED);
+        event.setCreatedAt(LocalDateTime.of(2025, 10, 19, 12, 0));
+        return event;
+    }
+
+    /**
+     * 只记录当前线程是否处在事务中的事务管理器，用于验证传播级别
+     */
+    private static final class InMemoryTransactionManager extends AbstractPlatformTransactionManager {
+
+        private final ThreadLocal<Boolean> active = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+        @Override
+        protected Object doGetTransaction() {
+            return active.get();
+        }
+
+        @Override
+        protected boolean isExistingTransaction(Object transaction) {
+            return (Boolean) transaction;
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+            active.set(Boolean.TRUE);
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doCleanupAfterCompletion(Object transaction) {
+            active.remove();
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package org.practice.surveymaster.service.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.practice.surveymaster.columnar.ColumnarAnswerStore;
+import org.practice.surveymaster.config.SurveyPurgeConfig;
+import org.practice.surveymaster.mapper.OptionMapper;
+import org.practice.surveymaster.mapper.QuestionMapper;
+import org.practice.surveymaster.mapper.SurveyMapper;
+import org.practice.surveymaster.mapper.SurveyPurgeTaskMapper;
+import org.practice.surveymaster.model.SurveyPurgeTask;
+import org.practice.surveymaster.projection.AnswerStatsProjection;
+import org.practice.surveymaster.repository.AnswerRepository;
+import org.practice.surveymaster.service.AnswerArchiveService;
+import org.practice.surveymaster.service.HotSurveyService;
+import org.practice.surveymaster.validation.AnswerValidatorCache;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * <p>
+ * 问卷清理服务测试
+ * </p>
+ *
+ * <p>
+ * 以模拟的Mapper验证分批清理：整批删除时停留在当前阶段、不足一整批时进入下一阶段，每批后持久化进度并续租；
+ * 从已持久化的阶段继续清理而不重做之前的阶段；租约被其他实例持有时跳过任务；清理异常时记录错误；
+ * 最后的问卷阶段同时删除热度、列存副本和统计数据，完成后释放租约。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+public class SurveyPurgeServiceImplTest {
+
+    private SurveyPurgeTaskMapper surveyPurgeTaskMapper;
+    private SurveyMapper surveyMapper;
+    private QuestionMapper questionMapper;
+    private OptionMapper optionMapper;
+    private AnswerRepository answerRepository;
+    private AnswerArchiveService answerArchiveService;
+    private HotSurveyService hotSurveyService;
+    private ColumnarAnswerStore columnarAnswerStore;
+    private AnswerValidatorCache answerValidatorCache;
+    private AnswerStatsProjection answerStatsProjection;
+    private SurveyPurgeConfig config;
+    private SurveyPurgeServiceImpl service;
+
+    @BeforeEach
+    public void setUp() {
+        surveyPurgeTaskMapper = mock(SurveyPurgeTaskMapper.class);
+        surveyMapper = mock(SurveyMapper.class);
+        questionMapper = mock(QuestionMapper.class);
+        optionMapper = mock(OptionMapper.class);
+        answerRepository = mock(AnswerRepository.class);
+        answerArchiveService = mock(AnswerArchiveService.class);
+        hotSurveyService = mock(HotSurveyService.class);
+        columnarAnswerStore = mock(ColumnarAnswerStore.class);
+        answerValidatorCache = mock(AnswerValidatorCache.class);
+        answerStatsProjection = mock(AnswerStatsProjection.class);
+        config = new SurveyPurgeConfig();
+        config.setChunkSize(2);
+        config.setChunkPauseMillis(0);
+        service = new SurveyPurgeServiceImpl(surveyPurgeTaskMapper, surveyMapper, questionMapper, optionMapper,
+                answerRepository, answerArchiveService, config, hotSurveyService, columnarAnswerStore,
+                answerValidatorCache, answerStatsProjection);
+    }
+
+    @Test
+    public void testShortChunkAdvancesStage() {
+        config.setMaxChunksPerRun(2);
+        when(optionMapper.deleteBySurveyIdLimit(10L, 2)).thenReturn(2, 1);
+        SurveyPurgeTask task = task(SurveyPurgeTask.STAGE_OPTION);
+
+        service.purge(task);
+
+        // 第一批删满停留在选项阶段，第二批不足一整批进入问题阶段，本轮批次用完后停止
+        assertEquals(SurveyPurgeTask.STAGE_QUESTION, task.getStage());
+        assertEquals(3L, task.getPurgedOptions());
+        assertNotNull(task.getLockedUntil());
+        verify(surveyPurgeTaskMapper, times(2)).updateProgress(task);
+        verify(answerValidatorCache, times(2)).invalidate(10L);
+        verifyNoInteractions(questionMapper, answerRepository, surveyMapper);
+    }
+
+    @Test
+    public void testResumesFromPersistedStage() {
+        when(answerRepository.deleteChunkBySurveyId(10L, 2)).thenReturn(1L);
+        when(answerArchiveService.deleteArchived(10L)).thenReturn(5L);
+        SurveyPurgeTask task = task(SurveyPurgeTask.STAGE_ANSWER);
+        task.setPurgedOptions(4L);
+        task.setPurgedQuestions(3L);
+        task.setPurgedAnswers(10L);
+
+        service.purge(task);
+
+        // 从答案阶段继续，之前的阶段不再重做，计数在已持久化的基础上累加
+        verifyNoInteractions(optionMapper, questionMapper);
+        assertEquals(SurveyPurgeTask.STAGE_DONE, task.getStage());
+        assertEquals(4L, task.getPurgedOptions());
+        assertEquals(3L, task.getPurgedQuestions());
+        assertEquals(16L, task.getPurgedAnswers());
+        verify(surveyPurgeTaskMapper, times(2)).updateProgress(task);
+    }
+
+    @Test
+    public void testFinalStageCleansDerivedData() {
+        SurveyPurgeTask task = task(SurveyPurgeTask.STAGE_SURVEY);
+        task.setLockedUntil(LocalDateTime.now().plusMinutes(1));
+
+        service.purge(task);
+
+        InOrder order = inOrder(surveyMapper, hotSurveyService, columnarAnswerStore, answerStatsProjection,
+                surveyPurgeTaskMapper);
+        order.verify(surveyMapper).deleteById(10L);
+        order.verify(hotSurveyService).remove(10L);
+        order.verify(columnarAnswerStore).drop(10L);
+        order.verify(answerStatsProjection).purge(10L);
+        order.verify(surveyPurgeTaskMapper).updateProgress(task);
+        assertEquals(SurveyPurgeTask.STAGE_DONE, task.getStage());
+        // 完成后释放租约
+        assertNull(task.getLockedUntil());
+    }
+
+    @Test
+    public void testLeaseHeldByOtherInstanceSkipped() {
+        SurveyPurgeTask taken = task(SurveyPurgeTask.STAGE_SURVEY);
+        taken.setId(1L);
+        SurveyPurgeTask free = task(SurveyPurgeTask.STAGE_SURVEY);
+        free.setId(2L);
+        free.setSurveyId(20L);
+        when(surveyPurgeTaskMapper.selectRunnable(any(LocalDateTime.class), eq(config.getMaxTasksPerRun())))
+                .thenReturn(Arrays.asList(taken, free));
+        when(surveyPurgeTaskMapper.tryLock(eq(1L), any(LocalDateTime.class), any(LocalDateTime.class))).thenReturn(0);
+        when(surveyPurgeTaskMapper.tryLock(eq(2L), any(LocalDateTime.class), any(LocalDateTime.class))).thenReturn(1);
+
+        assertEquals(1, service.purgePendingTasks());
+
+        verify(surveyMapper, never()).deleteById(10L);
+        verify(surveyMapper).deleteById(20L);
+        assertEquals(SurveyPurgeTask.STAGE_SURVEY, taken.getStage());
+        assertEquals(SurveyPurgeTask.STAGE_DONE, free.getStage());
+    }
+
+    @Test
+    public void testFailureRecordsError() {
+        SurveyPurgeTask task = task(SurveyPurgeTask.STAGE_QUESTION);
+        task.setId(1L);
+        when(surveyPurgeTaskMapper.selectRunnable(any(LocalDateTime.class), anyInt()))
+                .thenReturn(Collections.singletonList(task));
+        when(surveyPurgeTaskMapper.tryLock(eq(1L), any(LocalDateTime.class), any(LocalDateTime.class))).thenReturn(1);
+        char[] message = new char[600];
+        Arrays.fill(message, 'x');
+        when(questionMapper.deleteBySurveyIdLimit(anyLong(), anyInt())).thenThrow(new IllegalStateException(new String(message)));
+
+        assertEquals(0, service.purgePendingTasks());
+
+        // 阶段与进度保持不变，错误信息截断后保存，租约到期后可重试
+        verify(surveyPurgeTaskMapper).updateError(1L, new String(message, 0, 500));
+        verify(surveyPurgeTaskMapper, never()).updateProgress(any(SurveyPurgeTask.class));
+        assertEquals(SurveyPurgeTask.STAGE_QUESTION, task.getStage());
+    }
+
+    private static SurveyPurgeTask task(String stage) {
+        SurveyPurgeTask task = new SurveyPurgeTask();
+        task.setId(1L);
+        task.setSurveyId(10L);
+        task.setUserId(1L);
+        task.setStage(stage);
+        task.setPurgedOptions(0L);
+        task.setPurgedQuestions(0L);
+        task.setPurgedAnswers(0L);
+        return task;
+    }
+}
@@ -0,0 +1,147 @@
+package org.practice.surveymaster.service.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.practice.surveymaster.cache.SurveyStatusCache;
+import org.practice.surveymaster.cache.UserBatchLoader;
+import org.practice.surveymaster.config.SurveySearchConfig;
+import org.practice.surveymaster.constant.SurveyStatus;
+import org.practice.surveymaster.dto.UpdateSurveyStatus;
+import org.practice.surveymaster.mapper.SurveyMapper;
+import org.practice.surveymaster.mapper.SurveyPurgeTaskMapper;
+import org.practice.surveymaster.mapper.UserMapper;
+import org.practice.surveymaster.model.Survey;
+import org.practice.surveymaster.model.SurveyPurgeTask;
+import org.practice.surveymaster.search.SurveySearchEngine;
+import org.practice.surveymaster.service.HotSurveyService;
+import org.practice.surveymaster.service.OutboxService;
+import org.practice.surveymaster.validation.AnswerValidatorCache;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * <p>
+ * SurveyServiceImpl 缓存失效时机测试
+ * </p>
+ *
+ * <p>
+ * 验证删除问卷和修改问卷状态时，状态缓存与校验器缓存在事务提交后才失效，回滚时不失效；没有事务时立即失效。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+@ExtendWith(MockitoExtension.class)
+class SurveyServiceImplTest {
+
+    @Mock
+    private SurveyMapper surveyMapper;
+
+    @Mock
+    private SurveyPurgeTaskMapper surveyPurgeTaskMapper;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private SurveyStatusCache surveyStatusCache;
+
+    @Mock
+    private AnswerValidatorCache answerValidatorCache;
+
+    private SurveyServiceImpl surveyService;
+
+    @BeforeEach
+    void setUp() {
+        surveyService = new SurveyServiceImpl(surveyMapper, mock(UserMapper.class), surveyPurgeTaskMapper,
+                mock(HotSurveyService.class), outboxService, mock(SurveySearchEngine.class),
+                new SurveySearchConfig(), surveyStatusCache, answerValidatorCache, mock(UserBatchLoader.class));
+        Survey survey = new Survey();
+        survey.setId(10L);
+        survey.setUserId(1L);
+        survey.setStatus(SurveyStatus.PUBLISHED.getCode());
+        when(surveyMapper.selectById(10L)).thenReturn(survey);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testDeleteSurvey_InvalidatedAfterCommit() {
+        when(surveyMapper.markDeleted(10L, 1L)).thenReturn(1);
+        TransactionSynchronizationManager.initSynchronization();
+
+        surveyService.DeleteSurvey(10L, 1L);
+
+        verify(surveyPurgeTaskMapper).insert(any(SurveyPurgeTask.class));
+        verifyNoInteractions(surveyStatusCache, answerValidatorCache);
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+        verify(surveyStatusCache).invalidate(10L);
+        verify(answerValidatorCache).invalidate(10L);
+    }
+
+    @Test
+    void testDeleteSurvey_NotInvalidatedOnRollback() {
+        when(surveyMapper.markDeleted(10L, 1L)).thenReturn(1);
+        TransactionSynchronizationManager.initSynchronization();
+
+        surveyService.DeleteSurvey(10L, 1L);
+
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+        verifyNoInteractions(surveyStatusCache, answerValidatorCache);
+    }
+
+    @Test
+    void testChangeSurveyStatus_InvalidatedAfterCommit() {
+        when(surveyMapper.updateStatus(10L, SurveyStatus.CLOSED.getCode(), 1L)).thenReturn(1);
+        TransactionSynchronizationManager.initSynchronization();
+
+        surveyService.ChangeSurveyStatus(updateStatus(SurveyStatus.CLOSED.getCode()));
+
+        verifyNoInteractions(surveyStatusCache);
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+        verify(surveyStatusCache).invalidate(10L);
+        verify(outboxService).surveyChanged(10L);
+    }
+
+    @Test
+    void testChangeSurveyStatus_WithoutTransactionInvalidatedImmediately() {
+        when(surveyMapper.updateStatus(10L, SurveyStatus.CLOSED.getCode(), 1L)).thenReturn(1);
+
+        surveyService.ChangeSurveyStatus(updateStatus(SurveyStatus.CLOSED.getCode()));
+
+        verify(surveyStatusCache).invalidate(10L);
+    }
+
+    /**
+     * 模拟事务管理器在提交或回滚后回调已登记的同步
+     */
+    private static void complete(int status) {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (status == TransactionSynchronization.STATUS_COMMITTED) {
+                synchronization.afterCommit();
+            }
+            synchronization.afterCompletion(status);
+        }
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    private static UpdateSurveyStatus updateStatus(int status) {
+        UpdateSurveyStatus update = new UpdateSurveyStatus();
+        update.setId(10L);
+        update.setUserId(1L);
+        update.setStatus(status);
+        return update;
+    }
+}
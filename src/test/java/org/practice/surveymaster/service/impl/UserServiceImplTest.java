@@ -0,0 +1,162 @@
+package org.practice.surveymaster.service.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.practice.surveymaster.cache.UserCache;
+import org.practice.surveymaster.cache.UsernameBloomFilter;
+import org.practice.surveymaster.config.JwtConfig;
+import org.practice.surveymaster.config.UserCacheConfig;
+import org.practice.surveymaster.constant.ErrorCode;
+import org.practice.surveymaster.dto.UserRegister;
+import org.practice.surveymaster.exception.BusinessException;
+import org.practice.surveymaster.mapper.UserMapper;
+import org.practice.surveymaster.model.User;
+import org.practice.surveymaster.ratelimit.LoginAttemptGuard;
+import org.practice.surveymaster.security.PasswordHashExecutor;
+import org.practice.surveymaster.security.PasswordManager;
+import org.practice.surveymaster.util.JwtUtil;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * <p>
+ * UserServiceImpl 用户批量查询与注册冲突测试
+ * </p>
+ *
+ * <p>
+ * 验证批量查询优先读取本地缓存，未命中的ID合并为一次IN查询，重复与空ID被忽略，查询结果写回缓存；
+ * 注册时唯一索引冲突按索引名 uk_username / uk_email 精确区分，索引名无法识别时重新查询确认。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+@ExtendWith(MockitoExtension.class)
+class UserServiceImplTest {
+
+    @Mock
+    private UserMapper userMapper;
+
+    @Mock
+    private JwtUtil jwtUtil;
+
+    @Mock
+    private UsernameBloomFilter usernameBloomFilter;
+
+    @Mock
+    private PasswordManager passwordManager;
+
+    @Mock
+    private PasswordHashExecutor passwordHashExecutor;
+
+    @Mock
+    private LoginAttemptGuard loginAttemptGuard;
+
+    private UserCache userCache;
+    private UserServiceImpl userService;
+
+    @BeforeEach
+    void setUp() {
+        userCache = new UserCache(new UserCacheConfig());
+        userService = new UserServiceImpl(userMapper, jwtUtil, new JwtConfig(), userCache, usernameBloomFilter,
+                passwordManager, passwordHashExecutor, loginAttemptGuard);
+    }
+
+    @Test
+    void testFindByIds_MissesLoadedInOneQuery() {
+        userCache.put(user(1L, "alice"));
+        when(userMapper.selectByIds(new LinkedHashSet<>(Arrays.asList(2L, 3L)))).thenReturn(Collections.singletonList(user(2L, "bob")));
+
+        Map<Long, User> users = userService.findByIds(Arrays.asList(1L, 2L, null, 2L, 3L));
+
+        assertEquals(2, users.size());
+        assertEquals("alice", users.get(1L).getUsername());
+        assertEquals("bob", users.get(2L).getUsername());
+        assertNull(users.get(2L).getPassword());
+        verify(userMapper, times(1)).selectByIds(anyCollection());
+        // 查询结果已写回缓存，再次查询不访问数据库
+        assertEquals("bob", userService.findById(2L).getUsername());
+        verify(userMapper, never()).selectById(2L);
+    }
+
+    @Test
+    void testFindByIds_AllCached() {
+        userCache.put(user(1L, "alice"));
+
+        assertEquals(1, userService.findByIds(Collections.singletonList(1L)).size());
+        verifyNoInteractions(userMapper);
+    }
+
+    @Test
+    void testRegister_DuplicateKeyResolvedByIndexName() {
+        hashSynchronously();
+        when(userMapper.insert(any(User.class)))
+                .thenThrow(duplicateKey("Duplicate entry 'a@b.com' for key 'user.uk_email'"))
+                .thenThrow(duplicateKey("Duplicate entry 'alice' for key 'uk_username'"));
+
+        assertEquals(ErrorCode.EMAIL_ALREADY_EXISTS, registerError());
+        verify(usernameBloomFilter, never()).markTaken(anyString());
+        assertEquals(ErrorCode.USER_ALREADY_EXISTS, registerError());
+        verify(usernameBloomFilter).markTaken("alice");
+        verify(userMapper, never()).existsByUsername(anyString());
+    }
+
+    @Test
+    void testRegister_UnknownIndexRequeried() {
+        hashSynchronously();
+        // 索引名中含email但不是uk_email，不能按子串判断
+        when(userMapper.insert(any(User.class)))
+                .thenThrow(duplicateKey("Duplicate entry 'alice' for key 'user.idx_email_username'"));
+        when(userMapper.existsByUsername("alice")).thenReturn(false, false, true);
+        when(userMapper.existsByEmail("a@b.com")).thenReturn(true, false);
+
+        assertEquals(ErrorCode.EMAIL_ALREADY_EXISTS, registerError());
+        assertEquals(ErrorCode.DATA_ALREADY_EXISTS, registerError());
+        assertEquals(ErrorCode.USER_ALREADY_EXISTS, registerError());
+    }
+
+    private void hashSynchronously() {
+        when(passwordManager.hash("Passw0rd!")).thenReturn("hash");
+        when(passwordHashExecutor.submit(any(), any())).thenAnswer(call ->
+                CompletableFuture.completedFuture(((Callable<?>) call.getArgument(1)).call()));
+    }
+
+    private ErrorCode registerError() {
+        UserRegister register = new UserRegister();
+        register.setUsername("alice");
+        register.setPassword("Passw0rd!");
+        register.setEmail("a@b.com");
+        CompletionException exception = assertThrows(CompletionException.class,
+                () -> userService.register(register, "1.1.1.1").join());
+        return ((BusinessException) exception.getCause()).getErrorCode();
+    }
+
+    private static DuplicateKeyException duplicateKey(String message) {
+        return new DuplicateKeyException("insert user", new SQLIntegrityConstraintViolationException(message));
+    }
+
+    private static User user(Long id, String username) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername(username);
+        user.setPassword("hash");
+        return user;
+    }
+}
@@ -0,0 +1,61 @@
+package org.practice.surveymaster.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * <p>
+ * 布隆过滤器测试
+ * </p>
+ *
+ * <p>
+ * 验证已添加元素不会被误判为不存在，以及未添加元素的误判率处于配置值附近。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/11
+ */
+public class BloomFilterTest {
+
+    @Test
+    public void testNoFalseNegatives() {
+        BloomFilter filter = new BloomFilter(10000, 0.01);
+        for (int i = 0; i < 10000; i++) {
+            filter.put("user_" + i);
+        }
+        for (int i = 0; i < 10000; i++) {
+            assertTrue(filter.mightContain("user_" + i));
+        }
+    }
+
+    @Test
+    public void testFalsePositiveRate() {
+        BloomFilter filter = new BloomFilter(10000, 0.01);
+        for (int i = 0; i < 10000; i++) {
+            filter.put("user_" + i);
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 100000; i++) {
+            if (filter.mightContain("other_" + i)) {
+                falsePositives++;
+            }
+        }
+        // 期望误判率1%，留出一定余量
+        assertTrue(falsePositives < 2000, "误判数过高: " + falsePositives);
+    }
+
+    @Test
+    public void testChineseUsername() {
+        BloomFilter filter = new BloomFilter(100, 0.01);
+        filter.put("张三");
+        assertTrue(filter.mightContain("张三"));
+        assertFalse(filter.mightContain("李四"));
+    }
+
+    @Test
+    public void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(0, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(100, 1.5));
+    }
+}
@@ -0,0 +1,86 @@
+package org.practice.surveymaster.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.practice.surveymaster.config.ClientIpConfig;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * <p>
+ * 客户端IP解析测试
+ * </p>
+ *
+ * <p>
+ * 验证只有可信代理转发的请求才读取代理请求头、X-Forwarded-For取最右侧的不可信地址、
+ * 以及CIDR网段与无效地址的处理。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+public class IpUtilTest {
+
+    private IpUtil ipUtil;
+
+    @BeforeEach
+    public void setUp() {
+        ClientIpConfig config = new ClientIpConfig();
+        config.setTrustedProxies(Arrays.asList("127.0.0.1", "::1", "10.0.0.0/8"));
+        ipUtil = new IpUtil(config);
+    }
+
+    @Test
+    public void testUntrustedPeerHeadersIgnored() {
+        MockHttpServletRequest request = request("203.0.113.9", "1.1.1.1");
+        request.addHeader("X-Real-IP", "2.2.2.2");
+        assertEquals("203.0.113.9", ipUtil.getClientIp(request));
+    }
+
+    @Test
+    public void testRightMostUntrustedHop() {
+        // 客户端伪造的最左侧地址被忽略，取最后一个可信代理之前的地址
+        assertEquals("198.51.100.7", ipUtil.getClientIp(request("127.0.0.1", "6.6.6.6, 198.51.100.7, 10.1.2.3")));
+        assertEquals("198.51.100.7", ipUtil.getClientIp(request("0:0:0:0:0:0:0:1", "198.51.100.7")));
+    }
+
+    @Test
+    public void testAllHopsTrusted() {
+        assertEquals("10.0.0.5", ipUtil.getClientIp(request("127.0.0.1", "10.0.0.5, 10.0.0.6")));
+    }
+
+    @Test
+    public void testInvalidHop() {
+        assertEquals("10.0.0.6", ipUtil.getClientIp(request("127.0.0.1", "evil.example.com, 10.0.0.6")));
+        assertEquals("127.0.0.1", ipUtil.getClientIp(request("127.0.0.1", "unknown")));
+    }
+
+    @Test
+    public void testRealIpFromTrustedProxy() {
+        MockHttpServletRequest request = request("10.9.9.9", null);
+        request.addHeader("X-Real-IP", "198.51.100.7");
+        assertEquals("198.51.100.7", ipUtil.getClientIp(request));
+        assertEquals("10.9.9.9", ipUtil.getClientIp(request("10.9.9.9", null)));
+    }
+
+    @Test
+    public void testInvalidConfig() {
+        ClientIpConfig config = new ClientIpConfig();
+        config.setTrustedProxies(Arrays.asList("10.0.0.0/33"));
+        assertThrows(IllegalArgumentException.class, () -> new IpUtil(config));
+        config.setTrustedProxies(Arrays.asList("proxy.internal"));
+        assertThrows(IllegalArgumentException.class, () -> new IpUtil(config));
+    }
+
+    private static MockHttpServletRequest request(String remoteAddr, String forwardedFor) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr(remoteAddr);
+        if (forwardedFor != null) {
+            request.addHeader("X-Forwarded-For", forwardedFor);
+        }
+        return request;
+    }
+}
@@ -0,0 +1,60 @@
+package org.practice.surveymaster.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * <p>
+ * 带过期时间的LRU缓存测试
+ * </p>
+ *
+ * <p>
+ * 验证容量超出时淘汰最久未访问的条目、读取会刷新访问顺序、过期条目在读取时失效，以及ttl小于等于0时永不过期。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+public class LruCacheTest {
+
+    @Test
+    public void testEvictsLeastRecentlyUsed() {
+        LruCache<String, Integer> cache = new LruCache<>(2, 0);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        // 读取a后b成为最久未访问的条目
+        assertEquals(1, cache.get("a"));
+        cache.put("c", 3);
+
+        assertEquals(2, cache.size());
+        assertNull(cache.get("b"));
+        assertEquals(1, cache.get("a"));
+        assertEquals(3, cache.get("c"));
+    }
+
+    @Test
+    public void testExpiredEntryRemovedOnRead() throws InterruptedException {
+        LruCache<String, Integer> cache = new LruCache<>(10, 1);
+        cache.put("a", 1);
+        Thread.sleep(20);
+
+        assertEquals(1, cache.size());
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testRemoveAndClear() {
+        LruCache<String, Integer> cache = new LruCache<>(10, 0);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.put("a", 3);
+        assertEquals(3, cache.get("a"));
+
+        cache.remove("a");
+        assertNull(cache.get("a"));
+        cache.clear();
+        assertEquals(0, cache.size());
+    }
+}
@@ -0,0 +1,128 @@
+package org.practice.surveymaster.validation;
+
+import org.practice.surveymaster.config.AnswerValidationConfig;
+import org.practice.surveymaster.constant.QuestionType;
+import org.practice.surveymaster.model.OptionTable;
+import org.practice.surveymaster.model.Question;
+import org.practice.surveymaster.model.mongo.Answer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * <p>
+ * 答案校验器基准测试（手动运行）
+ * </p>
+ *
+ * <p>
+ * 类名不匹配surefire的测试类命名规则，不会在 {@code mvn test} 中执行，计时结果也不作为断言。
+ * 分别对10/50/200道题的问卷，预热后多轮测量整份答案的校验耗时，输出每份答案与每道题的耗时中位数和P90，
+ * 用于对比校验器改动前后的开销，防止退化为逐题查库或线性扫描。运行方式：
+ * </p>
+ *
+ * <pre>
+ * mvn -B test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp "target/test-classes:target/classes:$(cat target/cp.txt)" \
+ *     org.practice.surveymaster.validation.AnswerValidatorBenchmark [每轮次数，默认20000] [测量轮数，默认10]
+ * </pre>
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+public class AnswerValidatorBenchmark {
+
+    private static final int[] QUESTION_COUNTS = {10, 50, 200};
+    private static final int WARMUP_ROUNDS = 5;
+
+    public static void main(String[] args) {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        System.out.printf("%8s %14s %14s %12s %12s%n", "题目数", "中位数ns/份", "P90 ns/份", "中位数ns/题", "P90 ns/题");
+        for (int questionCount : QUESTION_COUNTS) {
+            run(questionCount, iterations, rounds);
+        }
+    }
+
+    private static void run(int questionCount, int iterations, int rounds) {
+        List<Question> questions = new ArrayList<>();
+        List<OptionTable> options = new ArrayList<>();
+        List<Answer.QuestionAnswer> answers = new ArrayList<>();
+        for (long q = 1; q <= questionCount; q++) {
+            QuestionType type = QuestionType.values()[(int) (q % 4)];
+            questions.add(question(q, type));
+            for (int o = 0; o < 8; o++) {
+                options.add(option(q * 100 + o, q, "选项" + o));
+            }
+            answers.add(answer(q, type));
+        }
+        // 固定种子，多次运行的答案顺序一致
+        Collections.shuffle(answers, new Random(42));
+        AnswerValidator validator = AnswerValidator.compile(questions, options, new AnswerValidationConfig(), 0L);
+
+        int invalid = 0;
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            invalid += measure(validator, answers, iterations)[1];
+        }
+        long[] nanosPerAnswer = new long[rounds];
+        for (int round = 0; round < rounds; round++) {
+            long[] result = measure(validator, answers, iterations);
+            nanosPerAnswer[round] = result[0] / iterations;
+            invalid += result[1];
+        }
+        if (invalid > 0) {
+            throw new IllegalStateException("基准数据应全部合法，实际不合法次数: " + invalid);
+        }
+        Arrays.sort(nanosPerAnswer);
+        long median = nanosPerAnswer[rounds / 2];
+        long p90 = nanosPerAnswer[Math.min(rounds - 1, (int) Math.ceil(rounds * 0.9) - 1)];
+        System.out.printf("%8d %14d %14d %12.1f %12.1f%n", questionCount, median, p90,
+                median / (double) questionCount, p90 / (double) questionCount);
+    }
+
+    /**
+     * @return [总耗时纳秒, 不合法次数]，统计不合法次数避免校验调用被JIT消除
+     */
+    private static long[] measure(AnswerValidator validator, List<Answer.QuestionAnswer> answers, int iterations) {
+        long invalid = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            if (validator.validate(answers) != null) {
+                invalid++;
+            }
+        }
+        return new long[]{System.nanoTime() - start, invalid};
+    }
+
+    private static Answer.QuestionAnswer answer(long questionId, QuestionType type) {
+        switch (type) {
+            case SINGLE_CHOICE:
+                return new Answer.QuestionAnswer(questionId, "选项3");
+            case MULTIPLE_CHOICE:
+                return new Answer.QuestionAnswer(questionId, Arrays.asList("选项1", "选项5", "选项7"));
+            case RATING:
+                return new Answer.QuestionAnswer(questionId, 4);
+            default:
+                return new Answer.QuestionAnswer(questionId, "还不错");
+        }
+    }
+
+    private static Question question(Long id, QuestionType type) {
+        Question question = new Question();
+        question.setId(id);
+        question.setSurveyId(1L);
+        question.setType(type);
+        question.setContent("题目" + id);
+        return question;
+    }
+
+    private static OptionTable option(Long id, Long questionId, String content) {
+        OptionTable option = new OptionTable();
+        option.setId(id);
+        option.setQuestionId(questionId);
+        option.setContent(content);
+        return option;
+    }
+}
@@ -0,0 +1,149 @@
+package org.practice.surveymaster.validation;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.practice.surveymaster.config.AnswerValidationConfig;
+import org.practice.surveymaster.constant.ErrorCode;
+import org.practice.surveymaster.constant.QuestionType;
+import org.practice.surveymaster.model.OptionTable;
+import org.practice.surveymaster.model.Question;
+import org.practice.surveymaster.model.mongo.Answer;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * <p>
+ * 答案校验器测试
+ * </p>
+ *
+ * <p>
+ * 验证各题型的取值约束、未知题目与重复作答，以及多题型大问卷的整份答案校验。
+ * </p>
+ *
+ * @author ljn
+ * @since 2025/10/19
+ */
+public class AnswerValidatorTest {
+
+    private AnswerValidator validator;
+
+    @BeforeEach
+    public void setUp() {
+        List<Question> questions = Arrays.asList(question(3L, QuestionType.RATING), question(1L, QuestionType.SINGLE_CHOICE),
+                question(2L, QuestionType.MULTIPLE_CHOICE), question(4L, QuestionType.TEXT));
+        List<OptionTable> options = Arrays.asList(option(11L, 1L, "男"), option(12L, 1L, "女"),
+                option(21L, 2L, "阅读"), option(22L, 2L, "运动"), option(23L, 2L, "音乐"));
+        AnswerValidationConfig config = new AnswerValidationConfig();
+        config.setRatingMin(1);
+        config.setRatingMax(5);
+        config.setTextMaxLength(10);
+        validator = AnswerValidator.compile(questions, options, config, 0L);
+    }
+
+    @Test
+    public void testValidAnswers() {
+        assertNull(validator.validate(Arrays.asList(new Answer.QuestionAnswer(1L, "男"),
+                new Answer.QuestionAnswer(2L, Arrays.asList("阅读", "音乐")),
+                new Answer.QuestionAnswer(3L, 5),
+                new Answer.QuestionAnswer(4L, "很好"))));
+        assertNull(validator.validate(Arrays.asList(new Answer.QuestionAnswer(3L, 4.5),
+                new Answer.QuestionAnswer(1L, "女"))));
+        assertNull(validator.validate(Collections.singletonList(new Answer.QuestionAnswer(3L, new BigDecimal("1")))));
+        assertNull(validator.validate(Collections.emptyList()));
+    }
+
+    @Test
+    public void testChoiceViolations() {
+        assertInvalid(new Answer.QuestionAnswer(1L, "其他"));
+        assertInvalid(new Answer.QuestionAnswer(1L, Collections.singletonList("男")));
+        assertInvalid(new Answer.QuestionAnswer(1L, "阅读"));
+        assertInvalid(new Answer.QuestionAnswer(2L, "阅读"));
+        assertInvalid(new Answer.QuestionAnswer(2L, Collections.emptyList()));
+        assertInvalid(new Answer.QuestionAnswer(2L, Arrays.asList("阅读", "阅读")));
+        assertInvalid(new Answer.QuestionAnswer(2L, Arrays.asList("阅读", "男")));
+        assertInvalid(new Answer.QuestionAnswer(2L, Arrays.asList("阅读", 21L)));
+    }
+
+    @Test
+    public void testRatingAndTextViolations() {
+        assertInvalid(new Answer.QuestionAnswer(3L, 0));
+        assertInvalid(new Answer.QuestionAnswer(3L, 6L));
+        assertInvalid(new Answer.QuestionAnswer(3L, Double.NaN));
+        assertInvalid(new Answer.QuestionAnswer(3L, "5"));
+        assertInvalid(new Answer.QuestionAnswer(4L, 123));
+        assertInvalid(new Answer.QuestionAnswer(4L, "这段文本超过了十个字的上限"));
+    }
+
+    @Test
+    public void testUnknownAndDuplicateQuestions() {
+        AnswerValidator.Violation unknown = validator.validate(Collections.singletonList(new Answer.QuestionAnswer(9L, "男")));
+        assertEquals(ErrorCode.QUESTION_NOT_FOUND, unknown.getCode());
+        assertEquals(ErrorCode.QUESTION_NOT_FOUND,
+                validator.validate(Collections.singletonList(new Answer.QuestionAnswer(null, "男"))).getCode());
+
+        AnswerValidator.Violation duplicate = validator.validate(Arrays.asList(new Answer.QuestionAnswer(1L, "男"),
+                new Answer.QuestionAnswer(1L, "女")));
+        assertEquals(ErrorCode.INVALID_ANSWER_DATA, duplicate.getCode());
+    }
+
+    @Test
+    public void testLargeSurvey() {
+        // 200道题的问卷，每份答案全部作答
+        List<Question> questions = new ArrayList<>();
+        List<OptionTable> options = new ArrayList<>();
+        List<Answer.QuestionAnswer> answers = new ArrayList<>();
+        for (long q = 1; q <= 200; q++) {
+            QuestionType type = QuestionType.values()[(int) (q % 4)];
+            questions.add(question(q, type));
+            for (int o = 0; o < 8; o++) {
+                options.add(option(q * 100 + o, q, "选项" + o));
+            }
+            if (type == QuestionType.SINGLE_CHOICE) {
+                answers.add(new Answer.QuestionAnswer(q, "选项3"));
+            } else if (type == QuestionType.MULTIPLE_CHOICE) {
+                answers.add(new Answer.QuestionAnswer(q, Arrays.asList("选项1", "选项5", "选项7")));
+            } else if (type == QuestionType.RATING) {
+                answers.add(new Answer.QuestionAnswer(q, 4));
+            } else {
+                answers.add(new Answer.QuestionAnswer(q, "还不错"));
+            }
+        }
+        Collections.shuffle(answers);
+        AnswerValidator large = AnswerValidator.compile(questions, options, new AnswerValidationConfig(), 0L);
+        assertNull(large.validate(answers));
+
+        // 打乱顺序的整份答案中只有一道题不合法，同样能定位出来
+        answers.set(answers.size() / 2, new Answer.QuestionAnswer(answers.get(answers.size() / 2).getQuestionId(),
+                Collections.singletonMap("x", 1)));
+        assertEquals(ErrorCode.INVALID_ANSWER_DATA, large.validate(answers).getCode());
+    }
+
+    private void assertInvalid(Answer.QuestionAnswer answer) {
+        AnswerValidator.Violation violation = validator.validate(Collections.singletonList(answer));
+        assertNotNull(violation, "应判定为不合法: " + answer);
+        assertEquals(ErrorCode.INVALID_ANSWER_DATA, violation.getCode());
+    }
+
+    private static Question question(Long id, QuestionType type) {
+        Question question = new Question();
+        question.setId(id);
+        question.setSurveyId(1L);
+        question.setType(type);
+        question.setContent("题目" + id);
+        return question;
+    }
+
+    private static OptionTable option(Long id, Long questionId, String content) {
+        OptionTable option = new OptionTable();
+        option.setId(id);
+        option.setQuestionId(questionId);
+        option.setContent(content);
+        return option;
+    }
+}